@@ -0,0 +1,82 @@
+package eu.europa.ec.itb.kohesio;
+
+import com.gitb.tr.TAR;
+import eu.europa.ec.itb.kohesio.model.MessageTemplate;
+import eu.europa.ec.itb.kohesio.model.ViolationLevel;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark for the construction of the TAR report from collected findings.
+ *
+ * This is placed in the plugin's package to access PluginInterface.toTAR.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ReportBenchmark {
+
+    private static final MessageTemplate DATE_MESSAGE = new MessageTemplate("The operation start date '%s' must be before the operation end date '%s'.");
+    private static final MessageTemplate LOCATION_MESSAGE = new MessageTemplate("At least one of the location indicator fields [Location_Indicator_Postcode, Location_Indicator_NUTS_code, Location_Indicator_latitude_longitude] must be provided.");
+    private static final MessageTemplate CURRENCY_MESSAGE = new MessageTemplate("The total eligible expenditure exchange rate is required for the provided currency '%s'.");
+
+    @Param({"1000", "50000"})
+    public int findings;
+
+    @Param({"false", "true"})
+    public boolean aggregate;
+
+    private final PluginInterface plugin = new PluginInterface();
+    private ReportCollector collector;
+
+    /**
+     * Collect the findings to report.
+     */
+    @Setup(Level.Trial)
+    public void setUp() {
+        Random random = new Random(1L);
+        collector = new ReportCollector(50000L, aggregate);
+        for (int i = 0; i < findings; i++) {
+            long lineNumber = i + 2L;
+            switch (random.nextInt(3)) {
+                case 0:
+                    String start = String.format("%02d/%02d/%d", 1 + random.nextInt(28), 1 + random.nextInt(12), 2015 + random.nextInt(10));
+                    collector.record(DATE_MESSAGE, "Operation_Start_Date", lineNumber, start, ViolationLevel.ERROR, start, "01/01/2015");
+                    break;
+                case 1:
+                    collector.record(LOCATION_MESSAGE, null, lineNumber, null, ViolationLevel.ERROR);
+                    break;
+                default:
+                    collector.record(CURRENCY_MESSAGE, "Total_Eligible_Expenditure_Exchange_Rate", lineNumber, null, ViolationLevel.ERROR, "PLN");
+                    break;
+            }
+        }
+    }
+
+    /**
+     * Build the report.
+     *
+     * @return The report.
+     */
+    @Benchmark
+    public TAR toTAR() {
+        return plugin.toTAR(collector.getItems(), collector.getCounterErrors(), collector.getCounterWarnings(), collector.getCounterInformationMessages());
+    }
+
+}
@@ -0,0 +1,81 @@
+package eu.europa.ec.itb.kohesio.benchmark;
+
+import com.gitb.core.AnyContent;
+import com.gitb.vs.ValidateRequest;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Utility methods to prepare the input for benchmarks.
+ */
+public final class BenchmarkFiles {
+
+    /**
+     * The seed used for all generated files.
+     */
+    public static final long SEED = 20240501L;
+
+    private BenchmarkFiles() {}
+
+    /**
+     * Generate a temporary CSV file.
+     *
+     * @param size The file's size in bytes.
+     * @param errorDensity The probability of a row violating a rule.
+     * @param delimiter The field delimiter.
+     * @param quote The quote character.
+     * @param bomVariant The BOM variant.
+     * @return The file (to be deleted by the caller).
+     * @throws IOException If the file cannot be written.
+     */
+    public static Path generate(long size, double errorDensity, char delimiter, char quote, KohesioCsvGenerator.BomVariant bomVariant) throws IOException {
+        Path file = Files.createTempFile("kohesio-benchmark-", ".csv");
+        new KohesioCsvGenerator(SEED, errorDensity, delimiter, quote, bomVariant).write(file, size);
+        return file;
+    }
+
+    /**
+     * Create a validation request for the given file.
+     *
+     * @param file The file to validate.
+     * @param delimiter The field delimiter.
+     * @param quote The quote character.
+     * @return The request.
+     */
+    public static ValidateRequest request(Path file, char delimiter, char quote) {
+        ValidateRequest request = new ValidateRequest();
+        request.getInput().add(input("contentToValidate", file.toString()));
+        request.getInput().add(input("delimiter", String.valueOf(delimiter)));
+        request.getInput().add(input("quote", String.valueOf(quote)));
+        return request;
+    }
+
+    /**
+     * Create an input for a validation request.
+     *
+     * @param name The input's name.
+     * @param value The input's value.
+     * @return The input.
+     */
+    public static AnyContent input(String name, String value) {
+        AnyContent input = new AnyContent();
+        input.setName(name);
+        input.setValue(value);
+        return input;
+    }
+
+    /**
+     * Delete a generated file.
+     *
+     * @param file The file (may be null).
+     * @throws IOException If the file cannot be deleted.
+     */
+    public static void delete(Path file) throws IOException {
+        if (file != null) {
+            Files.deleteIfExists(file);
+        }
+    }
+
+}
@@ -0,0 +1,122 @@
+package eu.europa.ec.itb.kohesio.benchmark;
+
+import eu.europa.ec.itb.kohesio.util.BomStrippingReader;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark for the decoding of content through the BomStrippingReader, compared to its previous implementation
+ * (LegacyBomStrippingReader). Content is decoded from memory and from a file (read through a FileChannel by the
+ * current implementation and through a stream by the previous one).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BomStrippingReaderBenchmark {
+
+    @Param({"NONE", "UTF_8", "UTF_16LE"})
+    public KohesioCsvGenerator.BomVariant bomVariant;
+
+    @Param({"16777216"})
+    public long size;
+
+    @Param({"legacy", "current"})
+    public String implementation;
+
+    private byte[] content;
+    private Path file;
+    private final char[] buffer = new char[8192];
+
+    /**
+     * Generate the content to decode.
+     *
+     * @throws IOException If the content cannot be generated.
+     */
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream((int) size + 1024);
+        new KohesioCsvGenerator(BenchmarkFiles.SEED, 0.05, ',', '"', bomVariant).write(out, size);
+        content = out.toByteArray();
+        file = Files.createTempFile("kohesio-benchmark-", ".csv");
+        Files.write(file, content);
+    }
+
+    /**
+     * Delete the generated file.
+     *
+     * @throws IOException If the file cannot be deleted.
+     */
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        BenchmarkFiles.delete(file);
+    }
+
+    /**
+     * Decode the full content from memory.
+     *
+     * @return The number of characters read (and a checksum to avoid dead code elimination).
+     * @throws IOException If the content cannot be read.
+     */
+    @Benchmark
+    public long decode() throws IOException {
+        InputStream in = new ByteArrayInputStream(content);
+        try (Reader reader = "legacy".equals(implementation)?new LegacyBomStrippingReader(in):new BomStrippingReader(in)) {
+            return drain(reader);
+        }
+    }
+
+    /**
+     * Decode the full content from the file.
+     *
+     * @return The number of characters read (and a checksum to avoid dead code elimination).
+     * @throws IOException If the content cannot be read.
+     */
+    @Benchmark
+    public long decodeFile() throws IOException {
+        try (Reader reader = "legacy".equals(implementation)?new LegacyBomStrippingReader(Files.newInputStream(file)):new BomStrippingReader(FileChannel.open(file, StandardOpenOption.READ))) {
+            return drain(reader);
+        }
+    }
+
+    /**
+     * Read all characters from a reader.
+     *
+     * @param reader The reader.
+     * @return The number of characters read (and a checksum to avoid dead code elimination).
+     * @throws IOException If the content cannot be read.
+     */
+    private long drain(Reader reader) throws IOException {
+        long result = 0;
+        int read;
+        while ((read = reader.read(buffer, 0, buffer.length)) != -1) {
+            result += read + buffer[0];
+        }
+        return result;
+    }
+
+}
@@ -0,0 +1,307 @@
+package eu.europa.ec.itb.kohesio.benchmark;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+
+/**
+ * Generator of synthetic Kohesio CSV files for benchmarking.
+ *
+ * Files contain the columns checked by the plugin's rules along with other typical Kohesio columns. Values include
+ * quoted fields with delimiters, escaped quotes and line breaks, as well as non-ASCII text. Each generated row has a
+ * probability (the error density) of violating one of the plugin's rules. Generation is fully determined by the
+ * provided seed so that the same file can be recreated for different runs.
+ */
+public class KohesioCsvGenerator {
+
+    /**
+     * The BOM (and charset) variants to generate.
+     */
+    public enum BomVariant {
+        /** UTF-8 without BOM. */
+        NONE(StandardCharsets.UTF_8, new byte[0]),
+        /** UTF-8 with BOM. */
+        UTF_8(StandardCharsets.UTF_8, new byte[] {(byte) 0xEF, (byte) 0xBB, (byte) 0xBF}),
+        /** UTF-16 little-endian with BOM. */
+        UTF_16LE(StandardCharsets.UTF_16LE, new byte[] {(byte) 0xFF, (byte) 0xFE}),
+        /** UTF-16 big-endian with BOM. */
+        UTF_16BE(StandardCharsets.UTF_16BE, new byte[] {(byte) 0xFE, (byte) 0xFF});
+
+        private final Charset charset;
+        private final byte[] bom;
+
+        BomVariant(Charset charset, byte[] bom) {
+            this.charset = charset;
+            this.bom = bom;
+        }
+
+        /**
+         * @return The charset used to encode the content.
+         */
+        public Charset getCharset() {
+            return charset;
+        }
+
+        /**
+         * @return The BOM bytes written at the start of the file.
+         */
+        public byte[] getBom() {
+            return bom.clone();
+        }
+    }
+
+    private static final List<String> HEADERS = List.of(
+            "Operation_Unique_Identifier",
+            "Operation_Name",
+            "Beneficiary_Name",
+            "Operation_Start_Date",
+            "Operation_End_Date",
+            "Location_Indicator_Postcode",
+            "Location_Indicator_NUTS_code",
+            "Location_Indicator_latitude_longitude",
+            "Country",
+            "Total_Eligible_Expenditure_amount",
+            "Total_Eligible_Expenditure_Currency",
+            "Total_Eligible_Expenditure_Exchange_Rate"
+    );
+    private static final String[] COUNTRIES = {"BE", "DE", "EL", "FR", "IT", "PL", "PT", "RO"};
+    private static final String[] CURRENCIES = {"EUR", "EUR", "EUR", "PLN", "RON", "CZK"};
+    private static final String[] NAME_WORDS = {"Modernisation", "of", "the", "regional", "road", "network", "R\u00e9novation",
+            "\u00e9nerg\u00e9tique", "\u00e9cole", "Ausbau", "Stra\u00dfe", "Wsp\u00f3\u0142praca", "and", "digital", "skills", "for", "SMEs", "C\u00e2mara"};
+
+    private final long seed;
+    private final double errorDensity;
+    private final char delimiter;
+    private final char quote;
+    private final BomVariant bomVariant;
+
+    /**
+     * Constructor.
+     *
+     * @param seed The seed for the random values.
+     * @param errorDensity The probability (0 to 1) of a row violating one of the rules.
+     * @param delimiter The field delimiter.
+     * @param quote The quote character.
+     * @param bomVariant The BOM variant (and charset) to use.
+     */
+    public KohesioCsvGenerator(long seed, double errorDensity, char delimiter, char quote, BomVariant bomVariant) {
+        if (errorDensity < 0 || errorDensity > 1) {
+            throw new IllegalArgumentException("The error density must be between 0 and 1");
+        }
+        if (delimiter == quote) {
+            throw new IllegalArgumentException("The delimiter and quote must differ");
+        }
+        this.seed = seed;
+        this.errorDensity = errorDensity;
+        this.delimiter = delimiter;
+        this.quote = quote;
+        this.bomVariant = bomVariant;
+    }
+
+    /**
+     * Write a file of (at least) the given size.
+     *
+     * @param file The file to write.
+     * @param targetSize The number of bytes after which no more rows are written.
+     * @return The number of data rows written.
+     * @throws IOException If the file cannot be written.
+     */
+    public long write(Path file, long targetSize) throws IOException {
+        try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(file), 1 << 16)) {
+            return write(out, targetSize);
+        }
+    }
+
+    /**
+     * Write content of (at least) the given size.
+     *
+     * @param out The stream to write to.
+     * @param targetSize The number of bytes after which no more rows are written.
+     * @return The number of data rows written.
+     * @throws IOException If the content cannot be written.
+     */
+    public long write(OutputStream out, long targetSize) throws IOException {
+        Random random = new Random(seed);
+        Charset charset = bomVariant.getCharset();
+        byte[] bom = bomVariant.getBom();
+        out.write(bom);
+        long written = bom.length;
+        StringBuilder row = new StringBuilder(512);
+        for (int i = 0; i < HEADERS.size(); i++) {
+            if (i > 0) {
+                row.append(delimiter);
+            }
+            row.append(HEADERS.get(i));
+        }
+        row.append("\r\n");
+        written += writeRow(out, row, charset);
+        long rows = 0;
+        while (written < targetSize) {
+            row.setLength(0);
+            appendRow(row, rows, random);
+            written += writeRow(out, row, charset);
+            rows += 1;
+        }
+        return rows;
+    }
+
+    private int writeRow(OutputStream out, StringBuilder row, Charset charset) throws IOException {
+        byte[] bytes = row.toString().getBytes(charset);
+        out.write(bytes);
+        return bytes.length;
+    }
+
+    private void appendRow(StringBuilder row, long rowIndex, Random random) {
+        // 0: none, 1: dates in the wrong order, 2: no location, 3: missing exchange rate.
+        int violation = (random.nextDouble() < errorDensity)?(1 + random.nextInt(3)):0;
+        String country = COUNTRIES[random.nextInt(COUNTRIES.length)];
+        // Identifier and name.
+        appendField(row, country + "-" + (100000 + rowIndex));
+        row.append(delimiter);
+        appendField(row, randomName(random));
+        row.append(delimiter);
+        appendField(row, (random.nextInt(10) == 0)?(randomName(random) + delimiter + " Ltd."):randomName(random));
+        row.append(delimiter);
+        // Dates.
+        int startYear = 2014 + random.nextInt(8);
+        int endYear = startYear + 1 + random.nextInt(6);
+        if (violation == 1) {
+            int swap = startYear;
+            startYear = endYear;
+            endYear = swap;
+        }
+        appendDate(row, random, startYear);
+        row.append(delimiter);
+        appendDate(row, random, endYear);
+        row.append(delimiter);
+        // Location indicators.
+        if (violation != 2) {
+            int provided = random.nextInt(3);
+            if (provided == 0) {
+                row.append(1000 + random.nextInt(9000));
+            }
+            row.append(delimiter);
+            if (provided != 0 || random.nextBoolean()) {
+                row.append(country).append(1 + random.nextInt(9)).append(1 + random.nextInt(9));
+            }
+            row.append(delimiter);
+            if (provided == 2) {
+                appendField(row, String.format(Locale.ROOT, "%.5f, %.5f", 35 + random.nextDouble() * 30, -10 + random.nextDouble() * 40));
+            }
+        } else {
+            row.append(delimiter).append(delimiter);
+        }
+        row.append(delimiter);
+        row.append(country).append(delimiter);
+        // Expenditure.
+        row.append(10000 + random.nextInt(90000000)).append('.').append(random.nextInt(100)).append(delimiter);
+        String currency = (violation == 3)?"PLN":CURRENCIES[random.nextInt(CURRENCIES.length)];
+        row.append(currency).append(delimiter);
+        if (violation != 3 && !"EUR".equals(currency)) {
+            row.append(1 + random.nextInt(4)).append('.').append(random.nextInt(10000));
+        }
+        row.append("\r\n");
+    }
+
+    private void appendDate(StringBuilder row, Random random, int year) {
+        int day = 1 + random.nextInt(28);
+        int month = 1 + random.nextInt(12);
+        if (day < 10) {
+            row.append('0');
+        }
+        row.append(day).append('/');
+        if (month < 10) {
+            row.append('0');
+        }
+        row.append(month).append('/').append(year);
+    }
+
+    private String randomName(Random random) {
+        StringBuilder name = new StringBuilder(64);
+        int words = 2 + random.nextInt(8);
+        for (int i = 0; i < words; i++) {
+            if (i > 0) {
+                name.append(' ');
+            }
+            name.append(NAME_WORDS[random.nextInt(NAME_WORDS.length)]);
+        }
+        int special = random.nextInt(50);
+        if (special == 0) {
+            name.append(" (").append(quote).append("phase II").append(quote).append(')');
+        } else if (special == 1) {
+            name.append("\nsecond line");
+        }
+        return name.toString();
+    }
+
+    private void appendField(StringBuilder row, String value) {
+        if (value.indexOf(delimiter) >= 0 || value.indexOf(quote) >= 0 || value.indexOf('\n') >= 0 || value.indexOf('\r') >= 0) {
+            row.append(quote);
+            for (int i = 0; i < value.length(); i++) {
+                char c = value.charAt(i);
+                if (c == quote) {
+                    row.append(quote);
+                }
+                row.append(c);
+            }
+            row.append(quote);
+        } else {
+            row.append(value);
+        }
+    }
+
+    /**
+     * Generate a file from the command line.
+     *
+     * Arguments: file size [errorDensity] [delimiter] [quote] [bomVariant] [seed], where the size is in bytes and
+     * can be suffixed with KB, MB or GB.
+     *
+     * @param args The command line arguments.
+     * @throws IOException If the file cannot be written.
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("Usage: KohesioCsvGenerator <file> <size[KB|MB|GB]> [errorDensity=0.05] [delimiter=,] [quote=\"] [NONE|UTF_8|UTF_16LE|UTF_16BE] [seed=1]");
+            System.exit(1);
+        }
+        Path file = Path.of(args[0]);
+        long size = parseSize(args[1]);
+        double errorDensity = (args.length > 2)?Double.parseDouble(args[2]):0.05;
+        char delimiter = (args.length > 3)?args[3].charAt(0):',';
+        char quote = (args.length > 4)?args[4].charAt(0):'"';
+        BomVariant bomVariant = (args.length > 5)?BomVariant.valueOf(args[5]):BomVariant.NONE;
+        long seed = (args.length > 6)?Long.parseLong(args[6]):1L;
+        long rows = new KohesioCsvGenerator(seed, errorDensity, delimiter, quote, bomVariant).write(file, size);
+        System.out.printf("Wrote %d rows (%d bytes) to %s%n", rows, Files.size(file), file);
+    }
+
+    /**
+     * Parse a size expressed in bytes, optionally suffixed with KB, MB or GB.
+     *
+     * @param size The size.
+     * @return The number of bytes.
+     */
+    static long parseSize(String size) {
+        String value = size.trim().toUpperCase();
+        long multiplier = 1L;
+        if (value.endsWith("KB")) {
+            multiplier = 1024L;
+        } else if (value.endsWith("MB")) {
+            multiplier = 1024L * 1024;
+        } else if (value.endsWith("GB")) {
+            multiplier = 1024L * 1024 * 1024;
+        }
+        if (multiplier > 1) {
+            value = value.substring(0, value.length() - 2);
+        }
+        return Long.parseLong(value.trim()) * multiplier;
+    }
+
+}
@@ -0,0 +1,212 @@
+package eu.europa.ec.itb.kohesio.benchmark;
+
+import com.gitb.tr.BAR;
+import com.gitb.tr.TAR;
+import com.gitb.vs.ValidateRequest;
+import eu.europa.ec.itb.kohesio.PluginInterface;
+
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Load test running concurrent validations against a single PluginInterface instance.
+ *
+ * Each generated file is first validated on its own to produce its reference report. All validations are then
+ * submitted at once to a pool of threads, reporting the aggregate throughput, the p50/p99 latencies (overall and per
+ * file size) and the allocation rate, and checking that each report is identical to the file's reference report.
+ * Latencies include any time spent waiting for the plugin's ValidationLimiter (configured through its system
+ * properties). The allocation rate covers the threads alive at the end of the run, so that allocations of pool threads
+ * that terminated during the run are not included.
+ */
+public final class LoadHarness {
+
+    private LoadHarness() {}
+
+    /**
+     * Run the load test from the command line.
+     *
+     * Arguments: concurrency validations sizes [errorDensity], where sizes is a comma-separated list of file sizes
+     * (as for KohesioCsvGenerator) that validations are spread over in turn.
+     *
+     * @param args The command line arguments.
+     * @throws Exception If the files cannot be generated or a validation fails.
+     */
+    public static void main(String[] args) throws Exception {
+        if (args.length < 3) {
+            System.err.println("Usage: LoadHarness <concurrency> <validations> <size[KB|MB|GB],...> [errorDensity=0.05]");
+            System.exit(1);
+        }
+        int concurrency = Integer.parseInt(args[0]);
+        int validations = Integer.parseInt(args[1]);
+        long[] sizes = Arrays.stream(args[2].split(",")).mapToLong(KohesioCsvGenerator::parseSize).toArray();
+        double errorDensity = (args.length > 3)?Double.parseDouble(args[3]):0.05;
+        List<Path> files = new ArrayList<>(sizes.length);
+        try {
+            for (long size: sizes) {
+                files.add(BenchmarkFiles.generate(size, errorDensity, ',', '"', KohesioCsvGenerator.BomVariant.NONE));
+            }
+            int mismatches = run(new PluginInterface(), files, concurrency, validations);
+            if (mismatches > 0) {
+                System.err.printf("%d reports differ from the sequential run%n", mismatches);
+                System.exit(2);
+            }
+        } finally {
+            for (Path file: files) {
+                BenchmarkFiles.delete(file);
+            }
+        }
+    }
+
+    /**
+     * Run the load test.
+     *
+     * @param plugin The plugin instance shared by all validations.
+     * @param files The files to validate (validation i validating file i modulo the number of files).
+     * @param concurrency The number of validations to run concurrently.
+     * @param validations The total number of validations.
+     * @return The number of reports that differ from the files' reference reports.
+     * @throws Exception If a validation fails.
+     */
+    public static int run(PluginInterface plugin, List<Path> files, int concurrency, int validations) throws Exception {
+        List<ValidateRequest> requests = new ArrayList<>(files.size());
+        List<String> references = new ArrayList<>(files.size());
+        long[] fileSizes = new long[files.size()];
+        for (int i = 0; i < files.size(); i++) {
+            requests.add(BenchmarkFiles.request(files.get(i), ',', '"'));
+            references.add(fingerprint(plugin.validate(requests.get(i)).getReport()));
+            fileSizes[i] = Files.size(files.get(i));
+        }
+        long[] latencies = new long[validations];
+        int mismatches = 0;
+        long totalBytes = 0L;
+        ExecutorService executor = Executors.newFixedThreadPool(concurrency);
+        try {
+            long allocatedStart = getAllocatedBytes();
+            long start = System.nanoTime();
+            List<Future<String>> results = new ArrayList<>(validations);
+            for (int i = 0; i < validations; i++) {
+                int index = i;
+                ValidateRequest request = requests.get(i % files.size());
+                results.add(executor.submit(() -> {
+                    long validationStart = System.nanoTime();
+                    TAR report = plugin.validate(request).getReport();
+                    latencies[index] = System.nanoTime() - validationStart;
+                    return fingerprint(report);
+                }));
+            }
+            for (int i = 0; i < validations; i++) {
+                try {
+                    if (!results.get(i).get().equals(references.get(i % files.size()))) {
+                        mismatches += 1;
+                    }
+                } catch (ExecutionException e) {
+                    throw new IllegalStateException(String.format("Validation %d failed", i), e.getCause());
+                }
+                totalBytes += fileSizes[i % files.size()];
+            }
+            long elapsed = System.nanoTime() - start;
+            long allocated = getAllocatedBytes() - allocatedStart;
+            double seconds = elapsed / 1e9;
+            System.out.printf("Validations: %d (concurrency %d, %d processors)%n", validations, concurrency, Runtime.getRuntime().availableProcessors());
+            System.out.printf("Elapsed: %.3f s%n", seconds);
+            System.out.printf("Throughput: %.2f validations/s, %.2f MB/s%n", validations / seconds, totalBytes / seconds / (1024 * 1024));
+            System.out.printf("Latency (all): %s%n", describeLatencies(latencies.clone()));
+            Map<Long, List<Long>> latenciesPerSize = new LinkedHashMap<>();
+            for (int i = 0; i < validations; i++) {
+                latenciesPerSize.computeIfAbsent(fileSizes[i % files.size()], (size) -> new ArrayList<>()).add(latencies[i]);
+            }
+            if (latenciesPerSize.size() > 1) {
+                for (Map.Entry<Long, List<Long>> entry: latenciesPerSize.entrySet()) {
+                    System.out.printf("Latency (%d bytes): %s%n", entry.getKey(), describeLatencies(entry.getValue().stream().mapToLong(Long::longValue).toArray()));
+                }
+            }
+            if (allocated >= 0) {
+                System.out.printf("Allocation rate: %.2f MB/s (%.2f MB per validation)%n", allocated / seconds / (1024 * 1024), (double) allocated / validations / (1024 * 1024));
+            }
+            System.out.printf("Reports differing from the sequential run: %d%n", mismatches);
+        } finally {
+            executor.shutdown();
+            executor.awaitTermination(1, TimeUnit.MINUTES);
+        }
+        return mismatches;
+    }
+
+    /**
+     * Describe latencies by their percentiles.
+     *
+     * @param latencies The latencies in nanoseconds (sorted by this method).
+     * @return The description.
+     */
+    private static String describeLatencies(long[] latencies) {
+        Arrays.sort(latencies);
+        return String.format("p50 %.1f ms, p99 %.1f ms, max %.1f ms", percentile(latencies, 0.5) / 1e6, percentile(latencies, 0.99) / 1e6, latencies[latencies.length - 1] / 1e6);
+    }
+
+    /**
+     * Get a percentile (nearest rank) of sorted values.
+     *
+     * @param sortedValues The sorted values.
+     * @param percentile The percentile (between 0 and 1).
+     * @return The value.
+     */
+    private static long percentile(long[] sortedValues, double percentile) {
+        int rank = (int) Math.ceil(percentile * sortedValues.length);
+        return sortedValues[Math.max(0, rank - 1)];
+    }
+
+    /**
+     * Summarise a report's content (excluding its date) for comparison.
+     *
+     * @param report The report.
+     * @return The summary.
+     */
+    private static String fingerprint(TAR report) {
+        StringBuilder builder = new StringBuilder();
+        builder.append(report.getResult()).append('|')
+                .append(report.getCounters().getNrOfErrors()).append('|')
+                .append(report.getCounters().getNrOfWarnings()).append('|')
+                .append(report.getCounters().getNrOfAssertions()).append('\n');
+        for (var element: report.getReports().getInfoOrWarningOrError()) {
+            BAR item = (BAR) element.getValue();
+            builder.append(element.getName().getLocalPart()).append('|')
+                    .append(item.getDescription()).append('|')
+                    .append(item.getLocation()).append('|')
+                    .append(item.getValue()).append('\n');
+        }
+        return builder.toString();
+    }
+
+    /**
+     * Get the bytes allocated by all live threads so far.
+     *
+     * @return The number of bytes (-1 if not supported by the JVM).
+     */
+    private static long getAllocatedBytes() {
+        if (!(ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean)) {
+            return -1L;
+        }
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        if (!threads.isThreadAllocatedMemorySupported() || !threads.isThreadAllocatedMemoryEnabled()) {
+            return -1L;
+        }
+        long total = 0L;
+        for (long allocated: threads.getThreadAllocatedBytes(threads.getAllThreadIds())) {
+            if (allocated > 0) {
+                total += allocated;
+            }
+        }
+        return total;
+    }
+
+}
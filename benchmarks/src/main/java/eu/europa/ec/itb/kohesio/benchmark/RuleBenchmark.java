@@ -0,0 +1,136 @@
+package eu.europa.ec.itb.kohesio.benchmark;
+
+import eu.europa.ec.itb.kohesio.ViolationReporter;
+import eu.europa.ec.itb.kohesio.model.CsvRecordView;
+import eu.europa.ec.itb.kohesio.model.MessageTemplate;
+import eu.europa.ec.itb.kohesio.model.ViolationLevel;
+import eu.europa.ec.itb.kohesio.rules.AtLeastOneRule;
+import eu.europa.ec.itb.kohesio.rules.BatchEvaluator;
+import eu.europa.ec.itb.kohesio.rules.DateOrderRule;
+import eu.europa.ec.itb.kohesio.rules.LocationIndicatorRule;
+import eu.europa.ec.itb.kohesio.rules.OperationDateRule;
+import eu.europa.ec.itb.kohesio.rules.RequiredUnlessInRule;
+import eu.europa.ec.itb.kohesio.rules.Rule;
+import eu.europa.ec.itb.kohesio.rules.RulePlan;
+import eu.europa.ec.itb.kohesio.rules.TotalEligibleExpenditureRule;
+import org.apache.commons.csv.CSVFormat;
+import org.apache.commons.csv.CSVParser;
+import org.apache.commons.csv.CSVRecord;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark for the evaluation of each rule over pre-parsed records (parsing is excluded from the measurement).
+ *
+ * Rules are evaluated either per record or in batches of records held column by column (in which case loading the
+ * batches' columns from the records is included in the measurement).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RuleBenchmark {
+
+    private static final int RECORDS = 100_000;
+    private static final int BATCH_SIZE = 4096;
+
+    // The declared rule types (see RuleDefinitions) are configured to match the corresponding built-in rules.
+    @Param({"OperationDateRule", "LocationIndicatorRule", "TotalEligibleExpenditureRule", "DateOrderRule", "AtLeastOneRule", "RequiredUnlessInRule"})
+    public String rule;
+
+    @Param({"0.05", "0.5"})
+    public double errorDensity;
+
+    @Param({"row", "batch"})
+    public String evaluation;
+
+    private CSVRecord[] records;
+    private RulePlan plan;
+    private final CsvRecordView view = new CsvRecordView();
+
+    /**
+     * Generate and parse the records, and bind the rule to their header.
+     *
+     * @throws IOException If the records cannot be generated.
+     */
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        // Rows are roughly 250 bytes long so this produces more than the needed records.
+        new KohesioCsvGenerator(BenchmarkFiles.SEED, errorDensity, ',', '"', KohesioCsvGenerator.BomVariant.NONE).write(out, RECORDS * 400L);
+        CSVFormat format = CSVFormat.RFC4180.builder().setAllowDuplicateHeaderNames(true).setIgnoreSurroundingSpaces(true).setHeader().setSkipHeaderRecord(true).build();
+        try (CSVParser parser = CSVParser.parse(new StringReader(out.toString(StandardCharsets.UTF_8)), format)) {
+            List<CSVRecord> allRecords = parser.getRecords();
+            if (allRecords.size() < RECORDS) {
+                throw new IllegalStateException("Not enough records generated");
+            }
+            records = allRecords.subList(0, RECORDS).toArray(new CSVRecord[0]);
+            plan = RulePlan.compile(new Rule[] {createRule(rule)}, parser);
+            if (plan.isEmpty()) {
+                throw new IllegalStateException("Rule not applicable");
+            }
+        }
+    }
+
+    /**
+     * Validate all records with the rule.
+     *
+     * @param blackhole The blackhole to consume findings.
+     */
+    @Benchmark
+    @OperationsPerInvocation(RECORDS)
+    public void validate(Blackhole blackhole) {
+        ViolationReporter reporter = (template, fieldName, lineNumber, value, violationLevel, arguments) -> blackhole.consume(arguments);
+        if ("batch".equals(evaluation)) {
+            BatchEvaluator evaluator = plan.createBatchEvaluator(BATCH_SIZE, reporter, null);
+            for (int i = 0; i < records.length; i++) {
+                view.setRecord(records[i]);
+                evaluator.add(view, i + 2L);
+            }
+            evaluator.flush();
+        } else {
+            for (int i = 0; i < records.length; i++) {
+                view.setRecord(records[i]);
+                plan.validate(view, i + 2L, reporter);
+            }
+        }
+    }
+
+    private static Rule createRule(String name) {
+        switch (name) {
+            case "OperationDateRule": return new OperationDateRule();
+            case "LocationIndicatorRule": return new LocationIndicatorRule();
+            case "TotalEligibleExpenditureRule": return new TotalEligibleExpenditureRule();
+            case "DateOrderRule": return new DateOrderRule("dates", "Operation_Start_Date", "Operation_End_Date",
+                    new MessageTemplate("The operation start date '%s' must be before the operation end date '%s'."), ViolationLevel.ERROR);
+            case "AtLeastOneRule": return new AtLeastOneRule("location", List.of("Location_Indicator_Postcode", "Location_Indicator_NUTS_code", "Location_Indicator_latitude_longitude"),
+                    new MessageTemplate("At least one of the location indicator fields must be provided."), ViolationLevel.ERROR);
+            case "RequiredUnlessInRule": return new RequiredUnlessInRule("rate", "Total_Eligible_Expenditure_Exchange_Rate", "Total_Eligible_Expenditure_Currency", Set.of("EUR"),
+                    new MessageTemplate("The total eligible expenditure exchange rate is required for the provided currency '%s'."), ViolationLevel.ERROR);
+            default: throw new IllegalArgumentException("Unknown rule " + name);
+        }
+    }
+
+}
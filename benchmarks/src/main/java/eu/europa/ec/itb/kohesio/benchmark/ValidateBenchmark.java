@@ -0,0 +1,87 @@
+package eu.europa.ec.itb.kohesio.benchmark;
+
+import com.gitb.tr.TAR;
+import com.gitb.vs.ValidateRequest;
+import eu.europa.ec.itb.kohesio.PluginInterface;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * End-to-end benchmark of PluginInterface.validate over generated files.
+ *
+ * The "size" parameter is in bytes.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class ValidateBenchmark {
+
+    @Param({"1048576", "67108864"})
+    public long size;
+
+    @Param({"0.05"})
+    public double errorDensity;
+
+    @Param({","})
+    public char delimiter;
+
+    @Param({"\""})
+    public char quote;
+
+    @Param({"NONE"})
+    public KohesioCsvGenerator.BomVariant bomVariant;
+
+    private Path file;
+    private ValidateRequest request;
+    private final PluginInterface plugin = new PluginInterface();
+
+    /**
+     * Generate the file to validate.
+     *
+     * @throws IOException If the file cannot be written.
+     */
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        file = BenchmarkFiles.generate(size, errorDensity, delimiter, quote, bomVariant);
+        request = BenchmarkFiles.request(file, delimiter, quote);
+    }
+
+    /**
+     * Delete the generated file.
+     *
+     * @throws IOException If the file cannot be deleted.
+     */
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        BenchmarkFiles.delete(file);
+    }
+
+    /**
+     * Validate the file.
+     *
+     * @return The report.
+     */
+    @Benchmark
+    public TAR validate() {
+        return plugin.validate(request).getReport();
+    }
+
+}
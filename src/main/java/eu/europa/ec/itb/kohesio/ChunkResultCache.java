@@ -0,0 +1,303 @@
+package eu.europa.ec.itb.kohesio;
+
+import eu.europa.ec.itb.kohesio.model.MessageTemplate;
+import eu.europa.ec.itb.kohesio.model.ReportContent;
+import eu.europa.ec.itb.kohesio.model.ViolationLevel;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * On-disk cache of the validation results of file chunks.
+ *
+ * Results are stored per chunk key (a hash of the chunk's content and of everything else that affects its results)
+ * with line numbers relative to the chunk's start, so that they can be reused wherever the same chunk appears in a
+ * later submission. Each entry holds the chunk's exact counters and its retained findings (with rendered messages
+ * stored once per distinct text), compressed with GZIP.
+ *
+ * The cache's total size is bounded by evicting the least recently used entries. Recency is also reflected in the
+ * entries' file modification times so that it is preserved across restarts. Instances are shared per directory and
+ * are thread-safe. Any problem reading or writing entries is treated as a cache miss so that validation is never
+ * affected.
+ *
+ * The cache is only used by parallel validation, and so only for uncompressed UTF-8 files of 16MB or more with
+ * delimiter and quote characters supported by the RecordBoundaryScanner. It is not used when a row or error budget
+ * applies, nor when findings are aggregated or spilled. It is however used on a single processor. Results of chunks
+ * stopped early by the time budget are not cached.
+ */
+public class ChunkResultCache {
+
+    /**
+     * System property for the cache directory (the cache is disabled if not set).
+     */
+    public static final String PROPERTY__DIRECTORY = "kohesio.cache.directory";
+    /**
+     * System property for the cache's maximum size in bytes.
+     */
+    public static final String PROPERTY__MAXIMUM_SIZE = "kohesio.cache.maximumSize";
+
+    private static final long DEFAULT_MAXIMUM_SIZE = 1024L * 1024 * 1024;
+    private static final String ENTRY_SUFFIX = ".chunk";
+    private static final String TEMPORARY_SUFFIX = ".tmp";
+    private static final int FORMAT_VERSION = 1;
+    private static final ViolationLevel[] LEVELS = ViolationLevel.values();
+    private static final Map<Path, ChunkResultCache> CACHES = new ConcurrentHashMap<>();
+
+    private final Path directory;
+    private final long maximumSize;
+    // Entry sizes in access order (least recently used first).
+    private final LinkedHashMap<String, Long> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long totalSize = 0L;
+
+    /**
+     * Constructor.
+     *
+     * @param directory The cache directory.
+     * @param maximumSize The maximum total size of cached entries in bytes.
+     * @throws IOException If the directory cannot be read.
+     */
+    private ChunkResultCache(Path directory, long maximumSize) throws IOException {
+        this.directory = directory;
+        this.maximumSize = maximumSize;
+        Files.createDirectories(directory);
+        List<Path> entryFiles = new ArrayList<>();
+        Map<Path, BasicFileAttributes> attributes = new LinkedHashMap<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory)) {
+            for (Path file: files) {
+                String fileName = file.getFileName().toString();
+                if (fileName.endsWith(TEMPORARY_SUFFIX)) {
+                    // Leftover from an interrupted write.
+                    Files.deleteIfExists(file);
+                } else if (fileName.endsWith(ENTRY_SUFFIX)) {
+                    entryFiles.add(file);
+                    attributes.put(file, Files.readAttributes(file, BasicFileAttributes.class));
+                }
+            }
+        }
+        entryFiles.sort(Comparator.comparing((Path file) -> attributes.get(file).lastModifiedTime()));
+        for (Path file: entryFiles) {
+            String fileName = file.getFileName().toString();
+            long size = attributes.get(file).size();
+            entries.put(fileName.substring(0, fileName.length() - ENTRY_SUFFIX.length()), size);
+            totalSize += size;
+        }
+        evict();
+    }
+
+    /**
+     * Get the cache configured through system properties.
+     *
+     * @return The cache (empty if not configured or if the cache directory is not usable).
+     */
+    public static Optional<ChunkResultCache> fromSystemProperties() {
+        String directoryPath = System.getProperty(PROPERTY__DIRECTORY);
+        if (directoryPath == null || directoryPath.isBlank()) {
+            return Optional.empty();
+        }
+        long maximumSize = Long.getLong(PROPERTY__MAXIMUM_SIZE, DEFAULT_MAXIMUM_SIZE);
+        try {
+            return Optional.of(CACHES.computeIfAbsent(Path.of(directoryPath).toAbsolutePath().normalize(), (directory) -> {
+                try {
+                    return new ChunkResultCache(directory, maximumSize);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }));
+        } catch (UncheckedIOException e) {
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Get the cached results for a chunk.
+     *
+     * @param key The chunk's key.
+     * @param lineNumberOffset The offset to add to the cached (relative) line numbers.
+     * @param maximumItems The maximum number of items to retain in the returned collector (if zero, only the
+     *                     counters are read).
+     * @return The results (empty if not cached).
+     */
+    public Optional<ReportCollector> get(String key, long lineNumberOffset, long maximumItems) {
+        synchronized (this) {
+            if (entries.get(key) == null) {
+                return Optional.empty();
+            }
+        }
+        Path file = directory.resolve(key + ENTRY_SUFFIX);
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new GZIPInputStream(Files.newInputStream(file), 1 << 16), 1 << 16))) {
+            if (in.readInt() != FORMAT_VERSION) {
+                return Optional.empty();
+            }
+            long counterErrors = in.readLong();
+            long counterWarnings = in.readLong();
+            long counterInformationMessages = in.readLong();
+            ReportCollector collector = new ReportCollector(maximumItems);
+            int items = (maximumItems > 0)?in.readInt():0;
+            List<String> strings = new ArrayList<>();
+            for (int i = 0; i < items && !collector.isFull(); i++) {
+                long lineNumber = in.readLong() + lineNumberOffset;
+                ViolationLevel level = LEVELS[in.readByte()];
+                String fieldName = readString(in, strings);
+                String value = readString(in, strings);
+                String message = readString(in, strings);
+                collector.record(MessageTemplate.RAW, fieldName, lineNumber, value, level, message);
+            }
+            // Add the findings that were counted but not retained.
+            collector.count(ViolationLevel.ERROR, counterErrors - collector.getCounterErrors());
+            collector.count(ViolationLevel.WARNING, counterWarnings - collector.getCounterWarnings());
+            collector.count(ViolationLevel.INFO, counterInformationMessages - collector.getCounterInformationMessages());
+            Files.setLastModifiedTime(file, FileTime.fromMillis(System.currentTimeMillis()));
+            return Optional.of(collector);
+        } catch (IOException | RuntimeException e) {
+            // Treat a missing (e.g. concurrently evicted) or corrupt entry as a miss.
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Store the results for a chunk.
+     *
+     * The collector must have retained all findings that could be reported for the chunk (i.e. it must not have been
+     * limited because of other chunks).
+     *
+     * @param key The chunk's key.
+     * @param results The chunk's results.
+     * @param lineNumberOffset The offset to subtract from the results' line numbers to make them relative.
+     */
+    public void put(String key, ReportCollector results, long lineNumberOffset) {
+        Path temporaryFile = directory.resolve(key + "-" + UUID.randomUUID() + TEMPORARY_SUFFIX);
+        long size;
+        try {
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new GZIPOutputStream(Files.newOutputStream(temporaryFile), 1 << 16) {
+                {
+                    // Favour speed as entries are written while validating.
+                    def.setLevel(Deflater.BEST_SPEED);
+                }
+            }, 1 << 16))) {
+                out.writeInt(FORMAT_VERSION);
+                out.writeLong(results.getCounterErrors());
+                out.writeLong(results.getCounterWarnings());
+                out.writeLong(results.getCounterInformationMessages());
+                ReportContent items = results.getItems();
+                out.writeInt(items.size());
+                StringBuilder message = new StringBuilder(256);
+                Map<String, Integer> strings = new HashMap<>();
+                for (int i = 0; i < items.size(); i++) {
+                    out.writeLong(items.getLineNumber(i) - lineNumberOffset);
+                    out.writeByte(items.getViolationLevel(i).ordinal());
+                    writeString(out, items.getFieldName(i), strings);
+                    writeString(out, items.getValue(i), strings);
+                    message.setLength(0);
+                    items.appendMessage(i, message);
+                    writeString(out, message.toString(), strings);
+                }
+            }
+            size = Files.size(temporaryFile);
+            Files.move(temporaryFile, directory.resolve(key + ENTRY_SUFFIX), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            try {
+                Files.deleteIfExists(temporaryFile);
+            } catch (IOException ex) {
+                // Ignore.
+            }
+            return;
+        }
+        synchronized (this) {
+            Long previousSize = entries.put(key, size);
+            totalSize += size - ((previousSize == null)?0L:previousSize);
+            evict();
+        }
+    }
+
+    /**
+     * Remove the least recently used entries until the cache is within its maximum size.
+     */
+    private synchronized void evict() {
+        Iterator<Map.Entry<String, Long>> iterator = entries.entrySet().iterator();
+        while (totalSize > maximumSize && iterator.hasNext()) {
+            Map.Entry<String, Long> entry = iterator.next();
+            try {
+                Files.deleteIfExists(directory.resolve(entry.getKey() + ENTRY_SUFFIX));
+            } catch (IOException e) {
+                // The file will be reconsidered for eviction when the cache is next loaded.
+            }
+            totalSize -= entry.getValue();
+            iterator.remove();
+        }
+    }
+
+    /**
+     * Write a (nullable) string.
+     *
+     * Strings are written as their index in the table of already written strings, followed by the string's bytes
+     * for strings not yet in the table.
+     *
+     * @param out The stream to write to.
+     * @param value The string.
+     * @param strings The table of already written strings (updated by this method).
+     * @throws IOException If the string cannot be written.
+     */
+    private static void writeString(DataOutputStream out, String value, Map<String, Integer> strings) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+        } else {
+            Integer index = strings.get(value);
+            if (index != null) {
+                out.writeInt(index);
+            } else {
+                out.writeInt(strings.size());
+                strings.put(value, strings.size());
+                byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+                out.writeInt(bytes.length);
+                out.write(bytes);
+            }
+        }
+    }
+
+    /**
+     * Read a (nullable) string.
+     *
+     * @param in The stream to read from.
+     * @param strings The table of already read strings (updated by this method).
+     * @return The string.
+     * @throws IOException If the string cannot be read.
+     */
+    private static String readString(DataInputStream in, List<String> strings) throws IOException {
+        int index = in.readInt();
+        if (index < 0) {
+            return null;
+        } else if (index < strings.size()) {
+            return strings.get(index);
+        }
+        byte[] bytes = new byte[in.readInt()];
+        in.readFully(bytes);
+        String value = new String(bytes, StandardCharsets.UTF_8);
+        strings.add(value);
+        return value;
+    }
+
+}
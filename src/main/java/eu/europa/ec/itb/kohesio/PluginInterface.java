@@ -1,130 +1,1035 @@
 package eu.europa.ec.itb.kohesio;
 
 import com.gitb.core.AnyContent;
+import com.gitb.core.ValueEmbeddingEnumeration;
 import com.gitb.core.ValidationModule;
 import com.gitb.tr.ObjectFactory;
 import com.gitb.tr.*;
 import com.gitb.vs.Void;
 import com.gitb.vs.*;
-import eu.europa.ec.itb.kohesio.model.ReportItem;
-import eu.europa.ec.itb.kohesio.model.ViolationLevel;
+import eu.europa.ec.itb.kohesio.model.FileChunk;
+import eu.europa.ec.itb.kohesio.metrics.RuleEvaluationEvent;
+import eu.europa.ec.itb.kohesio.metrics.ValidationEvent;
+import eu.europa.ec.itb.kohesio.metrics.ValidationMetrics;
+import eu.europa.ec.itb.kohesio.model.ReportContent;
+import eu.europa.ec.itb.kohesio.rules.BatchEvaluator;
+import eu.europa.ec.itb.kohesio.rules.DuplicateOperationRule;
 import eu.europa.ec.itb.kohesio.rules.LocationIndicatorRule;
 import eu.europa.ec.itb.kohesio.rules.OperationDateRule;
 import eu.europa.ec.itb.kohesio.rules.Rule;
+import eu.europa.ec.itb.kohesio.rules.RuleDefinitions;
+import eu.europa.ec.itb.kohesio.rules.RulePlan;
 import eu.europa.ec.itb.kohesio.rules.TotalEligibleExpenditureRule;
 import eu.europa.ec.itb.kohesio.util.BomStrippingReader;
+import eu.europa.ec.itb.kohesio.util.Compression;
+import eu.europa.ec.itb.kohesio.util.CsvParserRecordSource;
+import eu.europa.ec.itb.kohesio.util.FileRangeInputStream;
+import eu.europa.ec.itb.kohesio.util.MappedCsvReader;
+import eu.europa.ec.itb.kohesio.util.PipelinedCsvRecordSource;
+import eu.europa.ec.itb.kohesio.util.RecordBoundaryScanner;
+import eu.europa.ec.itb.kohesio.util.RecordSource;
+import eu.europa.ec.itb.kohesio.util.UnsupportedContentException;
+import eu.europa.ec.itb.kohesio.util.Utf8Bytes;
 import org.apache.commons.csv.CSVFormat;
 import org.apache.commons.csv.CSVParser;
-import org.apache.commons.csv.CSVRecord;
 
 import javax.xml.datatype.DatatypeConfigurationException;
 import javax.xml.datatype.DatatypeFactory;
 import javax.xml.datatype.XMLGregorianCalendar;
 import java.io.IOException;
 import java.io.Reader;
+import java.io.SequenceInputStream;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
 import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
 import java.nio.file.Path;
-import java.util.ArrayList;
-import java.util.Arrays;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayDeque;
+import java.util.Deque;
 import java.util.GregorianCalendar;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
 
 /**
  * The entry point for the validation plugin's implementation.
  *
  * Validation is driven through the validate method, whereas the getModuleDefinition method is optional but is implemented
  * to improve logging in the overall validator.
+ *
+ * Instances are thread-safe, with a single instance expected to serve all validations concurrently. Validations only
+ * share immutable state (the rules and the report's object factory) and thread-safe caches (the CSV formats and rule
+ * plans of RulePlanCache, and the optional ChunkResultCache), while everything a validation updates (its collector,
+ * rule plan, metrics and budget) is created per validation. The number of validations running concurrently can be
+ * limited for all instances through ValidationLimiter.
  */
 public class PluginInterface implements ValidationService {
 
     private static final String INPUT__CONTENT_TO_VALIDATE = "contentToValidate";
     private static final String INPUT__QUOTE = "quote";
     private static final String INPUT__DELIMITER = "delimiter";
+    private static final String INPUT__AGGREGATE_VIOLATIONS = "aggregateViolations";
+    private static final String INPUT__REPORT_METRICS = "reportMetrics";
+    private static final String INPUT__SPILL_VIOLATIONS = "spillViolations";
+    private static final String INPUT__MAXIMUM_TIME = "maximumTime";
+    private static final String INPUT__MAXIMUM_ROWS = "maximumRows";
+    private static final String INPUT__MAXIMUM_ERRORS = "maximumErrors";
     private static final long MAXIMUM_REPORT_ITEMS = 50000L;
+    // Files smaller than this are always validated sequentially.
+    private static final long PARALLEL_VALIDATION_THRESHOLD = 16L * 1024 * 1024;
+    private static final long MINIMUM_CHUNK_SIZE = 4L * 1024 * 1024;
+    // Files validated with the CSV parser that are smaller than this are processed on a single thread.
+    private static final long PIPELINED_VALIDATION_THRESHOLD = 4L * 1024 * 1024;
+    // The number of records per batch for rules validating batches of records.
+    private static final int BATCH_SIZE = 4096;
+    // The average chunk size when caching chunk results (independent of the file size for chunks to be reused).
+    private static final long CACHED_CHUNK_SIZE = 4L * 1024 * 1024;
+    // The version of the rule set, to be increased whenever a rule's behaviour changes (to invalidate cached results).
+    private static final String RULE_SET_VERSION = "1";
+    // The header of files following the Kohesio template (with the fields checked by the rules), for which a rule plan is prepared up front.
+    private static final List<String> STANDARD_HEADER = List.of(
+            "Operation_Unique_Identifier",
+            "Operation_Name",
+            "Operation_Start_Date",
+            "Operation_End_Date",
+            "Location_Indicator_Postcode",
+            "Location_Indicator_NUTS_code",
+            "Location_Indicator_latitude_longitude",
+            "Total_Eligible_Expenditure_Currency",
+            "Total_Eligible_Expenditure_Exchange_Rate"
+    );
+    // Looking up the DatatypeFactory implementation is expensive, and instances are not guaranteed to be thread-safe.
+    private static final ThreadLocal<DatatypeFactory> DATATYPE_FACTORY = ThreadLocal.withInitial(() -> {
+        try {
+            return DatatypeFactory.newInstance();
+        } catch (DatatypeConfigurationException e) {
+            throw new IllegalStateException("Unable to construct data type factory for date", e);
+        }
+    });
 
     private final ObjectFactory objectFactory = new ObjectFactory();
+    private final Strategy strategy;
+    private final long chunkSize;
+    private final Optional<ChunkResultCache> cache;
+    private final RuleDefinitions declaredRules = RuleDefinitions.fromSystemProperties();
+    // The limiter is shared by all instances.
+    private final Optional<ValidationLimiter> limiter = ValidationLimiter.fromSystemProperties();
+
+    private final Rule[] rules;
+    // The CSV formats and rule plans are shared by all validations.
+    private final RulePlanCache plans;
+
+    /**
+     * Constructor.
+     */
+    public PluginInterface() {
+        this(Strategy.AUTOMATIC, 0L, ChunkResultCache.fromSystemProperties());
+    }
+
+    /**
+     * Constructor to force a validation approach (for testing).
+     *
+     * @param strategy The validation approach to use (falling back to sequential validation if not applicable).
+     * @param chunkSize The target chunk size in bytes for parallel validation (0 to determine it from the file's size).
+     * @param cache The chunk result cache to use.
+     */
+    PluginInterface(Strategy strategy, long chunkSize, Optional<ChunkResultCache> cache) {
+        this(strategy, chunkSize, cache, new Rule[0]);
+    }
 
-    /*
-    Define the list of rules to process. This could also be done via a reflection library but there is no real need here.
-    In addition, defining them like this we avoid an extra dependency that is not strictly needed.
+    /**
+     * Constructor to force a validation approach and apply further rules (for testing).
+     *
+     * @param strategy The validation approach to use (falling back to sequential validation if not applicable).
+     * @param chunkSize The target chunk size in bytes for parallel validation (0 to determine it from the file's size).
+     * @param cache The chunk result cache to use.
+     * @param additionalRules The rules to apply after the plugin's rules.
      */
-    private final Rule[] rules = new Rule[] {
-            new OperationDateRule(),
-            new LocationIndicatorRule(),
-            new TotalEligibleExpenditureRule()
-    };
+    PluginInterface(Strategy strategy, long chunkSize, Optional<ChunkResultCache> cache, Rule... additionalRules) {
+        this.strategy = strategy;
+        this.chunkSize = chunkSize;
+        this.cache = cache;
+        /*
+        Define the list of rules to process. This could also be done via a reflection library but there is no real need
+        here. In addition, defining them like this we avoid an extra dependency that is not strictly needed. Rules
+        implementing the NameBasedRule interface can be added by wrapping them in a NameBasedRuleAdapter. Rules declared
+        in a definitions file (see RuleDefinitions) are applied after these.
+         */
+        this.rules = Stream.of(
+                Stream.of(
+                        new OperationDateRule(),
+                        new LocationIndicatorRule(),
+                        new TotalEligibleExpenditureRule(),
+                        new DuplicateOperationRule()
+                ),
+                declaredRules.getRules().stream(),
+                Stream.of(additionalRules)
+        ).flatMap((ruleStream) -> ruleStream).toArray(Rule[]::new);
+        this.plans = new RulePlanCache(rules);
+    }
 
     @Override
     public GetModuleDefinitionResponse getModuleDefinition(Void aVoid) {
         GetModuleDefinitionResponse response = new GetModuleDefinitionResponse();
         response.setModule(new ValidationModule());
         response.getModule().setId("KohesioPlugin");
+        // This is called before validations, so prepare the rule plan for the standard header (with the default delimiter and quote).
+        plans.prepare(STANDARD_HEADER, ',', '"');
         return response;
     }
 
     @Override
     public ValidationResponse validate(ValidateRequest request) {
+        return validate(request, null);
+    }
+
+    /**
+     * Validate as done by validate(ValidateRequest), while passing findings and progress to a listener as the
+     * validation runs (see ValidationListener). The returned report is the same as without a listener.
+     *
+     * @param request The validation request.
+     * @param listener The listener (null for none).
+     * @return The validation response.
+     */
+    public ValidationResponse validate(ValidateRequest request, ValidationListener listener) {
+        if (limiter.isEmpty()) {
+            return validateRequest(request, listener);
+        }
+        // Wait for a slot among the validations running concurrently (the validation's budget starts once it has one).
+        ValidationLimiter.Slot slot = limiter.get().acquire(getInputFileSize(request));
+        try {
+            return validateRequest(request, listener);
+        } finally {
+            slot.close();
+        }
+    }
+
+    /**
+     * Validate the request's content.
+     *
+     * @param request The validation request.
+     * @param listener The listener (null for none).
+     * @return The validation response.
+     */
+    private ValidationResponse validateRequest(ValidateRequest request, ValidationListener listener) {
         // Collect the inputs need. These should always be present given that they are defined by the core validator.
         String inputFilePath = request.getInput().stream().filter((input) -> INPUT__CONTENT_TO_VALIDATE.equals(input.getName())).findFirst().orElseThrow(() -> new IllegalArgumentException(String.format("The [%s] input is required", INPUT__CONTENT_TO_VALIDATE))).getValue();
         char quote = request.getInput().stream().filter((input) -> INPUT__QUOTE.equals(input.getName())).findFirst().orElseThrow(() -> new IllegalArgumentException(String.format("The [%s] input is required", INPUT__QUOTE))).getValue().charAt(0);
         char delimiter = request.getInput().stream().filter((input) -> INPUT__DELIMITER.equals(input.getName())).findFirst().orElseThrow(() -> new IllegalArgumentException(String.format("The [%s] input is required", INPUT__DELIMITER))).getValue().charAt(0);
-        // Define the syntax options for the CSV file parsing.
-        CSVFormat format = CSVFormat.RFC4180
-                .withIgnoreHeaderCase(false)
-                .withAllowDuplicateHeaderNames(true)
-                .withIgnoreSurroundingSpaces(true)
-                .withRecordSeparator("\n")
-                .withDelimiter(delimiter)
-                .withQuote(quote)
-                .withHeader();
+        // Optional inputs.
+        boolean aggregate = getOptionalInput(request, INPUT__AGGREGATE_VIOLATIONS).map(Boolean::parseBoolean).orElse(Boolean.FALSE);
+        boolean reportMetrics = getOptionalInput(request, INPUT__REPORT_METRICS).map(Boolean::parseBoolean).orElse(Boolean.FALSE);
+        boolean spillViolations = getOptionalInput(request, INPUT__SPILL_VIOLATIONS).map(Boolean::parseBoolean).orElse(Boolean.FALSE);
+        ValidationBudget budget = new ValidationBudget(getLimitInput(request, INPUT__MAXIMUM_TIME), getLimitInput(request, INPUT__MAXIMUM_ROWS), getLimitInput(request, INPUT__MAXIMUM_ERRORS));
+        ValidationProgress progress = (listener != null)?new ValidationProgress(listener, aggregate):null;
+        // Get the syntax options for the CSV file parsing.
+        CSVFormat format = plans.getFormat(delimiter, quote);
+        // Times per record and rule are only measured if requested or if recorded through JFR.
+        ValidationEvent event = new ValidationEvent();
+        event.begin();
+        ValidationMetrics metrics = new ValidationMetrics(reportMetrics || new RuleEvaluationEvent().isEnabled());
+        long validationStart = System.nanoTime();
         // Read the CSV file's records and validate each row.
-        final long[] counterErrors = {0L};
-        final long[] counterWarnings = {0L};
-        final long[] counterInformationMessages = {0L};
-        List<ReportItem> errors = new ArrayList<>();
-        ViolationReporter reporter = (reportItem) -> {
-            if (reportItem.getViolationLevel() == ViolationLevel.ERROR) {
-                counterErrors[0] += 1;
-            } else if (reportItem.getViolationLevel() == ViolationLevel.WARNING) {
-                counterWarnings[0] += 1;
-            } else if (reportItem.getViolationLevel() == ViolationLevel.INFO) {
-                counterInformationMessages[0] += 1;
-            }
-            if (errors.size() < MAXIMUM_REPORT_ITEMS) {
-                errors.add(reportItem);
-            }
-        };
+        ReportCollector collector;
+        ViolationSpill spill = null;
+        boolean validated = false;
         try {
+            Path inputFile = Path.of(inputFilePath);
+            metrics.setBytesRead(Files.size(inputFile));
+            // All findings are optionally also written to a file (without limit).
+            spill = spillViolations?ViolationSpill.create():null;
+            // Compressed content can only be read as a stream (and is validated sequentially).
+            Compression compression = Compression.detect(inputFile);
+            Optional<ReportCollector> result = Optional.empty();
+            // A forced approach falls back to sequential validation if not applicable.
+            if (compression == Compression.NONE && (strategy == Strategy.AUTOMATIC || strategy == Strategy.PARALLEL)) {
+                result = validateInParallel(inputFile, format, delimiter, quote, aggregate, spill, metrics, budget, progress);
+            }
+            if (result.isEmpty() && compression == Compression.NONE && (strategy == Strategy.AUTOMATIC || strategy == Strategy.MAPPED)) {
+                resetSpill(spill);
+                result = validateMapped(inputFile, format, delimiter, quote, aggregate, spill, metrics, budget, progress);
+            }
+            if (result.isPresent()) {
+                collector = result.get();
+            } else {
+                resetSpill(spill);
+                collector = validateSequentially(inputFile, compression, format, delimiter, quote, aggregate, spill, metrics, budget, progress);
+            }
+            if (progress != null) {
+                progress.complete(collector, metrics.getRows());
+            }
+            validated = true;
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        } catch (UncheckedIOException e) {
+            // Read failures surfacing through the CSV parser (e.g. truncated compressed content).
+            throw new IllegalStateException(e.getCause());
+        } finally {
+            if (spill != null) {
+                if (validated) {
+                    spill.close();
+                } else {
+                    spill.delete();
+                }
+            }
+        }
+        long reportStart = System.nanoTime();
+        metrics.setValidationNanos(reportStart - validationStart);
+        TAR report = toTAR(collector.getItems(), collector.getCounterErrors(), collector.getCounterWarnings(), collector.getCounterInformationMessages());
+        if (collector.isStopped()) {
+            addPartialReportWarning(report, budget, collector.getLastLineNumber());
+        }
+        metrics.setReportNanos(System.nanoTime() - reportStart);
+        if (spill != null) {
+            report.getContext().getItem().add(toContextItem(spill));
+        }
+        if (collector.isStopped()) {
+            report.getContext().getItem().add(toContextItem(budget, collector.getLastLineNumber()));
+        }
+        if (reportMetrics) {
+            report.getContext().getItem().add(toContextItem(metrics));
+        }
+        emitEvents(event, metrics, collector);
+        ValidationResponse response = new ValidationResponse();
+        response.setReport(report);
+        return response;
+    }
+
+    /**
+     * Record the JFR events for the completed validation (if enabled).
+     *
+     * @param event The validation's event (already started).
+     * @param metrics The validation's metrics.
+     * @param collector The validation's results.
+     */
+    private void emitEvents(ValidationEvent event, ValidationMetrics metrics, ReportCollector collector) {
+        event.end();
+        if (event.shouldCommit()) {
+            event.strategy = metrics.getStrategy();
+            event.bytesRead = metrics.getBytesRead();
+            event.rows = metrics.getRows();
+            event.rowsPerSecond = metrics.getRowsPerSecond();
+            event.readTime = metrics.getReadNanos();
+            event.ruleTime = metrics.getTotalRuleNanos();
+            event.reportTime = metrics.getReportNanos();
+            event.errors = collector.getCounterErrors();
+            event.warnings = collector.getCounterWarnings();
+            event.informationMessages = collector.getCounterInformationMessages();
+            event.commit();
+        }
+        if (metrics.isTimed()) {
+            String[] ruleNames = metrics.getRuleNames();
+            long[] ruleNanos = metrics.getRuleNanos();
+            for (int i = 0; i < ruleNames.length; i++) {
+                RuleEvaluationEvent ruleEvent = new RuleEvaluationEvent();
+                if (ruleEvent.shouldCommit()) {
+                    ruleEvent.rule = ruleNames[i];
+                    ruleEvent.rows = metrics.getRows();
+                    ruleEvent.ruleTime = ruleNanos[i];
+                    ruleEvent.commit();
+                }
+            }
+        }
+    }
+
+    /**
+     * Convert the validation's metrics to an item to include in the report's context.
+     *
+     * Times are expressed in milliseconds. Times for reading records and evaluating rules are summed over all threads.
+     *
+     * @param metrics The metrics.
+     * @return The context item.
+     */
+    private AnyContent toContextItem(ValidationMetrics metrics) {
+        AnyContent item = new AnyContent();
+        item.setName("metrics");
+        item.getItem().add(createContextValue("strategy", metrics.getStrategy(), "string"));
+        item.getItem().add(createContextValue("bytesRead", String.valueOf(metrics.getBytesRead()), "number"));
+        item.getItem().add(createContextValue("rows", String.valueOf(metrics.getRows()), "number"));
+        item.getItem().add(createContextValue("rowsPerSecond", String.valueOf(Math.round(metrics.getRowsPerSecond())), "number"));
+        item.getItem().add(createContextValue("validationTime", toMillis(metrics.getValidationNanos()), "number"));
+        item.getItem().add(createContextValue("readTime", toMillis(metrics.getReadNanos()), "number"));
+        item.getItem().add(createContextValue("reportTime", toMillis(metrics.getReportNanos()), "number"));
+        AnyContent ruleTimes = new AnyContent();
+        ruleTimes.setName("ruleTime");
+        String[] ruleNames = metrics.getRuleNames();
+        long[] ruleNanos = metrics.getRuleNanos();
+        for (int i = 0; i < ruleNames.length; i++) {
+            ruleTimes.getItem().add(createContextValue(ruleNames[i], toMillis(ruleNanos[i]), "number"));
+        }
+        item.getItem().add(ruleTimes);
+        return item;
+    }
+
+    /**
+     * Convert the reference to the file with all findings to an item to include in the report's context.
+     *
+     * @param spill The spill with all findings.
+     * @return The context item.
+     */
+    private AnyContent toContextItem(ViolationSpill spill) {
+        AnyContent item = new AnyContent();
+        item.setName("violations");
+        item.getItem().add(createContextValue("file", spill.getFile().toAbsolutePath().toString(), "string"));
+        item.getItem().add(createContextValue("mimeType", "text/csv", "string"));
+        item.getItem().add(createContextValue("items", String.valueOf(spill.getCount()), "number"));
+        return item;
+    }
+
+    /**
+     * Convert the information on a validation stopped early to an item to include in the report's context.
+     *
+     * @param budget The validation's budget.
+     * @param lastLineNumber The line number of the last validated record.
+     * @return The context item.
+     */
+    private AnyContent toContextItem(ValidationBudget budget, long lastLineNumber) {
+        AnyContent item = new AnyContent();
+        item.setName("budget");
+        item.getItem().add(createContextValue("limit", budget.getReachedLimit().map((limit) -> limit.name().toLowerCase(Locale.ROOT)).orElse(""), "string"));
+        item.getItem().add(createContextValue("lastRow", String.valueOf(lastLineNumber), "number"));
+        return item;
+    }
+
+    /**
+     * Add a warning stating that the report is partial, as the first of the report's items. The warning is not included
+     * in the report's counters, which only count the findings of the validated rows, but a successful result is
+     * reported as a warning.
+     *
+     * @param report The report.
+     * @param budget The validation's budget.
+     * @param lastLineNumber The line number of the last validated record.
+     */
+    private void addPartialReportWarning(TAR report, ValidationBudget budget, long lastLineNumber) {
+        BAR warning = new BAR();
+        String limit = budget.getReachedLimit().map(budget::describe).orElse("budget");
+        warning.setDescription(String.format("Validation stopped early as the maximum %s was reached: the report's findings and counters cover rows 1..%s.", limit, lastLineNumber));
+        warning.setLocation(INPUT__CONTENT_TO_VALIDATE + ":" + lastLineNumber + ":0");
+        report.getReports().getInfoOrWarningOrError().add(0, objectFactory.createTestAssertionGroupReportsTypeWarning(warning));
+        if (report.getResult() == TestResultType.SUCCESS) {
+            report.setResult(TestResultType.WARNING);
+        }
+    }
+
+    /**
+     * Discard the findings written to the spill by a validation approach that was not applicable.
+     *
+     * @param spill The spill (null if none).
+     */
+    private void resetSpill(ViolationSpill spill) {
+        if (spill != null) {
+            spill.reset();
+        }
+    }
+
+    /**
+     * Create a simple value to include in the report's context.
+     *
+     * @param name The value's name.
+     * @param value The value.
+     * @param type The value's type.
+     * @return The context value.
+     */
+    private AnyContent createContextValue(String name, String value, String type) {
+        AnyContent content = new AnyContent();
+        content.setName(name);
+        content.setValue(value);
+        content.setType(type);
+        content.setEmbeddingMethod(ValueEmbeddingEnumeration.STRING);
+        return content;
+    }
+
+    /**
+     * Convert nanoseconds to milliseconds.
+     *
+     * @param nanos The nanoseconds.
+     * @return The milliseconds (with microsecond precision).
+     */
+    private String toMillis(long nanos) {
+        return BigDecimal.valueOf(nanos / 1000L, 3).toPlainString();
+    }
+
+    /**
+     * Get the size of the file to validate, to determine its slot in the ValidationLimiter.
+     *
+     * @param request The validation request.
+     * @return The size in bytes (zero if it cannot be determined, the validation then reporting the problem).
+     */
+    private long getInputFileSize(ValidateRequest request) {
+        try {
+            Optional<String> inputFilePath = getOptionalInput(request, INPUT__CONTENT_TO_VALIDATE);
+            return inputFilePath.isPresent()?Files.size(Path.of(inputFilePath.get())):0L;
+        } catch (IOException | InvalidPathException e) {
+            return 0L;
+        }
+    }
+
+    /**
+     * Get the value of an optional input.
+     *
+     * @param request The validation request.
+     * @param inputName The name of the input.
+     * @return The input's value (empty if not provided or blank).
+     */
+    private Optional<String> getOptionalInput(ValidateRequest request, String inputName) {
+        return request.getInput().stream()
+                .filter((input) -> inputName.equals(input.getName()))
+                .findFirst()
+                .map(AnyContent::getValue)
+                .map(String::trim)
+                .filter((value) -> !value.isEmpty());
+    }
+
+    /**
+     * Get the value of an optional input setting a limit of the validation's budget.
+     *
+     * @param request The validation request.
+     * @param inputName The name of the input.
+     * @return The limit (Long.MAX_VALUE if not provided).
+     */
+    private long getLimitInput(ValidateRequest request, String inputName) {
+        return getOptionalInput(request, inputName).map((value) -> {
+            try {
+                long limit = Long.parseLong(value);
+                if (limit > 0) {
+                    return limit;
+                }
+            } catch (NumberFormatException e) {
+                // Reported below.
+            }
+            throw new IllegalArgumentException(String.format("The [%s] input must be a positive number", inputName));
+        }).orElse(Long.MAX_VALUE);
+    }
+
+    /**
+     * Validate the provided file in a single pass using the CSV parser.
+     *
+     * This is the fallback approach that supports all charsets and rules, and that reports any CSV syntax errors. For
+     * larger files on multi-core machines, reading and decoding, parsing and validating records run as pipelined
+     * stages on separate threads (see PipelinedCsvRecordSource), unless as many pipelined validations as processors
+     * are already running. Otherwise, all take place on the current thread.
+     * Compressed files are decompressed while being read.
+     *
+     * @param inputFile The file to validate.
+     * @param compression The file's compression.
+     * @param format The CSV format to use for parsing.
+     * @param delimiter The field delimiter.
+     * @param quote The quote character.
+     * @param aggregate Whether identical findings should be aggregated.
+     * @param spill The spill to write all findings to (null for none).
+     * @param metrics The metrics to update.
+     * @param budget The validation's budget.
+     * @param progress The progress to update (null for none).
+     * @return The validation results.
+     * @throws IOException If the file cannot be read.
+     */
+    private ReportCollector validateSequentially(Path inputFile, Compression compression, CSVFormat format, char delimiter, char quote, boolean aggregate, ViolationSpill spill, ValidationMetrics metrics, ValidationBudget budget, ValidationProgress progress) throws IOException {
+        ReportCollector collector = new ReportCollector(MAXIMUM_REPORT_ITEMS, aggregate, spill);
+        RulePlan plan;
+        boolean pipelined = (strategy == Strategy.AUTOMATIC)?(Runtime.getRuntime().availableProcessors() > 1 && Files.size(inputFile) >= PIPELINED_VALIDATION_THRESHOLD):(strategy == Strategy.PIPELINED);
+        // Pipelining is skipped if the maximum number of pipelined validations are already running.
+        Optional<PipelinedCsvRecordSource> pipelinedSource = pipelined?PipelinedCsvRecordSource.tryOpen(inputFile, compression, format):Optional.empty();
+        if (pipelinedSource.isPresent()) {
+            try (PipelinedCsvRecordSource source = pipelinedSource.get()) {
+                // Get the rules bound to the file's header (before parsing the records on another thread).
+                plan = plans.getPlan(source.getParser(), delimiter, quote);
+                metrics.start("sequential-pipelined", plan.getRuleNames());
+                source.start();
+                validateRecords(source, plan, 0L, -1L, collector, metrics, budget, progress);
+            }
+        } else {
             try (
-                    Reader inputReader = new BomStrippingReader(Files.newInputStream(Path.of(inputFilePath)));
+                    BomStrippingReader inputReader = openReader(inputFile, compression);
                     CSVParser parser = new CSVParser(inputReader, format)
             ) {
-                // First determine the rules that are meaningful to call (based on the available input fields).
-                List<Rule> rulesToCheck = Arrays.stream(rules).filter((rule) -> rule.isApplicable(parser)).collect(Collectors.toList());
-                long previousLineNumber = -1;
-                // Validation per row.
-                for (CSVRecord record: parser) {
-                    // Determine the correct line number.
-                    long reportedLineNumber = parser.getCurrentLineNumber();
-                    if (reportedLineNumber == previousLineNumber) {
-                        // This can come up in the last record if there is no EOL at the end of the file.
-                        reportedLineNumber += 1;
+                // Get the rules bound to the file's header.
+                plan = plans.getPlan(parser, delimiter, quote);
+                metrics.start("sequential", plan.getRuleNames());
+                validateRecords(new CsvParserRecordSource(parser, inputReader::getBytesRead), plan, 0L, -1L, collector, metrics, budget, progress);
+            }
+        }
+        completeFile(inputFile, compression, format, delimiter, quote, false, plan, collector);
+        return collector;
+    }
+
+    /**
+     * Validate the provided file in a single pass on the current thread by tokenizing the memory-mapped file's bytes.
+     *
+     * This avoids decoding the full content and creating values for fields that no rule reads. The header record is
+     * still processed by the CSV parser so that rules are bound in exactly the same way. This approach is skipped for
+     * UTF-16 and UTF-32 content, for rules that need the parser's records and for content with syntax errors (in which
+     * case sequential validation with the CSV parser takes place).
+     *
+     * @param inputFile The file to validate.
+     * @param format The CSV format to use for parsing the header.
+     * @param delimiter The field delimiter.
+     * @param quote The quote character.
+     * @param aggregate Whether identical findings should be aggregated.
+     * @param spill The spill to write all findings to (null for none).
+     * @param metrics The metrics to update.
+     * @param budget The validation's budget.
+     * @param progress The progress to update (null for none).
+     * @return The validation results (empty if this approach was not applicable).
+     * @throws IOException If the file cannot be read.
+     */
+    private Optional<ReportCollector> validateMapped(Path inputFile, CSVFormat format, char delimiter, char quote, boolean aggregate, ViolationSpill spill, ValidationMetrics metrics, ValidationBudget budget, ValidationProgress progress) throws IOException {
+        if (!RecordBoundaryScanner.isSupported(delimiter, quote)) {
+            return Optional.empty();
+        }
+        try (FileChannel channel = FileChannel.open(inputFile, StandardOpenOption.READ)) {
+            ByteBuffer bomBuffer = ByteBuffer.allocate(4);
+            channel.read(bomBuffer, 0L);
+            bomBuffer.flip();
+            int bomLength = Utf8Bytes.bomLength(bomBuffer);
+            if (bomLength < 0 || channel.size() == bomLength) {
+                return Optional.empty();
+            }
+            MappedCsvReader reader = new MappedCsvReader(channel, bomLength, channel.size(), delimiter, quote);
+            if (!reader.next()) {
+                return Optional.empty();
+            }
+            // The reader has now read the header record.
+            RulePlan plan = compilePlan(channel, 0L, reader.getOffset(), format, delimiter, quote);
+            if (plan.requiresCsvRecords()) {
+                return Optional.empty();
+            }
+            ReportCollector collector = new ReportCollector(MAXIMUM_REPORT_ITEMS, aggregate, spill);
+            metrics.start("mapped", plan.getRuleNames());
+            validateRecords(reader, plan, 0L, -1L, collector, metrics, budget, progress);
+            completeFile(inputFile, Compression.NONE, format, delimiter, quote, true, plan, collector);
+            return Optional.of(collector);
+        } catch (UnsupportedContentException e) {
+            // Let the CSV parser process (and report on) the content.
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Validate the provided file by splitting it in chunks at record boundaries and validating these in parallel.
+     *
+     * Each chunk is read with its own memory-mapped reader or, if the rules need the parser's records, its own parser
+     * that reads the header record followed by the chunk's records. Results are merged in chunk order so that reported
+     * items follow the file's line order, and at most a limited number of chunks is processed ahead of the merge to
+     * keep memory usage bounded. Parallel validation is skipped for small files, for non UTF-8 content and when the
+     * file cannot be safely split (in which case sequential validation takes place).
+     *
+     * If a chunk result cache is configured (and findings are neither aggregated nor spilled), chunk boundaries are
+     * content-defined and the results of each chunk are looked up in the cache before validating it. The results of
+     * chunks that are validated are then cached.
+     *
+     * If the validation time is limited, chunks stop being validated once the time is reached and results are merged up
+     * to the first chunk that was stopped. Parallel validation is skipped if the number of rows or errors is limited, as
+     * these limits require validating records in order.
+     *
+     * @param inputFile The file to validate.
+     * @param format The CSV format to use for parsing.
+     * @param delimiter The field delimiter.
+     * @param quote The quote character.
+     * @param aggregate Whether identical findings should be aggregated.
+     * @param spill The spill to write all findings to (null for none).
+     * @param metrics The metrics to update.
+     * @param budget The validation's budget.
+     * @param progress The progress to update (null for none).
+     * @return The validation results (empty if parallel validation was not applicable).
+     * @throws IOException If the file cannot be read.
+     */
+    private Optional<ReportCollector> validateInParallel(Path inputFile, CSVFormat format, char delimiter, char quote, boolean aggregate, ViolationSpill spill, ValidationMetrics metrics, ValidationBudget budget, ValidationProgress progress) throws IOException {
+        int parallelism = ForkJoinPool.getCommonPoolParallelism();
+        // Aggregated and spilled findings are not cached as these are not retained per chunk.
+        boolean useCache = cache.isPresent() && !aggregate && spill == null;
+        // A forced parallel validation also applies to small files and single processors.
+        boolean forced = strategy == Strategy.PARALLEL;
+        if ((parallelism < 2 && !useCache && !forced) || budget.limitsRecords() || !RecordBoundaryScanner.isSupported(delimiter, quote) || (Files.size(inputFile) < PARALLEL_VALIDATION_THRESHOLD && !forced)) {
+            return Optional.empty();
+        }
+        try (FileChannel channel = FileChannel.open(inputFile, StandardOpenOption.READ)) {
+            long targetChunkSize;
+            if (chunkSize > 0) {
+                targetChunkSize = chunkSize;
+            } else {
+                targetChunkSize = useCache?CACHED_CHUNK_SIZE:Math.max(MINIMUM_CHUNK_SIZE, channel.size() / (parallelism * 4L));
+            }
+            Optional<List<FileChunk>> scannedChunks = new RecordBoundaryScanner(delimiter, quote, targetChunkSize, useCache).scan(channel);
+            if (scannedChunks.isEmpty()) {
+                return Optional.empty();
+            }
+            List<FileChunk> chunks = scannedChunks.get();
+            FileChunk headerChunk = chunks.get(0);
+            long headerLines = chunks.get(1).getPrecedingLines();
+            // Get the rules bound to the file's header (the resulting plan is shared by all chunks).
+            RulePlan plan = compilePlan(channel, headerChunk.getStartOffset(), headerChunk.getEndOffset(), format, delimiter, quote);
+            ReportCollector collector = new ReportCollector(MAXIMUM_REPORT_ITEMS, aggregate, spill);
+            metrics.start((plan.requiresCsvRecords()?"parallel":"parallel-mapped") + (useCache?"-cached":""), plan.getRuleNames());
+            byte[] chunkKeyPrefix = useCache?createChunkKeyPrefix(channel, headerChunk, plan, delimiter, quote):null;
+            Deque<ForkJoinTask<ReportCollector>> pendingTasks = new ArrayDeque<>();
+            Deque<ValidationMetrics> pendingMetrics = new ArrayDeque<>();
+            Deque<RulePlan> pendingParts = new ArrayDeque<>();
+            AtomicBoolean abandoned = new AtomicBoolean(false);
+            int nextChunkIndex = 1;
+            int mergedChunkIndex = 1;
+            try {
+                while (nextChunkIndex < chunks.size() || !pendingTasks.isEmpty()) {
+                    while (nextChunkIndex < chunks.size() && pendingTasks.size() < parallelism * 2) {
+                        FileChunk chunk = chunks.get(nextChunkIndex);
+                        // Once the report is full, later chunks only need to count their findings (unless results are cached).
+                        ReportCollector chunkCollector = useCache?new ReportCollector(MAXIMUM_REPORT_ITEMS):collector.createPartCollector();
+                        ValidationMetrics chunkMetrics = metrics.createPartMetrics();
+                        // Stateful rules collect their state per chunk, to be merged in chunk order.
+                        RulePlan partPlan = plan.createPart();
+                        // Match the sequential line numbering (including the handling of a missing EOL at the end).
+                        boolean firstDataChunk = nextChunkIndex == 1;
+                        // Cached findings are only needed if the report is not yet full.
+                        long maximumCachedItems = collector.isFull()?0L:MAXIMUM_REPORT_ITEMS;
+                        long initialPreviousLineNumber = firstDataChunk?-1L:chunk.getPrecedingLines();
+                        pendingTasks.add(ForkJoinPool.commonPool().submit(() -> {
+                            if (abandoned.get()) {
+                                return chunkCollector;
+                            }
+                            try {
+                                String chunkKey = null;
+                                if (chunkKeyPrefix != null) {
+                                    chunkKey = createChunkKey(chunkKeyPrefix, channel, chunk, firstDataChunk);
+                                    Optional<ReportCollector> cachedResults = cache.get().get(chunkKey, chunk.getPrecedingLines(), maximumCachedItems);
+                                    if (cachedResults.isPresent()) {
+                                        if (partPlan.isStateful()) {
+                                            // The cached findings are complete but the stateful rules' state still needs to be collected.
+                                            ValidationMetrics discardedMetrics = new ValidationMetrics(false);
+                                            validateChunk(channel, format, delimiter, quote, headerChunk, headerLines, chunk, initialPreviousLineNumber, partPlan.statefulRules(), new ReportCollector(0L), discardedMetrics, null);
+                                        }
+                                        return cachedResults.get();
+                                    }
+                                }
+                                validateChunk(channel, format, delimiter, quote, headerChunk, headerLines, chunk, initialPreviousLineNumber, partPlan, chunkCollector, chunkMetrics, budget);
+                                // The results of chunks stopped early are incomplete.
+                                if (chunkKey != null && !chunkCollector.isStopped()) {
+                                    cache.get().put(chunkKey, chunkCollector, chunk.getPrecedingLines());
+                                }
+                            } catch (IOException e) {
+                                throw new UncheckedIOException(e);
+                            }
+                            return chunkCollector;
+                        }));
+                        pendingMetrics.add(chunkMetrics);
+                        pendingParts.add(partPlan);
+                        nextChunkIndex += 1;
                     }
-                    // Call all rules for the parsed record.
-                    for (Rule rule: rulesToCheck) {
-                        rule.validate(record, reportedLineNumber, reporter);
+                    collector.merge(pendingTasks.removeFirst().join());
+                    metrics.merge(pendingMetrics.removeFirst());
+                    plan.mergePart(pendingParts.removeFirst());
+                    if (progress != null) {
+                        progress.update(collector, metrics.getRows(), chunks.get(mergedChunkIndex).getEndOffset());
                     }
-                    previousLineNumber = reportedLineNumber;
+                    mergedChunkIndex += 1;
+                    if (collector.isStopped()) {
+                        // The results of later chunks do not follow on from the merged ones.
+                        break;
+                    }
+                }
+            } catch (UncheckedIOException e) {
+                if (e.getCause() instanceof UnsupportedContentException) {
+                    // Let the CSV parser process (and report on) the content.
+                    return Optional.empty();
                 }
+                throw e.getCause();
+            } finally {
+                // Cancelling a running task does not stop it: skip the chunks not yet started and wait for the running
+                // ones, so that none still reads the file or writes to the spill once the validation moves on.
+                abandoned.set(true);
+                pendingTasks.forEach(ForkJoinTask::quietlyJoin);
             }
-        } catch (IOException e) {
-            throw new IllegalStateException(e);
+            completeFile(inputFile, Compression.NONE, format, delimiter, quote, true, plan, collector);
+            return Optional.of(collector);
+        }
+    }
+
+    /**
+     * Validate the records of a chunk of the file.
+     *
+     * The chunk is read with a memory-mapped reader or, if the rules need the parser's records, with a parser that
+     * reads the header record followed by the chunk's records.
+     *
+     * @param channel The file channel.
+     * @param format The CSV format to use for parsing.
+     * @param delimiter The field delimiter.
+     * @param quote The quote character.
+     * @param headerChunk The header's chunk.
+     * @param headerLines The number of lines of the header record.
+     * @param chunk The chunk to validate.
+     * @param previousLineNumber The line number to consider as that of the previous record (-1 for none).
+     * @param plan The rules to apply.
+     * @param collector The collector to record violations with.
+     * @param metrics The metrics to update.
+     * @param budget The validation's budget (null for none).
+     * @throws IOException If the records cannot be read.
+     */
+    private void validateChunk(FileChannel channel, CSVFormat format, char delimiter, char quote, FileChunk headerChunk, long headerLines, FileChunk chunk, long previousLineNumber, RulePlan plan, ReportCollector collector, ValidationMetrics metrics, ValidationBudget budget) throws IOException {
+        if (plan.requiresCsvRecords()) {
+            try (
+                    Reader inputReader = new BomStrippingReader(new SequenceInputStream(
+                            new FileRangeInputStream(channel, headerChunk.getStartOffset(), headerChunk.getEndOffset()),
+                            new FileRangeInputStream(channel, chunk.getStartOffset(), chunk.getEndOffset())
+                    ));
+                    CSVParser parser = new CSVParser(inputReader, format)
+            ) {
+                validateRecords(new CsvParserRecordSource(parser), plan, chunk.getPrecedingLines() - headerLines, previousLineNumber, collector, metrics, budget, null);
+            }
+        } else {
+            MappedCsvReader reader = new MappedCsvReader(channel, chunk.getStartOffset(), chunk.getEndOffset(), delimiter, quote);
+            validateRecords(reader, plan, chunk.getPrecedingLines(), previousLineNumber, collector, metrics, budget, null);
+        }
+    }
+
+    /**
+     * Complete the validation of a file once all its records have been validated.
+     *
+     * Stateful rules report their file-level findings at this point and may request additional passes over the
+     * file's records (e.g. to check the exact values of candidate duplicates). Each pass is made sequentially using
+     * the memory-mapped reader (if the main pass could use it) or otherwise the CSV parser. Findings of additional
+     * passes follow those of the main pass in the report. The file is not completed if validation stopped early (see
+     * ValidationBudget), as stateful rules would then report on records that were not all validated.
+     *
+     * @param inputFile The file being validated.
+     * @param compression The file's compression.
+     * @param format The CSV format to use for parsing.
+     * @param delimiter The field delimiter.
+     * @param quote The quote character.
+     * @param mapped Whether the memory-mapped reader can be used for the file.
+     * @param plan The rules applied in the main pass (with their state for the complete file).
+     * @param collector The collector of the validation's results.
+     * @throws IOException If the file cannot be read.
+     */
+    private void completeFile(Path inputFile, Compression compression, CSVFormat format, char delimiter, char quote, boolean mapped, RulePlan plan, ReportCollector collector) throws IOException {
+        if (collector.isStopped()) {
+            return;
+        }
+        Optional<RulePlan> passPlan = plan.endFile(collector);
+        while (passPlan.isPresent()) {
+            // Additional passes are not included in the metrics.
+            ValidationMetrics passMetrics = new ValidationMetrics(false);
+            if (mapped && !passPlan.get().requiresCsvRecords()) {
+                try (FileChannel channel = FileChannel.open(inputFile, StandardOpenOption.READ)) {
+                    ByteBuffer bomBuffer = ByteBuffer.allocate(4);
+                    channel.read(bomBuffer, 0L);
+                    bomBuffer.flip();
+                    MappedCsvReader reader = new MappedCsvReader(channel, Utf8Bytes.bomLength(bomBuffer), channel.size(), delimiter, quote);
+                    // Skip the header record.
+                    reader.next();
+                    validateRecords(reader, passPlan.get(), 0L, -1L, collector, passMetrics, null, null);
+                }
+            } else {
+                try (
+                        Reader inputReader = openReader(inputFile, compression);
+                        CSVParser parser = new CSVParser(inputReader, format)
+                ) {
+                    validateRecords(new CsvParserRecordSource(parser), passPlan.get(), 0L, -1L, collector, passMetrics, null, null);
+                }
+            }
+            passPlan = passPlan.get().endFile(collector);
+        }
+    }
+
+    /**
+     * Open a reader over the (decompressed) content of a file.
+     *
+     * @param inputFile The file.
+     * @param compression The file's compression.
+     * @return The reader.
+     * @throws IOException If the file cannot be opened.
+     */
+    private static BomStrippingReader openReader(Path inputFile, Compression compression) throws IOException {
+        if (compression == Compression.NONE) {
+            // Uncompressed content is read from the file's channel.
+            return new BomStrippingReader(FileChannel.open(inputFile, StandardOpenOption.READ));
+        }
+        return new BomStrippingReader(compression.open(inputFile));
+    }
+
+    /**
+     * Create the part of the chunk result cache keys that is common to all chunks of the file.
+     *
+     * This covers everything besides the chunk's own content that affects its results: the rule set, the header
+     * record (which determines the fields checked by the rules) and the delimiter and quote characters.
+     *
+     * @param channel The file channel.
+     * @param headerChunk The header's chunk.
+     * @param plan The rules to apply.
+     * @param delimiter The field delimiter.
+     * @param quote The quote character.
+     * @return The key prefix.
+     * @throws IOException If the header cannot be read.
+     */
+    private byte[] createChunkKeyPrefix(FileChannel channel, FileChunk headerChunk, RulePlan plan, char delimiter, char quote) throws IOException {
+        MessageDigest digest = createDigest();
+        digest.update(String.join("\n", RULE_SET_VERSION, declaredRules.getDigest(), String.join(",", plan.getRuleNames()), String.valueOf(delimiter), String.valueOf(quote)).getBytes(StandardCharsets.UTF_8));
+        digest.update(channel.map(FileChannel.MapMode.READ_ONLY, headerChunk.getStartOffset(), headerChunk.getLength()));
+        return digest.digest();
+    }
+
+    /**
+     * Create the chunk result cache key for a chunk.
+     *
+     * @param keyPrefix The key prefix for the file's chunks.
+     * @param channel The file channel.
+     * @param chunk The chunk.
+     * @param firstDataChunk Whether this is the file's first data chunk (which affects the line numbering of a last record with no EOL).
+     * @return The key (as a hexadecimal string).
+     * @throws IOException If the chunk cannot be read.
+     */
+    private String createChunkKey(byte[] keyPrefix, FileChannel channel, FileChunk chunk, boolean firstDataChunk) throws IOException {
+        MessageDigest digest = createDigest();
+        digest.update(keyPrefix);
+        digest.update(firstDataChunk?(byte) 1:(byte) 0);
+        digest.update(channel.map(FileChannel.MapMode.READ_ONLY, chunk.getStartOffset(), chunk.getLength()));
+        byte[] hash = digest.digest();
+        StringBuilder key = new StringBuilder(hash.length * 2);
+        for (byte value: hash) {
+            key.append(Character.forDigit((value >> 4) & 0xF, 16)).append(Character.forDigit(value & 0xF, 16));
+        }
+        return key.toString();
+    }
+
+    /**
+     * @return A new digest for computing chunk result cache keys.
+     */
+    private MessageDigest createDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("Unable to create digest for chunk keys", e);
         }
-        ValidationResponse response = new ValidationResponse();
-        response.setReport(toTAR(errors, counterErrors[0], counterWarnings[0], counterInformationMessages[0]));
-        return response;
+    }
+
+    /**
+     * Get the rules bound to the header record found in the given byte range of the file.
+     *
+     * @param channel The file channel.
+     * @param headerStart The (inclusive) byte offset of the header record (including any BOM).
+     * @param headerEnd The (exclusive) byte offset at which the header record ends.
+     * @param format The CSV format to use for parsing.
+     * @param delimiter The field delimiter.
+     * @param quote The quote character.
+     * @return The plan.
+     * @throws IOException If the header cannot be read.
+     */
+    private RulePlan compilePlan(FileChannel channel, long headerStart, long headerEnd, CSVFormat format, char delimiter, char quote) throws IOException {
+        try (
+                Reader headerReader = new BomStrippingReader(new FileRangeInputStream(channel, headerStart, headerEnd));
+                CSVParser headerParser = new CSVParser(headerReader, format)
+        ) {
+            return plans.getPlan(headerParser, delimiter, quote);
+        }
+    }
+
+    /**
+     * Validate the records provided by the given source.
+     *
+     * Records are validated one by one or, if any rule supports this, in batches of consecutive records. If a budget
+     * is provided, validation stops (marking the collector as stopped) once there are more records than the maximum
+     * number of rows, once the number of errors is reached (checked after each record or, with batch rules, after each
+     * batch of at most as many records as errors allowed) or, checked every 4096 records, once the validation time is
+     * reached.
+     * If a progress is provided, it is also updated after each batch of records and once all records are validated.
+     *
+     * @param source The source to read the records from (with the header already processed).
+     * @param plan The rules to apply.
+     * @param lineNumberOffset The offset to add to the source's line numbers to determine the file's line numbers.
+     * @param previousLineNumber The line number to consider as that of the previous record (-1 for none).
+     * @param collector The collector to record violations with.
+     * @param metrics The metrics to update (the clock is only read per record if these are timed).
+     * @param budget The validation's budget (null for none).
+     * @param progress The progress to update (null for none).
+     * @throws IOException If the records cannot be read.
+     */
+    private void validateRecords(RecordSource source, RulePlan plan, long lineNumberOffset, long previousLineNumber, ReportCollector collector, ValidationMetrics metrics, ValidationBudget budget, ValidationProgress progress) throws IOException {
+        boolean timed = metrics.isTimed();
+        long[] ruleNanos = metrics.getRuleNanos();
+        long maximumRows = (budget != null)?budget.getMaximumRows():Long.MAX_VALUE;
+        long maximumErrors = (budget != null)?budget.getMaximumErrors():Long.MAX_VALUE;
+        // Validate in batches if any rule supports this (of at most as many records as errors allowed, as each record
+        // with errors adds at least one).
+        int batchSize = (int) Math.min(BATCH_SIZE, maximumErrors);
+        BatchEvaluator batchEvaluator = plan.hasBatchRules()?plan.createBatchEvaluator(batchSize, collector, timed?ruleNanos:null):null;
+        boolean stopped = false;
+        long rows = 0L;
+        long readNanos = 0L;
+        long readStart = timed?System.nanoTime():0L;
+        // Validation per row.
+        while (source.next()) {
+            if (rows == maximumRows) {
+                // There are more records than the budget allows.
+                budget.reachRows();
+                stopped = true;
+                break;
+            }
+            if (timed) {
+                readNanos += System.nanoTime() - readStart;
+            }
+            // Determine the correct line number.
+            long reportedLineNumber = lineNumberOffset + source.getCurrentLineNumber();
+            if (reportedLineNumber == previousLineNumber) {
+                // This can come up in the last record if there is no EOL at the end of the file.
+                reportedLineNumber += 1;
+            }
+            // Call all rules for the parsed record.
+            if (batchEvaluator != null) {
+                batchEvaluator.add(source.current(), reportedLineNumber);
+                if (timed) {
+                    readStart = System.nanoTime();
+                }
+            } else if (timed) {
+                plan.validate(source.current(), reportedLineNumber, collector, ruleNanos);
+                readStart = System.nanoTime();
+            } else {
+                plan.validate(source.current(), reportedLineNumber, collector);
+            }
+            previousLineNumber = reportedLineNumber;
+            rows += 1;
+            // With batch rules, the errors found so far only change when a batch is validated (once full), so this
+            // is then checked after each batch.
+            if (collector.getCounterErrors() >= maximumErrors) {
+                budget.reachErrors();
+                // Validation only stopped early if there are further records.
+                stopped = source.next();
+                break;
+            }
+            // Batches are validated at least every BATCH_SIZE records, so the findings of all records so far are then
+            // collected.
+            if (rows % BATCH_SIZE == 0) {
+                if (progress != null) {
+                    progress.update(collector, rows, source.getBytesRead());
+                }
+                if (budget != null && budget.isReached(collector.getCounterErrors())) {
+                    // Validation only stopped early if there are further records.
+                    stopped = source.next();
+                    break;
+                }
+            }
+        }
+        if (timed) {
+            readNanos += System.nanoTime() - readStart;
+        }
+        if (batchEvaluator != null) {
+            batchEvaluator.flush();
+        }
+        if (stopped) {
+            collector.stop(previousLineNumber);
+        }
+        if (progress != null) {
+            progress.update(collector, rows, source.getBytesRead());
+        }
+        metrics.addRows(rows);
+        metrics.addReadNanos(readNanos);
     }
 
     /**
@@ -133,34 +1038,37 @@ public class PluginInterface implements ValidationService {
      * @return The date/time.
      */
     private XMLGregorianCalendar getXMLGregorianCalendarDateTime() {
-        GregorianCalendar calendar = new GregorianCalendar();
-        try {
-            return DatatypeFactory.newInstance().newXMLGregorianCalendar(calendar);
-        } catch (DatatypeConfigurationException e) {
-            throw new IllegalStateException("Unable to construct data type factory for date", e);
-        }
+        return DATATYPE_FACTORY.get().newXMLGregorianCalendar(new GregorianCalendar());
     }
 
     /**
      * Convert the collected error messages to the standard report format that will be processed by the
      * core validator.
      *
+     * Messages are rendered here (and only here) through a single reusable builder. This is package-private so that it
+     * can also be benchmarked separately.
+     *
      * @param errorMessages The error messages to consider.
      * @return The plugin report.
      */
-    private TAR toTAR(List<ReportItem> errorMessages, long counterErrors, long counterWarnings, long counterInformationMessages) {
+    TAR toTAR(ReportContent errorMessages, long counterErrors, long counterWarnings, long counterInformationMessages) {
         TAR report = new TAR();
         report.setDate(getXMLGregorianCalendarDateTime());
         report.setCounters(new ValidationCounters());
         report.setReports(new TestAssertionGroupReportsType());
         report.setContext(new AnyContent());
         if (errorMessages != null) {
-            for (ReportItem errorMessage : errorMessages) {
+            StringBuilder builder = new StringBuilder(256);
+            for (int i = 0; i < errorMessages.size(); i++) {
                 BAR error = new BAR();
-                error.setDescription(errorMessage.getReportMessage());
-                error.setLocation(String.format("%s:%s:0", INPUT__CONTENT_TO_VALIDATE, errorMessage.getLineNumber()));
-                error.setValue(errorMessage.getValue());
-                switch (errorMessage.getViolationLevel()) {
+                builder.setLength(0);
+                errorMessages.appendReportMessage(i, builder);
+                error.setDescription(builder.toString());
+                builder.setLength(0);
+                builder.append(INPUT__CONTENT_TO_VALIDATE).append(':').append(errorMessages.getLineNumber(i)).append(":0");
+                error.setLocation(builder.toString());
+                error.setValue(errorMessages.getValue(i));
+                switch (errorMessages.getViolationLevel(i)) {
                     case ERROR:
                         report.getReports().getInfoOrWarningOrError().add(objectFactory.createTestAssertionGroupReportsTypeError(error));
                         break;
@@ -189,4 +1097,22 @@ public class PluginInterface implements ValidationService {
         return report;
     }
 
+    /**
+     * The approaches to validate a file.
+     */
+    enum Strategy {
+
+        /** Use the most efficient applicable approach. */
+        AUTOMATIC,
+        /** Validate chunks of the file in parallel. */
+        PARALLEL,
+        /** Validate the memory-mapped file's bytes on the current thread. */
+        MAPPED,
+        /** Validate with the CSV parser, with pipelined reading, parsing and validation. */
+        PIPELINED,
+        /** Validate with the CSV parser on the current thread. */
+        SEQUENTIAL
+
+    }
+
 }
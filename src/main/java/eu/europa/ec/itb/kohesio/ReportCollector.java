@@ -0,0 +1,184 @@
+package eu.europa.ec.itb.kohesio;
+
+import eu.europa.ec.itb.kohesio.model.MessageTemplate;
+import eu.europa.ec.itb.kohesio.model.ReportBuffer;
+import eu.europa.ec.itb.kohesio.model.ReportContent;
+import eu.europa.ec.itb.kohesio.model.ViolationAggregator;
+import eu.europa.ec.itb.kohesio.model.ViolationLevel;
+
+/**
+ * Violation reporter that counts all recorded items per violation level and keeps a capped buffer of them.
+ *
+ * Counters are always exact, whereas the retained items are the first ones received up to the configured maximum.
+ * If aggregation is enabled, identical findings are instead grouped in single items (see ViolationAggregator), in
+ * which case the maximum applies to the number of groups. If a spill is configured, all recorded items are also written
+ * to it (see ViolationSpill). If validation stops early (see ValidationBudget), the collector records the last validated
+ * line, its results then only covering the content up to that line.
+ */
+public class ReportCollector implements ViolationReporter {
+
+    private final long maximumItems;
+    private final boolean aggregate;
+    private final ReportBuffer items;
+    private final ViolationAggregator aggregatedItems;
+    private final ViolationSpill spill;
+    private long counterErrors = 0L;
+    private long counterWarnings = 0L;
+    private long counterInformationMessages = 0L;
+    private long lastLineNumber = -1L;
+
+    /**
+     * Constructor.
+     *
+     * @param maximumItems The maximum number of report items to retain.
+     */
+    public ReportCollector(long maximumItems) {
+        this(maximumItems, false);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param maximumItems The maximum number of report items (or groups if aggregating) to retain.
+     * @param aggregate Whether identical findings should be aggregated.
+     */
+    public ReportCollector(long maximumItems, boolean aggregate) {
+        this(maximumItems, aggregate, null);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param maximumItems The maximum number of report items (or groups if aggregating) to retain.
+     * @param aggregate Whether identical findings should be aggregated.
+     * @param spill The spill to write all items to (null for none).
+     */
+    public ReportCollector(long maximumItems, boolean aggregate, ViolationSpill spill) {
+        this.maximumItems = maximumItems;
+        this.aggregate = aggregate;
+        this.spill = spill;
+        if (aggregate) {
+            this.items = null;
+            this.aggregatedItems = new ViolationAggregator(maximumItems);
+        } else {
+            this.items = new ReportBuffer(maximumItems);
+            this.aggregatedItems = null;
+        }
+    }
+
+    /**
+     * Create a collector for a part of the content, whose results are to be merged to this one once complete.
+     *
+     * If this collector is already full, the new collector only counts findings. If aggregating, the new collector
+     * instead retains all its groups (bounded by the part's findings): the maximum number of groups only applies when
+     * merging, as the part cannot tell which of its groups are retained here, so that occurrences are counted exactly as
+     * when validating sequentially. If a spill is configured, the new collector writes to a part of it.
+     *
+     * @return The new collector.
+     */
+    public ReportCollector createPartCollector() {
+        return new ReportCollector(aggregate?Long.MAX_VALUE:(isFull()?0L:maximumItems), aggregate, (spill == null)?null:spill.createPart());
+    }
+
+    /**
+     * @see ViolationReporter#record(MessageTemplate, String, long, String, ViolationLevel, String...)
+     */
+    @Override
+    public void record(MessageTemplate template, String fieldName, long lineNumber, String value, ViolationLevel violationLevel, String... arguments) {
+        count(violationLevel, 1L);
+        if (spill != null) {
+            spill.record(template, fieldName, lineNumber, value, violationLevel, arguments);
+        }
+        if (aggregate) {
+            aggregatedItems.add(template, fieldName, lineNumber, value, violationLevel, arguments);
+        } else {
+            items.add(template, fieldName, lineNumber, value, violationLevel, arguments);
+        }
+    }
+
+    /**
+     * Count findings without retaining them (e.g. findings that were not retained when originally collected).
+     *
+     * @param violationLevel The findings' violation level.
+     * @param occurrences The number of findings.
+     */
+    public void count(ViolationLevel violationLevel, long occurrences) {
+        if (violationLevel == ViolationLevel.ERROR) {
+            counterErrors += occurrences;
+        } else if (violationLevel == ViolationLevel.WARNING) {
+            counterWarnings += occurrences;
+        } else if (violationLevel == ViolationLevel.INFO) {
+            counterInformationMessages += occurrences;
+        }
+    }
+
+    /**
+     * Record that validation stopped early, after the record at the given line.
+     *
+     * @param lineNumber The line number of the last validated record.
+     */
+    public void stop(long lineNumber) {
+        lastLineNumber = lineNumber;
+    }
+
+    /**
+     * @return Whether validation stopped early (in which case no further results are to be merged).
+     */
+    public boolean isStopped() {
+        return lastLineNumber >= 0L;
+    }
+
+    /**
+     * @return The line number of the last validated record if validation stopped early (-1 otherwise).
+     */
+    public long getLastLineNumber() {
+        return lastLineNumber;
+    }
+
+    /**
+     * Append the results of another collector to this one. The other collector's items are considered to follow
+     * the ones already collected here. If validation stopped early for the other collector, it is also considered
+     * stopped for this one.
+     *
+     * @param other The collector to merge.
+     */
+    public void merge(ReportCollector other) {
+        counterErrors += other.counterErrors;
+        counterWarnings += other.counterWarnings;
+        counterInformationMessages += other.counterInformationMessages;
+        if (aggregate) {
+            aggregatedItems.addAll(other.aggregatedItems);
+        } else {
+            items.addAll(other.items);
+        }
+        if (spill != null && other.spill != null) {
+            spill.append(other.spill);
+        }
+        if (other.isStopped()) {
+            lastLineNumber = other.lastLineNumber;
+        }
+    }
+
+    /**
+     * @return Whether the maximum number of retained items has been reached.
+     */
+    public boolean isFull() {
+        return aggregate?aggregatedItems.isFull():items.isFull();
+    }
+
+    public ReportContent getItems() {
+        return aggregate?aggregatedItems:items;
+    }
+
+    public long getCounterErrors() {
+        return counterErrors;
+    }
+
+    public long getCounterWarnings() {
+        return counterWarnings;
+    }
+
+    public long getCounterInformationMessages() {
+        return counterInformationMessages;
+    }
+}
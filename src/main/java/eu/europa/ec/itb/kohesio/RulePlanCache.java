@@ -0,0 +1,179 @@
+package eu.europa.ec.itb.kohesio;
+
+import eu.europa.ec.itb.kohesio.rules.Rule;
+import eu.europa.ec.itb.kohesio.rules.RulePlan;
+import org.apache.commons.csv.CSVFormat;
+import org.apache.commons.csv.CSVParser;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.UncheckedIOException;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * Cache of the CSV formats and rule plans prepared for validations, shared across validation calls.
+ *
+ * Formats are prepared once per delimiter and quote character. Plans are compiled once per header signature (the
+ * header's field names in order) and delimiter and quote character, with each validation then using its own plan
+ * derived from the cached one (see RulePlan#forFile) so that stateful rules start from an empty state. The number of
+ * cached plans is bounded, the least recently used plan being evicted to make room for a new header. Instances are
+ * thread-safe.
+ */
+public class RulePlanCache {
+
+    private static final int MAXIMUM_PLANS = 64;
+
+    private final Rule[] rules;
+    private final Map<Integer, CSVFormat> formats = new ConcurrentHashMap<>();
+    private final Map<PlanKey, RulePlan> plans = new LinkedHashMap<>(16, 0.75f, true) {
+
+        private static final long serialVersionUID = 1L;
+
+        /**
+         * @see LinkedHashMap#removeEldestEntry(Map.Entry)
+         */
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<PlanKey, RulePlan> eldest) {
+            return size() > MAXIMUM_PLANS;
+        }
+
+    };
+
+    /**
+     * Constructor.
+     *
+     * @param rules The rules to compile plans for.
+     */
+    public RulePlanCache(Rule[] rules) {
+        this.rules = rules;
+    }
+
+    /**
+     * Get the CSV format to use for parsing files.
+     *
+     * @param delimiter The field delimiter.
+     * @param quote The quote character.
+     * @return The format.
+     */
+    public CSVFormat getFormat(char delimiter, char quote) {
+        return formats.computeIfAbsent((delimiter << 16) | quote, (key) -> createFormat(delimiter, quote));
+    }
+
+    /**
+     * Get the plan to use for validating a file.
+     *
+     * @param parser The file's parser (with its header already processed).
+     * @param delimiter The field delimiter.
+     * @param quote The quote character.
+     * @return The plan (specific to the file).
+     */
+    public RulePlan getPlan(CSVParser parser, char delimiter, char quote) {
+        PlanKey key = new PlanKey(parser.getHeaderNames(), delimiter, quote);
+        RulePlan plan;
+        synchronized (plans) {
+            plan = plans.get(key);
+        }
+        if (plan == null) {
+            // Compile outside the lock so that other headers are not held up.
+            RulePlan compiledPlan = RulePlan.compile(rules, parser);
+            synchronized (plans) {
+                plan = plans.computeIfAbsent(key, (newKey) -> compiledPlan);
+            }
+        }
+        return plan.forFile();
+    }
+
+    /**
+     * Prepare and cache the plan for a header, so that the first validation of a file with this header does not compile
+     * it.
+     *
+     * @param headerNames The header's field names.
+     * @param delimiter The field delimiter.
+     * @param quote The quote character.
+     * @throws UncheckedIOException If the header cannot be parsed.
+     */
+    public void prepare(List<String> headerNames, char delimiter, char quote) {
+        String quoteString = String.valueOf(quote);
+        String header = headerNames.stream()
+                .map((name) -> quoteString + name.replace(quoteString, quoteString + quoteString) + quoteString)
+                .collect(Collectors.joining(String.valueOf(delimiter)));
+        try (CSVParser parser = getFormat(delimiter, quote).parse(new StringReader(header))) {
+            getPlan(parser, delimiter, quote);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Define the syntax options for the CSV file parsing.
+     *
+     * @param delimiter The field delimiter.
+     * @param quote The quote character.
+     * @return The format.
+     */
+    private static CSVFormat createFormat(char delimiter, char quote) {
+        return CSVFormat.RFC4180
+                .withIgnoreHeaderCase(false)
+                .withAllowDuplicateHeaderNames(true)
+                .withIgnoreSurroundingSpaces(true)
+                .withRecordSeparator("\n")
+                .withDelimiter(delimiter)
+                .withQuote(quote)
+                .withHeader();
+    }
+
+    /**
+     * Key of a cached plan.
+     */
+    private static class PlanKey {
+
+        private final List<String> headerNames;
+        private final char delimiter;
+        private final char quote;
+        private final int hashCode;
+
+        /**
+         * Constructor.
+         *
+         * @param headerNames The header's field names.
+         * @param delimiter The field delimiter.
+         * @param quote The quote character.
+         */
+        PlanKey(List<String> headerNames, char delimiter, char quote) {
+            this.headerNames = headerNames;
+            this.delimiter = delimiter;
+            this.quote = quote;
+            this.hashCode = Objects.hash(headerNames, delimiter, quote);
+        }
+
+        /**
+         * @see Object#equals(Object)
+         */
+        @Override
+        public boolean equals(Object other) {
+            if (this == other) {
+                return true;
+            }
+            if (!(other instanceof PlanKey)) {
+                return false;
+            }
+            PlanKey otherKey = (PlanKey) other;
+            return delimiter == otherKey.delimiter && quote == otherKey.quote && headerNames.equals(otherKey.headerNames);
+        }
+
+        /**
+         * @see Object#hashCode()
+         */
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
+
+    }
+
+}
@@ -0,0 +1,156 @@
+package eu.europa.ec.itb.kohesio;
+
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Execution budget of a validation, to stop validating once a maximum time, number of rows or number of errors is
+ * reached.
+ *
+ * Each limit can be set per validation and capped for all validations through system properties, the lowest of both
+ * applying. The time is measured from the budget's creation. Instances are thread-safe.
+ */
+public class ValidationBudget {
+
+    /**
+     * System property for the maximum validation time in milliseconds (applying to all validations).
+     */
+    public static final String PROPERTY__MAXIMUM_TIME = "kohesio.budget.maximumTime";
+    /**
+     * System property for the maximum number of rows to validate (applying to all validations).
+     */
+    public static final String PROPERTY__MAXIMUM_ROWS = "kohesio.budget.maximumRows";
+    /**
+     * System property for the number of errors after which to stop validating (applying to all validations).
+     */
+    public static final String PROPERTY__MAXIMUM_ERRORS = "kohesio.budget.maximumErrors";
+
+    private final long maximumTime;
+    private final long maximumRows;
+    private final long maximumErrors;
+    private final long deadline;
+    private final AtomicReference<Limit> reachedLimit = new AtomicReference<>();
+
+    /**
+     * Constructor.
+     *
+     * @param maximumTime The maximum validation time in milliseconds (Long.MAX_VALUE for no limit).
+     * @param maximumRows The maximum number of rows to validate (Long.MAX_VALUE for no limit).
+     * @param maximumErrors The number of errors after which to stop validating (Long.MAX_VALUE for no limit).
+     */
+    public ValidationBudget(long maximumTime, long maximumRows, long maximumErrors) {
+        this.maximumTime = Math.min(maximumTime, getLimitProperty(PROPERTY__MAXIMUM_TIME));
+        this.maximumRows = Math.min(maximumRows, getLimitProperty(PROPERTY__MAXIMUM_ROWS));
+        this.maximumErrors = Math.min(maximumErrors, getLimitProperty(PROPERTY__MAXIMUM_ERRORS));
+        long start = System.nanoTime();
+        this.deadline = (this.maximumTime == Long.MAX_VALUE)?Long.MAX_VALUE:start + TimeUnit.MILLISECONDS.toNanos(this.maximumTime);
+    }
+
+    /**
+     * @return Whether the number of rows or of errors is limited (which requires validating the records in order).
+     */
+    public boolean limitsRecords() {
+        return maximumRows != Long.MAX_VALUE || maximumErrors != Long.MAX_VALUE;
+    }
+
+    /**
+     * @return The maximum number of rows to validate (Long.MAX_VALUE for no limit).
+     */
+    public long getMaximumRows() {
+        return maximumRows;
+    }
+
+    /**
+     * @return The number of errors after which to stop validating (Long.MAX_VALUE for no limit).
+     */
+    public long getMaximumErrors() {
+        return maximumErrors;
+    }
+
+    /**
+     * Check whether the validation time or number of errors is reached.
+     *
+     * @param errors The number of errors found so far.
+     * @return Whether the validation is to stop.
+     */
+    public boolean isReached(long errors) {
+        if (reachedLimit.get() != null) {
+            return true;
+        }
+        if (errors >= maximumErrors) {
+            return reach(Limit.ERRORS);
+        }
+        if (deadline != Long.MAX_VALUE && System.nanoTime() - deadline >= 0) {
+            return reach(Limit.TIME);
+        }
+        return false;
+    }
+
+    /**
+     * Record that there are more rows than the maximum number of rows to validate.
+     */
+    public void reachRows() {
+        reach(Limit.ROWS);
+    }
+
+    /**
+     * Record that the number of errors after which to stop validating is reached.
+     */
+    public void reachErrors() {
+        reach(Limit.ERRORS);
+    }
+
+    /**
+     * @return The limit that stopped the validation (empty if none).
+     */
+    public Optional<Limit> getReachedLimit() {
+        return Optional.ofNullable(reachedLimit.get());
+    }
+
+    /**
+     * Describe a limit for the report.
+     *
+     * @param limit The limit.
+     * @return The description.
+     */
+    public String describe(Limit limit) {
+        switch (limit) {
+            case TIME: return String.format("validation time (%s ms)", maximumTime);
+            case ROWS: return String.format("number of rows (%s)", maximumRows);
+            default: return String.format("number of errors (%s)", maximumErrors);
+        }
+    }
+
+    /**
+     * Record a reached limit (unless another one was already reached).
+     *
+     * @param limit The limit.
+     * @return True.
+     */
+    private boolean reach(Limit limit) {
+        reachedLimit.compareAndSet(null, limit);
+        return true;
+    }
+
+    /**
+     * Get a limit set through a system property.
+     *
+     * @param property The property's name.
+     * @return The limit (Long.MAX_VALUE if not set or not positive).
+     */
+    private static long getLimitProperty(String property) {
+        long value = Long.getLong(property, Long.MAX_VALUE);
+        return (value > 0)?value:Long.MAX_VALUE;
+    }
+
+    /**
+     * The limits of a budget.
+     */
+    public enum Limit {
+
+        TIME, ROWS, ERRORS
+
+    }
+
+}
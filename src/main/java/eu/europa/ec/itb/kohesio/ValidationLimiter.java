@@ -0,0 +1,144 @@
+package eu.europa.ec.itb.kohesio;
+
+import java.util.Optional;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Limiter of the number of validations running concurrently, shared by all plugin instances.
+ *
+ * Validations beyond the limit wait for a running one to complete, in arrival order. Validations of large files
+ * first wait for one of the slots available to large files, which are limited to a share of all slots, so that a
+ * burst of large files always leaves slots for smaller ones. The exception is a limiter with a single slot, which large
+ * files can then take. Instances are thread-safe.
+ */
+public class ValidationLimiter {
+
+    /**
+     * System property for the maximum number of concurrent validations (the limiter is disabled if not set).
+     */
+    public static final String PROPERTY__MAXIMUM_VALIDATIONS = "kohesio.concurrency.maximumValidations";
+    /**
+     * System property for the maximum number of concurrent validations of large files (half of all validations by
+     * default, and at most all validations but one).
+     */
+    public static final String PROPERTY__MAXIMUM_LARGE_VALIDATIONS = "kohesio.concurrency.maximumLargeValidations";
+    /**
+     * System property for the size in bytes from which a file is considered large.
+     */
+    public static final String PROPERTY__LARGE_FILE_SIZE = "kohesio.concurrency.largeFileSize";
+
+    private static final long DEFAULT_LARGE_FILE_SIZE = 16L * 1024 * 1024;
+    private static final Optional<ValidationLimiter> INSTANCE = create();
+
+    private final Semaphore slots;
+    private final Semaphore largeSlots;
+    private final long largeFileSize;
+
+    /**
+     * Constructor.
+     *
+     * @param maximumValidations The maximum number of concurrent validations.
+     * @param maximumLargeValidations The maximum number of concurrent validations of large files.
+     * @param largeFileSize The size in bytes from which a file is considered large.
+     */
+    public ValidationLimiter(int maximumValidations, int maximumLargeValidations, long largeFileSize) {
+        this.slots = new Semaphore(maximumValidations, true);
+        this.largeSlots = new Semaphore(maximumLargeValidations, true);
+        this.largeFileSize = largeFileSize;
+    }
+
+    /**
+     * Get the limiter configured through system properties (the same for all callers).
+     *
+     * @return The limiter (empty if not configured).
+     */
+    public static Optional<ValidationLimiter> fromSystemProperties() {
+        return INSTANCE;
+    }
+
+    /**
+     * Wait for a slot to validate a file.
+     *
+     * @param fileSize The size of the file to validate in bytes.
+     * @return The slot, to close once the validation completes.
+     * @throws IllegalStateException If the thread is interrupted while waiting.
+     */
+    public Slot acquire(long fileSize) {
+        boolean large = fileSize >= largeFileSize;
+        try {
+            if (large) {
+                largeSlots.acquire();
+            }
+            try {
+                slots.acquire();
+            } catch (InterruptedException e) {
+                if (large) {
+                    largeSlots.release();
+                }
+                throw e;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting to validate", e);
+        }
+        return new Slot(large);
+    }
+
+    /**
+     * @return The number of validations waiting for a slot (an estimate).
+     */
+    public int getQueueLength() {
+        return slots.getQueueLength() + largeSlots.getQueueLength();
+    }
+
+    /**
+     * Create the limiter configured through system properties.
+     *
+     * @return The limiter (empty if not configured).
+     */
+    private static Optional<ValidationLimiter> create() {
+        int maximumValidations = Integer.getInteger(PROPERTY__MAXIMUM_VALIDATIONS, 0);
+        if (maximumValidations <= 0) {
+            return Optional.empty();
+        }
+        int maximumLargeValidations = Integer.getInteger(PROPERTY__MAXIMUM_LARGE_VALIDATIONS, Math.max(1, maximumValidations / 2));
+        // At least one slot is always left for smaller files (unless there is a single slot).
+        maximumLargeValidations = Math.max(1, Math.min(maximumLargeValidations, maximumValidations - 1));
+        long largeFileSize = Long.getLong(PROPERTY__LARGE_FILE_SIZE, DEFAULT_LARGE_FILE_SIZE);
+        return Optional.of(new ValidationLimiter(maximumValidations, maximumLargeValidations, largeFileSize));
+    }
+
+    /**
+     * A slot held by a running validation.
+     */
+    public class Slot implements AutoCloseable {
+
+        private final boolean large;
+        private boolean released = false;
+
+        /**
+         * Constructor.
+         *
+         * @param large Whether the slot is also one of the slots for large files.
+         */
+        private Slot(boolean large) {
+            this.large = large;
+        }
+
+        /**
+         * Release the slot (once).
+         */
+        @Override
+        public void close() {
+            if (!released) {
+                released = true;
+                slots.release();
+                if (large) {
+                    largeSlots.release();
+                }
+            }
+        }
+
+    }
+
+}
@@ -0,0 +1,37 @@
+package eu.europa.ec.itb.kohesio;
+
+import eu.europa.ec.itb.kohesio.model.ReportItem;
+
+import java.util.List;
+
+/**
+ * Listener of a validation's findings and progress while the validation runs (see PluginInterface#validate).
+ *
+ * The listener is called on the thread running the validation, so it should return quickly (e.g. by handing over the
+ * received information to another thread). The findings passed are the report's items, in the report's order, as
+ * they become available. Their messages are without the row and field information added in the report. When findings
+ * are aggregated, they are only received once the validation completes, each item then standing for a group of
+ * findings through its first occurrence. The validation's final report is not affected by the listener.
+ */
+public interface ValidationListener {
+
+    /**
+     * Receive findings that will be included in the report, following those already received.
+     *
+     * @param items The findings.
+     */
+    default void onFindings(List<ReportItem> items) {
+        // Nothing by default.
+    }
+
+    /**
+     * Receive the validation's progress.
+     *
+     * @param rows The number of rows validated so far.
+     * @param bytesRead The number of bytes of (decompressed) content read so far.
+     */
+    default void onProgress(long rows, long bytesRead) {
+        // Nothing by default.
+    }
+
+}
@@ -0,0 +1,103 @@
+package eu.europa.ec.itb.kohesio;
+
+import eu.europa.ec.itb.kohesio.model.ReportContent;
+import eu.europa.ec.itb.kohesio.model.ReportItem;
+import eu.europa.ec.itb.kohesio.model.ViolationLevel;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Tracker of a validation's progress, passing the findings retained in the report and progress updates to a
+ * ValidationListener.
+ *
+ * Findings are passed once each. If validation restarts with another approach, the findings already passed are
+ * skipped, as all approaches find the same findings in the same order. Aggregated findings are only passed once the
+ * validation completes, as their groups can change until then. Progress never decreases (also when validation
+ * restarts). Instances are not thread-safe.
+ */
+public class ValidationProgress {
+
+    private final ValidationListener listener;
+    private final boolean aggregate;
+    private final StringBuilder builder = new StringBuilder(256);
+    private int passedItems = 0;
+    private long rows = 0L;
+    private long bytesRead = 0L;
+
+    /**
+     * Constructor.
+     *
+     * @param listener The listener to notify.
+     * @param aggregate Whether findings are aggregated.
+     */
+    public ValidationProgress(ValidationListener listener, boolean aggregate) {
+        this.listener = listener;
+        this.aggregate = aggregate;
+    }
+
+    /**
+     * Notify the listener of the findings collected and the rows validated so far.
+     *
+     * @param collector The validation's collector.
+     * @param rows The number of rows validated so far.
+     * @param bytesRead The number of bytes of content read so far (-1 if unknown).
+     */
+    public void update(ReportCollector collector, long rows, long bytesRead) {
+        if (!aggregate) {
+            passFindings(collector.getItems());
+        }
+        passProgress(rows, bytesRead);
+    }
+
+    /**
+     * Notify the listener of the remaining findings once the validation completes.
+     *
+     * @param collector The validation's collector.
+     * @param rows The number of validated rows.
+     */
+    public void complete(ReportCollector collector, long rows) {
+        passFindings(collector.getItems());
+        passProgress(rows, -1L);
+    }
+
+    /**
+     * Pass the findings not yet passed to the listener.
+     *
+     * @param items The findings retained so far.
+     */
+    private void passFindings(ReportContent items) {
+        int size = items.size();
+        if (size > passedItems) {
+            List<ReportItem> newItems = new ArrayList<>(size - passedItems);
+            for (int i = passedItems; i < size; i++) {
+                ViolationLevel violationLevel = items.getViolationLevel(i);
+                // As in the report, items without level are skipped.
+                if (violationLevel != ViolationLevel.NONE) {
+                    builder.setLength(0);
+                    items.appendMessage(i, builder);
+                    newItems.add(new ReportItem(builder.toString(), items.getFieldName(i), items.getLineNumber(i), items.getValue(i), violationLevel));
+                }
+            }
+            passedItems = size;
+            if (!newItems.isEmpty()) {
+                listener.onFindings(newItems);
+            }
+        }
+    }
+
+    /**
+     * Pass the progress to the listener if it increased.
+     *
+     * @param rows The number of rows validated so far.
+     * @param bytesRead The number of bytes of content read so far (-1 if unknown).
+     */
+    private void passProgress(long rows, long bytesRead) {
+        if (rows > this.rows || bytesRead > this.bytesRead) {
+            this.rows = Math.max(this.rows, rows);
+            this.bytesRead = Math.max(this.bytesRead, bytesRead);
+            listener.onProgress(this.rows, this.bytesRead);
+        }
+    }
+
+}
@@ -1,17 +1,35 @@
 package eu.europa.ec.itb.kohesio;
 
+import eu.europa.ec.itb.kohesio.model.MessageTemplate;
 import eu.europa.ec.itb.kohesio.model.ReportItem;
+import eu.europa.ec.itb.kohesio.model.ViolationLevel;
 
 /**
  * Interface for classes that will be collecting report items.
  */
 public interface ViolationReporter {
 
+    /**
+     * Receive a report item to be recorded in the plugin's report.
+     *
+     * The item's message is passed as a template and arguments, so that it is only rendered if and when needed.
+     *
+     * @param template The item's message template (must be always provided).
+     * @param fieldName The field that this item relates to (may be null if there is no such single field).
+     * @param lineNumber The input content's line number the item relates to.
+     * @param value The input value that caused the item (may be null).
+     * @param violationLevel The violation level for this report item.
+     * @param arguments The arguments for the message template.
+     */
+    void record(MessageTemplate template, String fieldName, long lineNumber, String value, ViolationLevel violationLevel, String... arguments);
+
     /**
      * Receive a report item to be recorded in the plugin's report.
      *
      * @param reportItem The item to record.
      */
-    void record(ReportItem reportItem);
+    default void record(ReportItem reportItem) {
+        record(MessageTemplate.RAW, reportItem.getFieldName(), reportItem.getLineNumber(), reportItem.getValue(), reportItem.getViolationLevel(), reportItem.getMessage());
+    }
 
 }
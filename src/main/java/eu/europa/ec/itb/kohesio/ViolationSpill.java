@@ -0,0 +1,346 @@
+package eu.europa.ec.itb.kohesio;
+
+import eu.europa.ec.itb.kohesio.model.MessageTemplate;
+import eu.europa.ec.itb.kohesio.model.ViolationLevel;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.CharBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Writer of all findings of a validation to a CSV file, independently of the report's maximum number of items.
+ *
+ * Each finding is written as soon as it is recorded as a CSV record with the line number, violation level, field
+ * name, value and message. The file is written through a memory-mapped window that is moved forward as the file
+ * grows, so that heap usage does not depend on the number of findings. When validating parts of a file in parallel,
+ * each part writes to its own spill (see createPart) whose content is appended to the main spill when merged, so that
+ * findings are in the same order as in the report.
+ *
+ * The resulting file is not deleted by the plugin once the validation completes (unless it fails), as the caller reads
+ * it afterwards. Instead, files older than the maximum age (one day unless configured) are deleted from the directory
+ * when a new spill is created. Instances are not thread-safe, besides the creation of parts. Findings recorded once a
+ * spill is closed or deleted are ignored.
+ *
+ * The windows are not unmapped explicitly (Java offers no means to), but only released once garbage collected. Files
+ * are truncated to their content and parts' files deleted once all references to their windows are dropped but while
+ * the windows may still be mapped, which requires the file system semantics of Linux and other POSIX systems (Windows
+ * refuses to truncate or delete a file with a mapped region): spilling is only supported on these systems.
+ */
+public class ViolationSpill implements ViolationReporter {
+
+    /**
+     * System property for the directory to write spill files to (the system's temporary directory if not set).
+     */
+    public static final String PROPERTY__DIRECTORY = "kohesio.spill.directory";
+    /**
+     * System property for the age in milliseconds after which spill files are deleted from the directory (one day if not
+     * set, with a negative value keeping them indefinitely).
+     */
+    public static final String PROPERTY__MAXIMUM_AGE = "kohesio.spill.maximumAge";
+
+    private static final long DEFAULT_MAXIMUM_AGE = 24L * 60 * 60 * 1000;
+    private static final long WINDOW_SIZE = 8L * 1024 * 1024;
+    private static final String HEADER = "Line,Level,Field,Value,Message\n";
+    private static final String FILE_PREFIX = "kohesio-violations-";
+
+    private final Path file;
+    private final FileChannel channel;
+    private final CharsetEncoder encoder = StandardCharsets.UTF_8.newEncoder()
+            .onMalformedInput(CodingErrorAction.REPLACE)
+            .onUnmappableCharacter(CodingErrorAction.REPLACE);
+    private final StringBuilder line = new StringBuilder(256);
+    private final List<ViolationSpill> openParts = new ArrayList<>();
+    private MappedByteBuffer window;
+    private long windowStart = 0L;
+    private long count = 0L;
+    private volatile boolean closed = false;
+
+    /**
+     * Constructor.
+     *
+     * @param file The file to write to (created if needed).
+     * @throws IOException If the file cannot be opened.
+     */
+    private ViolationSpill(Path file) throws IOException {
+        this.file = file;
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        map(0L);
+    }
+
+    /**
+     * Create a spill in a new file of the configured directory, starting with the CSV header record.
+     *
+     * @return The spill.
+     * @throws IOException If the file cannot be created.
+     */
+    public static ViolationSpill create() throws IOException {
+        String directoryPath = System.getProperty(PROPERTY__DIRECTORY);
+        Path directory = (directoryPath == null || directoryPath.isBlank())?Path.of(System.getProperty("java.io.tmpdir")):Path.of(directoryPath);
+        Files.createDirectories(directory);
+        long maximumAge = Long.getLong(PROPERTY__MAXIMUM_AGE, DEFAULT_MAXIMUM_AGE);
+        if (maximumAge >= 0L) {
+            deleteExpiredFiles(directory, System.currentTimeMillis() - maximumAge);
+        }
+        ViolationSpill spill = new ViolationSpill(Files.createTempFile(directory, FILE_PREFIX, ".csv"));
+        spill.write(HEADER);
+        return spill;
+    }
+
+    /**
+     * Create the spill for a part of the content, to be appended to this one once complete (see append).
+     *
+     * @return The part's spill.
+     * @throws UncheckedIOException If the part's file cannot be created.
+     */
+    public ViolationSpill createPart() {
+        try {
+            ViolationSpill part = new ViolationSpill(Files.createTempFile(file.getParent(), FILE_PREFIX + "part-", ".csv"));
+            synchronized (openParts) {
+                openParts.add(part);
+            }
+            return part;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * @see ViolationReporter#record(MessageTemplate, String, long, String, ViolationLevel, String...)
+     */
+    @Override
+    public void record(MessageTemplate template, String fieldName, long lineNumber, String value, ViolationLevel violationLevel, String... arguments) {
+        if (closed) {
+            return;
+        }
+        line.setLength(0);
+        line.append(lineNumber).append(',').append(violationLevel.name()).append(',');
+        appendValue(fieldName);
+        line.append(',');
+        appendValue(value);
+        line.append(',');
+        int messageStart = line.length();
+        template.appendTo(line, arguments, 0);
+        escape(messageStart);
+        line.append('\n');
+        write(line);
+        count += 1;
+    }
+
+    /**
+     * Append the content of a part's spill (see createPart) to this one and delete the part's file.
+     *
+     * @param part The part's spill.
+     */
+    public void append(ViolationSpill part) {
+        synchronized (openParts) {
+            openParts.remove(part);
+        }
+        try {
+            part.truncate();
+            long partSize = part.channel.size();
+            long position = 0L;
+            while (position < partSize) {
+                if (!window.hasRemaining()) {
+                    map(windowStart + window.position());
+                }
+                int bytesRead = part.channel.read(window, position);
+                if (bytesRead < 0) {
+                    break;
+                }
+                position += bytesRead;
+            }
+            count += part.count;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            part.delete();
+        }
+    }
+
+    /**
+     * Discard all findings written so far (e.g. when validation restarts with a different approach).
+     */
+    public void reset() {
+        deleteOpenParts();
+        try {
+            map(0L);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        write(HEADER);
+        count = 0L;
+    }
+
+    /**
+     * @return The spill's file.
+     */
+    public Path getFile() {
+        return file;
+    }
+
+    /**
+     * @return The number of findings written.
+     */
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * Complete and close the file. Parts that were not appended are deleted.
+     *
+     * @throws UncheckedIOException If the file cannot be completed.
+     */
+    public void close() {
+        if (closed) {
+            return;
+        }
+        deleteOpenParts();
+        try {
+            truncate();
+            channel.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Close the spill (if needed) and delete its file and the files of any parts not yet appended.
+     */
+    public void delete() {
+        closed = true;
+        window = null;
+        deleteOpenParts();
+        try {
+            channel.close();
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            // Ignore.
+        }
+    }
+
+    /**
+     * Delete the spill files (including those of parts) last modified before the given time, ignoring files that cannot
+     * be deleted (e.g. as still in use).
+     *
+     * @param directory The spill directory.
+     * @param lastModifiedBefore The time (in milliseconds since the epoch) before which files are deleted.
+     */
+    private static void deleteExpiredFiles(Path directory, long lastModifiedBefore) {
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, FILE_PREFIX + "*.csv")) {
+            for (Path expiredFile: files) {
+                try {
+                    if (Files.getLastModifiedTime(expiredFile).toMillis() < lastModifiedBefore) {
+                        Files.deleteIfExists(expiredFile);
+                    }
+                } catch (IOException e) {
+                    // Ignore.
+                }
+            }
+        } catch (IOException e) {
+            // Ignore.
+        }
+    }
+
+    /**
+     * Stop writing and truncate the file to its content (as the last window extends beyond it).
+     *
+     * @throws IOException If the file cannot be truncated.
+     */
+    private void truncate() throws IOException {
+        closed = true;
+        long size = windowStart + window.position();
+        // Drop the reference to the window before truncating the file it maps (see the class's description).
+        window = null;
+        channel.truncate(size);
+    }
+
+    /**
+     * Delete the files of any parts that were not appended.
+     */
+    private void deleteOpenParts() {
+        synchronized (openParts) {
+            openParts.forEach(ViolationSpill::delete);
+            openParts.clear();
+        }
+    }
+
+    /**
+     * Map the window starting at the given file position.
+     *
+     * @param position The position.
+     * @throws IOException If the file cannot be mapped.
+     */
+    private void map(long position) throws IOException {
+        window = channel.map(FileChannel.MapMode.READ_WRITE, position, WINDOW_SIZE);
+        windowStart = position;
+    }
+
+    /**
+     * Write text to the file, moving the window forward as needed.
+     *
+     * @param text The text.
+     */
+    private void write(CharSequence text) {
+        CharBuffer characters = CharBuffer.wrap(text);
+        try {
+            while (true) {
+                CoderResult result = encoder.encode(characters, window, true);
+                if (result.isOverflow()) {
+                    map(windowStart + window.position());
+                } else {
+                    break;
+                }
+            }
+            encoder.reset();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Append a (nullable) value as a CSV field.
+     *
+     * @param value The value.
+     */
+    private void appendValue(String value) {
+        if (value != null) {
+            int start = line.length();
+            line.append(value);
+            escape(start);
+        }
+    }
+
+    /**
+     * Quote the field starting at the given position of the current line, if it contains special characters.
+     *
+     * @param start The field's start.
+     */
+    private void escape(int start) {
+        boolean quote = false;
+        for (int i = start; i < line.length() && !quote; i++) {
+            char character = line.charAt(i);
+            quote = character == ',' || character == '"' || character == '\n' || character == '\r';
+        }
+        if (quote) {
+            for (int i = line.length() - 1; i >= start; i--) {
+                if (line.charAt(i) == '"') {
+                    line.insert(i, '"');
+                }
+            }
+            line.insert(start, '"').append('"');
+        }
+    }
+
+}
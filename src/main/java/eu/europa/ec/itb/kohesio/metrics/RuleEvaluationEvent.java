@@ -0,0 +1,32 @@
+package eu.europa.ec.itb.kohesio.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+/**
+ * JDK Flight Recorder event with the time spent by a rule over all records of a validation.
+ *
+ * Enabling this event in a recording also enables the per-rule timing of validations.
+ */
+@Name("eu.europa.ec.itb.kohesio.RuleEvaluation")
+@Label("Kohesio Rule Evaluation")
+@Category("Kohesio Plugin")
+@Description("The evaluation of a rule over all records of a validated file")
+public class RuleEvaluationEvent extends Event {
+
+    @Label("Rule")
+    public String rule;
+
+    @Label("Rows")
+    public long rows;
+
+    @Label("Rule Time")
+    @Description("The time spent evaluating the rule (summed over all threads)")
+    @Timespan
+    public long ruleTime;
+
+}
@@ -0,0 +1,58 @@
+package eu.europa.ec.itb.kohesio.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+/**
+ * JDK Flight Recorder event covering a complete validation.
+ */
+@Name("eu.europa.ec.itb.kohesio.Validation")
+@Label("Kohesio Validation")
+@Category("Kohesio Plugin")
+@Description("The validation of a file by the Kohesio plugin")
+public class ValidationEvent extends Event {
+
+    @Label("Strategy")
+    @Description("The approach used to read the file")
+    public String strategy;
+
+    @Label("Bytes Read")
+    @DataAmount
+    public long bytesRead;
+
+    @Label("Rows")
+    public long rows;
+
+    @Label("Rows per Second")
+    public double rowsPerSecond;
+
+    @Label("Read Time")
+    @Description("The time spent reading and parsing records (summed over all threads)")
+    @Timespan
+    public long readTime;
+
+    @Label("Rule Time")
+    @Description("The time spent evaluating rules (summed over all threads)")
+    @Timespan
+    public long ruleTime;
+
+    @Label("Report Time")
+    @Description("The time spent building the report")
+    @Timespan
+    public long reportTime;
+
+    @Label("Errors")
+    public long errors;
+
+    @Label("Warnings")
+    public long warnings;
+
+    @Label("Information Messages")
+    public long informationMessages;
+
+}
@@ -0,0 +1,157 @@
+package eu.europa.ec.itb.kohesio.metrics;
+
+/**
+ * Metrics collected during a validation.
+ *
+ * Row counts are always collected, whereas times for reading records and evaluating rules are only measured if the
+ * metrics are timed (given that this requires reading the clock for each record and rule). Times collected in
+ * parallel are summed so that they represent the overall effort rather than elapsed time.
+ *
+ * Instances are not thread-safe. When validating in parallel, each task uses its own part that is merged once complete.
+ */
+public class ValidationMetrics {
+
+    private final boolean timed;
+    private String strategy;
+    private String[] ruleNames = new String[0];
+    private long[] ruleNanos = new long[0];
+    private long rows = 0L;
+    private long readNanos = 0L;
+    private long bytesRead = 0L;
+    private long validationNanos = 0L;
+    private long reportNanos = 0L;
+
+    /**
+     * Constructor.
+     *
+     * @param timed Whether record reading and rule evaluation times are to be measured.
+     */
+    public ValidationMetrics(boolean timed) {
+        this.timed = timed;
+    }
+
+    /**
+     * Reset the collected record metrics to start a validation with the given approach and rules.
+     *
+     * @param strategy The name of the validation approach.
+     * @param ruleNames The names of the applied rules (in their evaluation order).
+     */
+    public void start(String strategy, String[] ruleNames) {
+        this.strategy = strategy;
+        this.ruleNames = ruleNames;
+        this.ruleNanos = new long[ruleNames.length];
+        this.rows = 0L;
+        this.readNanos = 0L;
+    }
+
+    /**
+     * Create metrics for a part of the validation, to be merged to these ones once complete.
+     *
+     * @return The new metrics.
+     */
+    public ValidationMetrics createPartMetrics() {
+        ValidationMetrics part = new ValidationMetrics(timed);
+        part.start(strategy, ruleNames);
+        return part;
+    }
+
+    /**
+     * Add the record metrics of a part of the validation.
+     *
+     * @param other The part's metrics.
+     */
+    public void merge(ValidationMetrics other) {
+        rows += other.rows;
+        readNanos += other.readNanos;
+        for (int i = 0; i < ruleNanos.length; i++) {
+            ruleNanos[i] += other.ruleNanos[i];
+        }
+    }
+
+    /**
+     * @return Whether times are measured.
+     */
+    public boolean isTimed() {
+        return timed;
+    }
+
+    /**
+     * @return The per-rule evaluation times in nanoseconds (to be updated directly while validating).
+     */
+    public long[] getRuleNanos() {
+        return ruleNanos;
+    }
+
+    /**
+     * @param rows The number of validated rows to add.
+     */
+    public void addRows(long rows) {
+        this.rows += rows;
+    }
+
+    /**
+     * @param readNanos The time to add for reading records.
+     */
+    public void addReadNanos(long readNanos) {
+        this.readNanos += readNanos;
+    }
+
+    /**
+     * @return The sum of all rule evaluation times in nanoseconds.
+     */
+    public long getTotalRuleNanos() {
+        long total = 0L;
+        for (long nanos: ruleNanos) {
+            total += nanos;
+        }
+        return total;
+    }
+
+    /**
+     * @return The validated rows per second (based on the validation's elapsed time).
+     */
+    public double getRowsPerSecond() {
+        return (validationNanos > 0)?(rows * 1_000_000_000.0 / validationNanos):0.0;
+    }
+
+    public String getStrategy() {
+        return strategy;
+    }
+
+    public String[] getRuleNames() {
+        return ruleNames;
+    }
+
+    public long getRows() {
+        return rows;
+    }
+
+    public long getReadNanos() {
+        return readNanos;
+    }
+
+    public long getBytesRead() {
+        return bytesRead;
+    }
+
+    public void setBytesRead(long bytesRead) {
+        this.bytesRead = bytesRead;
+    }
+
+    public long getValidationNanos() {
+        return validationNanos;
+    }
+
+    public void setValidationNanos(long validationNanos) {
+        this.validationNanos = validationNanos;
+    }
+
+    public long getReportNanos() {
+        return reportNanos;
+    }
+
+    public void setReportNanos(long reportNanos) {
+        this.reportNanos = reportNanos;
+    }
+
+}
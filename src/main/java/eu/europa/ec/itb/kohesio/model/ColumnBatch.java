@@ -0,0 +1,288 @@
+package eu.europa.ec.itb.kohesio.model;
+
+import eu.europa.ec.itb.kohesio.util.CodeDictionary;
+import eu.europa.ec.itb.kohesio.util.DateParser;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * A batch of consecutive records held column by column.
+ *
+ * Only the columns requested when creating the batch are held, each in parallel arrays indexed by the record's
+ * position in the batch (its row) and already decoded to the column's type. Rules validating a batch can so loop
+ * over primitive arrays instead of reading each record's fields. The same batch is meant to be reused (see clear)
+ * for consecutive records of a file, in which case the codes of CODE columns remain stable across batches (each CODE
+ * column having its own dictionary for the file's values, see CodeDictionary).
+ *
+ * Instances are not thread-safe.
+ */
+public class ColumnBatch {
+
+    private final int capacity;
+    private final long[] lineNumbers;
+    private final Column[] columns;
+    private final Map<ColumnSpec, Column> columnsBySpec = new HashMap<>();
+    private int size = 0;
+
+    /**
+     * Constructor.
+     *
+     * @param specs The columns to hold.
+     * @param capacity The maximum number of records in the batch.
+     */
+    public ColumnBatch(Collection<ColumnSpec> specs, int capacity) {
+        this.capacity = capacity;
+        this.lineNumbers = new long[capacity];
+        for (ColumnSpec spec: specs) {
+            columnsBySpec.computeIfAbsent(spec, (key) -> new Column(key, capacity));
+        }
+        this.columns = columnsBySpec.values().toArray(new Column[0]);
+    }
+
+    /**
+     * Add a record to the batch.
+     *
+     * @param record The record.
+     * @param lineNumber The line number to consider when reporting errors for the record.
+     * @return The record's row in the batch.
+     */
+    public int add(RecordView record, long lineNumber) {
+        if (size == capacity) {
+            throw new IllegalStateException("The batch is full");
+        }
+        for (Column column: columns) {
+            column.load(size, record);
+        }
+        lineNumbers[size] = lineNumber;
+        return size++;
+    }
+
+    /**
+     * Remove all records from the batch.
+     */
+    public void clear() {
+        for (Column column: columns) {
+            column.clear(size);
+        }
+        size = 0;
+    }
+
+    /**
+     * @return The number of records in the batch.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return Whether the batch has reached its capacity.
+     */
+    public boolean isFull() {
+        return size == capacity;
+    }
+
+    /**
+     * @param row The record's row.
+     * @return The line number to consider when reporting errors for the record.
+     */
+    public long getLineNumber(int row) {
+        return lineNumbers[row];
+    }
+
+    /**
+     * Find the row of the record with the given line number.
+     *
+     * @param lineNumber The line number (as returned by getLineNumber).
+     * @return The row (or, if no record has the line number, the row of the first record after it).
+     */
+    public int getRow(long lineNumber) {
+        int row = Arrays.binarySearch(lineNumbers, 0, size, lineNumber);
+        return (row < 0)?(-row - 1):row;
+    }
+
+    /**
+     * Get a column of the batch.
+     *
+     * @param spec The column's specification (as provided when creating the batch).
+     * @return The column.
+     */
+    public Column getColumn(ColumnSpec spec) {
+        Column column = columnsBySpec.get(spec);
+        if (column == null) {
+            throw new IllegalArgumentException("The batch does not hold the requested column");
+        }
+        return column;
+    }
+
+    /**
+     * A column of the batch. The arrays returned by the column's getters are only valid for the batch's current rows.
+     */
+    public static class Column {
+
+        private final ColumnSpec spec;
+        private final boolean[] blanks;
+        private final String[] values;
+        private final long[] epochDays;
+        private final int[] codes;
+        private final CodeDictionary dictionary;
+        private final Map<Set<String>, boolean[]> matches;
+        private int rows = 0;
+
+        /**
+         * Constructor.
+         *
+         * @param spec The column's specification.
+         * @param capacity The maximum number of rows.
+         */
+        Column(ColumnSpec spec, int capacity) {
+            this.spec = spec;
+            this.blanks = new boolean[capacity];
+            ColumnType type = spec.getType();
+            // CODE columns only hold the text of values not encoded as their dictionary is full.
+            this.values = (type == ColumnType.TEXT || type == ColumnType.EPOCH_DAY || type == ColumnType.CODE)?new String[capacity]:null;
+            this.epochDays = (type == ColumnType.EPOCH_DAY)?new long[capacity]:null;
+            this.codes = (type == ColumnType.CODE)?new int[capacity]:null;
+            this.dictionary = (type == ColumnType.CODE)?new CodeDictionary():null;
+            this.matches = (type == ColumnType.CODE)?new IdentityHashMap<>():null;
+        }
+
+        /**
+         * Load the column's value from a record.
+         *
+         * @param row The record's row.
+         * @param record The record.
+         */
+        void load(int row, RecordView record) {
+            int index = spec.getFieldIndex();
+            boolean blank = record.isBlank(index);
+            blanks[row] = blank;
+            switch (spec.getType()) {
+                case TEXT:
+                    values[row] = record.get(index);
+                    break;
+                case EPOCH_DAY:
+                    if (record.isSet(index)) {
+                        CharSequence value = record.getCharSequence(index);
+                        long epochDay = DateParser.parseEpochDay(value);
+                        epochDays[row] = epochDay;
+                        // The text is only kept if it cannot be derived from the epoch day.
+                        values[row] = (epochDay != DateParser.INVALID_DATE && DateParser.isFormatted(value))?null:value.toString();
+                    } else {
+                        epochDays[row] = DateParser.INVALID_DATE;
+                        values[row] = null;
+                    }
+                    break;
+                case CODE:
+                    if (blank) {
+                        codes[row] = CodeDictionary.NO_CODE;
+                    } else {
+                        CharSequence value = record.getCharSequence(index);
+                        int code = dictionary.encode(value);
+                        codes[row] = code;
+                        if (code == CodeDictionary.NOT_ENCODED) {
+                            values[row] = value.toString();
+                        }
+                    }
+                    break;
+                default:
+                    break;
+            }
+            rows = row + 1;
+        }
+
+        /**
+         * Release the references held for the given number of rows.
+         *
+         * @param rows The number of rows.
+         */
+        void clear(int rows) {
+            if (values != null) {
+                Arrays.fill(values, 0, rows, null);
+            }
+            this.rows = 0;
+        }
+
+        /**
+         * @return Per row, whether the value is blank (missing or containing only whitespace).
+         */
+        public boolean[] getBlanks() {
+            return blanks;
+        }
+
+        /**
+         * @return Per row, the value's epoch day (DateParser.INVALID_DATE if missing or invalid). Only for EPOCH_DAY
+         * columns.
+         */
+        public long[] getEpochDays() {
+            return epochDays;
+        }
+
+        /**
+         * @return Per row, the value's code (CodeDictionary.NO_CODE if blank, CodeDictionary.NOT_ENCODED if the value
+         * was not encoded as the column's dictionary is full). Only for CODE columns.
+         */
+        public int[] getCodes() {
+            return codes;
+        }
+
+        /**
+         * Determine, per row, whether the value is in a set. Only for CODE columns. The set is looked up once per
+         * distinct value rather than once per row, rows then being matched by their code (see CodeDictionary#getMembers).
+         *
+         * @param set The set (expected to be the same instance for each call relating to the same set).
+         * @return Per row, whether the value is in the set (false if blank).
+         */
+        public boolean[] getMatches(Set<String> set) {
+            BitSet members = dictionary.getMembers(set);
+            boolean[] rowMatches = matches.computeIfAbsent(set, (key) -> new boolean[codes.length]);
+            for (int row = 0; row < rows; row++) {
+                int code = codes[row];
+                rowMatches[row] = (code >= 0)?members.get(code):(code == CodeDictionary.NOT_ENCODED && set.contains(values[row]));
+            }
+            return rowMatches;
+        }
+
+        /**
+         * Get the code of a value. Only for CODE columns.
+         *
+         * @param value The value.
+         * @return The code (CodeDictionary.NO_CODE if the value was not encountered or not encoded).
+         */
+        public int getCode(String value) {
+            return dictionary.find(value);
+        }
+
+        /**
+         * Get the value of a row as a string. This is not supported for PRESENCE columns.
+         *
+         * @param row The row.
+         * @return The value (null if missing or, for CODE columns, blank).
+         */
+        public String getValue(int row) {
+            switch (spec.getType()) {
+                case TEXT:
+                    return values[row];
+                case EPOCH_DAY:
+                    if (values[row] == null && epochDays[row] != DateParser.INVALID_DATE) {
+                        return DateParser.format(epochDays[row]);
+                    }
+                    return values[row];
+                case CODE:
+                    if (codes[row] >= 0) {
+                        return dictionary.decode(codes[row]);
+                    }
+                    return values[row];
+                default:
+                    throw new UnsupportedOperationException("Values are not held for column type " + spec.getType());
+            }
+        }
+
+    }
+
+}
@@ -0,0 +1,55 @@
+package eu.europa.ec.itb.kohesio.model;
+
+import java.util.Objects;
+
+/**
+ * Class identifying a column of a column batch: a field (by index) and the representation in which its values are held.
+ */
+public class ColumnSpec {
+
+    private final int fieldIndex;
+    private final ColumnType type;
+
+    /**
+     * Constructor.
+     *
+     * @param fieldIndex The field's index.
+     * @param type The column's type.
+     */
+    public ColumnSpec(int fieldIndex, ColumnType type) {
+        this.fieldIndex = fieldIndex;
+        this.type = type;
+    }
+
+    public int getFieldIndex() {
+        return fieldIndex;
+    }
+
+    public ColumnType getType() {
+        return type;
+    }
+
+    /**
+     * @see Object#equals(Object)
+     */
+    @Override
+    public boolean equals(Object other) {
+        if (this == other) {
+            return true;
+        }
+        if (!(other instanceof ColumnSpec)) {
+            return false;
+        }
+        ColumnSpec otherSpec = (ColumnSpec) other;
+        return fieldIndex == otherSpec.fieldIndex && type == otherSpec.type;
+    }
+
+    /**
+     * @see Object#hashCode()
+     */
+    @Override
+    public int hashCode() {
+        return Objects.hash(fieldIndex, type);
+    }
+
+}
@@ -0,0 +1,26 @@
+package eu.europa.ec.itb.kohesio.model;
+
+/**
+ * The representation in which a field's values are held in a column batch.
+ */
+public enum ColumnType {
+
+    /**
+     * Only whether each value is blank (missing or containing only whitespace).
+     */
+    PRESENCE,
+    /**
+     * The values as strings.
+     */
+    TEXT,
+    /**
+     * The values parsed as dd/MM/yyyy dates to epoch days (see DateParser).
+     */
+    EPOCH_DAY,
+    /**
+     * The values encoded as small integer codes (for categorical fields with few distinct values, such as currency
+     * codes), against which sets of values can be matched by code (see ColumnBatch.Column#getMatches).
+     */
+    CODE
+
+}
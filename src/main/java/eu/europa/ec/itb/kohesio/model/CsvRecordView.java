@@ -0,0 +1,47 @@
+package eu.europa.ec.itb.kohesio.model;
+
+import org.apache.commons.csv.CSVRecord;
+
+/**
+ * Record view over the records produced by the CSV parser.
+ */
+public class CsvRecordView implements RecordView {
+
+    private CSVRecord record;
+
+    /**
+     * Set the record to expose.
+     *
+     * @param record The record.
+     */
+    public void setRecord(CSVRecord record) {
+        this.record = record;
+    }
+
+    /**
+     * @return The current record.
+     */
+    public CSVRecord getRecord() {
+        return record;
+    }
+
+    /**
+     * @see RecordView#size()
+     */
+    @Override
+    public int size() {
+        return record.size();
+    }
+
+    /**
+     * @see RecordView#get(int)
+     */
+    @Override
+    public String get(int index) {
+        if (index < record.size()) {
+            return record.get(index);
+        }
+        return null;
+    }
+
+}
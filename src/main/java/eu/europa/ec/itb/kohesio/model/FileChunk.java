@@ -0,0 +1,40 @@
+package eu.europa.ec.itb.kohesio.model;
+
+/**
+ * Class representing a byte range of the input file that starts and ends on record boundaries.
+ */
+public class FileChunk {
+
+    private final long startOffset;
+    private final long endOffset;
+    private final long precedingLines;
+
+    /**
+     * Constructor.
+     *
+     * @param startOffset The (inclusive) byte offset at which the chunk starts.
+     * @param endOffset The (exclusive) byte offset at which the chunk ends.
+     * @param precedingLines The number of lines in the file before the chunk's start.
+     */
+    public FileChunk(long startOffset, long endOffset, long precedingLines) {
+        this.startOffset = startOffset;
+        this.endOffset = endOffset;
+        this.precedingLines = precedingLines;
+    }
+
+    public long getStartOffset() {
+        return startOffset;
+    }
+
+    public long getEndOffset() {
+        return endOffset;
+    }
+
+    public long getPrecedingLines() {
+        return precedingLines;
+    }
+
+    public long getLength() {
+        return endOffset - startOffset;
+    }
+}
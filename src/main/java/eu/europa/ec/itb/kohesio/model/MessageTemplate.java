@@ -0,0 +1,89 @@
+package eu.europa.ec.itb.kohesio.model;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A report message with placeholders for arguments that is parsed once and rendered only when needed.
+ *
+ * Placeholders are expressed as "%s" and '%' characters can be escaped as "%%" (as with String.format). No other
+ * format specifiers are supported, so any other text (including other '%' characters) is treated as literal text.
+ */
+public class MessageTemplate {
+
+    private static final String PLACEHOLDER = "%s";
+
+    /**
+     * Template for a message that is already fully rendered and provided as the single argument.
+     */
+    public static final MessageTemplate RAW = new MessageTemplate(PLACEHOLDER);
+
+    private final String[] segments;
+
+    /**
+     * Constructor.
+     *
+     * @param template The template text.
+     */
+    public MessageTemplate(String template) {
+        if (template == null) {
+            throw new IllegalArgumentException("Template text is required");
+        }
+        List<String> parsedSegments = new ArrayList<>();
+        StringBuilder segment = new StringBuilder(template.length());
+        for (int i = 0; i < template.length(); i++) {
+            char character = template.charAt(i);
+            char next = (i + 1 < template.length())?template.charAt(i + 1):0;
+            if (character == '%' && next == 's') {
+                parsedSegments.add(segment.toString());
+                segment.setLength(0);
+                i += 1;
+            } else if (character == '%' && next == '%') {
+                segment.append('%');
+                i += 1;
+            } else {
+                segment.append(character);
+            }
+        }
+        parsedSegments.add(segment.toString());
+        this.segments = parsedSegments.toArray(new String[0]);
+    }
+
+    /**
+     * @return The number of arguments expected by the template.
+     */
+    public int getArgumentCount() {
+        return segments.length - 1;
+    }
+
+    /**
+     * Render the message by appending it to the provided builder.
+     *
+     * @param builder The builder to append to.
+     * @param arguments The array holding the arguments.
+     * @param offset The position of the first argument in the array.
+     */
+    public void appendTo(StringBuilder builder, String[] arguments, int offset) {
+        builder.append(segments[0]);
+        for (int i = 1; i < segments.length; i++) {
+            builder.append(arguments[offset + i - 1]).append(segments[i]);
+        }
+    }
+
+    /**
+     * Render the message.
+     *
+     * @param arguments The arguments.
+     * @return The message.
+     * @throws IllegalArgumentException If the number of arguments differs from the number of placeholders.
+     */
+    public String render(String... arguments) {
+        if (arguments.length != getArgumentCount()) {
+            throw new IllegalArgumentException("Unexpected number of message arguments");
+        }
+        StringBuilder builder = new StringBuilder();
+        appendTo(builder, arguments, 0);
+        return builder.toString();
+    }
+
+}
@@ -0,0 +1,55 @@
+package eu.europa.ec.itb.kohesio.model;
+
+/**
+ * Read access to the fields of the record being validated, by field index.
+ *
+ * Implementations may reuse the same instance for consecutive records, so views should not be retained beyond the
+ * validation of the current record.
+ */
+public interface RecordView {
+
+    /**
+     * @return The number of fields in the record.
+     */
+    int size();
+
+    /**
+     * Get the value of a field.
+     *
+     * @param index The field's index.
+     * @return The value (null if the record has no value for the index).
+     */
+    String get(int index);
+
+    /**
+     * Get the value of a field as a character sequence. Implementations may return a view over the field that is only
+     * valid until the next call to this method, so the result should be consumed immediately.
+     *
+     * @param index The field's index.
+     * @return The value (null if the record has no value for the index).
+     */
+    default CharSequence getCharSequence(int index) {
+        return get(index);
+    }
+
+    /**
+     * Check whether a field is missing or contains only whitespace. Implementations may do this without
+     * creating the field's value.
+     *
+     * @param index The field's index.
+     * @return The check result.
+     */
+    default boolean isBlank(int index) {
+        String value = get(index);
+        return value == null || value.isBlank();
+    }
+
+    /**
+     * @param index The field's index.
+     * @return Whether the record has a value for the index.
+     */
+    default boolean isSet(int index) {
+        return index < size();
+    }
+
+}
@@ -0,0 +1,239 @@
+package eu.europa.ec.itb.kohesio.model;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Compact storage for report items.
+ *
+ * Items are not stored as objects but rather as entries in parallel arrays holding their line number, message
+ * template, violation level and references to their field name, value and message arguments. Repeated values and
+ * arguments are interned so that they are held only once. Messages are only rendered when requested, typically when
+ * the final report is built.
+ *
+ * Instances are not thread-safe.
+ */
+public class ReportBuffer implements ReportContent {
+
+    private static final int INITIAL_CAPACITY = 256;
+    private static final int MAXIMUM_INTERNED_VALUES = 4096;
+    private static final ViolationLevel[] LEVELS = ViolationLevel.values();
+
+    private final long maximumItems;
+    private final Map<String, String> internedValues = new HashMap<>();
+    private MessageTemplate[] templates = new MessageTemplate[8];
+    private int templateCount = 0;
+
+    private int size = 0;
+    private long[] lineNumbers = new long[0];
+    private short[] templateIds = new short[0];
+    private byte[] levels = new byte[0];
+    private String[] fieldNames = new String[0];
+    private String[] values = new String[0];
+    private int[] argumentOffsets = new int[0];
+    private String[] arguments = new String[0];
+    private int argumentCount = 0;
+
+    /**
+     * Constructor.
+     *
+     * @param maximumItems The maximum number of items to store.
+     */
+    public ReportBuffer(long maximumItems) {
+        this.maximumItems = maximumItems;
+    }
+
+    /**
+     * Add an item.
+     *
+     * @param template The message template.
+     * @param fieldName The field that the item relates to (may be null if there is no such single field).
+     * @param lineNumber The input content's line number the item relates to.
+     * @param value The input value that caused the item (may be null).
+     * @param violationLevel The violation level.
+     * @param itemArguments The arguments for the message template.
+     * @return Whether the item was added (false if the buffer is full).
+     * @throws IllegalArgumentException If the number of arguments differs from the template's.
+     */
+    public boolean add(MessageTemplate template, String fieldName, long lineNumber, String value, ViolationLevel violationLevel, String... itemArguments) {
+        if (size >= maximumItems) {
+            return false;
+        }
+        if (template.getArgumentCount() != itemArguments.length) {
+            throw new IllegalArgumentException("Unexpected number of message arguments");
+        }
+        ensureCapacity(size + 1, argumentCount + itemArguments.length);
+        lineNumbers[size] = lineNumber;
+        templateIds[size] = templateId(template);
+        levels[size] = (byte) violationLevel.ordinal();
+        fieldNames[size] = fieldName;
+        values[size] = intern(value);
+        argumentOffsets[size] = argumentCount;
+        for (String argument: itemArguments) {
+            arguments[argumentCount++] = intern(argument);
+        }
+        size += 1;
+        return true;
+    }
+
+    /**
+     * Append the items of another buffer until this buffer is full.
+     *
+     * @param other The buffer to append.
+     */
+    public void addAll(ReportBuffer other) {
+        for (int i = 0; i < other.size && size < maximumItems; i++) {
+            MessageTemplate template = other.templates[other.templateIds[i]];
+            String[] itemArguments = Arrays.copyOfRange(other.arguments, other.argumentOffsets[i], other.argumentOffsets[i] + template.getArgumentCount());
+            add(template, other.fieldNames[i], other.lineNumbers[i], other.values[i], LEVELS[other.levels[i]], itemArguments);
+        }
+    }
+
+    /**
+     * @see ReportContent#size()
+     */
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return Whether the maximum number of items has been reached.
+     */
+    public boolean isFull() {
+        return size >= maximumItems;
+    }
+
+    /**
+     * @see ReportContent#getLineNumber(int)
+     */
+    @Override
+    public long getLineNumber(int index) {
+        return lineNumbers[index];
+    }
+
+    /**
+     * @see ReportContent#getValue(int)
+     */
+    @Override
+    public String getValue(int index) {
+        return values[index];
+    }
+
+    /**
+     * @see ReportContent#getViolationLevel(int)
+     */
+    @Override
+    public ViolationLevel getViolationLevel(int index) {
+        return LEVELS[levels[index]];
+    }
+
+    /**
+     * @see ReportContent#getFieldName(int)
+     */
+    @Override
+    public String getFieldName(int index) {
+        return fieldNames[index];
+    }
+
+    /**
+     * @see ReportContent#appendMessage(int, StringBuilder)
+     */
+    @Override
+    public void appendMessage(int index, StringBuilder builder) {
+        templates[templateIds[index]].appendTo(builder, arguments, argumentOffsets[index]);
+    }
+
+    /**
+     * Renders the same message as ReportItem.getReportMessage().
+     *
+     * @see ReportContent#appendReportMessage(int, StringBuilder)
+     */
+    @Override
+    public void appendReportMessage(int index, StringBuilder builder) {
+        builder.append("[Row: ").append(lineNumbers[index]).append(']');
+        if (fieldNames[index] != null) {
+            builder.append("[Field: ").append(fieldNames[index]).append(']');
+        }
+        builder.append(": ");
+        appendMessage(index, builder);
+    }
+
+    /**
+     * Create a report item object for a stored item.
+     *
+     * @param index The item's index.
+     * @return The report item.
+     */
+    public ReportItem toReportItem(int index) {
+        StringBuilder builder = new StringBuilder();
+        appendMessage(index, builder);
+        return new ReportItem(builder.toString(), fieldNames[index], lineNumbers[index], values[index], getViolationLevel(index));
+    }
+
+    /**
+     * Get the identifier of a template within this buffer, registering it if needed.
+     *
+     * @param template The template.
+     * @return The identifier.
+     */
+    private short templateId(MessageTemplate template) {
+        // Rules typically use a handful of templates, so a linear scan is the cheapest lookup.
+        for (int i = 0; i < templateCount; i++) {
+            if (templates[i] == template) {
+                return (short) i;
+            }
+        }
+        if (templateCount == Short.MAX_VALUE) {
+            throw new IllegalStateException("Too many message templates");
+        }
+        if (templateCount == templates.length) {
+            templates = Arrays.copyOf(templates, templateCount * 2);
+        }
+        templates[templateCount] = template;
+        return (short) templateCount++;
+    }
+
+    /**
+     * Intern a value so that repeated values are stored only once.
+     *
+     * @param value The value.
+     * @return The interned value.
+     */
+    private String intern(String value) {
+        if (value == null) {
+            return null;
+        }
+        String existing = internedValues.get(value);
+        if (existing != null) {
+            return existing;
+        }
+        if (internedValues.size() < MAXIMUM_INTERNED_VALUES) {
+            internedValues.put(value, value);
+        }
+        return value;
+    }
+
+    /**
+     * Make sure the arrays can hold the required number of items and arguments.
+     *
+     * @param requiredItems The number of items.
+     * @param requiredArguments The number of arguments.
+     */
+    private void ensureCapacity(int requiredItems, int requiredArguments) {
+        if (requiredItems > lineNumbers.length) {
+            int newCapacity = (int) Math.min(Math.max(INITIAL_CAPACITY, lineNumbers.length * 2L), Math.max(requiredItems, Math.min(maximumItems, Integer.MAX_VALUE - 8)));
+            lineNumbers = Arrays.copyOf(lineNumbers, newCapacity);
+            templateIds = Arrays.copyOf(templateIds, newCapacity);
+            levels = Arrays.copyOf(levels, newCapacity);
+            fieldNames = Arrays.copyOf(fieldNames, newCapacity);
+            values = Arrays.copyOf(values, newCapacity);
+            argumentOffsets = Arrays.copyOf(argumentOffsets, newCapacity);
+        }
+        if (requiredArguments > arguments.length) {
+            arguments = Arrays.copyOf(arguments, Math.max(requiredArguments, Math.max(INITIAL_CAPACITY, arguments.length * 2)));
+        }
+    }
+
+}
@@ -0,0 +1,53 @@
+package eu.europa.ec.itb.kohesio.model;
+
+/**
+ * Read access to the items to include in the resulting report.
+ */
+public interface ReportContent {
+
+    /**
+     * @return The number of items.
+     */
+    int size();
+
+    /**
+     * @param index The item's index.
+     * @return The line number to use as the item's location.
+     */
+    long getLineNumber(int index);
+
+    /**
+     * @param index The item's index.
+     * @return The item's value (may be null).
+     */
+    String getValue(int index);
+
+    /**
+     * @param index The item's index.
+     * @return The item's violation level.
+     */
+    ViolationLevel getViolationLevel(int index);
+
+    /**
+     * @param index The item's index.
+     * @return The item's field name (may be null).
+     */
+    String getFieldName(int index);
+
+    /**
+     * Render the item's message (without row and field information).
+     *
+     * @param index The item's index.
+     * @param builder The builder to append the message to.
+     */
+    void appendMessage(int index, StringBuilder builder);
+
+    /**
+     * Render the item's message for the resulting report.
+     *
+     * @param index The item's index.
+     * @param builder The builder to append the message to.
+     */
+    void appendReportMessage(int index, StringBuilder builder);
+
+}
@@ -48,6 +48,10 @@ public class ReportItem {
         return message;
     }
 
+    public String getFieldName() {
+        return fieldName;
+    }
+
     public long getLineNumber() {
         return lineNumber;
     }
@@ -0,0 +1,315 @@
+package eu.europa.ec.itb.kohesio.model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Report content that groups identical findings into single items.
+ *
+ * Findings are grouped if they share the same message template and arguments, field and violation level. Each group
+ * records its number of occurrences and the rows it applies to as ranges of consecutive rows. Groups are reported in
+ * the order of their first occurrence, and a group with a single occurrence is reported exactly as a plain report
+ * item. The number of stored row ranges per group is bounded, after which further rows are only counted.
+ *
+ * Instances are not thread-safe.
+ */
+public class ViolationAggregator implements ReportContent {
+
+    private static final int MAXIMUM_RANGES_PER_GROUP = 100;
+
+    private final long maximumGroups;
+    private final Map<GroupKey, Group> groupsByKey = new HashMap<>();
+    private final List<Group> groups = new ArrayList<>();
+    private final GroupKey lookupKey = new GroupKey();
+
+    /**
+     * Constructor.
+     *
+     * @param maximumGroups The maximum number of groups to store (findings for other groups are ignored).
+     */
+    public ViolationAggregator(long maximumGroups) {
+        this.maximumGroups = maximumGroups;
+    }
+
+    /**
+     * Add a finding.
+     *
+     * @param template The message template.
+     * @param fieldName The field that the finding relates to (may be null if there is no such single field).
+     * @param lineNumber The input content's line number the finding relates to.
+     * @param value The input value that caused the finding (may be null).
+     * @param violationLevel The violation level.
+     * @param arguments The arguments for the message template.
+     * @throws IllegalArgumentException If the number of arguments differs from the template's.
+     */
+    public void add(MessageTemplate template, String fieldName, long lineNumber, String value, ViolationLevel violationLevel, String... arguments) {
+        if (template.getArgumentCount() != arguments.length) {
+            throw new IllegalArgumentException("Unexpected number of message arguments");
+        }
+        lookupKey.set(template, fieldName, violationLevel, arguments);
+        Group group = groupsByKey.get(lookupKey);
+        if (group == null) {
+            if (groups.size() >= maximumGroups) {
+                return;
+            }
+            GroupKey key = new GroupKey();
+            key.set(template, fieldName, violationLevel, arguments);
+            group = new Group(key, lineNumber, value);
+            groupsByKey.put(key, group);
+            groups.add(group);
+        }
+        group.addOccurrences(lineNumber, lineNumber, 1L, value, false);
+    }
+
+    /**
+     * Append the groups of another aggregator, whose findings are considered to follow the ones already added here.
+     *
+     * @param other The aggregator to append.
+     */
+    public void addAll(ViolationAggregator other) {
+        for (Group otherGroup: other.groups) {
+            Group group = groupsByKey.get(otherGroup.key);
+            if (group == null) {
+                if (groups.size() >= maximumGroups) {
+                    continue;
+                }
+                group = new Group(otherGroup.key, otherGroup.firstLineNumber, otherGroup.value);
+                groupsByKey.put(group.key, group);
+                groups.add(group);
+            }
+            group.addAll(otherGroup);
+        }
+    }
+
+    /**
+     * @return Whether the maximum number of groups has been reached.
+     */
+    public boolean isFull() {
+        return groups.size() >= maximumGroups;
+    }
+
+    /**
+     * @see ReportContent#size()
+     */
+    @Override
+    public int size() {
+        return groups.size();
+    }
+
+    /**
+     * Returns the line number of the group's first occurrence.
+     *
+     * @see ReportContent#getLineNumber(int)
+     */
+    @Override
+    public long getLineNumber(int index) {
+        return groups.get(index).firstLineNumber;
+    }
+
+    /**
+     * Returns the value shared by all the group's occurrences (null if the values differ).
+     *
+     * @see ReportContent#getValue(int)
+     */
+    @Override
+    public String getValue(int index) {
+        Group group = groups.get(index);
+        return group.valuesDiffer?null:group.value;
+    }
+
+    /**
+     * @see ReportContent#getViolationLevel(int)
+     */
+    @Override
+    public ViolationLevel getViolationLevel(int index) {
+        return groups.get(index).key.violationLevel;
+    }
+
+    /**
+     * @see ReportContent#getFieldName(int)
+     */
+    @Override
+    public String getFieldName(int index) {
+        return groups.get(index).key.fieldName;
+    }
+
+    /**
+     * @see ReportContent#appendMessage(int, StringBuilder)
+     */
+    @Override
+    public void appendMessage(int index, StringBuilder builder) {
+        GroupKey key = groups.get(index).key;
+        key.template.appendTo(builder, key.arguments, 0);
+    }
+
+    /**
+     * @param index The group's index.
+     * @return The number of findings in the group.
+     */
+    public long getOccurrences(int index) {
+        return groups.get(index).occurrences;
+    }
+
+    /**
+     * Renders messages as "[Rows: 2-10, 15][Field: name]: message (occurrences: 10)". Groups with a single occurrence
+     * are rendered as with ReportItem.getReportMessage().
+     *
+     * @see ReportContent#appendReportMessage(int, StringBuilder)
+     */
+    @Override
+    public void appendReportMessage(int index, StringBuilder builder) {
+        Group group = groups.get(index);
+        if (group.occurrences == 1) {
+            builder.append("[Row: ").append(group.firstLineNumber).append(']');
+        } else {
+            builder.append("[Rows: ");
+            for (int i = 0; i < group.rangeCount; i++) {
+                if (i > 0) {
+                    builder.append(", ");
+                }
+                long start = group.ranges[i * 2];
+                long end = group.ranges[i * 2 + 1];
+                builder.append(start);
+                if (end > start) {
+                    builder.append('-').append(end);
+                }
+            }
+            if (group.rangesTruncated) {
+                builder.append(", ...");
+            }
+            builder.append(']');
+        }
+        if (group.key.fieldName != null) {
+            builder.append("[Field: ").append(group.key.fieldName).append(']');
+        }
+        builder.append(": ");
+        appendMessage(index, builder);
+        if (group.occurrences > 1) {
+            builder.append(" (occurrences: ").append(group.occurrences).append(')');
+        }
+    }
+
+    /**
+     * Key identifying a group of findings.
+     */
+    private static class GroupKey {
+
+        private MessageTemplate template;
+        private String fieldName;
+        private ViolationLevel violationLevel;
+        private String[] arguments;
+        private int hash;
+
+        /**
+         * Set the key's properties.
+         *
+         * @param template The message template.
+         * @param fieldName The field name.
+         * @param violationLevel The violation level.
+         * @param arguments The message arguments.
+         */
+        void set(MessageTemplate template, String fieldName, ViolationLevel violationLevel, String[] arguments) {
+            this.template = template;
+            this.fieldName = fieldName;
+            this.violationLevel = violationLevel;
+            this.arguments = arguments;
+            this.hash = 31 * (31 * (31 * System.identityHashCode(template) + Objects.hashCode(fieldName)) + violationLevel.hashCode()) + Arrays.hashCode(arguments);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof GroupKey)) {
+                return false;
+            }
+            GroupKey other = (GroupKey) obj;
+            return hash == other.hash && template == other.template && violationLevel == other.violationLevel
+                    && Objects.equals(fieldName, other.fieldName) && Arrays.equals(arguments, other.arguments);
+        }
+
+    }
+
+    /**
+     * A group of findings.
+     */
+    private static class Group {
+
+        private final GroupKey key;
+        private final long firstLineNumber;
+        private final String value;
+        private boolean valuesDiffer = false;
+        private long occurrences = 0L;
+        private long[] ranges = new long[8];
+        private int rangeCount = 0;
+        private boolean rangesTruncated = false;
+
+        /**
+         * Constructor.
+         *
+         * @param key The group's key.
+         * @param firstLineNumber The line number of the first occurrence.
+         * @param value The value of the first occurrence.
+         */
+        Group(GroupKey key, long firstLineNumber, String value) {
+            this.key = key;
+            this.firstLineNumber = firstLineNumber;
+            this.value = value;
+        }
+
+        /**
+         * Add occurrences for a range of rows.
+         *
+         * @param start The range's first row.
+         * @param end The range's last row.
+         * @param count The number of occurrences.
+         * @param occurrenceValue The value of the occurrences.
+         * @param occurrenceValuesDiffer Whether the occurrences have differing values.
+         */
+        void addOccurrences(long start, long end, long count, String occurrenceValue, boolean occurrenceValuesDiffer) {
+            occurrences += count;
+            if (!valuesDiffer && (occurrenceValuesDiffer || !Objects.equals(value, occurrenceValue))) {
+                valuesDiffer = true;
+            }
+            if (rangeCount > 0 && start <= ranges[rangeCount * 2 - 1] + 1) {
+                // Consecutive (or repeated) rows extend the last range.
+                ranges[rangeCount * 2 - 1] = Math.max(end, ranges[rangeCount * 2 - 1]);
+            } else if (rangeCount < MAXIMUM_RANGES_PER_GROUP) {
+                if (rangeCount * 2 == ranges.length) {
+                    ranges = Arrays.copyOf(ranges, ranges.length * 2);
+                }
+                ranges[rangeCount * 2] = start;
+                ranges[rangeCount * 2 + 1] = end;
+                rangeCount += 1;
+            } else {
+                rangesTruncated = true;
+            }
+        }
+
+        /**
+         * Add the occurrences of another group for the same key.
+         *
+         * @param other The other group.
+         */
+        void addAll(Group other) {
+            boolean otherValuesDiffer = other.valuesDiffer;
+            for (int i = 0; i < other.rangeCount; i++) {
+                // The other group's occurrence count is added with its first range.
+                addOccurrences(other.ranges[i * 2], other.ranges[i * 2 + 1], (i == 0)?other.occurrences:0L, other.value, otherValuesDiffer);
+            }
+            rangesTruncated |= other.rangesTruncated;
+        }
+
+    }
+
+}
@@ -0,0 +1,119 @@
+package eu.europa.ec.itb.kohesio.rules;
+
+import eu.europa.ec.itb.kohesio.ViolationReporter;
+import eu.europa.ec.itb.kohesio.model.ColumnBatch;
+import eu.europa.ec.itb.kohesio.model.ColumnSpec;
+import eu.europa.ec.itb.kohesio.model.ColumnType;
+import eu.europa.ec.itb.kohesio.model.MessageTemplate;
+import eu.europa.ec.itb.kohesio.model.RecordView;
+import eu.europa.ec.itb.kohesio.model.ViolationLevel;
+import org.apache.commons.csv.CSVParser;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+/**
+ * Configurable rule to check that at least one of a set of fields is provided (see RuleDefinitions).
+ *
+ * Findings are reported without field name and value. The rule only applies to files with all the fields.
+ */
+public class AtLeastOneRule implements Rule {
+
+    private final String name;
+    private final List<String> fieldsToCheck;
+    private final MessageTemplate message;
+    private final ViolationLevel level;
+
+    /**
+     * Constructor.
+     *
+     * @param name The rule's name.
+     * @param fieldsToCheck The fields of which at least one must be provided.
+     * @param message The message to report (without arguments).
+     * @param level The level of reported findings.
+     */
+    public AtLeastOneRule(String name, List<String> fieldsToCheck, MessageTemplate message, ViolationLevel level) {
+        this.name = name;
+        this.fieldsToCheck = List.copyOf(fieldsToCheck);
+        this.message = message;
+        this.level = level;
+    }
+
+    /**
+     * @see Rule#getName()
+     */
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * @see Rule#bind(CSVParser)
+     */
+    @Override
+    public Optional<BoundRule> bind(CSVParser parser) {
+        Map<String, Integer> headerMap = parser.getHeaderMap();
+        if (!headerMap.keySet().containsAll(fieldsToCheck)) {
+            return Optional.empty();
+        }
+        int[] indexesToCheck = fieldsToCheck.stream().mapToInt(headerMap::get).toArray();
+        return Optional.of(new BoundAtLeastOneRule(indexesToCheck));
+    }
+
+    /**
+     * The rule bound to a file's header.
+     */
+    private class BoundAtLeastOneRule implements BatchRule {
+
+        private final int[] indexesToCheck;
+        private final List<ColumnSpec> columnsToCheck;
+
+        /**
+         * Constructor.
+         *
+         * @param indexesToCheck The indexes of the fields to check.
+         */
+        BoundAtLeastOneRule(int[] indexesToCheck) {
+            this.indexesToCheck = indexesToCheck;
+            this.columnsToCheck = Arrays.stream(indexesToCheck).mapToObj((index) -> new ColumnSpec(index, ColumnType.PRESENCE)).collect(Collectors.toList());
+        }
+
+        @Override
+        public void validate(RecordView record, long lineNumber, ViolationReporter reporter) {
+            for (int indexToCheck: indexesToCheck) {
+                if (!record.isBlank(indexToCheck)) {
+                    return;
+                }
+            }
+            reporter.record(message, null, lineNumber, null, level);
+        }
+
+        @Override
+        public List<ColumnSpec> getColumns() {
+            return columnsToCheck;
+        }
+
+        @Override
+        public void validate(ColumnBatch batch, ViolationReporter reporter) {
+            int size = batch.size();
+            // Rows with a value for any of the fields.
+            boolean[] valueDefined = new boolean[size];
+            for (ColumnSpec column: columnsToCheck) {
+                boolean[] blanks = batch.getColumn(column).getBlanks();
+                for (int row = 0; row < size; row++) {
+                    valueDefined[row] |= !blanks[row];
+                }
+            }
+            for (int row = 0; row < size; row++) {
+                if (!valueDefined[row]) {
+                    reporter.record(message, null, batch.getLineNumber(row), null, level);
+                }
+            }
+        }
+
+    }
+
+}
@@ -0,0 +1,178 @@
+package eu.europa.ec.itb.kohesio.rules;
+
+import eu.europa.ec.itb.kohesio.ViolationReporter;
+import eu.europa.ec.itb.kohesio.model.ColumnBatch;
+import eu.europa.ec.itb.kohesio.model.ColumnSpec;
+import eu.europa.ec.itb.kohesio.model.MessageTemplate;
+import eu.europa.ec.itb.kohesio.model.RecordView;
+import eu.europa.ec.itb.kohesio.model.ViolationLevel;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Evaluator of a plan's rules over batches of records.
+ *
+ * Records are added one by one: rules that are not batch rules validate each record as it is added (acting as the
+ * adapter for row-based rules), whereas batch rules validate the batch once it is full or once the evaluator is
+ * flushed. The findings of all rules are buffered per batch and passed on in line order and, per line, in the plan's
+ * rule order, so that they match those of validating the records one by one.
+ *
+ * Instances are not thread-safe.
+ */
+public class BatchEvaluator {
+
+    private final BoundRule[] boundRules;
+    private final BatchRule[] batchRules;
+    private final ColumnBatch batch;
+    private final ViolationReporter reporter;
+    private final long[] ruleNanos;
+    private final FindingBuffer findings = new FindingBuffer();
+
+    /**
+     * Constructor.
+     *
+     * @param boundRules The plan's rules.
+     * @param capacity The number of records per batch.
+     * @param reporter The reporter to pass findings to.
+     * @param ruleNanos The per-rule times (in nanoseconds) to add to (null if not measured).
+     */
+    BatchEvaluator(BoundRule[] boundRules, int capacity, ViolationReporter reporter, long[] ruleNanos) {
+        this.boundRules = boundRules;
+        this.batchRules = new BatchRule[boundRules.length];
+        List<ColumnSpec> columns = new ArrayList<>();
+        for (int i = 0; i < boundRules.length; i++) {
+            if (boundRules[i] instanceof BatchRule) {
+                batchRules[i] = (BatchRule) boundRules[i];
+                columns.addAll(batchRules[i].getColumns());
+            }
+        }
+        this.batch = new ColumnBatch(columns, capacity);
+        this.reporter = reporter;
+        this.ruleNanos = ruleNanos;
+    }
+
+    /**
+     * Add a record, validating the batch if it is then full.
+     *
+     * @param record The record.
+     * @param lineNumber The line number to consider when reporting errors for the record.
+     */
+    public void add(RecordView record, long lineNumber) {
+        findings.row = batch.add(record, lineNumber);
+        long start = (ruleNanos != null)?System.nanoTime():0L;
+        for (int i = 0; i < boundRules.length; i++) {
+            if (batchRules[i] == null) {
+                findings.rule = i;
+                boundRules[i].validate(record, lineNumber, findings);
+                if (ruleNanos != null) {
+                    long end = System.nanoTime();
+                    ruleNanos[i] += end - start;
+                    start = end;
+                }
+            }
+        }
+        if (batch.isFull()) {
+            flush();
+        }
+    }
+
+    /**
+     * Validate the records added since the last validated batch and pass on all pending findings.
+     */
+    public void flush() {
+        if (batch.size() == 0) {
+            return;
+        }
+        // The row of batch rule findings is determined from their line number.
+        findings.row = -1;
+        long start = (ruleNanos != null)?System.nanoTime():0L;
+        for (int i = 0; i < batchRules.length; i++) {
+            if (batchRules[i] != null) {
+                findings.rule = i;
+                batchRules[i].validate(batch, findings);
+                if (ruleNanos != null) {
+                    long end = System.nanoTime();
+                    ruleNanos[i] += end - start;
+                    start = end;
+                }
+            }
+        }
+        findings.passOn(reporter);
+        batch.clear();
+    }
+
+    /**
+     * Buffer of the findings reported for the current batch.
+     */
+    private class FindingBuffer implements ViolationReporter {
+
+        private int row;
+        private int rule;
+        private int size = 0;
+        private boolean ordered = true;
+        private long[] keys = new long[64];
+        private MessageTemplate[] templates = new MessageTemplate[64];
+        private String[] fieldNames = new String[64];
+        private long[] lineNumbers = new long[64];
+        private String[] values = new String[64];
+        private ViolationLevel[] levels = new ViolationLevel[64];
+        private String[][] arguments = new String[64][];
+
+        /**
+         * @see ViolationReporter#record(MessageTemplate, String, long, String, ViolationLevel, String...)
+         */
+        @Override
+        public void record(MessageTemplate template, String fieldName, long lineNumber, String value, ViolationLevel violationLevel, String... itemArguments) {
+            if (size == keys.length) {
+                int capacity = size * 2;
+                keys = Arrays.copyOf(keys, capacity);
+                templates = Arrays.copyOf(templates, capacity);
+                fieldNames = Arrays.copyOf(fieldNames, capacity);
+                lineNumbers = Arrays.copyOf(lineNumbers, capacity);
+                values = Arrays.copyOf(values, capacity);
+                levels = Arrays.copyOf(levels, capacity);
+                arguments = Arrays.copyOf(arguments, capacity);
+            }
+            int findingRow = (row >= 0)?row:batch.getRow(lineNumber);
+            // Order by row and rule, keeping the reporting order for findings of the same row and rule.
+            long key = (((long) findingRow * boundRules.length + rule) << 32) | size;
+            if (size > 0 && key < keys[size - 1]) {
+                ordered = false;
+            }
+            keys[size] = key;
+            templates[size] = template;
+            fieldNames[size] = fieldName;
+            lineNumbers[size] = lineNumber;
+            values[size] = value;
+            levels[size] = violationLevel;
+            arguments[size] = itemArguments;
+            size += 1;
+        }
+
+        /**
+         * Pass on the buffered findings in order and clear the buffer.
+         *
+         * @param target The reporter to pass the findings to.
+         */
+        void passOn(ViolationReporter target) {
+            if (!ordered) {
+                Arrays.sort(keys, 0, size);
+            }
+            for (int i = 0; i < size; i++) {
+                int index = (int) keys[i];
+                target.record(templates[index], fieldNames[index], lineNumbers[index], values[index], levels[index], arguments[index]);
+            }
+            Arrays.fill(templates, 0, size, null);
+            Arrays.fill(fieldNames, 0, size, null);
+            Arrays.fill(values, 0, size, null);
+            Arrays.fill(levels, 0, size, null);
+            Arrays.fill(arguments, 0, size, null);
+            size = 0;
+            ordered = true;
+        }
+
+    }
+
+}
@@ -0,0 +1,32 @@
+package eu.europa.ec.itb.kohesio.rules;
+
+import eu.europa.ec.itb.kohesio.ViolationReporter;
+import eu.europa.ec.itb.kohesio.model.ColumnBatch;
+import eu.europa.ec.itb.kohesio.model.ColumnSpec;
+
+import java.util.List;
+
+/**
+ * A bound rule that can also validate batches of records held column by column.
+ *
+ * When validating in batches, records are added to a batch holding the columns declared by the plan's batch rules,
+ * and each full batch is then validated in a single call per rule. Batch rules must report the same findings as when
+ * validating the batch's records one by one. Bound rules that do not implement this interface are still applied per
+ * record as records are added to the batch, and the findings of all rules are reported in line and rule order.
+ */
+public interface BatchRule extends BoundRule {
+
+    /**
+     * @return The columns the rule needs to validate a batch.
+     */
+    List<ColumnSpec> getColumns();
+
+    /**
+     * Validate the records of the provided batch and record any applicable errors.
+     *
+     * @param batch The batch to validate (holding at least the columns returned by getColumns).
+     * @param reporter The class responsible of recording report items.
+     */
+    void validate(ColumnBatch batch, ViolationReporter reporter);
+
+}
@@ -0,0 +1,98 @@
+package eu.europa.ec.itb.kohesio.rules;
+
+import eu.europa.ec.itb.kohesio.ViolationReporter;
+import eu.europa.ec.itb.kohesio.model.RecordView;
+
+import java.util.Optional;
+
+/**
+ * A rule bound to a specific file's header, reading the fields it needs by index.
+ *
+ * Bound rules are created when the rule is bound to a header, and then per file with that header (see createForFile).
+ * Their lifecycle for a file is as follows:
+ * <ol>
+ *     <li>validate is called for each of the file's records.</li>
+ *     <li>endFile is called once all records have been validated.</li>
+ * </ol>
+ * Rules are by default stateless and can then validate records concurrently. Stateful rules that check conditions
+ * across records must override isStateful and the methods to validate parts of a file in parallel. Each part is
+ * validated with its own instance (created through createPart) that is merged back to the file's instance once the
+ * part is complete, with parts merged in file order. Findings reported while validating a part must only depend on
+ * the part's records, whereas findings across parts are to be reported in endFile or in an additional pass over the
+ * file's records.
+ */
+@FunctionalInterface
+public interface BoundRule {
+
+    /**
+     * Validate the provided record and record any applicable errors.
+     *
+     * @param record The record to validate.
+     * @param lineNumber The line number to consider when reporting errors.
+     * @param reporter The class responsible of recording report items.
+     */
+    void validate(RecordView record, long lineNumber, ViolationReporter reporter);
+
+    /**
+     * Check whether the rule needs the records produced by the CSV parser, as opposed to any record view.
+     * Such rules can only be used when validating the file through the CSV parser.
+     *
+     * @return The check result.
+     */
+    default boolean requiresCsvRecord() {
+        return false;
+    }
+
+    /**
+     * @return Whether the rule keeps state across records.
+     */
+    default boolean isStateful() {
+        return false;
+    }
+
+    /**
+     * Create the instance to use for validating another file with the same header, reusing the rule's binding. This
+     * instance itself is then not used for validating records.
+     *
+     * Stateful rules must override this to return an instance with an empty state.
+     *
+     * @return The instance (this one for stateless rules).
+     */
+    default BoundRule createForFile() {
+        return this;
+    }
+
+    /**
+     * Create the instance to use for validating a part of the file, possibly concurrently to other parts.
+     *
+     * @return The instance (this one for stateless rules).
+     */
+    default BoundRule createPart() {
+        return this;
+    }
+
+    /**
+     * Merge the state of an instance used for validating a part of the file (see createPart). Parts are merged in
+     * file order.
+     *
+     * @param part The instance used for the part.
+     */
+    default void mergePart(BoundRule part) {
+        // Nothing by default.
+    }
+
+    /**
+     * Signal that all the file's records have been validated.
+     *
+     * The rule can report any findings at this point, or request an additional pass over the file's records by
+     * returning the rule to apply for it. Additional passes go through all records in file order on a single thread,
+     * and are completed by calling endFile on the returned rule.
+     *
+     * @param reporter The class responsible of recording report items.
+     * @return The rule to apply in an additional pass over the records (if needed).
+     */
+    default Optional<BoundRule> endFile(ViolationReporter reporter) {
+        return Optional.empty();
+    }
+
+}
@@ -0,0 +1,126 @@
+package eu.europa.ec.itb.kohesio.rules;
+
+import eu.europa.ec.itb.kohesio.ViolationReporter;
+import eu.europa.ec.itb.kohesio.model.ColumnBatch;
+import eu.europa.ec.itb.kohesio.model.ColumnSpec;
+import eu.europa.ec.itb.kohesio.model.ColumnType;
+import eu.europa.ec.itb.kohesio.model.MessageTemplate;
+import eu.europa.ec.itb.kohesio.model.RecordView;
+import eu.europa.ec.itb.kohesio.model.ViolationLevel;
+import eu.europa.ec.itb.kohesio.util.DateParser;
+import org.apache.commons.csv.CSVParser;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Configurable rule to check that the date of a field is not after the date of another field (see RuleDefinitions).
+ *
+ * The rule is only verified if both values are provided and can be parsed correctly. Findings are reported for the
+ * first field with its value, and with both (formatted) dates as the message's arguments. The rule only applies to
+ * files with both fields.
+ */
+public class DateOrderRule implements Rule {
+
+    private final String name;
+    private final String startField;
+    private final String endField;
+    private final MessageTemplate message;
+    private final ViolationLevel level;
+
+    /**
+     * Constructor.
+     *
+     * @param name The rule's name.
+     * @param startField The field with the date that must not be after the other one.
+     * @param endField The field with the date that must not be before the other one.
+     * @param message The message to report (with the start and end dates as arguments).
+     * @param level The level of reported findings.
+     */
+    public DateOrderRule(String name, String startField, String endField, MessageTemplate message, ViolationLevel level) {
+        this.name = name;
+        this.startField = startField;
+        this.endField = endField;
+        this.message = message;
+        this.level = level;
+    }
+
+    /**
+     * @see Rule#getName()
+     */
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * @see Rule#bind(CSVParser)
+     */
+    @Override
+    public Optional<BoundRule> bind(CSVParser parser) {
+        Map<String, Integer> headerMap = parser.getHeaderMap();
+        Integer startIndex = headerMap.get(startField);
+        Integer endIndex = headerMap.get(endField);
+        if (startIndex == null || endIndex == null) {
+            return Optional.empty();
+        }
+        return Optional.of(new BoundDateOrderRule(startIndex, endIndex));
+    }
+
+    /**
+     * The rule bound to a file's header.
+     */
+    private class BoundDateOrderRule implements BatchRule {
+
+        private final int startIndex;
+        private final int endIndex;
+        private final ColumnSpec startColumn;
+        private final ColumnSpec endColumn;
+
+        /**
+         * Constructor.
+         *
+         * @param startIndex The index of the start date field.
+         * @param endIndex The index of the end date field.
+         */
+        BoundDateOrderRule(int startIndex, int endIndex) {
+            this.startIndex = startIndex;
+            this.endIndex = endIndex;
+            this.startColumn = new ColumnSpec(startIndex, ColumnType.EPOCH_DAY);
+            this.endColumn = new ColumnSpec(endIndex, ColumnType.EPOCH_DAY);
+        }
+
+        @Override
+        public void validate(RecordView record, long lineNumber, ViolationReporter reporter) {
+            if (record.isSet(startIndex) && record.isSet(endIndex)) {
+                long startDate = DateParser.parseEpochDay(record.getCharSequence(startIndex));
+                long endDate = DateParser.parseEpochDay(record.getCharSequence(endIndex));
+                if (startDate != DateParser.INVALID_DATE && endDate != DateParser.INVALID_DATE && startDate > endDate) {
+                    reporter.record(message, startField, lineNumber, record.get(startIndex), level, DateParser.format(startDate), DateParser.format(endDate));
+                }
+            }
+        }
+
+        @Override
+        public List<ColumnSpec> getColumns() {
+            return List.of(startColumn, endColumn);
+        }
+
+        @Override
+        public void validate(ColumnBatch batch, ViolationReporter reporter) {
+            ColumnBatch.Column startDates = batch.getColumn(startColumn);
+            long[] startDays = startDates.getEpochDays();
+            long[] endDays = batch.getColumn(endColumn).getEpochDays();
+            int size = batch.size();
+            for (int row = 0; row < size; row++) {
+                // Missing and invalid dates are both INVALID_DATE (the smallest long value), so they never exceed the other date.
+                if (startDays[row] > endDays[row] && endDays[row] != DateParser.INVALID_DATE) {
+                    reporter.record(message, startField, batch.getLineNumber(row), startDates.getValue(row), level, DateParser.format(startDays[row]), DateParser.format(endDays[row]));
+                }
+            }
+        }
+
+    }
+
+}
@@ -0,0 +1,391 @@
+package eu.europa.ec.itb.kohesio.rules;
+
+import eu.europa.ec.itb.kohesio.ViolationReporter;
+import eu.europa.ec.itb.kohesio.model.MessageTemplate;
+import eu.europa.ec.itb.kohesio.model.RecordView;
+import eu.europa.ec.itb.kohesio.model.ViolationLevel;
+import eu.europa.ec.itb.kohesio.util.LongHashSet;
+import eu.europa.ec.itb.kohesio.util.LongLongHashMap;
+import org.apache.commons.csv.CSVParser;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.ToLongBiFunction;
+
+/**
+ * Rule to check that operations are not repeated within a file, based on the operation identifier (by default) or on
+ * a combination of key fields (e.g. the operation identifier and the beneficiary name). Records with any blank key
+ * field are not checked.
+ *
+ * To keep memory usage low and predictable, the first pass over the file only keeps a 64-bit fingerprint of each key
+ * in a primitive hash set. Fingerprints that are seen more than once are then checked in a second pass that keeps the
+ * key values and row of the first occurrence of each distinct key having such a fingerprint (i.e. one entry per
+ * duplicated key, plus one per key only sharing a fingerprint with another). Each record with a repeated fingerprint
+ * is compared to these keys: a second, independent 64-bit hash of the key quickly rules out most non-matching keys,
+ * with the key values then always compared exactly, so that fingerprint collisions are never reported. Each duplicate
+ * is reported (in file order) with the row of the key's first occurrence.
+ */
+public class DuplicateOperationRule implements Rule {
+
+    private static final String OPERATION_UNIQUE_IDENTIFIER = "Operation_Unique_Identifier";
+    private static final int INITIAL_EXPECTED_KEYS = 1 << 16;
+
+    private final List<String> keyFields;
+    private final MessageTemplate message;
+    private final ToLongBiFunction<RecordView, int[]> fingerprinter;
+    private final ToLongBiFunction<RecordView, int[]> checkHasher;
+
+    /**
+     * Constructor for checking the operation identifier.
+     */
+    public DuplicateOperationRule() {
+        this(OPERATION_UNIQUE_IDENTIFIER);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param keyFields The fields whose values combined identify an operation. The first field is the one reported.
+     */
+    public DuplicateOperationRule(String... keyFields) {
+        this(DuplicateOperationRule::fingerprint, DuplicateOperationRule::checkHash, keyFields);
+    }
+
+    /**
+     * Constructor (with specific hash functions for testing).
+     *
+     * @param fingerprinter The function computing a record's fingerprint from the record and its key indexes.
+     * @param checkHasher The function computing a record's second hash from the record and its key indexes.
+     * @param keyFields The fields whose values combined identify an operation. The first field is the one reported.
+     */
+    DuplicateOperationRule(ToLongBiFunction<RecordView, int[]> fingerprinter, ToLongBiFunction<RecordView, int[]> checkHasher, String... keyFields) {
+        if (keyFields.length == 0) {
+            throw new IllegalArgumentException("At least one key field must be provided");
+        }
+        this.keyFields = List.of(keyFields);
+        this.fingerprinter = fingerprinter;
+        this.checkHasher = checkHasher;
+        if (keyFields.length == 1) {
+            this.message = new MessageTemplate(String.format("The value '%%s' for field %s is already used in row %%s.", keyFields[0]));
+        } else {
+            this.message = new MessageTemplate(String.format("The combination of values for fields %s is already used in row %%s.", this.keyFields));
+        }
+    }
+
+    @Override
+    public Optional<BoundRule> bind(CSVParser parser) {
+        Map<String, Integer> headerMap = parser.getHeaderMap();
+        if (!headerMap.keySet().containsAll(keyFields)) {
+            return Optional.empty();
+        }
+        return Optional.of(new FingerprintCollector(keyFields.stream().mapToInt(headerMap::get).toArray()));
+    }
+
+    /**
+     * @param record The record.
+     * @param keyIndexes The indexes of the key fields.
+     * @return Whether any of the key fields is blank.
+     */
+    private static boolean isKeyBlank(RecordView record, int[] keyIndexes) {
+        for (int keyIndex: keyIndexes) {
+            if (record.isBlank(keyIndex)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Compute the fingerprint of a record's key (FNV-1a over the key values' characters, with the result's bits spread
+     * as in MurmurHash3's 64-bit finalisation step).
+     *
+     * @param record The record (with no blank key fields).
+     * @param keyIndexes The indexes of the key fields.
+     * @return The fingerprint.
+     */
+    private static long fingerprint(RecordView record, int[] keyIndexes) {
+        long hash = 0xCBF29CE484222325L;
+        for (int keyIndex: keyIndexes) {
+            CharSequence value = record.getCharSequence(keyIndex);
+            for (int i = 0; i < value.length(); i++) {
+                hash ^= value.charAt(i);
+                hash *= 0x100000001B3L;
+            }
+            // Separate the values (so that e.g. "ab" + "c" and "a" + "bc" differ).
+            hash ^= 0xFFFF;
+            hash *= 0x100000001B3L;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xFF51AFD7ED558CCDL;
+        hash ^= hash >>> 33;
+        hash *= 0xC4CEB9FE1A85EC53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+
+    /**
+     * Compute the second hash of a record's key, independent of its fingerprint (a polynomial hash over the key values'
+     * characters with the golden ratio as multiplier, with the result's bits spread as in SplitMix64's finalisation
+     * step).
+     *
+     * @param record The record (with no blank key fields).
+     * @param keyIndexes The indexes of the key fields.
+     * @return The hash.
+     */
+    private static long checkHash(RecordView record, int[] keyIndexes) {
+        long hash = 0L;
+        for (int keyIndex: keyIndexes) {
+            CharSequence value = record.getCharSequence(keyIndex);
+            for (int i = 0; i < value.length(); i++) {
+                hash = (hash + value.charAt(i)) * 0x9E3779B97F4A7C15L;
+            }
+            // Separate the values (so that e.g. "ab" + "c" and "a" + "bc" differ).
+            hash = (hash + 0x10000) * 0x9E3779B97F4A7C15L;
+        }
+        hash ^= hash >>> 30;
+        hash *= 0xBF58476D1CE4E5B9L;
+        hash ^= hash >>> 27;
+        hash *= 0x94D049BB133111EBL;
+        hash ^= hash >>> 31;
+        return hash;
+    }
+
+    /**
+     * First pass: collects the fingerprints of all keys, noting the ones seen more than once.
+     */
+    private class FingerprintCollector implements BoundRule {
+
+        private final int[] keyIndexes;
+        private final LongHashSet repeatedFingerprints = new LongHashSet(16);
+        // Created on first use (instances bound to a header but not used for a file are kept small).
+        private LongHashSet fingerprints;
+
+        /**
+         * Constructor.
+         *
+         * @param keyIndexes The indexes of the key fields.
+         */
+        FingerprintCollector(int[] keyIndexes) {
+            this.keyIndexes = keyIndexes;
+        }
+
+        @Override
+        public void validate(RecordView record, long lineNumber, ViolationReporter reporter) {
+            if (!isKeyBlank(record, keyIndexes)) {
+                add(fingerprinter.applyAsLong(record, keyIndexes));
+            }
+        }
+
+        /**
+         * @param fingerprint The fingerprint to add.
+         */
+        private void add(long fingerprint) {
+            if (fingerprints == null) {
+                fingerprints = new LongHashSet(INITIAL_EXPECTED_KEYS);
+            }
+            if (!fingerprints.add(fingerprint)) {
+                repeatedFingerprints.add(fingerprint);
+            }
+        }
+
+        @Override
+        public boolean isStateful() {
+            return true;
+        }
+
+        @Override
+        public BoundRule createForFile() {
+            return new FingerprintCollector(keyIndexes);
+        }
+
+        @Override
+        public BoundRule createPart() {
+            return new PartFingerprintCollector(keyIndexes);
+        }
+
+        @Override
+        public void mergePart(BoundRule part) {
+            PartFingerprintCollector partCollector = (PartFingerprintCollector) part;
+            for (int i = 0; i < partCollector.size; i++) {
+                add(partCollector.fingerprints[i]);
+            }
+        }
+
+        @Override
+        public Optional<BoundRule> endFile(ViolationReporter reporter) {
+            if (repeatedFingerprints.isEmpty()) {
+                return Optional.empty();
+            }
+            return Optional.of(new DuplicateChecker(keyIndexes, repeatedFingerprints));
+        }
+
+    }
+
+    /**
+     * First pass over a part of the file: buffers the fingerprints of the part's keys for them to be merged in order.
+     */
+    private class PartFingerprintCollector implements BoundRule {
+
+        private final int[] keyIndexes;
+        private long[] fingerprints = new long[1024];
+        private int size = 0;
+
+        /**
+         * Constructor.
+         *
+         * @param keyIndexes The indexes of the key fields.
+         */
+        PartFingerprintCollector(int[] keyIndexes) {
+            this.keyIndexes = keyIndexes;
+        }
+
+        @Override
+        public void validate(RecordView record, long lineNumber, ViolationReporter reporter) {
+            if (!isKeyBlank(record, keyIndexes)) {
+                if (size == fingerprints.length) {
+                    fingerprints = Arrays.copyOf(fingerprints, size * 2);
+                }
+                fingerprints[size++] = fingerprinter.applyAsLong(record, keyIndexes);
+            }
+        }
+
+        @Override
+        public boolean isStateful() {
+            return true;
+        }
+
+    }
+
+    /**
+     * Second pass: compares the keys of the records with repeated fingerprints to the keys first seen with the same
+     * fingerprint.
+     */
+    private class DuplicateChecker implements BoundRule {
+
+        private static final int NO_ENTRY = -1;
+
+        private final int[] keyIndexes;
+        private final LongHashSet repeatedFingerprints;
+        // The index of the first key entry of each fingerprint.
+        private final LongLongHashMap firstEntries;
+        // The key entries (the first occurrence of each distinct key), chained per fingerprint.
+        private String[][] entryKeys;
+        private long[] entryCheckHashes;
+        private long[] entryLineNumbers;
+        private int[] nextEntries;
+        private int entryCount = 0;
+
+        /**
+         * Constructor.
+         *
+         * @param keyIndexes The indexes of the key fields.
+         * @param repeatedFingerprints The fingerprints seen more than once in the first pass.
+         */
+        DuplicateChecker(int[] keyIndexes, LongHashSet repeatedFingerprints) {
+            this.keyIndexes = keyIndexes;
+            this.repeatedFingerprints = repeatedFingerprints;
+            this.firstEntries = new LongLongHashMap(repeatedFingerprints.size());
+            int capacity = Math.max(16, repeatedFingerprints.size());
+            this.entryKeys = new String[capacity][];
+            this.entryCheckHashes = new long[capacity];
+            this.entryLineNumbers = new long[capacity];
+            this.nextEntries = new int[capacity];
+        }
+
+        @Override
+        public void validate(RecordView record, long lineNumber, ViolationReporter reporter) {
+            if (isKeyBlank(record, keyIndexes)) {
+                return;
+            }
+            long fingerprint = fingerprinter.applyAsLong(record, keyIndexes);
+            if (!repeatedFingerprints.contains(fingerprint)) {
+                return;
+            }
+            long checkHash = checkHasher.applyAsLong(record, keyIndexes);
+            int entry = (int) firstEntries.get(fingerprint, NO_ENTRY);
+            if (entry == NO_ENTRY) {
+                firstEntries.put(fingerprint, addEntry(record, lineNumber, checkHash));
+                return;
+            }
+            while (true) {
+                if (entryCheckHashes[entry] == checkHash && isSameKey(record, entryKeys[entry])) {
+                    report(record, lineNumber, entryLineNumbers[entry], reporter);
+                    return;
+                }
+                if (nextEntries[entry] == NO_ENTRY) {
+                    // A different key with the same fingerprint.
+                    nextEntries[entry] = addEntry(record, lineNumber, checkHash);
+                    return;
+                }
+                entry = nextEntries[entry];
+            }
+        }
+
+        /**
+         * Add the entry for a key's first occurrence.
+         *
+         * @param record The record.
+         * @param lineNumber The record's line number.
+         * @param checkHash The second hash of the record's key.
+         * @return The entry's index.
+         */
+        private int addEntry(RecordView record, long lineNumber, long checkHash) {
+            if (entryCount == entryKeys.length) {
+                int capacity = entryCount * 2;
+                entryKeys = Arrays.copyOf(entryKeys, capacity);
+                entryCheckHashes = Arrays.copyOf(entryCheckHashes, capacity);
+                entryLineNumbers = Arrays.copyOf(entryLineNumbers, capacity);
+                nextEntries = Arrays.copyOf(nextEntries, capacity);
+            }
+            String[] key = new String[keyIndexes.length];
+            for (int i = 0; i < keyIndexes.length; i++) {
+                key[i] = record.get(keyIndexes[i]);
+            }
+            entryKeys[entryCount] = key;
+            entryCheckHashes[entryCount] = checkHash;
+            entryLineNumbers[entryCount] = lineNumber;
+            nextEntries[entryCount] = NO_ENTRY;
+            return entryCount++;
+        }
+
+        /**
+         * @param record The record.
+         * @param key The key values to compare to.
+         * @return Whether the record's key values are equal to the given ones.
+         */
+        private boolean isSameKey(RecordView record, String[] key) {
+            for (int i = 0; i < keyIndexes.length; i++) {
+                if (!key[i].contentEquals(record.getCharSequence(keyIndexes[i]))) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        /**
+         * Report a duplicate.
+         *
+         * @param record The duplicate record.
+         * @param lineNumber The duplicate's line number.
+         * @param firstLineNumber The line number of the key's first occurrence.
+         * @param reporter The class responsible of recording report items.
+         */
+        private void report(RecordView record, long lineNumber, long firstLineNumber, ViolationReporter reporter) {
+            String value = record.get(keyIndexes[0]);
+            if (keyIndexes.length == 1) {
+                reporter.record(message, keyFields.get(0), lineNumber, value, ViolationLevel.ERROR, value, String.valueOf(firstLineNumber));
+            } else {
+                reporter.record(message, keyFields.get(0), lineNumber, value, ViolationLevel.ERROR, String.valueOf(firstLineNumber));
+            }
+        }
+
+        @Override
+        public boolean isStateful() {
+            return true;
+        }
+
+    }
+
+}
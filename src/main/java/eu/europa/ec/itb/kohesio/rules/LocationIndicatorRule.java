@@ -1,12 +1,19 @@
 package eu.europa.ec.itb.kohesio.rules;
 
 import eu.europa.ec.itb.kohesio.ViolationReporter;
-import eu.europa.ec.itb.kohesio.model.ReportItem;
+import eu.europa.ec.itb.kohesio.model.ColumnBatch;
+import eu.europa.ec.itb.kohesio.model.ColumnSpec;
+import eu.europa.ec.itb.kohesio.model.ColumnType;
+import eu.europa.ec.itb.kohesio.model.MessageTemplate;
+import eu.europa.ec.itb.kohesio.model.RecordView;
 import eu.europa.ec.itb.kohesio.model.ViolationLevel;
 import org.apache.commons.csv.CSVParser;
-import org.apache.commons.csv.CSVRecord;
 
+import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Collectors;
 
 /**
  * Rule to check that at least one of the location indicator fields is provided.
@@ -25,27 +32,73 @@ public class LocationIndicatorRule implements Rule {
             LOCATION_INDICATOR_LATITUDE_LONGITUDE
     );
 
+    private final MessageTemplate message = new MessageTemplate(String.format("At least one of the location indicator fields %s must be provided.", fieldsToCheck));
+
     @Override
-    public boolean isApplicable(CSVParser parser) {
-        return parser.getHeaderMap().keySet().containsAll(fieldsToCheck);
+    public Optional<BoundRule> bind(CSVParser parser) {
+        Map<String, Integer> headerMap = parser.getHeaderMap();
+        if (!headerMap.keySet().containsAll(fieldsToCheck)) {
+            return Optional.empty();
+        }
+        int[] indexesToCheck = fieldsToCheck.stream().mapToInt(headerMap::get).toArray();
+        return Optional.of(new BoundLocationIndicatorRule(indexesToCheck));
     }
 
-    @Override
-    public void validate(CSVRecord record, long lineNumber, ViolationReporter reporter) {
-        boolean valueDefined = false;
-        for (String fieldToCheck: fieldsToCheck) {
-            String value = null;
-            if (record.isSet(fieldToCheck)) {
-                value = record.get(fieldToCheck);
+    /**
+     * The rule bound to a file's header.
+     */
+    private class BoundLocationIndicatorRule implements BatchRule {
+
+        private final int[] indexesToCheck;
+        private final List<ColumnSpec> columnsToCheck;
+
+        /**
+         * Constructor.
+         *
+         * @param indexesToCheck The indexes of the location indicator fields.
+         */
+        BoundLocationIndicatorRule(int[] indexesToCheck) {
+            this.indexesToCheck = indexesToCheck;
+            this.columnsToCheck = Arrays.stream(indexesToCheck).mapToObj((index) -> new ColumnSpec(index, ColumnType.PRESENCE)).collect(Collectors.toList());
+        }
+
+        @Override
+        public void validate(RecordView record, long lineNumber, ViolationReporter reporter) {
+            boolean valueDefined = false;
+            for (int indexToCheck: indexesToCheck) {
+                if (!record.isBlank(indexToCheck)) {
+                    valueDefined = true;
+                    break;
+                }
             }
-            if (value != null && !value.isBlank()) {
-                valueDefined = true;
-                break;
+            if (!valueDefined) {
+                reporter.record(message, null, lineNumber, null, ViolationLevel.ERROR);
             }
         }
-        if (!valueDefined) {
-            reporter.record(new ReportItem(String.format("At least one of the location indicator fields %s must be provided.", fieldsToCheck), null, lineNumber, null, ViolationLevel.ERROR));
+
+        @Override
+        public List<ColumnSpec> getColumns() {
+            return columnsToCheck;
+        }
+
+        @Override
+        public void validate(ColumnBatch batch, ViolationReporter reporter) {
+            int size = batch.size();
+            // Rows with a value for any of the fields.
+            boolean[] valueDefined = new boolean[size];
+            for (ColumnSpec column: columnsToCheck) {
+                boolean[] blanks = batch.getColumn(column).getBlanks();
+                for (int row = 0; row < size; row++) {
+                    valueDefined[row] |= !blanks[row];
+                }
+            }
+            for (int row = 0; row < size; row++) {
+                if (!valueDefined[row]) {
+                    reporter.record(message, null, batch.getLineNumber(row), null, ViolationLevel.ERROR);
+                }
+            }
         }
+
     }
 
 }
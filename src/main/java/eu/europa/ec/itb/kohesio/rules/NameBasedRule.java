@@ -0,0 +1,36 @@
+package eu.europa.ec.itb.kohesio.rules;
+
+import eu.europa.ec.itb.kohesio.ViolationReporter;
+import org.apache.commons.csv.CSVParser;
+import org.apache.commons.csv.CSVRecord;
+
+/**
+ * Interface for rules that look up the fields they need by name for each record.
+ *
+ * Such rules are registered with the PluginInterface class through the NameBasedRuleAdapter class. New rules
+ * should rather implement the Rule interface directly.
+ */
+public interface NameBasedRule {
+
+    /**
+     * Check the CSV parser to see if the current rule can be executed.
+     * This is used to avoid checks per record that can be determined once, and must only depend on the header's
+     * field names (the result being reused for all files with the same header).
+     *
+     * @param parser The parser.
+     * @return Whether or not the rule should be considered as applicable.
+     */
+    default boolean isApplicable(CSVParser parser) {
+        return true;
+    }
+
+    /**
+     * Validate the provided CSV record and record any applicable errors.
+     *
+     * @param record The record to validate.
+     * @param lineNumber The line number to consider when reporting errors.
+     * @param reporter The class responsible of recording report items.
+     */
+    void validate(CSVRecord record, long lineNumber, ViolationReporter reporter);
+
+}
@@ -0,0 +1,57 @@
+package eu.europa.ec.itb.kohesio.rules;
+
+import eu.europa.ec.itb.kohesio.ViolationReporter;
+import eu.europa.ec.itb.kohesio.model.CsvRecordView;
+import eu.europa.ec.itb.kohesio.model.RecordView;
+import org.apache.commons.csv.CSVParser;
+
+import java.util.Optional;
+
+/**
+ * Adapter to use a name-based rule as a Rule.
+ *
+ * Adapted rules need the records produced by the CSV parser, so files are always parsed with it when such rules apply.
+ */
+public class NameBasedRuleAdapter implements Rule {
+
+    private final NameBasedRule rule;
+
+    /**
+     * Constructor.
+     *
+     * @param rule The rule to adapt.
+     */
+    public NameBasedRuleAdapter(NameBasedRule rule) {
+        this.rule = rule;
+    }
+
+    /**
+     * @see Rule#getName()
+     */
+    @Override
+    public String getName() {
+        return rule.getClass().getSimpleName();
+    }
+
+    /**
+     * @see Rule#bind(CSVParser)
+     */
+    @Override
+    public Optional<BoundRule> bind(CSVParser parser) {
+        if (rule.isApplicable(parser)) {
+            return Optional.of(new BoundRule() {
+                @Override
+                public void validate(RecordView record, long lineNumber, ViolationReporter reporter) {
+                    rule.validate(((CsvRecordView) record).getRecord(), lineNumber, reporter);
+                }
+
+                @Override
+                public boolean requiresCsvRecord() {
+                    return true;
+                }
+            });
+        }
+        return Optional.empty();
+    }
+
+}
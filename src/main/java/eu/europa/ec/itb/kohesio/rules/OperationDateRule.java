@@ -1,14 +1,18 @@
 package eu.europa.ec.itb.kohesio.rules;
 
 import eu.europa.ec.itb.kohesio.ViolationReporter;
-import eu.europa.ec.itb.kohesio.model.ReportItem;
+import eu.europa.ec.itb.kohesio.model.ColumnBatch;
+import eu.europa.ec.itb.kohesio.model.ColumnSpec;
+import eu.europa.ec.itb.kohesio.model.ColumnType;
+import eu.europa.ec.itb.kohesio.model.MessageTemplate;
+import eu.europa.ec.itb.kohesio.model.RecordView;
 import eu.europa.ec.itb.kohesio.model.ViolationLevel;
+import eu.europa.ec.itb.kohesio.util.DateParser;
 import org.apache.commons.csv.CSVParser;
-import org.apache.commons.csv.CSVRecord;
 
-import java.time.LocalDate;
-import java.time.format.DateTimeFormatter;
-import java.time.format.DateTimeParseException;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 
 /**
  * Rule to check that the operation start date is always before the operation end date.
@@ -18,35 +22,73 @@ public class OperationDateRule implements Rule {
 
     private static final String OPERATION_START_DATE = "Operation_Start_Date";
     private static final String OPERATION_END_DATE = "Operation_End_Date";
-    private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("dd/MM/yyyy");
+    private static final MessageTemplate MESSAGE = new MessageTemplate("The operation start date '%s' must be before the operation end date '%s'.");
 
     @Override
-    public boolean isApplicable(CSVParser parser) {
-        return parser.getHeaderMap().containsKey(OPERATION_START_DATE) && parser.getHeaderMap().containsKey(OPERATION_END_DATE);
+    public Optional<BoundRule> bind(CSVParser parser) {
+        Map<String, Integer> headerMap = parser.getHeaderMap();
+        Integer startDateIndex = headerMap.get(OPERATION_START_DATE);
+        Integer endDateIndex = headerMap.get(OPERATION_END_DATE);
+        if (startDateIndex == null || endDateIndex == null) {
+            return Optional.empty();
+        }
+        return Optional.of(new BoundOperationDateRule(startDateIndex, endDateIndex));
     }
 
-    @Override
-    public void validate(CSVRecord record, long lineNumber, ViolationReporter reporter) {
-        if (record.isSet(OPERATION_START_DATE) && record.isSet(OPERATION_END_DATE)) {
-            String startDateStr = record.get(OPERATION_START_DATE);
-            LocalDate startDate = parseDate(startDateStr);
-            LocalDate endDate = parseDate(record.get(OPERATION_END_DATE));
-            if (startDate != null && endDate != null && startDate.isAfter(endDate)) {
-                reporter.record(new ReportItem(String.format("The operation start date '%s' must be before the operation end date '%s'.", DATE_FORMATTER.format(startDate), DATE_FORMATTER.format(endDate)), OPERATION_START_DATE, lineNumber, startDateStr, ViolationLevel.ERROR));
+    /**
+     * The rule bound to a file's header.
+     */
+    private static class BoundOperationDateRule implements BatchRule {
+
+        private final int startDateIndex;
+        private final int endDateIndex;
+        private final ColumnSpec startDateColumn;
+        private final ColumnSpec endDateColumn;
+
+        /**
+         * Constructor.
+         *
+         * @param startDateIndex The index of the start date field.
+         * @param endDateIndex The index of the end date field.
+         */
+        BoundOperationDateRule(int startDateIndex, int endDateIndex) {
+            this.startDateIndex = startDateIndex;
+            this.endDateIndex = endDateIndex;
+            this.startDateColumn = new ColumnSpec(startDateIndex, ColumnType.EPOCH_DAY);
+            this.endDateColumn = new ColumnSpec(endDateIndex, ColumnType.EPOCH_DAY);
+        }
+
+        @Override
+        public void validate(RecordView record, long lineNumber, ViolationReporter reporter) {
+            if (record.isSet(startDateIndex) && record.isSet(endDateIndex)) {
+                // Invalid dates are ignored here as they are reported as part of schema checks.
+                long startDate = DateParser.parseEpochDay(record.getCharSequence(startDateIndex));
+                long endDate = DateParser.parseEpochDay(record.getCharSequence(endDateIndex));
+                if (startDate != DateParser.INVALID_DATE && endDate != DateParser.INVALID_DATE && startDate > endDate) {
+                    reporter.record(MESSAGE, OPERATION_START_DATE, lineNumber, record.get(startDateIndex), ViolationLevel.ERROR, DateParser.format(startDate), DateParser.format(endDate));
+                }
             }
         }
-    }
 
-    private LocalDate parseDate(String dateValueStr) {
-        LocalDate result = null;
-        if (dateValueStr != null && !dateValueStr.isBlank()) {
-            try {
-                result = LocalDate.parse(dateValueStr, DATE_FORMATTER);
-            } catch (DateTimeParseException e) {
-                // Ignore - this is reported as part of schema checks.
+        @Override
+        public List<ColumnSpec> getColumns() {
+            return List.of(startDateColumn, endDateColumn);
+        }
+
+        @Override
+        public void validate(ColumnBatch batch, ViolationReporter reporter) {
+            ColumnBatch.Column startDates = batch.getColumn(startDateColumn);
+            long[] startDays = startDates.getEpochDays();
+            long[] endDays = batch.getColumn(endDateColumn).getEpochDays();
+            int size = batch.size();
+            for (int row = 0; row < size; row++) {
+                // Missing and invalid dates are both INVALID_DATE (the smallest long value), so they never exceed the other date.
+                if (startDays[row] > endDays[row] && endDays[row] != DateParser.INVALID_DATE) {
+                    reporter.record(MESSAGE, OPERATION_START_DATE, batch.getLineNumber(row), startDates.getValue(row), ViolationLevel.ERROR, DateParser.format(startDays[row]), DateParser.format(endDays[row]));
+                }
             }
         }
-        return result;
+
     }
 
 }
@@ -0,0 +1,129 @@
+package eu.europa.ec.itb.kohesio.rules;
+
+import eu.europa.ec.itb.kohesio.ViolationReporter;
+import eu.europa.ec.itb.kohesio.model.ColumnBatch;
+import eu.europa.ec.itb.kohesio.model.ColumnSpec;
+import eu.europa.ec.itb.kohesio.model.ColumnType;
+import eu.europa.ec.itb.kohesio.model.MessageTemplate;
+import eu.europa.ec.itb.kohesio.model.RecordView;
+import eu.europa.ec.itb.kohesio.model.ViolationLevel;
+import eu.europa.ec.itb.kohesio.util.CodeDictionary;
+import org.apache.commons.csv.CSVParser;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Configurable rule to check that a field is provided whenever a condition field is provided with a value that is not
+ * in a set of exempt values (see RuleDefinitions).
+ *
+ * Findings are reported for the required field, with the condition field's value as the message's argument. The rule
+ * only applies to files with both fields.
+ */
+public class RequiredUnlessInRule implements Rule {
+
+    private final String name;
+    private final String requiredField;
+    private final String conditionField;
+    private final Set<String> exemptValues;
+    private final MessageTemplate message;
+    private final ViolationLevel level;
+
+    /**
+     * Constructor.
+     *
+     * @param name The rule's name.
+     * @param requiredField The field that is required.
+     * @param conditionField The field whose value determines whether the required field is needed.
+     * @param exemptValues The values of the condition field for which the required field is not needed.
+     * @param message The message to report (with the condition field's value as argument).
+     * @param level The level of reported findings.
+     */
+    public RequiredUnlessInRule(String name, String requiredField, String conditionField, Set<String> exemptValues, MessageTemplate message, ViolationLevel level) {
+        this.name = name;
+        this.requiredField = requiredField;
+        this.conditionField = conditionField;
+        this.exemptValues = Set.copyOf(exemptValues);
+        this.message = message;
+        this.level = level;
+    }
+
+    /**
+     * @see Rule#getName()
+     */
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * @see Rule#bind(CSVParser)
+     */
+    @Override
+    public Optional<BoundRule> bind(CSVParser parser) {
+        Map<String, Integer> headerMap = parser.getHeaderMap();
+        Integer conditionIndex = headerMap.get(conditionField);
+        Integer requiredIndex = headerMap.get(requiredField);
+        if (conditionIndex == null || requiredIndex == null) {
+            return Optional.empty();
+        }
+        return Optional.of(new BoundRequiredUnlessInRule(conditionIndex, requiredIndex));
+    }
+
+    /**
+     * The rule bound to a file's header.
+     */
+    private class BoundRequiredUnlessInRule implements BatchRule {
+
+        private final int conditionIndex;
+        private final int requiredIndex;
+        private final ColumnSpec conditionColumn;
+        private final ColumnSpec requiredColumn;
+
+        /**
+         * Constructor.
+         *
+         * @param conditionIndex The index of the condition field.
+         * @param requiredIndex The index of the required field.
+         */
+        BoundRequiredUnlessInRule(int conditionIndex, int requiredIndex) {
+            this.conditionIndex = conditionIndex;
+            this.requiredIndex = requiredIndex;
+            this.conditionColumn = new ColumnSpec(conditionIndex, ColumnType.CODE);
+            this.requiredColumn = new ColumnSpec(requiredIndex, ColumnType.PRESENCE);
+        }
+
+        @Override
+        public void validate(RecordView record, long lineNumber, ViolationReporter reporter) {
+            if (!record.isBlank(conditionIndex) && record.isBlank(requiredIndex)) {
+                String conditionValue = record.get(conditionIndex);
+                if (!exemptValues.contains(conditionValue)) {
+                    reporter.record(message, requiredField, lineNumber, null, level, conditionValue);
+                }
+            }
+        }
+
+        @Override
+        public List<ColumnSpec> getColumns() {
+            return List.of(conditionColumn, requiredColumn);
+        }
+
+        @Override
+        public void validate(ColumnBatch batch, ViolationReporter reporter) {
+            ColumnBatch.Column conditionValues = batch.getColumn(conditionColumn);
+            int[] conditionCodes = conditionValues.getCodes();
+            boolean[] exempt = conditionValues.getMatches(exemptValues);
+            boolean[] requiredBlanks = batch.getColumn(requiredColumn).getBlanks();
+            int size = batch.size();
+            for (int row = 0; row < size; row++) {
+                if (conditionCodes[row] != CodeDictionary.NO_CODE && requiredBlanks[row] && !exempt[row]) {
+                    reporter.record(message, requiredField, batch.getLineNumber(row), null, level, conditionValues.getValue(row));
+                }
+            }
+        }
+
+    }
+
+}
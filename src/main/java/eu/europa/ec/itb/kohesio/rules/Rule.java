@@ -1,34 +1,37 @@
 package eu.europa.ec.itb.kohesio.rules;
 
-import eu.europa.ec.itb.kohesio.ViolationReporter;
 import org.apache.commons.csv.CSVParser;
-import org.apache.commons.csv.CSVRecord;
+
+import java.util.Optional;
 
 /**
  * Common interface for validation rules.
  *
- * Each implementing class will need to be registered with the PluginInterface class.
+ * Each implementing class will need to be registered with the PluginInterface class. Rules implemented against the
+ * previous, name-based contract can be registered through the NameBasedRuleAdapter class. Rules can also be declared
+ * in a definitions file (see RuleDefinitions).
  */
 public interface Rule {
 
     /**
-     * Check the CSV parser to see if the current rule can be executed.
-     * This is used to avoid checks per record that can be determined once.
+     * Get the rule's name, used to identify the rule in metrics and cache keys.
      *
-     * @param parser The parser.
-     * @return Whether or not the rule should be considered as applicable.
+     * @return The name (by default the class's simple name).
      */
-    default boolean isApplicable(CSVParser parser) {
-        return true;
+    default String getName() {
+        return getClass().getSimpleName();
     }
 
     /**
-     * Validate the provided CSV record and record any applicable errors.
+     * Bind the rule to the header of the file being validated.
+     *
+     * This is called to determine whether the rule is applicable and to resolve the fields it needs to their indexes,
+     * so that records can then be validated without looking up fields by name. The result must only depend on the
+     * header's field names, as it is reused for all files with the same header (see BoundRule#createForFile).
      *
-     * @param record The record to validate.
-     * @param lineNumber The line number to consider when reporting errors.
-     * @param reporter The class responsible of recording report items.
+     * @param parser The parser (with its header already processed).
+     * @return The bound rule to use for the file's records (empty if the rule is not applicable).
      */
-    void validate(CSVRecord record, long lineNumber, ViolationReporter reporter);
+    Optional<BoundRule> bind(CSVParser parser);
 
 }
@@ -0,0 +1,279 @@
+package eu.europa.ec.itb.kohesio.rules;
+
+import eu.europa.ec.itb.kohesio.model.MessageTemplate;
+import eu.europa.ec.itb.kohesio.model.ViolationLevel;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Properties;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Rules declared in a definitions file rather than implemented as classes.
+ *
+ * The definitions file is a properties file (in UTF-8) listing the identifiers of the declared rules in its "rules"
+ * property (comma-separated, in the order in which the rules are to be applied), with each rule then defined through
+ * properties prefixed by its identifier:
+ * <ul>
+ *     <li>"[id].type": The rule's type, one of "requiredUnlessIn", "atLeastOne" and "dateOrder".</li>
+ *     <li>"[id].message": The message to report (optional, a default message being generated otherwise), with a "%s"
+ *     placeholder for each argument the rule's type provides.</li>
+ *     <li>"[id].level": The level of reported findings (optional, ERROR if not set).</li>
+ * </ul>
+ * The fields checked are set per type:
+ * <ul>
+ *     <li>requiredUnlessIn: "[id].field" is required if "[id].conditionField" is provided with a value that is not
+ *     among the comma-separated "[id].values" (see RequiredUnlessInRule). The message has the condition field's value as
+ *     argument.</li>
+ *     <li>atLeastOne: At least one of the comma-separated "[id].fields" is required (see AtLeastOneRule). The message
+ *     has no arguments.</li>
+ *     <li>dateOrder: The date of "[id].startField" must not be after the date of "[id].endField" (see DateOrderRule).
+ *     The message has both dates as arguments.</li>
+ * </ul>
+ *
+ * Definitions are compiled once, when loaded, into rules that are then used as any other rule. Invalid definitions
+ * are rejected when loading them.
+ */
+public class RuleDefinitions {
+
+    /**
+     * System property for the location of the definitions file (no rules are declared if not set). Locations prefixed
+     * with "classpath:" refer to a classpath resource, other locations to a file path.
+     */
+    public static final String PROPERTY__LOCATION = "kohesio.rules.location";
+
+    private static final String CLASSPATH_PREFIX = "classpath:";
+    private static final String PROPERTY__RULES = "rules";
+    private static final String TYPE__REQUIRED_UNLESS_IN = "requiredUnlessIn";
+    private static final String TYPE__AT_LEAST_ONE = "atLeastOne";
+    private static final String TYPE__DATE_ORDER = "dateOrder";
+    private static final RuleDefinitions NONE = new RuleDefinitions(List.of(), "");
+
+    private final List<Rule> rules;
+    private final String digest;
+
+    /**
+     * Constructor.
+     *
+     * @param rules The declared rules.
+     * @param digest The digest of the definitions.
+     */
+    private RuleDefinitions(List<Rule> rules, String digest) {
+        this.rules = rules;
+        this.digest = digest;
+    }
+
+    /**
+     * Load the definitions from the location configured through system properties.
+     *
+     * @return The definitions (with no rules if no location is configured).
+     * @throws IllegalStateException If the definitions cannot be read or are invalid.
+     */
+    public static RuleDefinitions fromSystemProperties() {
+        String location = System.getProperty(PROPERTY__LOCATION);
+        if (location == null || location.isBlank()) {
+            return NONE;
+        }
+        byte[] content;
+        try {
+            if (location.startsWith(CLASSPATH_PREFIX)) {
+                String resource = location.substring(CLASSPATH_PREFIX.length());
+                try (InputStream in = RuleDefinitions.class.getClassLoader().getResourceAsStream(resource)) {
+                    if (in == null) {
+                        throw new IllegalStateException(String.format("Rule definitions resource [%s] not found", resource));
+                    }
+                    content = in.readAllBytes();
+                }
+            } else {
+                content = Files.readAllBytes(Path.of(location));
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException(String.format("Unable to read rule definitions from [%s]", location), e);
+        }
+        try {
+            return load(content);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalStateException(String.format("Invalid rule definitions in [%s]: %s", location, e.getMessage()), e);
+        }
+    }
+
+    /**
+     * Load the definitions from the provided content.
+     *
+     * @param content The definitions file's bytes.
+     * @return The definitions.
+     * @throws IllegalArgumentException If the definitions are invalid.
+     */
+    public static RuleDefinitions load(byte[] content) {
+        Properties properties = new Properties();
+        try (Reader reader = new InputStreamReader(new ByteArrayInputStream(content), StandardCharsets.UTF_8)) {
+            properties.load(reader);
+        } catch (IOException | IllegalArgumentException e) {
+            throw new IllegalArgumentException("The definitions are not a valid properties file", e);
+        }
+        List<Rule> rules = new ArrayList<>();
+        Set<String> ids = new HashSet<>();
+        for (String id: getList(properties, PROPERTY__RULES)) {
+            if (!ids.add(id)) {
+                throw new IllegalArgumentException(String.format("Rule [%s] is listed more than once", id));
+            }
+            rules.add(compile(properties, id));
+        }
+        return new RuleDefinitions(List.copyOf(rules), toDigest(content));
+    }
+
+    /**
+     * @return The declared rules (in the order in which they are to be applied).
+     */
+    public List<Rule> getRules() {
+        return rules;
+    }
+
+    /**
+     * @return The digest of the definitions (as a hexadecimal string, empty if no definitions were loaded), to
+     * identify them in cache keys.
+     */
+    public String getDigest() {
+        return digest;
+    }
+
+    /**
+     * Compile a rule's definition.
+     *
+     * @param properties The definitions.
+     * @param id The rule's identifier.
+     * @return The rule.
+     */
+    private static Rule compile(Properties properties, String id) {
+        String type = getRequired(properties, id, "type");
+        ViolationLevel level = getLevel(properties, id);
+        switch (type) {
+            case TYPE__REQUIRED_UNLESS_IN: {
+                String field = getRequired(properties, id, "field");
+                String conditionField = getRequired(properties, id, "conditionField");
+                List<String> values = getList(properties, id + ".values");
+                MessageTemplate message = getMessage(properties, id, 1, String.format("Field %s is required when %s is '%%s'.", field, conditionField));
+                return new RequiredUnlessInRule(id, field, conditionField, Set.copyOf(values), message, level);
+            }
+            case TYPE__AT_LEAST_ONE: {
+                List<String> fields = getList(properties, id + ".fields");
+                if (fields.isEmpty()) {
+                    throw new IllegalArgumentException(String.format("Rule [%s] requires property [%s.fields]", id, id));
+                }
+                MessageTemplate message = getMessage(properties, id, 0, String.format("At least one of the fields %s must be provided.", fields));
+                return new AtLeastOneRule(id, fields, message, level);
+            }
+            case TYPE__DATE_ORDER: {
+                String startField = getRequired(properties, id, "startField");
+                String endField = getRequired(properties, id, "endField");
+                MessageTemplate message = getMessage(properties, id, 2, String.format("The %s '%%s' must not be after the %s '%%s'.", startField, endField));
+                return new DateOrderRule(id, startField, endField, message, level);
+            }
+            default:
+                throw new IllegalArgumentException(String.format("Rule [%s] has unknown type [%s] (expected one of %s, %s or %s)", id, type, TYPE__REQUIRED_UNLESS_IN, TYPE__AT_LEAST_ONE, TYPE__DATE_ORDER));
+        }
+    }
+
+    /**
+     * Get a required property of a rule.
+     *
+     * @param properties The definitions.
+     * @param id The rule's identifier.
+     * @param name The property's name (without the rule's identifier).
+     * @return The (trimmed) value.
+     */
+    private static String getRequired(Properties properties, String id, String name) {
+        String value = properties.getProperty(id + "." + name);
+        if (value == null || value.isBlank()) {
+            throw new IllegalArgumentException(String.format("Rule [%s] requires property [%s.%s]", id, id, name));
+        }
+        return value.trim();
+    }
+
+    /**
+     * Get a rule's level.
+     *
+     * @param properties The definitions.
+     * @param id The rule's identifier.
+     * @return The level.
+     */
+    private static ViolationLevel getLevel(Properties properties, String id) {
+        String value = properties.getProperty(id + ".level");
+        if (value == null || value.isBlank()) {
+            return ViolationLevel.ERROR;
+        }
+        try {
+            return ViolationLevel.valueOf(value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException(String.format("Rule [%s] has unknown level [%s] (expected one of %s)", id, value.trim(), Arrays.toString(ViolationLevel.values())));
+        }
+    }
+
+    /**
+     * Get a rule's message.
+     *
+     * @param properties The definitions.
+     * @param id The rule's identifier.
+     * @param argumentCount The number of arguments the rule provides for the message.
+     * @param defaultMessage The message to use if none is defined.
+     * @return The parsed message.
+     */
+    private static MessageTemplate getMessage(Properties properties, String id, int argumentCount, String defaultMessage) {
+        String value = properties.getProperty(id + ".message");
+        MessageTemplate message = new MessageTemplate((value == null || value.isBlank())?defaultMessage:value.trim());
+        if (message.getArgumentCount() != argumentCount) {
+            throw new IllegalArgumentException(String.format("Rule [%s] has a message with %s placeholders (expected %s)", id, message.getArgumentCount(), argumentCount));
+        }
+        return message;
+    }
+
+    /**
+     * Get a comma-separated list property.
+     *
+     * @param properties The definitions.
+     * @param name The property's name.
+     * @return The (trimmed) non-empty values.
+     */
+    private static List<String> getList(Properties properties, String name) {
+        String value = properties.getProperty(name);
+        if (value == null) {
+            return List.of();
+        }
+        return Arrays.stream(value.split(",")).map(String::trim).filter((item) -> !item.isEmpty()).collect(Collectors.toList());
+    }
+
+    /**
+     * Compute the digest of the definitions.
+     *
+     * @param content The definitions file's bytes.
+     * @return The digest (as a hexadecimal string).
+     */
+    private static String toDigest(byte[] content) {
+        byte[] hash;
+        try {
+            hash = MessageDigest.getInstance("SHA-256").digest(content);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("Unable to create digest for rule definitions", e);
+        }
+        StringBuilder digest = new StringBuilder(hash.length * 2);
+        for (byte value: hash) {
+            digest.append(Character.forDigit((value >> 4) & 0xF, 16)).append(Character.forDigit(value & 0xF, 16));
+        }
+        return digest.toString();
+    }
+
+}
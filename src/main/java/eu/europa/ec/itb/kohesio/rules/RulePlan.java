@@ -0,0 +1,232 @@
+package eu.europa.ec.itb.kohesio.rules;
+
+import eu.europa.ec.itb.kohesio.ViolationReporter;
+import eu.europa.ec.itb.kohesio.model.RecordView;
+import org.apache.commons.csv.CSVParser;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * The set of rules bound to a specific file's header.
+ *
+ * A plan is built once per header and then used per file with that header (see forFile) to validate its records. To
+ * validate parts of the file concurrently, each part is to be validated with its own plan (see createPart) that is
+ * merged back once complete.
+ * The plan's lifecycle follows that of its bound rules. Records can be validated one by one or, if the plan includes
+ * batch rules, in batches through a BatchEvaluator.
+ */
+public class RulePlan {
+
+    private final BoundRule[] boundRules;
+    private final String[] ruleNames;
+    private final boolean requiresCsvRecords;
+    private final boolean stateful;
+    private final boolean batchRules;
+
+    /**
+     * Constructor.
+     *
+     * @param boundRules The bound rules to apply.
+     * @param ruleNames The names of the rules (matching the bound rules).
+     */
+    private RulePlan(BoundRule[] boundRules, String[] ruleNames) {
+        this.boundRules = boundRules;
+        this.ruleNames = ruleNames;
+        this.requiresCsvRecords = Arrays.stream(boundRules).anyMatch(BoundRule::requiresCsvRecord);
+        this.stateful = Arrays.stream(boundRules).anyMatch(BoundRule::isStateful);
+        this.batchRules = Arrays.stream(boundRules).anyMatch((boundRule) -> boundRule instanceof BatchRule);
+    }
+
+    /**
+     * Build the plan by binding the provided rules to the parser's header. Rules that are not applicable are skipped.
+     *
+     * @param rules The rules to consider.
+     * @param parser The parser (with its header already processed).
+     * @return The plan.
+     */
+    public static RulePlan compile(Rule[] rules, CSVParser parser) {
+        List<BoundRule> boundRules = new ArrayList<>(rules.length);
+        List<String> ruleNames = new ArrayList<>(rules.length);
+        for (Rule rule: rules) {
+            Optional<BoundRule> boundRule = rule.bind(parser);
+            if (boundRule.isPresent()) {
+                boundRules.add(boundRule.get());
+                ruleNames.add(rule.getName());
+            }
+        }
+        return new RulePlan(boundRules.toArray(new BoundRule[0]), ruleNames.toArray(new String[0]));
+    }
+
+    /**
+     * Validate the provided record against all rules of the plan.
+     *
+     * @param record The record to validate.
+     * @param lineNumber The line number to consider when reporting errors.
+     * @param reporter The class responsible of recording report items.
+     */
+    public void validate(RecordView record, long lineNumber, ViolationReporter reporter) {
+        for (BoundRule boundRule: boundRules) {
+            boundRule.validate(record, lineNumber, reporter);
+        }
+    }
+
+    /**
+     * Validate the provided record against all rules of the plan, measuring the time spent per rule.
+     *
+     * @param record The record to validate.
+     * @param lineNumber The line number to consider when reporting errors.
+     * @param reporter The class responsible of recording report items.
+     * @param ruleNanos The per-rule times (in nanoseconds) to add to (in the order of getRuleNames()).
+     */
+    public void validate(RecordView record, long lineNumber, ViolationReporter reporter, long[] ruleNanos) {
+        long start = System.nanoTime();
+        for (int i = 0; i < boundRules.length; i++) {
+            boundRules[i].validate(record, lineNumber, reporter);
+            long end = System.nanoTime();
+            ruleNanos[i] += end - start;
+            start = end;
+        }
+    }
+
+    /**
+     * Create an evaluator to validate records in batches.
+     *
+     * @param capacity The number of records per batch.
+     * @param reporter The class responsible of recording report items.
+     * @param ruleNanos The per-rule times (in nanoseconds) to add to (in the order of getRuleNames()), or null if
+     *                  times are not to be measured.
+     * @return The evaluator.
+     */
+    public BatchEvaluator createBatchEvaluator(int capacity, ViolationReporter reporter, long[] ruleNanos) {
+        return new BatchEvaluator(boundRules, capacity, reporter, ruleNanos);
+    }
+
+    /**
+     * @return The names of the plan's rules (in their evaluation order).
+     */
+    public String[] getRuleNames() {
+        return ruleNames.clone();
+    }
+
+    /**
+     * Create the plan to use for validating a file with the header this plan was built for.
+     *
+     * @return The plan (this one if all rules are stateless).
+     * @see BoundRule#createForFile()
+     */
+    public RulePlan forFile() {
+        if (!stateful) {
+            return this;
+        }
+        BoundRule[] fileRules = new BoundRule[boundRules.length];
+        for (int i = 0; i < boundRules.length; i++) {
+            fileRules[i] = boundRules[i].createForFile();
+        }
+        return new RulePlan(fileRules, ruleNames);
+    }
+
+    /**
+     * Create the plan to use for validating a part of the file.
+     *
+     * @return The plan (this one if all rules are stateless).
+     * @see BoundRule#createPart()
+     */
+    public RulePlan createPart() {
+        if (!stateful) {
+            return this;
+        }
+        BoundRule[] parts = new BoundRule[boundRules.length];
+        for (int i = 0; i < boundRules.length; i++) {
+            parts[i] = boundRules[i].createPart();
+        }
+        return new RulePlan(parts, ruleNames);
+    }
+
+    /**
+     * Merge the state of a plan used for validating a part of the file. Parts are to be merged in file order.
+     *
+     * @param part The part's plan (as created by createPart).
+     * @see BoundRule#mergePart(BoundRule)
+     */
+    public void mergePart(RulePlan part) {
+        if (part != this) {
+            for (int i = 0; i < boundRules.length; i++) {
+                if (boundRules[i].isStateful()) {
+                    boundRules[i].mergePart(part.boundRules[i]);
+                }
+            }
+        }
+    }
+
+    /**
+     * Create a plan with only the stateful rules of this one.
+     *
+     * @return The plan.
+     */
+    public RulePlan statefulRules() {
+        List<BoundRule> statefulRules = new ArrayList<>();
+        List<String> statefulRuleNames = new ArrayList<>();
+        for (int i = 0; i < boundRules.length; i++) {
+            if (boundRules[i].isStateful()) {
+                statefulRules.add(boundRules[i]);
+                statefulRuleNames.add(ruleNames[i]);
+            }
+        }
+        return new RulePlan(statefulRules.toArray(new BoundRule[0]), statefulRuleNames.toArray(new String[0]));
+    }
+
+    /**
+     * Signal that all the file's records have been validated.
+     *
+     * @param reporter The class responsible of recording report items.
+     * @return The plan to apply in an additional pass over the file's records (empty if no rule needs one).
+     * @see BoundRule#endFile(ViolationReporter)
+     */
+    public Optional<RulePlan> endFile(ViolationReporter reporter) {
+        List<BoundRule> nextPassRules = new ArrayList<>();
+        List<String> nextPassRuleNames = new ArrayList<>();
+        for (int i = 0; i < boundRules.length; i++) {
+            Optional<BoundRule> nextPassRule = boundRules[i].endFile(reporter);
+            if (nextPassRule.isPresent()) {
+                nextPassRules.add(nextPassRule.get());
+                nextPassRuleNames.add(ruleNames[i]);
+            }
+        }
+        if (nextPassRules.isEmpty()) {
+            return Optional.empty();
+        }
+        return Optional.of(new RulePlan(nextPassRules.toArray(new BoundRule[0]), nextPassRuleNames.toArray(new String[0])));
+    }
+
+    /**
+     * @return Whether any of the plan's rules keeps state across records.
+     */
+    public boolean isStateful() {
+        return stateful;
+    }
+
+    /**
+     * @return Whether any of the plan's rules can validate batches of records (see BatchRule).
+     */
+    public boolean hasBatchRules() {
+        return batchRules;
+    }
+
+    /**
+     * @return Whether the plan has no rules.
+     */
+    public boolean isEmpty() {
+        return boundRules.length == 0;
+    }
+
+    /**
+     * @return Whether any of the plan's rules needs the records produced by the CSV parser.
+     */
+    public boolean requiresCsvRecords() {
+        return requiresCsvRecords;
+    }
+
+}
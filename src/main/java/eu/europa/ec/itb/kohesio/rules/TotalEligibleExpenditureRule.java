@@ -1,11 +1,18 @@
 package eu.europa.ec.itb.kohesio.rules;
 
 import eu.europa.ec.itb.kohesio.ViolationReporter;
-import eu.europa.ec.itb.kohesio.model.ReportItem;
+import eu.europa.ec.itb.kohesio.model.ColumnBatch;
+import eu.europa.ec.itb.kohesio.model.ColumnSpec;
+import eu.europa.ec.itb.kohesio.model.ColumnType;
+import eu.europa.ec.itb.kohesio.model.MessageTemplate;
+import eu.europa.ec.itb.kohesio.model.RecordView;
 import eu.europa.ec.itb.kohesio.model.ViolationLevel;
+import eu.europa.ec.itb.kohesio.util.CodeDictionary;
 import org.apache.commons.csv.CSVParser;
-import org.apache.commons.csv.CSVRecord;
 
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 import java.util.Set;
 
 /**
@@ -19,26 +26,72 @@ public class TotalEligibleExpenditureRule implements Rule {
     private static final String EXCHANGE_CURRENCY = "Total_Eligible_Expenditure_Currency";
 
     private static final Set<String> CURRENCIES_WITH_OPTIONAL_RATE = Set.of("EUR");
+    private static final MessageTemplate MESSAGE = new MessageTemplate("The total eligible expenditure exchange rate is required for the provided currency '%s'.");
 
     @Override
-    public boolean isApplicable(CSVParser parser) {
-        return parser.getHeaderMap().containsKey(EXCHANGE_CURRENCY) && parser.getHeaderMap().containsKey(EXCHANGE_RATE);
+    public Optional<BoundRule> bind(CSVParser parser) {
+        Map<String, Integer> headerMap = parser.getHeaderMap();
+        Integer currencyIndex = headerMap.get(EXCHANGE_CURRENCY);
+        Integer rateIndex = headerMap.get(EXCHANGE_RATE);
+        if (currencyIndex == null || rateIndex == null) {
+            return Optional.empty();
+        }
+        return Optional.of(new BoundTotalEligibleExpenditureRule(currencyIndex, rateIndex));
     }
 
-    @Override
-    public void validate(CSVRecord record, long lineNumber, ViolationReporter reporter) {
-        if (record.isSet(EXCHANGE_CURRENCY)) {
-            String currency = record.get(EXCHANGE_CURRENCY);
-            if (currency != null && !currency.isBlank() && !CURRENCIES_WITH_OPTIONAL_RATE.contains(currency)) {
-                String rate = null;
-                if (record.isSet(EXCHANGE_RATE)) {
-                    rate = record.get(EXCHANGE_RATE);
+    /**
+     * The rule bound to a file's header.
+     */
+    private static class BoundTotalEligibleExpenditureRule implements BatchRule {
+
+        private final int currencyIndex;
+        private final int rateIndex;
+        private final ColumnSpec currencyColumn;
+        private final ColumnSpec rateColumn;
+
+        /**
+         * Constructor.
+         *
+         * @param currencyIndex The index of the currency field.
+         * @param rateIndex The index of the exchange rate field.
+         */
+        BoundTotalEligibleExpenditureRule(int currencyIndex, int rateIndex) {
+            this.currencyIndex = currencyIndex;
+            this.rateIndex = rateIndex;
+            this.currencyColumn = new ColumnSpec(currencyIndex, ColumnType.CODE);
+            this.rateColumn = new ColumnSpec(rateIndex, ColumnType.PRESENCE);
+        }
+
+        @Override
+        public void validate(RecordView record, long lineNumber, ViolationReporter reporter) {
+            if (!record.isBlank(currencyIndex) && record.isBlank(rateIndex)) {
+                String currency = record.get(currencyIndex);
+                if (!CURRENCIES_WITH_OPTIONAL_RATE.contains(currency)) {
+                    reporter.record(MESSAGE, EXCHANGE_RATE, lineNumber, null, ViolationLevel.ERROR, currency);
                 }
-                if (rate == null || rate.isBlank()) {
-                    reporter.record(new ReportItem(String.format("The total eligible expenditure exchange rate is required for the provided currency '%s'.", currency), EXCHANGE_RATE, lineNumber, null, ViolationLevel.ERROR));
+            }
+        }
+
+        @Override
+        public List<ColumnSpec> getColumns() {
+            return List.of(currencyColumn, rateColumn);
+        }
+
+        @Override
+        public void validate(ColumnBatch batch, ViolationReporter reporter) {
+            ColumnBatch.Column currencies = batch.getColumn(currencyColumn);
+            int[] currencyCodes = currencies.getCodes();
+            // The currencies are matched by code, so that each distinct currency is only looked up once.
+            boolean[] rateOptional = currencies.getMatches(CURRENCIES_WITH_OPTIONAL_RATE);
+            boolean[] rateBlanks = batch.getColumn(rateColumn).getBlanks();
+            int size = batch.size();
+            for (int row = 0; row < size; row++) {
+                if (currencyCodes[row] != CodeDictionary.NO_CODE && rateBlanks[row] && !rateOptional[row]) {
+                    reporter.record(MESSAGE, EXCHANGE_RATE, batch.getLineNumber(row), null, ViolationLevel.ERROR, currencies.getValue(row));
                 }
             }
         }
+
     }
 
 }
@@ -1,14 +1,40 @@
 package eu.europa.ec.itb.kohesio.util;
 
 import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
 
 /**
  * BOM stripping reader class.
  * This reader ensures that the BOM information is correctly handled in unicode files.
+ *
+ * The content's charset is determined from its BOM (UTF-8 if there is none) and the content is then decoded from a
+ * large byte buffer, directly into the caller's buffer, by a decoder created once for the reader. Malformed input is
+ * replaced as done by an InputStreamReader. The buffer is a heap buffer as the JDK's decoders (notably the UTF-8 one,
+ * with its intrinsic handling of ASCII runs) are fastest when decoding arrays.
+ *
+ * Instances are not thread-safe.
  */
 public class BomStrippingReader extends Reader {
 
-    private InputStreamReader internal;
+    private static final int BUFFER_SIZE = 256 * 1024;
+
+    private final InputStream stream;
+    private final ReadableByteChannel channel;
+    private final ByteBuffer bytes;
+    private final CharsetDecoder decoder;
+    // Second char of a surrogate pair not yet returned (if any).
+    private final char[] pair = new char[2];
+    private boolean pending = false;
+    private boolean endOfInput = false;
+    private boolean flushed = false;
+    private boolean closed = false;
+    private long bytesRead = 0L;
 
     /**
      * Constructor.
@@ -16,44 +42,67 @@ public class BomStrippingReader extends Reader {
      * @param in The stream to read the file bytes from.
      */
     public BomStrippingReader(InputStream in) {
+        this(in, null);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param channel The channel to read the file bytes from (e.g. a FileChannel).
+     */
+    public BomStrippingReader(ReadableByteChannel channel) {
+        this(null, channel);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param stream The stream to read the file bytes from (null if reading from a channel).
+     * @param channel The channel to read the file bytes from (null if reading from a stream).
+     */
+    private BomStrippingReader(InputStream stream, ReadableByteChannel channel) {
+        this.stream = stream;
+        this.channel = channel;
+        // The buffer is kept in read mode (its remaining bytes are to be decoded).
+        this.bytes = ByteBuffer.allocate(BUFFER_SIZE);
+        this.bytes.flip();
         try {
-            String charsetName = "UTF-8";
-            PushbackInputStream pushbackStream = new PushbackInputStream(in, 4);
-            byte[] buffer = new byte[4];
-            int bytesRead = pushbackStream.read(buffer, 0, buffer.length);
-            int unread = 0;
+            // The BOM is determined from the content's first four bytes (or less if the content is shorter).
+            while (bytes.remaining() < 4 && fill()) {
+                // Read until enough bytes are available.
+            }
+            Charset charset = StandardCharsets.UTF_8;
+            int bomLength = 0;
+            int bytesRead = bytes.remaining();
             if (bytesRead >= 4 &&
-                    buffer[0] == (byte)0x00 && buffer[1] == (byte)0x00 && buffer[2] == (byte)0xFE && buffer[3] == (byte)0xFF) {
+                    bytes.get(0) == (byte)0x00 && bytes.get(1) == (byte)0x00 && bytes.get(2) == (byte)0xFE && bytes.get(3) == (byte)0xFF) {
                 // 00 00 FE FF (UTF-32, big-endian).
-                charsetName = "UTF-32BE";
-                unread = bytesRead - 4;
+                charset = Charset.forName("UTF-32BE");
+                bomLength = 4;
             } else if (bytesRead >= 4 &&
-                    buffer[0] == (byte)0xFF && buffer[1] == (byte)0xFE && buffer[2] == (byte)0x00 && buffer[3] == (byte)0x00) {
+                    bytes.get(0) == (byte)0xFF && bytes.get(1) == (byte)0xFE && bytes.get(2) == (byte)0x00 && bytes.get(3) == (byte)0x00) {
                 // FF FE 00 00 (UTF-32, little-endian).
-                charsetName = "UTF-32LE";
-                unread = bytesRead - 4;
+                charset = Charset.forName("UTF-32LE");
+                bomLength = 4;
             } else if (bytesRead >= 3 &&
-                    buffer[0] == (byte)0xEF && buffer[1] == (byte)0xBB && buffer[2] == (byte)0xBF) {
+                    bytes.get(0) == (byte)0xEF && bytes.get(1) == (byte)0xBB && bytes.get(2) == (byte)0xBF) {
                 // EF BB BF (UTF-8).
-                charsetName = "UTF-8";
-                unread = bytesRead - 3;
+                bomLength = 3;
             } else if (bytesRead >= 2 &&
-                    buffer[0] == (byte)0xFE && buffer[1] == (byte)0xFF) {
+                    bytes.get(0) == (byte)0xFE && bytes.get(1) == (byte)0xFF) {
                 // FE FF (UTF-16, big-endian).
-                charsetName = "UTF-16BE";
-                unread = bytesRead - 2;
+                charset = StandardCharsets.UTF_16BE;
+                bomLength = 2;
             } else if (bytesRead >= 2 &&
-                    buffer[0] == (byte)0xFF && buffer[1] == (byte)0xFE) {
+                    bytes.get(0) == (byte)0xFF && bytes.get(1) == (byte)0xFE) {
                 // FF FE (UTF-16, little-endian).
-                charsetName = "UTF-16LE";
-                unread = bytesRead - 2;
-            } else {
-                unread = bytesRead;
+                charset = StandardCharsets.UTF_16LE;
+                bomLength = 2;
             }
-            if (unread > 0) {
-                pushbackStream.unread(buffer, bytesRead-unread, unread);
-            }
-            internal = new InputStreamReader(pushbackStream, charsetName);
+            bytes.position(bomLength);
+            decoder = charset.newDecoder()
+                    .onMalformedInput(CodingErrorAction.REPLACE)
+                    .onUnmappableCharacter(CodingErrorAction.REPLACE);
         } catch (IOException e) {
             throw new IllegalStateException("Error checking for BOM characters.", e);
         }
@@ -64,7 +113,42 @@ public class BomStrippingReader extends Reader {
      */
     @Override
     public int read(char[] cbuf, int offset, int length) throws IOException {
-        return internal.read(cbuf, offset, length);
+        if (closed) {
+            throw new IOException("Stream closed");
+        }
+        if (offset < 0 || length < 0 || length > cbuf.length - offset) {
+            throw new IndexOutOfBoundsException();
+        }
+        if (length == 0) {
+            return 0;
+        }
+        int end = offset + length;
+        int position = offset;
+        if (pending) {
+            cbuf[position++] = pair[1];
+            pending = false;
+        }
+        while (position == offset) {
+            if (flushed) {
+                return -1;
+            }
+            // Decode directly into the caller's buffer.
+            CharBuffer chars = CharBuffer.wrap(cbuf, position, end - position);
+            boolean overflow = decode(chars);
+            position = chars.position();
+            if (overflow && position == offset) {
+                // A surrogate pair does not fit in the caller's buffer (of a single char): return its first char.
+                CharBuffer pairChars = CharBuffer.wrap(pair);
+                decode(pairChars);
+                cbuf[position++] = pair[0];
+                pending = pairChars.position() == 2;
+            }
+            if (position == offset && !endOfInput) {
+                // The remaining bytes (if any) are an incomplete sequence.
+                endOfInput = !fill();
+            }
+        }
+        return position - offset;
     }
 
     /**
@@ -72,7 +156,62 @@ public class BomStrippingReader extends Reader {
      */
     @Override
     public void close() throws IOException {
-        internal.close();
+        closed = true;
+        if (stream != null) {
+            stream.close();
+        } else {
+            channel.close();
+        }
+    }
+
+    /**
+     * @return The number of bytes read so far (including any BOM and bytes not yet decoded).
+     */
+    public long getBytesRead() {
+        return bytesRead;
+    }
+
+    /**
+     * Decode the buffer's bytes into the provided chars.
+     *
+     * @param chars The chars.
+     * @return Whether decoding stopped as the chars are full.
+     */
+    private boolean decode(CharBuffer chars) {
+        boolean overflow = decoder.decode(bytes, chars, endOfInput).isOverflow();
+        if (endOfInput && !overflow) {
+            // All bytes are decoded once the end of the input is reached (as incomplete sequences are replaced).
+            overflow = decoder.flush(chars).isOverflow();
+            flushed = !overflow;
+        }
+        return overflow;
+    }
+
+    /**
+     * Read more bytes into the buffer, keeping the bytes not yet decoded.
+     *
+     * @return False if the end of the input was reached.
+     * @throws IOException If the bytes cannot be read.
+     */
+    private boolean fill() throws IOException {
+        bytes.compact();
+        try {
+            int bytesRead;
+            if (stream != null) {
+                bytesRead = stream.read(bytes.array(), bytes.arrayOffset() + bytes.position(), bytes.remaining());
+                if (bytesRead > 0) {
+                    bytes.position(bytes.position() + bytesRead);
+                }
+            } else {
+                bytesRead = channel.read(bytes);
+            }
+            if (bytesRead > 0) {
+                this.bytesRead += bytesRead;
+            }
+            return bytesRead >= 0;
+        } finally {
+            bytes.flip();
+        }
     }
 
 }
@@ -0,0 +1,197 @@
+package eu.europa.ec.itb.kohesio.util;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Dictionary assigning consecutive integer codes (starting at zero) to distinct values.
+ *
+ * Values are looked up by their characters, so that a value's code can be determined without creating a String for
+ * values already in the dictionary. The dictionary holds each distinct value once, so it is meant for values with few
+ * distinct values, and its size is bounded so that values with many distinct values cannot make it grow without limit.
+ * Membership of values in a set can be tested by code through the set's member codes (see getMembers), which are
+ * determined once per distinct value. Instances are not thread-safe.
+ */
+public class CodeDictionary {
+
+    /**
+     * Code returned for values not in the dictionary.
+     */
+    public static final int NO_CODE = -1;
+    /**
+     * Code returned for values not added to the dictionary as it is full.
+     */
+    public static final int NOT_ENCODED = -2;
+    /**
+     * The default maximum number of values in a dictionary.
+     */
+    public static final int DEFAULT_MAXIMUM_SIZE = 4096;
+
+    private final int maximumSize;
+    // The member codes per set, keyed by the set's identity as sets are constants of the rules using them.
+    private final Map<Set<String>, BitSet> members = new IdentityHashMap<>();
+    private String[] values = new String[16];
+    private int[] hashes = new int[16];
+    private int size = 0;
+    // Codes plus one (zero marks empty slots).
+    private int[] table = new int[32];
+
+    /**
+     * Constructor (for a dictionary of at most DEFAULT_MAXIMUM_SIZE values).
+     */
+    public CodeDictionary() {
+        this(DEFAULT_MAXIMUM_SIZE);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param maximumSize The maximum number of values in the dictionary.
+     */
+    public CodeDictionary(int maximumSize) {
+        this.maximumSize = maximumSize;
+    }
+
+    /**
+     * Get the code of a value, adding the value if not already in the dictionary.
+     *
+     * @param value The value.
+     * @return The code (NOT_ENCODED if the value is not in the dictionary and the dictionary is full).
+     */
+    public int encode(CharSequence value) {
+        int hash = hash(value);
+        int index = indexOf(value, hash);
+        if (table[index] != 0) {
+            return table[index] - 1;
+        }
+        if (size == maximumSize) {
+            return NOT_ENCODED;
+        }
+        if (size == values.length) {
+            values = Arrays.copyOf(values, size * 2);
+            hashes = Arrays.copyOf(hashes, size * 2);
+        }
+        String newValue = value.toString();
+        values[size] = newValue;
+        hashes[size] = hash;
+        for (Map.Entry<Set<String>, BitSet> entry: members.entrySet()) {
+            if (entry.getKey().contains(newValue)) {
+                entry.getValue().set(size);
+            }
+        }
+        size += 1;
+        table[index] = size;
+        if (size * 2 > table.length) {
+            resize();
+        }
+        return size - 1;
+    }
+
+    /**
+     * Get the code of a value.
+     *
+     * @param value The value.
+     * @return The code (NO_CODE if the value is not in the dictionary).
+     */
+    public int find(CharSequence value) {
+        return table[indexOf(value, hash(value))] - 1;
+    }
+
+    /**
+     * @param code The code.
+     * @return The value with the given code.
+     */
+    public String decode(int code) {
+        if (code < 0 || code >= size) {
+            throw new IndexOutOfBoundsException(code);
+        }
+        return values[code];
+    }
+
+    /**
+     * Get the codes of the dictionary's values that are in a set. The returned codes are kept up to date as values
+     * are added to the dictionary, so that the set only needs to be looked up once per distinct value.
+     *
+     * @param set The set (expected to be the same instance for each call relating to the same set).
+     * @return The member codes (not to be modified).
+     */
+    public BitSet getMembers(Set<String> set) {
+        BitSet setMembers = members.get(set);
+        if (setMembers == null) {
+            setMembers = new BitSet(size);
+            for (int code = 0; code < size; code++) {
+                if (set.contains(values[code])) {
+                    setMembers.set(code);
+                }
+            }
+            members.put(set, setMembers);
+        }
+        return setMembers;
+    }
+
+    /**
+     * @return The number of values in the dictionary.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Find the slot holding the value or, if not present, the empty slot where it should be added.
+     *
+     * @param value The value.
+     * @param hash The value's hash.
+     * @return The slot's index.
+     */
+    private int indexOf(CharSequence value, int hash) {
+        int mask = table.length - 1;
+        int index = hash & mask;
+        while (table[index] != 0) {
+            int code = table[index] - 1;
+            if (hashes[code] == hash && values[code].contentEquals(value)) {
+                break;
+            }
+            index = (index + 1) & mask;
+        }
+        return index;
+    }
+
+    /**
+     * Double the table's size, re-adding all codes.
+     */
+    private void resize() {
+        table = new int[table.length * 2];
+        int mask = table.length - 1;
+        for (int code = 0; code < size; code++) {
+            int index = hashes[code] & mask;
+            while (table[index] != 0) {
+                index = (index + 1) & mask;
+            }
+            table[index] = code + 1;
+        }
+    }
+
+    /**
+     * Compute the hash of a value (as String.hashCode but over any character sequence, with the result's bits spread
+     * as in MurmurHash3's finalisation step).
+     *
+     * @param value The value.
+     * @return The hash.
+     */
+    private static int hash(CharSequence value) {
+        int hash = 0;
+        for (int i = 0; i < value.length(); i++) {
+            hash = 31 * hash + value.charAt(i);
+        }
+        hash ^= hash >>> 16;
+        hash *= 0x85EBCA6B;
+        hash ^= hash >>> 13;
+        hash *= 0xC2B2AE35;
+        hash ^= hash >>> 16;
+        return hash;
+    }
+
+}
@@ -0,0 +1,139 @@
+package eu.europa.ec.itb.kohesio.util;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Enumeration;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipException;
+import java.util.zip.ZipFile;
+
+/**
+ * The compression of a file to validate, detected from the file's first bytes (its magic number).
+ *
+ * Compressed files are decompressed while being read (see open), without being expanded to disk. The decompressed
+ * content is then processed as any other content (e.g. the BOM detection of BomStrippingReader applies to the
+ * decompressed bytes). ZIP archives are only supported if they contain a single file.
+ */
+public enum Compression {
+
+    /** Uncompressed content. */
+    NONE,
+    /** Content compressed with gzip (possibly with multiple members). */
+    GZIP,
+    /** ZIP archive with a single file. */
+    ZIP;
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    /**
+     * Detect the compression of a file.
+     *
+     * @param file The file.
+     * @return The compression.
+     * @throws IOException If the file cannot be read.
+     */
+    public static Compression detect(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer buffer = ByteBuffer.allocate(4);
+            while (buffer.hasRemaining() && channel.read(buffer) >= 0) {
+                // Read until the buffer is full or the file ends.
+            }
+            buffer.flip();
+            int available = buffer.limit();
+            if (available >= 2 && buffer.get(0) == (byte)0x1F && buffer.get(1) == (byte)0x8B) {
+                // 1F 8B (gzip member).
+                return GZIP;
+            } else if (available >= 4 && buffer.get(0) == (byte)0x50 && buffer.get(1) == (byte)0x4B &&
+                    ((buffer.get(2) == (byte)0x03 && buffer.get(3) == (byte)0x04) || (buffer.get(2) == (byte)0x05 && buffer.get(3) == (byte)0x06))) {
+                // 50 4B 03 04 (ZIP local file header) or 50 4B 05 06 (end of an empty ZIP archive).
+                return ZIP;
+            }
+            return NONE;
+        }
+    }
+
+    /**
+     * Open a stream to read the file's (decompressed) content.
+     *
+     * @param file The file.
+     * @return The stream.
+     * @throws IOException If the file cannot be opened or, for a ZIP archive, if it does not contain a single file.
+     */
+    public InputStream open(Path file) throws IOException {
+        switch (this) {
+            case GZIP:
+                InputStream fileStream = Files.newInputStream(file);
+                try {
+                    return new GZIPInputStream(fileStream, BUFFER_SIZE);
+                } catch (IOException | RuntimeException e) {
+                    fileStream.close();
+                    throw e;
+                }
+            case ZIP:
+                // The archive's central directory allows checking its entries without reading the content.
+                ZipFile zipFile = new ZipFile(file.toFile());
+                try {
+                    ZipEntry entry = null;
+                    Enumeration<? extends ZipEntry> entries = zipFile.entries();
+                    while (entries.hasMoreElements()) {
+                        ZipEntry candidate = entries.nextElement();
+                        if (!candidate.isDirectory()) {
+                            if (entry != null) {
+                                throw new ZipException("The ZIP archive must contain a single file");
+                            }
+                            entry = candidate;
+                        }
+                    }
+                    if (entry == null) {
+                        throw new ZipException("The ZIP archive must contain a single file");
+                    }
+                    return new ZipEntryInputStream(zipFile, zipFile.getInputStream(entry));
+                } catch (IOException | RuntimeException e) {
+                    zipFile.close();
+                    throw e;
+                }
+            default:
+                return Files.newInputStream(file);
+        }
+    }
+
+    /**
+     * Stream over the content of a ZIP archive's entry that also closes the archive.
+     */
+    private static class ZipEntryInputStream extends FilterInputStream {
+
+        private final ZipFile zipFile;
+
+        /**
+         * Constructor.
+         *
+         * @param zipFile The archive.
+         * @param entryStream The stream over the entry's content.
+         */
+        ZipEntryInputStream(ZipFile zipFile, InputStream entryStream) {
+            super(entryStream);
+            this.zipFile = zipFile;
+        }
+
+        /**
+         * @see FilterInputStream#close()
+         */
+        @Override
+        public void close() throws IOException {
+            try {
+                super.close();
+            } finally {
+                zipFile.close();
+            }
+        }
+
+    }
+
+}
@@ -0,0 +1,78 @@
+package eu.europa.ec.itb.kohesio.util;
+
+import eu.europa.ec.itb.kohesio.model.CsvRecordView;
+import eu.europa.ec.itb.kohesio.model.RecordView;
+import org.apache.commons.csv.CSVParser;
+import org.apache.commons.csv.CSVRecord;
+
+import java.util.Iterator;
+import java.util.function.LongSupplier;
+
+/**
+ * Record source reading records through a CSV parser.
+ */
+public class CsvParserRecordSource implements RecordSource {
+
+    private final CSVParser parser;
+    private final Iterator<CSVRecord> iterator;
+    private final CsvRecordView view = new CsvRecordView();
+    private final LongSupplier bytesRead;
+
+    /**
+     * Constructor.
+     *
+     * @param parser The parser (with its header already processed).
+     */
+    public CsvParserRecordSource(CSVParser parser) {
+        this(parser, () -> -1L);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param parser The parser (with its header already processed).
+     * @param bytesRead The supplier of the number of bytes read by the parser's reader (see BomStrippingReader#getBytesRead).
+     */
+    public CsvParserRecordSource(CSVParser parser, LongSupplier bytesRead) {
+        this.parser = parser;
+        this.iterator = parser.iterator();
+        this.bytesRead = bytesRead;
+    }
+
+    /**
+     * @see RecordSource#next()
+     */
+    @Override
+    public boolean next() {
+        if (iterator.hasNext()) {
+            view.setRecord(iterator.next());
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * @see RecordSource#current()
+     */
+    @Override
+    public RecordView current() {
+        return view;
+    }
+
+    /**
+     * @see RecordSource#getCurrentLineNumber()
+     */
+    @Override
+    public long getCurrentLineNumber() {
+        return parser.getCurrentLineNumber();
+    }
+
+    /**
+     * @see RecordSource#getBytesRead()
+     */
+    @Override
+    public long getBytesRead() {
+        return bytesRead.getAsLong();
+    }
+
+}
@@ -0,0 +1,168 @@
+package eu.europa.ec.itb.kohesio.util;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Parser for dates in the dd/MM/yyyy format that produces epoch days without creating objects or throwing exceptions.
+ *
+ * Results are identical to parsing with DateTimeFormatter.ofPattern("dd/MM/yyyy") and converting the resulting
+ * LocalDate to its epoch day. This includes the formatter's (smart) resolution of days beyond the end of the month
+ * to the month's last day (e.g. 31/04/2021 is parsed as 30/04/2021), and its handling of years with more than four
+ * digits which are only accepted if prefixed by a '+' sign.
+ */
+public final class DateParser {
+
+    /**
+     * Value returned for input that is not a valid date.
+     */
+    public static final long INVALID_DATE = Long.MIN_VALUE;
+
+    private static final int YEAR_DIGITS = 4;
+    private static final int MAXIMUM_YEAR_DIGITS = 19;
+    private static final long MAXIMUM_YEAR = 999_999_999L;
+    private static final long DAYS_0000_TO_1970 = 719_528L;
+    private static final DateTimeFormatter FORMATTER = DateTimeFormatter.ofPattern("dd/MM/yyyy");
+
+    /**
+     * Constructor to prevent instantiation.
+     */
+    private DateParser() {
+    }
+
+    /**
+     * Parse the provided value.
+     *
+     * @param value The value to parse (may be null).
+     * @return The epoch day or INVALID_DATE if the value is not a valid date.
+     */
+    public static long parseEpochDay(CharSequence value) {
+        if (value == null || value.length() < 10 || value.charAt(2) != '/' || value.charAt(5) != '/') {
+            return INVALID_DATE;
+        }
+        int day = twoDigits(value, 0);
+        int month = twoDigits(value, 3);
+        if (day < 1 || day > 31 || month < 1 || month > 12) {
+            return INVALID_DATE;
+        }
+        long year = 0;
+        int length = value.length();
+        int position = 6;
+        boolean signed = value.charAt(position) == '+';
+        if (signed) {
+            position += 1;
+        }
+        int digits = length - position;
+        if (signed ? (digits <= YEAR_DIGITS || digits > MAXIMUM_YEAR_DIGITS) : (digits != YEAR_DIGITS)) {
+            return INVALID_DATE;
+        }
+        for (; position < length; position++) {
+            int digit = value.charAt(position) - '0';
+            if (digit < 0 || digit > 9) {
+                return INVALID_DATE;
+            }
+            if (year <= MAXIMUM_YEAR) {
+                year = year * 10 + digit;
+            }
+        }
+        if (year < 1 || year > MAXIMUM_YEAR) {
+            return INVALID_DATE;
+        }
+        boolean leapYear = isLeapYear(year);
+        int daysInMonth = daysInMonth(year, month);
+        if (day > daysInMonth) {
+            day = daysInMonth;
+        }
+        // Same calculation as LocalDate.toEpochDay() for positive years.
+        long total = 365 * year + (year + 3) / 4 - (year + 99) / 100 + (year + 399) / 400;
+        total += (367 * month - 362) / 12;
+        total += day - 1;
+        if (month > 2) {
+            total -= leapYear ? 1 : 2;
+        }
+        return total - DAYS_0000_TO_1970;
+    }
+
+    /**
+     * Check whether a value that was successfully parsed is already in the format produced by the format method, i.e.
+     * whether formatting its epoch day returns the same characters. This is not the case for signed years and for days
+     * beyond the end of the month.
+     *
+     * @param value The value (a valid date).
+     * @return The check result.
+     */
+    public static boolean isFormatted(CharSequence value) {
+        if (value.length() != 10) {
+            return false;
+        }
+        long year = 0;
+        for (int position = 6; position < 10; position++) {
+            year = year * 10 + (value.charAt(position) - '0');
+        }
+        return twoDigits(value, 0) <= daysInMonth(year, twoDigits(value, 3));
+    }
+
+    /**
+     * Format the provided epoch day as dd/MM/yyyy. This is equivalent to formatting the corresponding LocalDate with
+     * DateTimeFormatter.ofPattern("dd/MM/yyyy").
+     *
+     * @param epochDay The epoch day.
+     * @return The formatted date.
+     */
+    public static String format(long epochDay) {
+        LocalDate date = LocalDate.ofEpochDay(epochDay);
+        int year = date.getYear();
+        if (year < 1000 || year > 9999) {
+            // Padded or signed years.
+            return FORMATTER.format(date);
+        }
+        char[] characters = new char[10];
+        int day = date.getDayOfMonth();
+        int month = date.getMonthValue();
+        characters[0] = (char) ('0' + day / 10);
+        characters[1] = (char) ('0' + day % 10);
+        characters[2] = '/';
+        characters[3] = (char) ('0' + month / 10);
+        characters[4] = (char) ('0' + month % 10);
+        characters[5] = '/';
+        for (int i = 9; i >= 6; i--) {
+            characters[i] = (char) ('0' + year % 10);
+            year /= 10;
+        }
+        return new String(characters);
+    }
+
+    /**
+     * @param year The year.
+     * @return Whether the year is a leap year.
+     */
+    private static boolean isLeapYear(long year) {
+        return (year % 4 == 0) && (year % 100 != 0 || year % 400 == 0);
+    }
+
+    /**
+     * @param year The year.
+     * @param month The month (1 to 12).
+     * @return The number of days in the month.
+     */
+    private static int daysInMonth(long year, int month) {
+        return (month == 2) ? (isLeapYear(year) ? 29 : 28) : ((month == 4 || month == 6 || month == 9 || month == 11) ? 30 : 31);
+    }
+
+    /**
+     * Parse two digits.
+     *
+     * @param value The value.
+     * @param position The position of the first digit.
+     * @return The parsed number or -1 if the characters are not digits.
+     */
+    private static int twoDigits(CharSequence value, int position) {
+        int first = value.charAt(position) - '0';
+        int second = value.charAt(position + 1) - '0';
+        if (first < 0 || first > 9 || second < 0 || second > 9) {
+            return -1;
+        }
+        return first * 10 + second;
+    }
+
+}
@@ -0,0 +1,70 @@
+package eu.europa.ec.itb.kohesio.util;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * Input stream over a byte range of a file channel.
+ *
+ * Reads are positional, so that the same channel can be shared by multiple streams that are read concurrently.
+ * Closing the stream does not close the underlying channel.
+ */
+public class FileRangeInputStream extends InputStream {
+
+    private final FileChannel channel;
+    private final long endOffset;
+    private long position;
+
+    /**
+     * Constructor.
+     *
+     * @param channel The channel to read from.
+     * @param startOffset The (inclusive) byte offset to start reading from.
+     * @param endOffset The (exclusive) byte offset to stop reading at.
+     */
+    public FileRangeInputStream(FileChannel channel, long startOffset, long endOffset) {
+        this.channel = channel;
+        this.position = startOffset;
+        this.endOffset = endOffset;
+    }
+
+    /**
+     * @see InputStream#read()
+     */
+    @Override
+    public int read() throws IOException {
+        byte[] buffer = new byte[1];
+        int bytesRead = read(buffer, 0, 1);
+        return (bytesRead <= 0)?-1:(buffer[0] & 0xFF);
+    }
+
+    /**
+     * @see InputStream#read(byte[], int, int)
+     */
+    @Override
+    public int read(byte[] buffer, int offset, int length) throws IOException {
+        if (length == 0) {
+            return 0;
+        }
+        long remaining = endOffset - position;
+        if (remaining <= 0) {
+            return -1;
+        }
+        int bytesRead = channel.read(ByteBuffer.wrap(buffer, offset, (int) Math.min(length, remaining)), position);
+        if (bytesRead > 0) {
+            position += bytesRead;
+        }
+        return bytesRead;
+    }
+
+    /**
+     * @see InputStream#available()
+     */
+    @Override
+    public int available() {
+        return (int) Math.min(Integer.MAX_VALUE, Math.max(0, endOffset - position));
+    }
+
+}
@@ -0,0 +1,136 @@
+package eu.europa.ec.itb.kohesio.util;
+
+/**
+ * Set of long values backed by a single primitive array (open addressing with linear probing).
+ *
+ * Compared to a HashSet of Long objects this uses a fixed 8 bytes per slot, with the table doubling once it is three
+ * quarters full. Value zero is supported but is tracked separately as it marks empty slots. Instances are not
+ * thread-safe.
+ */
+public class LongHashSet {
+
+    private static final int MAXIMUM_CAPACITY = 1 << 30;
+
+    private long[] table;
+    private int mask;
+    private int size = 0;
+    private int resizeThreshold;
+    private boolean containsZero = false;
+
+    /**
+     * Constructor.
+     *
+     * @param expectedSize The number of values expected to be added (used to size the initial table).
+     */
+    public LongHashSet(int expectedSize) {
+        int capacity = 16;
+        while (capacity < MAXIMUM_CAPACITY && capacity * 3L / 4 < expectedSize) {
+            capacity <<= 1;
+        }
+        allocate(capacity);
+    }
+
+    /**
+     * Add a value.
+     *
+     * @param value The value.
+     * @return True if the value was added, false if it was already present.
+     */
+    public boolean add(long value) {
+        if (value == 0L) {
+            boolean added = !containsZero;
+            containsZero = true;
+            return added;
+        }
+        int index = indexOf(value);
+        if (table[index] == value) {
+            return false;
+        }
+        table[index] = value;
+        size += 1;
+        if (size > resizeThreshold) {
+            resize();
+        }
+        return true;
+    }
+
+    /**
+     * @param value The value to look for.
+     * @return Whether the value is present.
+     */
+    public boolean contains(long value) {
+        if (value == 0L) {
+            return containsZero;
+        }
+        return table[indexOf(value)] == value;
+    }
+
+    /**
+     * @return The number of values in the set.
+     */
+    public int size() {
+        return size + (containsZero?1:0);
+    }
+
+    /**
+     * @return Whether the set is empty.
+     */
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    /**
+     * Find the slot holding the value or, if not present, the empty slot where it should be added.
+     *
+     * @param value The (non-zero) value.
+     * @return The slot's index.
+     */
+    private int indexOf(long value) {
+        int index = mix(value) & mask;
+        while (table[index] != 0L && table[index] != value) {
+            index = (index + 1) & mask;
+        }
+        return index;
+    }
+
+    /**
+     * Double the table's size, re-adding all values.
+     */
+    private void resize() {
+        if (table.length == MAXIMUM_CAPACITY) {
+            throw new IllegalStateException("Maximum set capacity reached");
+        }
+        long[] previousTable = table;
+        allocate(table.length << 1);
+        for (long value: previousTable) {
+            if (value != 0L) {
+                table[indexOf(value)] = value;
+            }
+        }
+    }
+
+    /**
+     * @param capacity The table's capacity (a power of two).
+     */
+    private void allocate(int capacity) {
+        table = new long[capacity];
+        mask = capacity - 1;
+        resizeThreshold = (int) (capacity * 3L / 4);
+    }
+
+    /**
+     * Spread the value's bits (as in MurmurHash3's 64-bit finalisation step) for use as a table index.
+     *
+     * @param value The value.
+     * @return The hash.
+     */
+    private static int mix(long value) {
+        value ^= value >>> 33;
+        value *= 0xFF51AFD7ED558CCDL;
+        value ^= value >>> 33;
+        value *= 0xC4CEB9FE1A85EC53L;
+        value ^= value >>> 33;
+        return (int) value;
+    }
+
+}
@@ -0,0 +1,156 @@
+package eu.europa.ec.itb.kohesio.util;
+
+/**
+ * Map of long keys to long values backed by two primitive arrays (open addressing with linear probing).
+ *
+ * Compared to a HashMap of Long objects this uses a fixed 16 bytes per slot, with the tables doubling once they are
+ * three quarters full. Key zero is supported but is tracked separately as it marks empty slots. Instances are not
+ * thread-safe.
+ */
+public class LongLongHashMap {
+
+    private static final int MAXIMUM_CAPACITY = 1 << 30;
+
+    private long[] keys;
+    private long[] values;
+    private int mask;
+    private int size = 0;
+    private int resizeThreshold;
+    private boolean containsZero = false;
+    private long zeroValue;
+
+    /**
+     * Constructor.
+     *
+     * @param expectedSize The number of keys expected to be added (used to size the initial tables).
+     */
+    public LongLongHashMap(int expectedSize) {
+        int capacity = 16;
+        while (capacity < MAXIMUM_CAPACITY && capacity * 3L / 4 < expectedSize) {
+            capacity <<= 1;
+        }
+        allocate(capacity);
+    }
+
+    /**
+     * Set the value for a key.
+     *
+     * @param key The key.
+     * @param value The value.
+     */
+    public void put(long key, long value) {
+        if (key == 0L) {
+            containsZero = true;
+            zeroValue = value;
+            return;
+        }
+        int index = indexOf(key);
+        values[index] = value;
+        if (keys[index] != key) {
+            keys[index] = key;
+            size += 1;
+            if (size > resizeThreshold) {
+                resize();
+            }
+        }
+    }
+
+    /**
+     * @param key The key to look for.
+     * @return Whether the key is present.
+     */
+    public boolean containsKey(long key) {
+        if (key == 0L) {
+            return containsZero;
+        }
+        return keys[indexOf(key)] == key;
+    }
+
+    /**
+     * Get the value for a key.
+     *
+     * @param key The key.
+     * @param defaultValue The value to return if the key is not present.
+     * @return The value.
+     */
+    public long get(long key, long defaultValue) {
+        if (key == 0L) {
+            return containsZero?zeroValue:defaultValue;
+        }
+        int index = indexOf(key);
+        return (keys[index] == key)?values[index]:defaultValue;
+    }
+
+    /**
+     * @return The number of keys in the map.
+     */
+    public int size() {
+        return size + (containsZero?1:0);
+    }
+
+    /**
+     * @return Whether the map is empty.
+     */
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    /**
+     * Find the slot holding the key or, if not present, the empty slot where it should be added.
+     *
+     * @param key The (non-zero) key.
+     * @return The slot's index.
+     */
+    private int indexOf(long key) {
+        int index = mix(key) & mask;
+        while (keys[index] != 0L && keys[index] != key) {
+            index = (index + 1) & mask;
+        }
+        return index;
+    }
+
+    /**
+     * Double the tables' size, re-adding all entries.
+     */
+    private void resize() {
+        if (keys.length == MAXIMUM_CAPACITY) {
+            throw new IllegalStateException("Maximum map capacity reached");
+        }
+        long[] previousKeys = keys;
+        long[] previousValues = values;
+        allocate(keys.length << 1);
+        for (int i = 0; i < previousKeys.length; i++) {
+            if (previousKeys[i] != 0L) {
+                int index = indexOf(previousKeys[i]);
+                keys[index] = previousKeys[i];
+                values[index] = previousValues[i];
+            }
+        }
+    }
+
+    /**
+     * @param capacity The tables' capacity (a power of two).
+     */
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        values = new long[capacity];
+        mask = capacity - 1;
+        resizeThreshold = (int) (capacity * 3L / 4);
+    }
+
+    /**
+     * Spread the key's bits (as in MurmurHash3's 64-bit finalisation step) for use as a table index.
+     *
+     * @param key The key.
+     * @return The hash.
+     */
+    private static int mix(long key) {
+        key ^= key >>> 33;
+        key *= 0xFF51AFD7ED558CCDL;
+        key ^= key >>> 33;
+        key *= 0xC4CEB9FE1A85EC53L;
+        key ^= key >>> 33;
+        return (int) key;
+    }
+
+}
@@ -0,0 +1,519 @@
+package eu.europa.ec.itb.kohesio.util;
+
+import eu.europa.ec.itb.kohesio.model.RecordView;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Reader of UTF-8 CSV content that tokenizes records directly on the bytes of a memory-mapped file.
+ *
+ * Records are not materialised. For each record only the byte ranges of its fields are determined, and the reader
+ * itself serves as the view of the current record, creating a field's value only when this is requested. The
+ * tokenization follows that of the CSV parser for the format used by the plugin (RFC 4180 with surrounding spaces
+ * ignored and without escape character), including the counting of line numbers. Content with syntax errors is not
+ * reported by this reader but rather signalled through an UnsupportedContentException, so that the caller can
+ * process the content with the CSV parser instead.
+ *
+ * The file is mapped in windows to support files larger than what a single mapping allows. When a record crosses the
+ * end of a window, the window is remapped to start at that record.
+ */
+public class MappedCsvReader implements RecordSource, RecordView {
+
+    private static final long DEFAULT_WINDOW_SIZE = 512L * 1024 * 1024;
+    private static final int INITIAL_FIELD_CAPACITY = 32;
+
+    private static final byte FLAG_QUOTED = 1;
+    private static final byte FLAG_ESCAPED_QUOTES = 2;
+    private static final byte FLAG_NON_ASCII = 4;
+
+    private static final int RESULT_RECORD = 0;
+    private static final int RESULT_END = 1;
+    private static final int RESULT_WINDOW_EXHAUSTED = 2;
+
+    private final FileChannel channel;
+    private final long endOffset;
+    private final long windowSize;
+    private final byte delimiter;
+    private final byte quote;
+    private final String quoteString;
+    private final String escapedQuoteString;
+
+    private MappedByteBuffer window;
+    private ByteBuffer windowCopyView;
+    private long windowStart;
+    private int windowLimit;
+    private boolean windowAtEnd;
+    private int position;
+    private long lineNumber;
+    private boolean recordEndedAtEof;
+
+    private int fieldCount;
+    private int[] fieldStarts = new int[INITIAL_FIELD_CAPACITY];
+    private int[] fieldEnds = new int[INITIAL_FIELD_CAPACITY];
+    private byte[] fieldFlags = new byte[INITIAL_FIELD_CAPACITY];
+    private byte[] valueBuffer = new byte[256];
+    private final AsciiFieldSequence asciiFieldSequence = new AsciiFieldSequence();
+
+    /**
+     * Constructor.
+     *
+     * @param channel The channel to read from.
+     * @param startOffset The (inclusive) byte offset to start reading from (must be at the start of a record and
+     *                    after any BOM).
+     * @param endOffset The (exclusive) byte offset to stop reading at.
+     * @param delimiter The field delimiter (must be an ASCII character).
+     * @param quote The quote character (must be an ASCII character).
+     * @throws IOException If the file cannot be mapped.
+     */
+    public MappedCsvReader(FileChannel channel, long startOffset, long endOffset, char delimiter, char quote) throws IOException {
+        this(channel, startOffset, endOffset, delimiter, quote, DEFAULT_WINDOW_SIZE);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param channel The channel to read from.
+     * @param startOffset The (inclusive) byte offset to start reading from (must be at the start of a record and
+     *                    after any BOM).
+     * @param endOffset The (exclusive) byte offset to stop reading at.
+     * @param delimiter The field delimiter (must be an ASCII character).
+     * @param quote The quote character (must be an ASCII character).
+     * @param windowSize The maximum size of each mapped window.
+     * @throws IOException If the file cannot be mapped.
+     */
+    MappedCsvReader(FileChannel channel, long startOffset, long endOffset, char delimiter, char quote, long windowSize) throws IOException {
+        if (!RecordBoundaryScanner.isSupported(delimiter, quote)) {
+            throw new IllegalArgumentException("Only ASCII delimiter and quote characters are supported");
+        }
+        this.channel = channel;
+        this.endOffset = endOffset;
+        this.windowSize = Math.min(windowSize, Integer.MAX_VALUE);
+        this.delimiter = (byte) delimiter;
+        this.quote = (byte) quote;
+        this.quoteString = String.valueOf(quote);
+        this.escapedQuoteString = quoteString + quoteString;
+        map(startOffset);
+    }
+
+    /**
+     * Map the window starting at the given offset.
+     *
+     * @param offset The offset.
+     * @throws IOException If the file cannot be mapped.
+     */
+    private void map(long offset) throws IOException {
+        long size = Math.min(windowSize, endOffset - offset);
+        window = channel.map(FileChannel.MapMode.READ_ONLY, offset, size);
+        windowCopyView = window.duplicate();
+        windowStart = offset;
+        windowLimit = (int) size;
+        windowAtEnd = (offset + size) == endOffset;
+        position = 0;
+    }
+
+    /**
+     * @return The (absolute) byte offset up to which content has been read.
+     */
+    public long getOffset() {
+        return windowStart + position;
+    }
+
+    /**
+     * @see RecordSource#getBytesRead()
+     */
+    @Override
+    public long getBytesRead() {
+        return getOffset();
+    }
+
+    /**
+     * @see RecordSource#next()
+     */
+    @Override
+    public boolean next() throws IOException {
+        while (true) {
+            int recordStart = position;
+            long recordStartLineNumber = lineNumber;
+            int result = readRecord();
+            if (result == RESULT_RECORD) {
+                return true;
+            } else if (result == RESULT_END) {
+                return false;
+            }
+            // The record continues after the end of the current window.
+            if (recordStart == 0) {
+                throw new UnsupportedContentException("Record exceeds the maximum mapped window size");
+            }
+            lineNumber = recordStartLineNumber;
+            map(windowStart + recordStart);
+        }
+    }
+
+    /**
+     * @see RecordSource#current()
+     */
+    @Override
+    public RecordView current() {
+        return this;
+    }
+
+    /**
+     * @see RecordSource#getCurrentLineNumber()
+     */
+    @Override
+    public long getCurrentLineNumber() {
+        // As with the parser, the line of a record that is not terminated by a line break is counted.
+        return recordEndedAtEof?(lineNumber + 1):lineNumber;
+    }
+
+    /**
+     * @see RecordView#size()
+     */
+    @Override
+    public int size() {
+        return fieldCount;
+    }
+
+    /**
+     * @see RecordView#get(int)
+     */
+    @Override
+    public String get(int index) {
+        if (index >= fieldCount) {
+            return null;
+        }
+        int start = fieldStarts[index];
+        int length = fieldEnds[index] - start;
+        if (length == 0) {
+            return "";
+        }
+        if (valueBuffer.length < length) {
+            valueBuffer = new byte[Math.max(length, valueBuffer.length * 2)];
+        }
+        windowCopyView.position(start);
+        windowCopyView.get(valueBuffer, 0, length);
+        byte flags = fieldFlags[index];
+        String value = new String(valueBuffer, 0, length, StandardCharsets.UTF_8);
+        if ((flags & FLAG_ESCAPED_QUOTES) != 0) {
+            value = value.replace(escapedQuoteString, quoteString);
+        } else if ((flags & (FLAG_QUOTED | FLAG_NON_ASCII)) == FLAG_NON_ASCII) {
+            // Non-ASCII whitespace at the end of unquoted values is only trimmed once decoded.
+            int end = value.length();
+            while (end > 0 && Character.isWhitespace(value.charAt(end - 1))) {
+                end -= 1;
+            }
+            value = value.substring(0, end);
+        }
+        return value;
+    }
+
+    /**
+     * Returns a reusable view over the field's bytes for plain ASCII values, avoiding the creation of a String.
+     *
+     * @see RecordView#getCharSequence(int)
+     */
+    @Override
+    public CharSequence getCharSequence(int index) {
+        if (index >= fieldCount) {
+            return null;
+        }
+        if ((fieldFlags[index] & (FLAG_ESCAPED_QUOTES | FLAG_NON_ASCII)) != 0) {
+            return get(index);
+        }
+        asciiFieldSequence.set(fieldStarts[index], fieldEnds[index]);
+        return asciiFieldSequence;
+    }
+
+    /**
+     * @see RecordView#isBlank(int)
+     */
+    @Override
+    public boolean isBlank(int index) {
+        if (index >= fieldCount) {
+            return true;
+        }
+        int start = fieldStarts[index];
+        int end = fieldEnds[index];
+        if ((fieldFlags[index] & FLAG_NON_ASCII) != 0) {
+            return get(index).isBlank();
+        }
+        for (int i = start; i < end; i++) {
+            if (!Utf8Bytes.isAsciiWhitespace(window.get(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Tokenize the next record.
+     *
+     * @return The result (a record, the end of the content or the end of the current window).
+     * @throws UnsupportedContentException If the content contains syntax errors.
+     */
+    private int readRecord() throws UnsupportedContentException {
+        int current = position;
+        fieldCount = 0;
+        recordEndedAtEof = false;
+        if (current >= windowLimit) {
+            return windowAtEnd?RESULT_END:RESULT_WINDOW_EXHAUSTED;
+        }
+        while (true) {
+            // Skip leading whitespace.
+            byte value;
+            while (true) {
+                if (current >= windowLimit) {
+                    if (!windowAtEnd) {
+                        return RESULT_WINDOW_EXHAUSTED;
+                    }
+                    // End of content after a delimiter or blank space.
+                    addField(current, current, (byte) 0);
+                    return endRecordAtEof(current);
+                }
+                value = window.get(current);
+                if (value == delimiter || value == '\n' || value == '\r') {
+                    break;
+                } else if (Utf8Bytes.isAsciiWhitespace(value)) {
+                    current += 1;
+                } else if (value < 0) {
+                    if (current + 2 >= windowLimit && !windowAtEnd) {
+                        return RESULT_WINDOW_EXHAUSTED;
+                    }
+                    if (current + 2 < windowLimit && Utf8Bytes.isMultiByteWhitespace(value, window.get(current + 1), window.get(current + 2))) {
+                        current += 3;
+                    } else {
+                        break;
+                    }
+                } else {
+                    break;
+                }
+            }
+            if (value == delimiter) {
+                addField(current, current, (byte) 0);
+                current += 1;
+            } else if (value == '\n' || value == '\r') {
+                addField(current, current, (byte) 0);
+                return endRecord(current);
+            } else if (value == quote) {
+                // Quoted value.
+                current += 1;
+                int start = current;
+                byte flags = FLAG_QUOTED;
+                while (true) {
+                    if (current >= windowLimit) {
+                        if (!windowAtEnd) {
+                            return RESULT_WINDOW_EXHAUSTED;
+                        }
+                        throw new UnsupportedContentException("EOF reached before encapsulated token finished");
+                    }
+                    value = window.get(current);
+                    if (value == quote) {
+                        if (current + 1 >= windowLimit && !windowAtEnd) {
+                            return RESULT_WINDOW_EXHAUSTED;
+                        }
+                        if (current + 1 < windowLimit && window.get(current + 1) == quote) {
+                            flags |= FLAG_ESCAPED_QUOTES;
+                            current += 2;
+                        } else {
+                            break;
+                        }
+                    } else {
+                        if (value == '\r' || (value == '\n' && window.get(current - 1) != '\r')) {
+                            lineNumber += 1;
+                        } else if (value < 0) {
+                            flags |= FLAG_NON_ASCII;
+                        }
+                        current += 1;
+                    }
+                }
+                int end = current;
+                current += 1;
+                // Only whitespace may follow the closing quote.
+                while (true) {
+                    if (current >= windowLimit) {
+                        if (!windowAtEnd) {
+                            return RESULT_WINDOW_EXHAUSTED;
+                        }
+                        addField(start, end, flags);
+                        return endRecordAtEof(current);
+                    }
+                    value = window.get(current);
+                    if (value == delimiter) {
+                        addField(start, end, flags);
+                        current += 1;
+                        break;
+                    } else if (value == '\n' || value == '\r') {
+                        addField(start, end, flags);
+                        return endRecord(current);
+                    } else if (Utf8Bytes.isAsciiWhitespace(value)) {
+                        current += 1;
+                    } else if (value < 0 && current + 2 < windowLimit && Utf8Bytes.isMultiByteWhitespace(value, window.get(current + 1), window.get(current + 2))) {
+                        current += 3;
+                    } else if (value < 0 && current + 2 >= windowLimit && !windowAtEnd) {
+                        return RESULT_WINDOW_EXHAUSTED;
+                    } else {
+                        throw new UnsupportedContentException("Invalid character between encapsulated token and delimiter");
+                    }
+                }
+            } else {
+                // Simple value.
+                int start = current;
+                byte flags = 0;
+                while (true) {
+                    if (current >= windowLimit) {
+                        if (!windowAtEnd) {
+                            return RESULT_WINDOW_EXHAUSTED;
+                        }
+                        addField(start, trimEnd(start, current), flags);
+                        return endRecordAtEof(current);
+                    }
+                    value = window.get(current);
+                    if (value == delimiter) {
+                        addField(start, trimEnd(start, current), flags);
+                        current += 1;
+                        break;
+                    } else if (value == '\n' || value == '\r') {
+                        addField(start, trimEnd(start, current), flags);
+                        return endRecord(current);
+                    } else if (value < 0) {
+                        flags |= FLAG_NON_ASCII;
+                    }
+                    current += 1;
+                }
+            }
+        }
+    }
+
+    /**
+     * Complete a record at its line break.
+     *
+     * @param current The position of the line break.
+     * @return The result.
+     */
+    private int endRecord(int current) {
+        lineNumber += 1;
+        if (window.get(current) == '\r') {
+            if (current + 1 >= windowLimit && !windowAtEnd) {
+                // Cannot determine whether this is a CRLF sequence.
+                return RESULT_WINDOW_EXHAUSTED;
+            }
+            if (current + 1 < windowLimit && window.get(current + 1) == '\n') {
+                current += 1;
+            }
+        }
+        position = current + 1;
+        return RESULT_RECORD;
+    }
+
+    /**
+     * Complete a record at the end of the content.
+     *
+     * @param current The position of the end of the content.
+     * @return The result.
+     */
+    private int endRecordAtEof(int current) {
+        recordEndedAtEof = true;
+        position = current;
+        return RESULT_RECORD;
+    }
+
+    /**
+     * Determine the end of an unquoted value excluding trailing ASCII whitespace.
+     *
+     * @param start The value's start.
+     * @param end The value's end.
+     * @return The trimmed end.
+     */
+    private int trimEnd(int start, int end) {
+        while (end > start && Utf8Bytes.isAsciiWhitespace(window.get(end - 1))) {
+            end -= 1;
+        }
+        return end;
+    }
+
+    /**
+     * Record a field of the current record.
+     *
+     * @param start The field's start.
+     * @param end The field's end.
+     * @param flags The field's flags.
+     */
+    private void addField(int start, int end, byte flags) {
+        if (fieldCount == fieldStarts.length) {
+            int newCapacity = fieldCount * 2;
+            fieldStarts = Arrays.copyOf(fieldStarts, newCapacity);
+            fieldEnds = Arrays.copyOf(fieldEnds, newCapacity);
+            fieldFlags = Arrays.copyOf(fieldFlags, newCapacity);
+        }
+        fieldStarts[fieldCount] = start;
+        fieldEnds[fieldCount] = end;
+        fieldFlags[fieldCount] = flags;
+        fieldCount += 1;
+    }
+
+    /**
+     * Character sequence over an ASCII field of the current window.
+     */
+    private class AsciiFieldSequence implements CharSequence {
+
+        private int start;
+        private int end;
+
+        /**
+         * Set the field to expose.
+         *
+         * @param start The field's start.
+         * @param end The field's end.
+         */
+        void set(int start, int end) {
+            this.start = start;
+            this.end = end;
+        }
+
+        /**
+         * @see CharSequence#length()
+         */
+        @Override
+        public int length() {
+            return end - start;
+        }
+
+        /**
+         * @see CharSequence#charAt(int)
+         */
+        @Override
+        public char charAt(int index) {
+            if (index < 0 || index >= end - start) {
+                throw new IndexOutOfBoundsException(index);
+            }
+            return (char) window.get(start + index);
+        }
+
+        /**
+         * @see CharSequence#subSequence(int, int)
+         */
+        @Override
+        public CharSequence subSequence(int subStart, int subEnd) {
+            return toString().substring(subStart, subEnd);
+        }
+
+        /**
+         * @see Object#toString()
+         */
+        @Override
+        public String toString() {
+            int length = end - start;
+            byte[] bytes = new byte[length];
+            windowCopyView.position(start);
+            windowCopyView.get(bytes, 0, length);
+            return new String(bytes, StandardCharsets.US_ASCII);
+        }
+
+    }
+
+}
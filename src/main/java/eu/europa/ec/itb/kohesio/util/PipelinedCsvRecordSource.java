@@ -0,0 +1,476 @@
+package eu.europa.ec.itb.kohesio.util;
+
+import eu.europa.ec.itb.kohesio.model.CsvRecordView;
+import eu.europa.ec.itb.kohesio.model.RecordView;
+import org.apache.commons.csv.CSVFormat;
+import org.apache.commons.csv.CSVParser;
+import org.apache.commons.csv.CSVRecord;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.Reader;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Record source reading records through a CSV parser, with reading and parsing running as pipelined stages.
+ *
+ * The content is processed by three stages, each on its own thread:
+ * <ol>
+ *     <li>Reading and decoding: the content's bytes are read and decoded (see BomStrippingReader) into blocks of
+ *     characters.</li>
+ *     <li>Parsing: the CSV parser reads the character blocks and produces batches of records.</li>
+ *     <li>Validation: the thread calling next consumes the batches of records.</li>
+ * </ol>
+ * Stages are connected by bounded queues of reusable blocks and batches, so that a stage waits once it is a few
+ * blocks or batches ahead of the next one. As each stage processes its input in order, records are returned in the
+ * content's order. If a stage fails, the next stages complete the records already handed to them and then fail with
+ * the same exception. Closing the source cancels any stages still running and waits for them to stop.
+ *
+ * The reading and parsing stages run on a dedicated pool of daemon threads shared by all sources. As the stages of a
+ * source wait for each other, each open source needs two of the pool's threads at once: the number of open sources is
+ * therefore limited to the number of processors, with the pool having two threads per source, so that the stages of
+ * all open sources always run. Instances are to be used as follows: open the source (which reads the header record),
+ * bind the rules to the parser's header, call start and then read the records.
+ */
+public class PipelinedCsvRecordSource implements RecordSource, Closeable {
+
+    private static final int BLOCK_SIZE = 64 * 1024;
+    private static final int BATCH_SIZE = 1024;
+    private static final int QUEUE_CAPACITY = 4;
+    private static final CharBlock END_OF_BLOCKS = new CharBlock(0);
+    private static final RecordBatch END_OF_BATCHES = new RecordBatch(0);
+    private static final int MAXIMUM_SOURCES = Runtime.getRuntime().availableProcessors();
+    private static final Semaphore SOURCES = new Semaphore(MAXIMUM_SOURCES);
+    private static final ExecutorService EXECUTOR = createExecutor();
+
+    // Full blocks and batches to process, followed by an end marker.
+    private final BlockingQueue<CharBlock> blocks = new ArrayBlockingQueue<>(QUEUE_CAPACITY + 1);
+    private final BlockingQueue<RecordBatch> batches = new ArrayBlockingQueue<>(QUEUE_CAPACITY + 1);
+    // Processed blocks and batches available for reuse.
+    private final BlockingQueue<CharBlock> freeBlocks = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+    private final BlockingQueue<RecordBatch> freeBatches = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+    private final CountDownLatch stagesStopped = new CountDownLatch(2);
+    private final CsvRecordView view = new CsvRecordView();
+    private final CSVParser parser;
+    // The threads currently running stages (guarded by this).
+    private final Set<Thread> stageThreads = new HashSet<>();
+    private boolean closed = false;
+    private boolean released = false;
+    private boolean parsingStarted = false;
+    private volatile Throwable readingFailure;
+    private volatile Throwable parsingFailure;
+    private volatile long bytesRead = 0L;
+
+    private RecordBatch currentBatch;
+    private int currentIndex;
+
+    /**
+     * Open a source for a file, if fewer than the maximum number of sources are open.
+     *
+     * Reading starts immediately, with the header record being parsed on the calling thread.
+     *
+     * @param file The file to read.
+     * @param compression The file's compression.
+     * @param format The CSV format to use for parsing (with a header).
+     * @return The source (empty if the maximum number of sources are open).
+     * @throws IOException If the file cannot be opened or its header cannot be read.
+     */
+    public static Optional<PipelinedCsvRecordSource> tryOpen(Path file, Compression compression, CSVFormat format) throws IOException {
+        if (!SOURCES.tryAcquire()) {
+            return Optional.empty();
+        }
+        InputStream input;
+        try {
+            input = compression.open(file);
+        } catch (IOException | RuntimeException e) {
+            SOURCES.release();
+            throw e;
+        }
+        return Optional.of(new PipelinedCsvRecordSource(input, format));
+    }
+
+    /**
+     * Constructor (for a source that acquired its permit, released once closed).
+     *
+     * @param input The stream to read the content from (closed by this source).
+     * @param format The CSV format to use for parsing (with a header).
+     * @throws IOException If the header cannot be read.
+     */
+    private PipelinedCsvRecordSource(InputStream input, CSVFormat format) throws IOException {
+        for (int i = 0; i < QUEUE_CAPACITY; i++) {
+            freeBlocks.add(new CharBlock(BLOCK_SIZE));
+            freeBatches.add(new RecordBatch(BATCH_SIZE));
+        }
+        EXECUTOR.execute(() -> runStage(() -> read(input)));
+        try {
+            parser = new CSVParser(new BlockReader(), format);
+        } catch (IOException | RuntimeException e) {
+            close();
+            throw e;
+        }
+    }
+
+    /**
+     * @return The parser (only to be used for its header information).
+     */
+    public CSVParser getParser() {
+        return parser;
+    }
+
+    /**
+     * Start parsing records.
+     */
+    public void start() {
+        synchronized (this) {
+            if (closed || parsingStarted) {
+                throw new IllegalStateException("The source cannot be started");
+            }
+            parsingStarted = true;
+        }
+        EXECUTOR.execute(() -> runStage(this::parse));
+    }
+
+    /**
+     * @see RecordSource#next()
+     */
+    @Override
+    public boolean next() throws IOException {
+        if (currentBatch != null && ++currentIndex < currentBatch.size) {
+            view.setRecord(currentBatch.records[currentIndex]);
+            return true;
+        }
+        if (currentBatch == END_OF_BATCHES) {
+            return false;
+        }
+        if (currentBatch != null) {
+            currentBatch.clear();
+            freeBatches.add(currentBatch);
+        }
+        currentBatch = take(batches);
+        if (currentBatch == END_OF_BATCHES) {
+            rethrowFailure(parsingFailure);
+            return false;
+        }
+        currentIndex = 0;
+        view.setRecord(currentBatch.records[0]);
+        return true;
+    }
+
+    /**
+     * @see RecordSource#current()
+     */
+    @Override
+    public RecordView current() {
+        return view;
+    }
+
+    /**
+     * @see RecordSource#getCurrentLineNumber()
+     */
+    @Override
+    public long getCurrentLineNumber() {
+        return currentBatch.lineNumbers[currentIndex];
+    }
+
+    /**
+     * @see RecordSource#getBytesRead()
+     */
+    @Override
+    public long getBytesRead() {
+        return bytesRead;
+    }
+
+    /**
+     * Cancel any stages still running and wait for them to stop.
+     *
+     * @see Closeable#close()
+     */
+    @Override
+    public void close() {
+        synchronized (this) {
+            if (!closed) {
+                closed = true;
+                stageThreads.forEach(Thread::interrupt);
+                if (!parsingStarted) {
+                    stagesStopped.countDown();
+                }
+            }
+        }
+        boolean interrupted = false;
+        while (true) {
+            try {
+                stagesStopped.await();
+                break;
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+        // The stages have completed, so that their threads are available to other sources.
+        synchronized (this) {
+            if (!released) {
+                released = true;
+                SOURCES.release();
+            }
+        }
+    }
+
+    /**
+     * Run a stage on the current thread, unless the source is already closed.
+     *
+     * @param stage The stage.
+     */
+    private void runStage(Runnable stage) {
+        try {
+            synchronized (this) {
+                if (closed) {
+                    return;
+                }
+                stageThreads.add(Thread.currentThread());
+            }
+            stage.run();
+        } finally {
+            synchronized (this) {
+                stageThreads.remove(Thread.currentThread());
+            }
+            stagesStopped.countDown();
+        }
+    }
+
+    /**
+     * Reading stage: reads and decodes the content into blocks.
+     *
+     * @param input The stream to read the content from.
+     */
+    private void read(InputStream input) {
+        try (BomStrippingReader reader = new BomStrippingReader(input)) {
+            while (true) {
+                CharBlock block = freeBlocks.take();
+                block.length = reader.read(block.chars, 0, block.chars.length);
+                if (block.length < 0) {
+                    break;
+                }
+                bytesRead = reader.getBytesRead();
+                blocks.put(block);
+            }
+        } catch (Throwable e) {
+            readingFailure = e;
+        } finally {
+            // Always signal the end (there is always room for the marker).
+            blocks.add(END_OF_BLOCKS);
+        }
+    }
+
+    /**
+     * Parsing stage: parses the decoded content into batches of records.
+     */
+    private void parse() {
+        try {
+            Iterator<CSVRecord> iterator = parser.iterator();
+            RecordBatch batch = freeBatches.take();
+            while (iterator.hasNext()) {
+                batch.add(iterator.next(), parser.getCurrentLineNumber());
+                if (batch.size == batch.records.length) {
+                    batches.put(batch);
+                    batch = freeBatches.take();
+                }
+            }
+            if (batch.size > 0) {
+                batches.put(batch);
+            }
+        } catch (Throwable e) {
+            // Failures of the reading stage are also raised by the parser.
+            parsingFailure = e;
+        } finally {
+            batches.add(END_OF_BATCHES);
+        }
+    }
+
+    /**
+     * Throw the failure of a previous stage (if any).
+     *
+     * @param stageFailure The stage's failure (null if none).
+     * @throws IOException If the failure is an IOException.
+     */
+    private static void rethrowFailure(Throwable stageFailure) throws IOException {
+        if (stageFailure instanceof IOException) {
+            throw (IOException) stageFailure;
+        } else if (stageFailure instanceof RuntimeException) {
+            throw (RuntimeException) stageFailure;
+        } else if (stageFailure instanceof Error) {
+            throw (Error) stageFailure;
+        } else if (stageFailure != null) {
+            throw new IOException(stageFailure);
+        }
+    }
+
+    /**
+     * Take the next element from a queue.
+     *
+     * @param queue The queue.
+     * @param <T> The type of the queue's elements.
+     * @return The element.
+     * @throws InterruptedIOException If interrupted while waiting.
+     */
+    private static <T> T take(BlockingQueue<T> queue) throws InterruptedIOException {
+        try {
+            return queue.take();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for the pipeline's previous stage");
+        }
+    }
+
+    /**
+     * Reader over the blocks produced by the reading stage.
+     */
+    private class BlockReader extends Reader {
+
+        private CharBlock block;
+        private int position;
+
+        /**
+         * @see Reader#read(char[], int, int)
+         */
+        @Override
+        public int read(char[] buffer, int offset, int length) throws IOException {
+            if (block == END_OF_BLOCKS) {
+                return -1;
+            }
+            if (block == null || position == block.length) {
+                if (block != null) {
+                    freeBlocks.add(block);
+                }
+                block = take(blocks);
+                position = 0;
+                if (block == END_OF_BLOCKS) {
+                    rethrowFailure(readingFailure);
+                    return -1;
+                }
+            }
+            int charsRead = Math.min(length, block.length - position);
+            System.arraycopy(block.chars, position, buffer, offset, charsRead);
+            position += charsRead;
+            return charsRead;
+        }
+
+        /**
+         * @see Reader#close()
+         */
+        @Override
+        public void close() {
+            // The reading stage closes the underlying stream.
+        }
+
+    }
+
+    /**
+     * Reusable block of decoded characters.
+     */
+    private static class CharBlock {
+
+        private final char[] chars;
+        private int length;
+
+        /**
+         * Constructor.
+         *
+         * @param capacity The block's capacity.
+         */
+        CharBlock(int capacity) {
+            this.chars = new char[capacity];
+        }
+
+    }
+
+    /**
+     * Reusable batch of parsed records.
+     */
+    private static class RecordBatch {
+
+        private final CSVRecord[] records;
+        private final long[] lineNumbers;
+        private int size = 0;
+
+        /**
+         * Constructor.
+         *
+         * @param capacity The batch's capacity.
+         */
+        RecordBatch(int capacity) {
+            this.records = new CSVRecord[capacity];
+            this.lineNumbers = new long[capacity];
+        }
+
+        /**
+         * Add a record.
+         *
+         * @param record The record.
+         * @param lineNumber The parser's line number after reading the record.
+         */
+        void add(CSVRecord record, long lineNumber) {
+            records[size] = record;
+            lineNumbers[size] = lineNumber;
+            size += 1;
+        }
+
+        /**
+         * Remove all records.
+         */
+        void clear() {
+            Arrays.fill(records, 0, size, null);
+            size = 0;
+        }
+
+    }
+
+    /**
+     * Create the pool running the stages of all sources, with two threads per open source (stopped when idle).
+     *
+     * @return The pool.
+     */
+    private static ExecutorService createExecutor() {
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(MAXIMUM_SOURCES * 2, MAXIMUM_SOURCES * 2, 60L, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), new StageThreadFactory());
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    /**
+     * Factory for the (daemon) threads running the pipeline's stages.
+     */
+    private static class StageThreadFactory implements ThreadFactory {
+
+        private final AtomicInteger counter = new AtomicInteger();
+
+        /**
+         * @see ThreadFactory#newThread(Runnable)
+         */
+        @Override
+        public Thread newThread(Runnable task) {
+            Thread thread = new Thread(task, "kohesio-pipeline-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+
+    }
+
+}
@@ -0,0 +1,346 @@
+package eu.europa.ec.itb.kohesio.util;
+
+import eu.europa.ec.itb.kohesio.model.FileChunk;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Scanner that splits a UTF-8 CSV file into chunks that start and end on record boundaries.
+ *
+ * The scan is a lightweight byte-level pass that follows the quoting rules applied by the CSV parser (a quote only
+ * opens a quoted value if it is the first non-blank character of a field) so that line breaks within quoted values
+ * are never considered as boundaries. It also counts lines exactly as the parser does so that each chunk can report
+ * absolute line numbers. If the file's structure is not one the scanner can safely split (e.g. a non UTF-8 BOM, an
+ * unterminated quoted value or unexpected characters after a closing quote) no chunks are returned, leaving it to the
+ * caller to process the file sequentially (and report any parsing errors as before).
+ *
+ * Chunks are by default closed at the first record boundary after reaching the target size. Alternatively, chunk
+ * boundaries can be content-defined, meaning that whether a chunk is closed after a record depends on a hash of the
+ * record's bytes. In this case an edit within the file only affects the boundaries of the chunks around it, so that
+ * the other chunks are identical across versions of a file.
+ */
+public class RecordBoundaryScanner {
+
+    private static final int BUFFER_SIZE = 1024 * 1024;
+
+    private static final int STATE_FIELD_START = 0;
+    private static final int STATE_UNQUOTED = 1;
+    private static final int STATE_QUOTED = 2;
+    private static final int STATE_QUOTE_IN_QUOTED = 3;
+    private static final int STATE_AFTER_CLOSING_QUOTE = 4;
+
+    private final byte delimiter;
+    private final byte quote;
+    private final long targetChunkSize;
+    private final boolean contentDefinedBoundaries;
+
+    /**
+     * Constructor.
+     *
+     * @param delimiter The field delimiter (must be an ASCII character).
+     * @param quote The quote character (must be an ASCII character).
+     * @param targetChunkSize The minimum size in bytes for each chunk (the last one excepted).
+     */
+    public RecordBoundaryScanner(char delimiter, char quote, long targetChunkSize) {
+        this(delimiter, quote, targetChunkSize, false);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param delimiter The field delimiter (must be an ASCII character).
+     * @param quote The quote character (must be an ASCII character).
+     * @param targetChunkSize The minimum size in bytes for each chunk (the last one excepted) or, if boundaries are
+     *                        content-defined, the average size.
+     * @param contentDefinedBoundaries Whether chunk boundaries are to be content-defined.
+     */
+    public RecordBoundaryScanner(char delimiter, char quote, long targetChunkSize, boolean contentDefinedBoundaries) {
+        if (delimiter > 0x7F || quote > 0x7F) {
+            throw new IllegalArgumentException("Only ASCII delimiter and quote characters are supported");
+        }
+        this.delimiter = (byte) delimiter;
+        this.quote = (byte) quote;
+        this.targetChunkSize = targetChunkSize;
+        this.contentDefinedBoundaries = contentDefinedBoundaries;
+    }
+
+    /**
+     * Check whether the provided delimiter and quote characters can be used for scanning.
+     *
+     * @param delimiter The field delimiter.
+     * @param quote The quote character.
+     * @return The check result.
+     */
+    public static boolean isSupported(char delimiter, char quote) {
+        return delimiter <= 0x7F && quote <= 0x7F && delimiter != quote && !isLineBreak((byte) delimiter) && !isLineBreak((byte) quote);
+    }
+
+    /**
+     * Scan the provided file.
+     *
+     * The first chunk returned always covers the header record (including any UTF-8 BOM) whereas the following ones
+     * cover the data records.
+     *
+     * @param channel The file channel to read.
+     * @return The chunks or an empty result if the file cannot be safely split.
+     * @throws IOException If the file cannot be read.
+     */
+    public Optional<List<FileChunk>> scan(FileChannel channel) throws IOException {
+        long fileSize = channel.size();
+        ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+        long bufferStart = 0L;
+        channel.read(buffer, 0L);
+        buffer.flip();
+        int bomLength = Utf8Bytes.bomLength(buffer);
+        if (bomLength < 0) {
+            return Optional.empty();
+        }
+        ChunkCollector chunks = new ChunkCollector(targetChunkSize, contentDefinedBoundaries);
+        int state = STATE_FIELD_START;
+        int continuationBytesToSkip = 0;
+        boolean previousWasCarriageReturn = false;
+        // The BOM is part of the header's chunk but not of its first field.
+        int start = bomLength;
+        while (buffer.hasRemaining()) {
+            int limit = buffer.limit();
+            for (int i = start; i < limit; i++) {
+                byte current = buffer.get(i);
+                if (previousWasCarriageReturn) {
+                    previousWasCarriageReturn = false;
+                    if (current == '\n') {
+                        // Second part of a CRLF sequence (the line break was already counted).
+                        if (state == STATE_FIELD_START) {
+                            chunks.recordEnded(bufferStart + i + 1);
+                        }
+                        continue;
+                    } else if (state == STATE_FIELD_START) {
+                        // The previous record ended with a single CR.
+                        chunks.recordEnded(bufferStart + i);
+                    }
+                }
+                chunks.recordByte(current);
+                if (isLineBreak(current)) {
+                    chunks.lineBreak();
+                    if (current == '\r') {
+                        previousWasCarriageReturn = true;
+                    }
+                    if (state != STATE_QUOTED) {
+                        state = STATE_FIELD_START;
+                        if (current == '\n') {
+                            chunks.recordEnded(bufferStart + i + 1);
+                        }
+                    }
+                    continue;
+                }
+                switch (state) {
+                    case STATE_FIELD_START:
+                        if (continuationBytesToSkip > 0 && Utf8Bytes.isContinuation(current)) {
+                            // Remaining bytes of a (multi-byte) whitespace character.
+                            continuationBytesToSkip -= 1;
+                        } else if (current == quote) {
+                            state = STATE_QUOTED;
+                        } else if (current < 0 && isMultiByteWhitespace(channel, buffer, bufferStart, i)) {
+                            // Leading whitespace is skipped before checking for a quote.
+                            continuationBytesToSkip = 2;
+                        } else if (current != delimiter && !isBlank(current)) {
+                            state = STATE_UNQUOTED;
+                        }
+                        break;
+                    case STATE_UNQUOTED:
+                        if (current == delimiter) {
+                            state = STATE_FIELD_START;
+                        }
+                        break;
+                    case STATE_QUOTED:
+                        if (current == quote) {
+                            state = STATE_QUOTE_IN_QUOTED;
+                        }
+                        break;
+                    case STATE_QUOTE_IN_QUOTED:
+                        if (current == quote) {
+                            // Escaped quote.
+                            state = STATE_QUOTED;
+                        } else if (current == delimiter) {
+                            state = STATE_FIELD_START;
+                        } else if (isBlank(current)) {
+                            state = STATE_AFTER_CLOSING_QUOTE;
+                        } else {
+                            // The parser would fail here.
+                            return Optional.empty();
+                        }
+                        break;
+                    case STATE_AFTER_CLOSING_QUOTE:
+                        if (current == delimiter) {
+                            state = STATE_FIELD_START;
+                        } else if (!isBlank(current)) {
+                            // The parser would fail here.
+                            return Optional.empty();
+                        }
+                        break;
+                }
+            }
+            bufferStart += limit;
+            start = 0;
+            buffer.clear();
+            if (bufferStart < fileSize) {
+                channel.read(buffer, bufferStart);
+            }
+            buffer.flip();
+        }
+        if (state == STATE_QUOTED) {
+            // Unterminated quoted value.
+            return Optional.empty();
+        }
+        List<FileChunk> result = chunks.complete(fileSize);
+        if (result.size() < 2) {
+            // Only a header (or nothing at all).
+            return Optional.empty();
+        }
+        return Optional.of(result);
+    }
+
+    /**
+     * @param value The byte to check.
+     * @return Whether the byte is a line break character.
+     */
+    private static boolean isLineBreak(byte value) {
+        return value == '\n' || value == '\r';
+    }
+
+    /**
+     * @param value The byte to check.
+     * @return Whether the byte is considered as blank space that is trimmed around values.
+     */
+    private boolean isBlank(byte value) {
+        return value != delimiter && Utf8Bytes.isAsciiWhitespace(value);
+    }
+
+    /**
+     * Check whether a multi-byte whitespace character starts at the given buffer index. As such characters can cross
+     * the buffer's end, bytes after the buffer are read directly from the channel.
+     *
+     * @param channel The file channel.
+     * @param buffer The current buffer.
+     * @param bufferStart The file offset of the current buffer.
+     * @param index The index in the buffer to check.
+     * @return The check result.
+     * @throws IOException If the file cannot be read.
+     */
+    private boolean isMultiByteWhitespace(FileChannel channel, ByteBuffer buffer, long bufferStart, int index) throws IOException {
+        if (index + 2 < buffer.limit()) {
+            return Utf8Bytes.isMultiByteWhitespace(buffer.get(index), buffer.get(index + 1), buffer.get(index + 2));
+        }
+        ByteBuffer nextBytes = ByteBuffer.allocate(3);
+        channel.read(nextBytes, bufferStart + index);
+        return nextBytes.position() == 3 && Utf8Bytes.isMultiByteWhitespace(nextBytes.get(0), nextBytes.get(1), nextBytes.get(2));
+    }
+
+    /**
+     * Helper class to build the list of chunks as record ends are encountered.
+     */
+    private static class ChunkCollector {
+
+        private final long targetChunkSize;
+        private final boolean contentDefinedBoundaries;
+        private final List<FileChunk> chunks = new ArrayList<>();
+        private long lines = 0L;
+        private long chunkStart = 0L;
+        private long chunkStartLines = 0L;
+        private long recordStart = 0L;
+        private int recordHash = 0;
+
+        /**
+         * Constructor.
+         *
+         * @param targetChunkSize The minimum size in bytes for each chunk (or the average size for content-defined boundaries).
+         * @param contentDefinedBoundaries Whether chunk boundaries are to be content-defined.
+         */
+        ChunkCollector(long targetChunkSize, boolean contentDefinedBoundaries) {
+            this.targetChunkSize = targetChunkSize;
+            this.contentDefinedBoundaries = contentDefinedBoundaries;
+        }
+
+        /**
+         * Add a byte of the current record to its hash.
+         *
+         * @param value The byte.
+         */
+        void recordByte(byte value) {
+            recordHash = 31 * recordHash + value;
+        }
+
+        /**
+         * Count a line break.
+         */
+        void lineBreak() {
+            lines += 1;
+        }
+
+        /**
+         * Signal that a record ended, closing the current chunk if it is the header or if it is large enough.
+         *
+         * @param recordEnd The (exclusive) byte offset at which the record ended.
+         */
+        void recordEnded(long recordEnd) {
+            if (chunks.isEmpty() || isChunkComplete(recordEnd)) {
+                chunks.add(new FileChunk(chunkStart, recordEnd, chunkStartLines));
+                chunkStart = recordEnd;
+                chunkStartLines = lines;
+            }
+            recordStart = recordEnd;
+            recordHash = 0;
+        }
+
+        /**
+         * Check whether the current chunk should be closed after the record that just ended.
+         *
+         * For content-defined boundaries, chunks of at least half the target size are closed after a record with a
+         * probability proportional to the record's length (so that chunks are of the target size on average), as
+         * determined by the record's hash. Chunks are always closed once reaching four times the target size.
+         *
+         * @param recordEnd The (exclusive) byte offset at which the record ended.
+         * @return The check result.
+         */
+        private boolean isChunkComplete(long recordEnd) {
+            long chunkSize = recordEnd - chunkStart;
+            if (!contentDefinedBoundaries) {
+                return chunkSize >= targetChunkSize;
+            }
+            long minimumSize = targetChunkSize / 2;
+            if (chunkSize < minimumSize) {
+                return false;
+            } else if (chunkSize >= targetChunkSize * 4) {
+                return true;
+            }
+            // Spread the hash's bits (as in MurmurHash3's finalisation step).
+            int hash = recordHash;
+            hash ^= hash >>> 16;
+            hash *= 0x85EBCA6B;
+            hash ^= hash >>> 13;
+            hash *= 0xC2B2AE35;
+            hash ^= hash >>> 16;
+            long recordLength = recordEnd - recordStart;
+            return (hash & 0xFFFFFFFFL) < ((recordLength << 32) / minimumSize);
+        }
+
+        /**
+         * Close the last chunk.
+         *
+         * @param fileSize The size of the file.
+         * @return The complete list of chunks.
+         */
+        List<FileChunk> complete(long fileSize) {
+            if (chunkStart < fileSize) {
+                chunks.add(new FileChunk(chunkStart, fileSize, chunkStartLines));
+            }
+            return chunks;
+        }
+
+    }
+
+}
@@ -0,0 +1,41 @@
+package eu.europa.ec.itb.kohesio.util;
+
+import eu.europa.ec.itb.kohesio.model.RecordView;
+
+import java.io.IOException;
+
+/**
+ * Interface for classes providing the records to validate.
+ */
+public interface RecordSource {
+
+    /**
+     * Move to the next record.
+     *
+     * @return Whether a record was read (false at the end of the input).
+     * @throws IOException If the input cannot be read.
+     */
+    boolean next() throws IOException;
+
+    /**
+     * @return The view of the current record.
+     */
+    RecordView current();
+
+    /**
+     * Get the line number as counted by the CSV parser after reading the current record (i.e. the number of line
+     * breaks read so far).
+     *
+     * @return The line number.
+     */
+    long getCurrentLineNumber();
+
+    /**
+     * @return The number of bytes of (decompressed) content read so far, including any content read ahead of the
+     * current record (-1 if unknown).
+     */
+    default long getBytesRead() {
+        return -1L;
+    }
+
+}
@@ -0,0 +1,22 @@
+package eu.europa.ec.itb.kohesio.util;
+
+import java.io.IOException;
+
+/**
+ * Exception signalling that content cannot be processed by an optimised reader, in which case the CSV parser needs
+ * to be used instead (also to report any syntax errors in the same way).
+ */
+public class UnsupportedContentException extends IOException {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * Constructor.
+     *
+     * @param message The exception's message.
+     */
+    public UnsupportedContentException(String message) {
+        super(message);
+    }
+
+}
@@ -0,0 +1,78 @@
+package eu.europa.ec.itb.kohesio.util;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Helper methods to process UTF-8 encoded content at byte level.
+ */
+public final class Utf8Bytes {
+
+    /**
+     * Length of the UTF-8 BOM.
+     */
+    public static final int UTF8_BOM_LENGTH = 3;
+
+    /**
+     * Constructor to prevent instantiation.
+     */
+    private Utf8Bytes() {
+    }
+
+    /**
+     * Determine the length of the BOM at the start of the provided buffer, following the same detection as the
+     * BomStrippingReader class.
+     *
+     * @param buffer The buffer (starting at the beginning of the content).
+     * @return The length of the UTF-8 BOM (0 if there is no BOM) or -1 if there is a BOM for UTF-16 or UTF-32.
+     */
+    public static int bomLength(ByteBuffer buffer) {
+        int available = buffer.limit();
+        if (available >= 4 && buffer.get(0) == (byte)0x00 && buffer.get(1) == (byte)0x00 && buffer.get(2) == (byte)0xFE && buffer.get(3) == (byte)0xFF) {
+            return -1;
+        } else if (available >= 3 && buffer.get(0) == (byte)0xEF && buffer.get(1) == (byte)0xBB && buffer.get(2) == (byte)0xBF) {
+            return UTF8_BOM_LENGTH;
+        } else if (available >= 2 && ((buffer.get(0) == (byte)0xFE && buffer.get(1) == (byte)0xFF) || (buffer.get(0) == (byte)0xFF && buffer.get(1) == (byte)0xFE))) {
+            // UTF-16 (big or little-endian) or UTF-32 (little-endian).
+            return -1;
+        }
+        return 0;
+    }
+
+    /**
+     * Check whether a byte is an ASCII character considered as whitespace by Character.isWhitespace.
+     *
+     * @param value The byte.
+     * @return The check result.
+     */
+    public static boolean isAsciiWhitespace(byte value) {
+        return value == ' ' || (value >= 0x09 && value <= 0x0D) || (value >= 0x1C && value <= 0x1F);
+    }
+
+    /**
+     * Check whether the three bytes provided encode a (non-ASCII) character considered as whitespace by
+     * Character.isWhitespace. All such characters are encoded in UTF-8 using three bytes.
+     *
+     * @param first The first byte.
+     * @param second The second byte.
+     * @param third The third byte.
+     * @return The check result.
+     */
+    public static boolean isMultiByteWhitespace(byte first, byte second, byte third) {
+        if ((first & 0xF0) != 0xE0 || (second & 0xC0) != 0x80 || (third & 0xC0) != 0x80) {
+            return false;
+        }
+        int codePoint = ((first & 0x0F) << 12) | ((second & 0x3F) << 6) | (third & 0x3F);
+        return codePoint >= 0x80 && Character.isWhitespace(codePoint);
+    }
+
+    /**
+     * Check whether a byte is a UTF-8 continuation byte.
+     *
+     * @param value The byte.
+     * @return The check result.
+     */
+    public static boolean isContinuation(byte value) {
+        return (value & 0xC0) == 0x80;
+    }
+
+}
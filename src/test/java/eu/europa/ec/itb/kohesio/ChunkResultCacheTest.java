@@ -0,0 +1,87 @@
+package eu.europa.ec.itb.kohesio;
+
+import com.gitb.tr.TAR;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests for the validation of resubmitted files with the ChunkResultCache.
+ */
+class ChunkResultCacheTest {
+
+    // Small chunks so that a single change only affects a few of the file's chunks.
+    private static final long CHUNK_SIZE = 64L * 1024;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void cachedResubmissionWithChangedRowMatchesUncachedValidation() throws IOException {
+        String original = new String(TestFiles.generate(20000, 9L, false, false, true), StandardCharsets.UTF_8);
+        // Change a row in the middle of the file, adding a line break so that all later line numbers shift.
+        String changed = original.replaceFirst(",OP-10000,[^,]*,", ",OP-10000,\"Changed\r\nname\",");
+        assertNotEquals(original, changed);
+        Path originalFile = TestFiles.write(directory.resolve("original.csv"), original.getBytes(StandardCharsets.UTF_8));
+        Path changedFile = TestFiles.write(directory.resolve("changed.csv"), changed.getBytes(StandardCharsets.UTF_8));
+        ChunkResultCache cache = createCache(directory.resolve("cache"));
+        PluginInterface cachedPlugin = new PluginInterface(PluginInterface.Strategy.PARALLEL, CHUNK_SIZE, Optional.of(cache));
+        validate(cachedPlugin, originalFile);
+        long originalEntries = countEntries(directory.resolve("cache"));
+        assertTrue(originalEntries > 10, "Too few chunks cached");
+        TAR cachedReport = validate(cachedPlugin, changedFile);
+        assertTrue(TestFiles.getContextValue(cachedReport, "metrics", "strategy").endsWith("-cached"));
+        // Only the chunks around the change are validated (and cached) again.
+        assertTrue(countEntries(directory.resolve("cache")) - originalEntries <= 3, "Unchanged chunks were not reused");
+        TAR uncachedReport = validate(new PluginInterface(PluginInterface.Strategy.SEQUENTIAL, 0L, Optional.empty()), changedFile);
+        assertEquals(TestFiles.summarise(uncachedReport), TestFiles.summarise(cachedReport));
+    }
+
+    /**
+     * Create a cache in the given directory (as configured through the system properties).
+     *
+     * @param cacheDirectory The cache directory.
+     * @return The cache.
+     */
+    private static ChunkResultCache createCache(Path cacheDirectory) {
+        System.setProperty(ChunkResultCache.PROPERTY__DIRECTORY, cacheDirectory.toString());
+        try {
+            return ChunkResultCache.fromSystemProperties().orElseThrow();
+        } finally {
+            System.clearProperty(ChunkResultCache.PROPERTY__DIRECTORY);
+        }
+    }
+
+    /**
+     * Validate a file, reporting the validation's metrics.
+     *
+     * @param plugin The plugin.
+     * @param file The file.
+     * @return The report.
+     */
+    private static TAR validate(PluginInterface plugin, Path file) {
+        return plugin.validate(TestFiles.request(file, "reportMetrics", "true")).getReport();
+    }
+
+    /**
+     * @param cacheDirectory The cache directory.
+     * @return The number of cached entries.
+     * @throws IOException If the directory cannot be listed.
+     */
+    private static long countEntries(Path cacheDirectory) throws IOException {
+        try (Stream<Path> files = Files.list(cacheDirectory)) {
+            return files.filter((file) -> file.getFileName().toString().endsWith(".chunk")).count();
+        }
+    }
+
+}
@@ -0,0 +1,171 @@
+package eu.europa.ec.itb.kohesio;
+
+import com.gitb.tr.TAR;
+import eu.europa.ec.itb.kohesio.model.CsvRecordView;
+import eu.europa.ec.itb.kohesio.model.MessageTemplate;
+import eu.europa.ec.itb.kohesio.model.RecordView;
+import eu.europa.ec.itb.kohesio.model.ViolationLevel;
+import eu.europa.ec.itb.kohesio.rules.BoundRule;
+import eu.europa.ec.itb.kohesio.rules.NameBasedRule;
+import eu.europa.ec.itb.kohesio.rules.NameBasedRuleAdapter;
+import eu.europa.ec.itb.kohesio.rules.Rule;
+import eu.europa.ec.itb.kohesio.rules.RulePlan;
+import org.apache.commons.csv.CSVFormat;
+import org.apache.commons.csv.CSVParser;
+import org.apache.commons.csv.CSVRecord;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks that rules adapted through the NameBasedRuleAdapter report the same findings as equivalent rules bound by
+ * index, whatever the validation approach.
+ */
+class NameBasedRuleParityTest {
+
+    // Small chunks so that generated files are split in many chunks when validated in parallel.
+    private static final long CHUNK_SIZE = 64L * 1024;
+    private static final MessageTemplate MESSAGE = new MessageTemplate("The operation name '%s' should not use abbreviations.");
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void plansWithAdaptedRulesRequireCsvRecords() throws IOException {
+        String content = "Operation_Unique_Identifier,Operation_Name\r\nOP-1,Support to SMEs\r\nOP-2,Regional road\r\nOP-3,\"SMEs, again\"\r\n";
+        RulePlan adaptedPlan = compile(new NameBasedRuleAdapter(new NameBasedOperationNameRule()), content);
+        RulePlan indexPlan = compile(new IndexBasedOperationNameRule(), content);
+        assertTrue(adaptedPlan.requiresCsvRecords());
+        assertFalse(indexPlan.requiresCsvRecords());
+        assertArrayEquals(new String[] {"NameBasedOperationNameRule"}, adaptedPlan.getRuleNames());
+        List<String> expected = List.of(
+                "WARNING|Operation_Name|2|Support to SMEs|The operation name 'Support to SMEs' should not use abbreviations.",
+                "WARNING|Operation_Name|4|SMEs, again|The operation name 'SMEs, again' should not use abbreviations."
+        );
+        assertEquals(expected, validate(adaptedPlan, content));
+        assertEquals(expected, validate(indexPlan, content));
+    }
+
+    @Test
+    void inapplicableAdaptedRulesAreNotBound() throws IOException {
+        assertTrue(compile(new NameBasedRuleAdapter(new NameBasedOperationNameRule()), "Operation_Unique_Identifier\r\nOP-1\r\n").isEmpty());
+    }
+
+    @ParameterizedTest
+    @EnumSource(value = PluginInterface.Strategy.class, names = {"SEQUENTIAL", "MAPPED", "PARALLEL"})
+    void adaptedRulesReportAsRulesBoundByIndex(PluginInterface.Strategy strategy) throws IOException {
+        Path file = TestFiles.write(directory.resolve("content"), TestFiles.generate(20000, 21L, true, true, true));
+        TAR adaptedReport = validate(strategy, file, new NameBasedRuleAdapter(new NameBasedOperationNameRule()));
+        TAR indexReport = validate(strategy, file, new IndexBasedOperationNameRule());
+        assertEquals(TestFiles.summarise(indexReport), TestFiles.summarise(adaptedReport));
+        assertTrue(adaptedReport.getCounters().getNrOfWarnings().intValue() > 0);
+        // Adapted rules need the parser's records: chunks are then parsed by their own parser and mapped validation falls back to the parser.
+        String expectedStrategy = (strategy == PluginInterface.Strategy.PARALLEL)?"parallel":"sequential";
+        assertEquals(expectedStrategy, TestFiles.getContextValue(adaptedReport, "metrics", "strategy"));
+    }
+
+    /**
+     * Compile the plan of a single rule for CSV content.
+     *
+     * @param rule The rule.
+     * @param content The content (with a header).
+     * @return The plan.
+     * @throws IOException If the header cannot be parsed.
+     */
+    private static RulePlan compile(Rule rule, String content) throws IOException {
+        try (CSVParser parser = CSVFormat.RFC4180.builder().setHeader().get().parse(new StringReader(content))) {
+            return RulePlan.compile(new Rule[] {rule}, parser);
+        }
+    }
+
+    /**
+     * Validate CSV content record by record with a plan.
+     *
+     * @param plan The plan (compiled for the content's header).
+     * @param content The content (with a header).
+     * @return The findings as "level|field|line|value|message".
+     * @throws IOException If the content cannot be parsed.
+     */
+    private static List<String> validate(RulePlan plan, String content) throws IOException {
+        List<String> findings = new ArrayList<>();
+        ViolationReporter reporter = (template, fieldName, lineNumber, value, violationLevel, arguments) -> findings.add(violationLevel + "|" + fieldName + "|" + lineNumber + "|" + value + "|" + template.render(arguments));
+        RulePlan filePlan = plan.forFile();
+        CsvRecordView view = new CsvRecordView();
+        try (CSVParser parser = CSVFormat.RFC4180.builder().setHeader().get().parse(new StringReader(content))) {
+            for (CSVRecord record: parser) {
+                view.setRecord(record);
+                filePlan.validate(view, record.getRecordNumber() + 1, reporter);
+            }
+        }
+        return findings;
+    }
+
+    /**
+     * Validate a file with the given strategy and an additional rule.
+     *
+     * @param strategy The strategy.
+     * @param file The file.
+     * @param rule The rule to apply after the plugin's rules.
+     * @return The report.
+     */
+    private static TAR validate(PluginInterface.Strategy strategy, Path file, Rule rule) {
+        return new PluginInterface(strategy, CHUNK_SIZE, Optional.empty(), rule).validate(TestFiles.request(file, "reportMetrics", "true")).getReport();
+    }
+
+    /**
+     * Name-based rule warning about operation names including "SMEs".
+     */
+    private static class NameBasedOperationNameRule implements NameBasedRule {
+
+        @Override
+        public boolean isApplicable(CSVParser parser) {
+            return parser.getHeaderMap().containsKey("Operation_Name");
+        }
+
+        @Override
+        public void validate(CSVRecord record, long lineNumber, ViolationReporter reporter) {
+            String value = record.get("Operation_Name");
+            if (value.contains("SMEs")) {
+                reporter.record(MESSAGE, "Operation_Name", lineNumber, value, ViolationLevel.WARNING, value);
+            }
+        }
+
+    }
+
+    /**
+     * The same rule as NameBasedOperationNameRule, bound by index.
+     */
+    private static class IndexBasedOperationNameRule implements Rule {
+
+        @Override
+        public Optional<BoundRule> bind(CSVParser parser) {
+            Map<String, Integer> headerMap = parser.getHeaderMap();
+            if (!headerMap.containsKey("Operation_Name")) {
+                return Optional.empty();
+            }
+            int index = headerMap.get("Operation_Name");
+            return Optional.of((RecordView record, long lineNumber, ViolationReporter reporter) -> {
+                String value = record.get(index);
+                if (value.contains("SMEs")) {
+                    reporter.record(MESSAGE, "Operation_Name", lineNumber, value, ViolationLevel.WARNING, value);
+                }
+            });
+        }
+
+    }
+
+}
@@ -0,0 +1,86 @@
+package eu.europa.ec.itb.kohesio;
+
+import eu.europa.ec.itb.kohesio.rules.BoundRule;
+import eu.europa.ec.itb.kohesio.rules.Rule;
+import org.apache.commons.csv.CSVParser;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Tests for the RulePlanCache.
+ */
+class RulePlanCacheTest {
+
+    @Test
+    void preparedPlansAreReused() throws IOException {
+        BindingCounter rule = new BindingCounter();
+        RulePlanCache cache = new RulePlanCache(new Rule[] {rule});
+        cache.prepare(List.of("Operation_Unique_Identifier", "Operation \"Name\"", "Notes, free text"), ',', '"');
+        assertEquals(List.of("Operation_Unique_Identifier|Operation \"Name\"|Notes, free text"), rule.bindings);
+        getPlan(cache, "Operation_Unique_Identifier,\"Operation \"\"Name\"\"\",\"Notes, free text\"\r\nOP-1,Name,Notes\r\n", ',', '"');
+        assertEquals(1, rule.bindings.size());
+        // Plans are specific to the delimiter and quote.
+        cache.prepare(List.of("Operation_Unique_Identifier", "Operation \"Name\"", "Notes, free text"), ';', '"');
+        assertEquals(2, rule.bindings.size());
+    }
+
+    @Test
+    void leastRecentlyUsedPlansAreEvicted() throws IOException {
+        BindingCounter rule = new BindingCounter();
+        RulePlanCache cache = new RulePlanCache(new Rule[] {rule});
+        for (int i = 0; i < 64; i++) {
+            getPlan(cache, "Field_" + i + "\r\n", ',', '"');
+        }
+        getPlan(cache, "Field_0\r\n", ',', '"');
+        assertEquals(64, rule.bindings.size());
+        // Evicts the plan of Field_1 (the least recently used), keeping that of Field_0.
+        getPlan(cache, "Field_64\r\n", ',', '"');
+        getPlan(cache, "Field_0\r\n", ',', '"');
+        assertEquals(65, rule.bindings.size());
+        getPlan(cache, "Field_1\r\n", ',', '"');
+        assertEquals(66, rule.bindings.size());
+        assertEquals("Field_1", rule.bindings.get(65));
+        // Plans for further headers are still cached.
+        getPlan(cache, "Field_65\r\n", ',', '"');
+        getPlan(cache, "Field_65\r\n", ',', '"');
+        assertEquals(67, rule.bindings.size());
+    }
+
+    /**
+     * Get the plan for content's header.
+     *
+     * @param cache The cache.
+     * @param content The content (with a header).
+     * @param delimiter The field delimiter.
+     * @param quote The quote character.
+     * @throws IOException If the content cannot be parsed.
+     */
+    private static void getPlan(RulePlanCache cache, String content, char delimiter, char quote) throws IOException {
+        try (CSVParser parser = cache.getFormat(delimiter, quote).parse(new StringReader(content))) {
+            cache.getPlan(parser, delimiter, quote);
+        }
+    }
+
+    /**
+     * Rule recording the headers it is bound to (as their field names joined by "|").
+     */
+    private static class BindingCounter implements Rule {
+
+        private final List<String> bindings = new ArrayList<>();
+
+        @Override
+        public Optional<BoundRule> bind(CSVParser parser) {
+            bindings.add(String.join("|", parser.getHeaderNames()));
+            return Optional.empty();
+        }
+
+    }
+
+}
@@ -0,0 +1,235 @@
+package eu.europa.ec.itb.kohesio;
+
+import com.gitb.core.AnyContent;
+import com.gitb.tr.BAR;
+import com.gitb.tr.TAR;
+import com.gitb.vs.ValidateRequest;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.zip.GZIPOutputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Utility methods to generate Kohesio CSV files and compare validation reports in tests.
+ *
+ * Generated files contain the columns checked by the plugin's rules, preceded by a free-text column. Rows violate the
+ * rules at random (including duplicate operation identifiers) and include quoted values with delimiters, escaped
+ * quotes, line breaks and non-ASCII text. Generation is fully determined by the provided seed.
+ */
+final class TestFiles {
+
+    private static final String[] NAME_WORDS = {"Modernisation", "of", "the", "regional", "road", "R\u00e9novation", "\u00e9cole", "Stra\u00dfe", "Wsp\u00f3\u0142praca", "SMEs"};
+    private static final String[] CURRENCIES = {"EUR", "EUR", "PLN", "RON"};
+
+    private TestFiles() {}
+
+    /**
+     * Generate the content of a CSV file (in UTF-8).
+     *
+     * @param rows The number of data rows.
+     * @param seed The seed for the random values.
+     * @param bom Whether to start with a UTF-8 BOM.
+     * @param multiLineHeader Whether the header's first field is quoted and contains a line break.
+     * @param finalLineBreak Whether the last record ends with a line break.
+     * @return The content.
+     */
+    static byte[] generate(int rows, long seed, boolean bom, boolean multiLineHeader, boolean finalLineBreak) {
+        Random random = new Random(seed);
+        StringBuilder content = new StringBuilder(rows * 160);
+        content.append(multiLineHeader?"\"Notes\r\n(free text)\"":"Notes");
+        content.append(",Operation_Unique_Identifier,Operation_Name,Operation_Start_Date,Operation_End_Date,Location_Indicator_Postcode,Location_Indicator_NUTS_code,Location_Indicator_latitude_longitude,Total_Eligible_Expenditure_Currency,Total_Eligible_Expenditure_Exchange_Rate\r\n");
+        for (int i = 0; i < rows; i++) {
+            int violation = random.nextInt(8);
+            // Notes (with quoted line breaks, delimiters and quotes).
+            switch (random.nextInt(12)) {
+                case 0: content.append("\"first line\nsecond line\""); break;
+                case 1: content.append("\"a, b and \"\"c\"\"\""); break;
+                case 2: content.append("\"\r\n\""); break;
+                default: content.append(NAME_WORDS[random.nextInt(NAME_WORDS.length)]);
+            }
+            content.append(',');
+            // Identifier (repeating an earlier one for duplicates).
+            content.append("OP-").append((violation == 4 && i > 0)?random.nextInt(i):i).append(',');
+            content.append(NAME_WORDS[random.nextInt(NAME_WORDS.length)]).append(' ').append(NAME_WORDS[random.nextInt(NAME_WORDS.length)]).append(',');
+            // Dates (in the wrong order, invalid or valid).
+            int startYear = 2014 + random.nextInt(8);
+            int endYear = startYear + 1 + random.nextInt(5);
+            if (violation == 1) {
+                appendDate(content, random, endYear);
+                content.append(',');
+                appendDate(content, random, startYear);
+            } else if (violation == 5) {
+                content.append("31/02/").append(startYear).append(',');
+                appendDate(content, random, endYear);
+            } else {
+                appendDate(content, random, startYear);
+                content.append(',');
+                appendDate(content, random, endYear);
+            }
+            content.append(',');
+            // Location indicators (none for missing locations).
+            if (violation == 2) {
+                content.append(",,");
+            } else {
+                content.append(1000 + random.nextInt(9000)).append(",BE").append(random.nextInt(100)).append(",\"50.8, 4.3\"");
+            }
+            content.append(',');
+            // Expenditure (with a missing exchange rate).
+            String currency = (violation == 3)?"PLN":CURRENCIES[random.nextInt(CURRENCIES.length)];
+            content.append(currency).append(',');
+            if (violation != 3 && !"EUR".equals(currency)) {
+                content.append("4.").append(random.nextInt(1000));
+            }
+            if (i < rows - 1 || finalLineBreak) {
+                content.append("\r\n");
+            }
+        }
+        byte[] text = content.toString().getBytes(StandardCharsets.UTF_8);
+        if (!bom) {
+            return text;
+        }
+        byte[] result = new byte[text.length + 3];
+        result[0] = (byte) 0xEF;
+        result[1] = (byte) 0xBB;
+        result[2] = (byte) 0xBF;
+        System.arraycopy(text, 0, result, 3, text.length);
+        return result;
+    }
+
+    /**
+     * Write content to a file.
+     *
+     * @param file The file.
+     * @param content The content.
+     * @return The file.
+     * @throws IOException If the file cannot be written.
+     */
+    static Path write(Path file, byte[] content) throws IOException {
+        return Files.write(file, content);
+    }
+
+    /**
+     * Write content to a gzip-compressed file.
+     *
+     * @param file The file.
+     * @param content The content.
+     * @return The file.
+     * @throws IOException If the file cannot be written.
+     */
+    static Path writeGzip(Path file, byte[] content) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (OutputStream out = new GZIPOutputStream(bytes)) {
+            out.write(content);
+        }
+        return Files.write(file, bytes.toByteArray());
+    }
+
+    /**
+     * Write content to a ZIP archive with a single entry.
+     *
+     * @param file The file.
+     * @param content The content.
+     * @return The file.
+     * @throws IOException If the file cannot be written.
+     */
+    static Path writeZip(Path file, byte[] content) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ZipOutputStream out = new ZipOutputStream(bytes)) {
+            out.putNextEntry(new ZipEntry("content.csv"));
+            out.write(content);
+            out.closeEntry();
+        }
+        return Files.write(file, bytes.toByteArray());
+    }
+
+    /**
+     * Create a validation request for a file (using a comma delimiter and double quotes).
+     *
+     * @param file The file to validate.
+     * @param optionalInputs Further inputs as name and value pairs.
+     * @return The request.
+     */
+    static ValidateRequest request(Path file, String... optionalInputs) {
+        ValidateRequest request = new ValidateRequest();
+        request.getInput().add(input("contentToValidate", file.toString()));
+        request.getInput().add(input("delimiter", ","));
+        request.getInput().add(input("quote", "\""));
+        for (int i = 0; i + 1 < optionalInputs.length; i += 2) {
+            request.getInput().add(input(optionalInputs[i], optionalInputs[i + 1]));
+        }
+        return request;
+    }
+
+    /**
+     * Summarise a report's result, counters and items (excluding its date and context) for comparison.
+     *
+     * @param report The report.
+     * @return The summary.
+     */
+    static String summarise(TAR report) {
+        StringBuilder summary = new StringBuilder();
+        summary.append(report.getResult()).append('|')
+                .append(report.getCounters().getNrOfErrors()).append('|')
+                .append(report.getCounters().getNrOfWarnings()).append('|')
+                .append(report.getCounters().getNrOfAssertions()).append('\n');
+        for (var element: report.getReports().getInfoOrWarningOrError()) {
+            BAR item = (BAR) element.getValue();
+            summary.append(element.getName().getLocalPart()).append('|')
+                    .append(item.getDescription()).append('|')
+                    .append(item.getLocation()).append('|')
+                    .append(item.getValue()).append('\n');
+        }
+        return summary.toString();
+    }
+
+    /**
+     * Get a value of a report's context.
+     *
+     * @param report The report.
+     * @param itemName The name of the context item.
+     * @param valueName The name of the value within the item.
+     * @return The value (null if not found).
+     */
+    static String getContextValue(TAR report, String itemName, String valueName) {
+        return report.getContext().getItem().stream()
+                .filter((item) -> itemName.equals(item.getName()))
+                .flatMap((item) -> item.getItem().stream())
+                .filter((value) -> valueName.equals(value.getName()))
+                .map(AnyContent::getValue)
+                .findFirst()
+                .orElse(null);
+    }
+
+    /**
+     * Create an input for a validation request.
+     *
+     * @param name The input's name.
+     * @param value The input's value.
+     * @return The input.
+     */
+    private static AnyContent input(String name, String value) {
+        AnyContent input = new AnyContent();
+        input.setName(name);
+        input.setValue(value);
+        return input;
+    }
+
+    /**
+     * Append a valid date (dd/MM/yyyy).
+     *
+     * @param content The content to append to.
+     * @param random The random values.
+     * @param year The date's year.
+     */
+    private static void appendDate(StringBuilder content, Random random, int year) {
+        content.append(String.format("%02d/%02d/%d", 1 + random.nextInt(28), 1 + random.nextInt(12), year));
+    }
+
+}
@@ -0,0 +1,179 @@
+package eu.europa.ec.itb.kohesio;
+
+import com.gitb.tr.BAR;
+import com.gitb.tr.TAR;
+import com.gitb.tr.TestResultType;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests for validations stopped early by their budget.
+ */
+class ValidationBudgetTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void countersOnlyCoverValidatedRows() throws IOException {
+        Path file = TestFiles.write(directory.resolve("content.csv"), TestFiles.generate(20000, 1L, false, false, true));
+        TAR report = new PluginInterface(PluginInterface.Strategy.AUTOMATIC, 0L, Optional.empty()).validate(TestFiles.request(file, "maximumRows", "5000")).getReport();
+        List<BAR> items = report.getReports().getInfoOrWarningOrError().stream().map((element) -> (BAR) element.getValue()).collect(Collectors.toList());
+        // The first item is the budget's warning, followed by the findings of the validated rows.
+        assertTrue(items.get(0).getDescription().startsWith("Validation stopped early as the maximum number of rows (5000) was reached"), items.get(0).getDescription());
+        long lastRow = Long.parseLong(TestFiles.getContextValue(report, "budget", "lastRow"));
+        for (BAR item: items.subList(1, items.size())) {
+            assertTrue(Long.parseLong(item.getLocation().split(":")[1]) <= lastRow, item.getLocation());
+        }
+        // The counters only count the findings (all retained in the report), not the budget's warning.
+        long counted = report.getCounters().getNrOfErrors().longValue() + report.getCounters().getNrOfWarnings().longValue() + report.getCounters().getNrOfAssertions().longValue();
+        assertEquals(items.size() - 1, counted);
+        assertEquals(TestResultType.FAILURE, report.getResult());
+        assertEquals("rows", TestFiles.getContextValue(report, "budget", "limit"));
+    }
+
+    @Test
+    void errorBudgetStopsAtTheEndOfTheBatch() throws IOException {
+        Path file = TestFiles.write(directory.resolve("content.csv"), TestFiles.generate(20000, 2L, false, false, true));
+        TAR fullReport = validate(file);
+        TAR report = validate(file, "maximumErrors", "100", "reportMetrics", "true");
+        List<BAR> items = getItems(report);
+        assertEquals("errors", TestFiles.getContextValue(report, "budget", "limit"));
+        // Batches have at most as many rows as the errors allowed, validation stopping after the one reaching the limit.
+        long rows = Long.parseLong(TestFiles.getContextValue(report, "metrics", "rows"));
+        assertEquals(0L, rows % 100);
+        assertTrue(rows < 4096, String.valueOf(rows));
+        long lastRow = Long.parseLong(TestFiles.getContextValue(report, "budget", "lastRow"));
+        assertEquals(String.format("Validation stopped early as the maximum number of errors (100) was reached: the report's findings and counters cover rows 1..%s.", lastRow), items.get(0).getDescription());
+        assertEquals("contentToValidate:" + lastRow + ":0", items.get(0).getLocation());
+        // The findings are those of the full validation for rows 1..lastRow (except for duplicates, checked across rows).
+        List<String> expected = getItems(fullReport).stream()
+                .filter((item) -> Long.parseLong(item.getLocation().split(":")[1]) <= lastRow)
+                .filter((item) -> !item.getDescription().contains("is already used in row"))
+                .map(BAR::getDescription)
+                .collect(Collectors.toList());
+        assertEquals(expected, items.subList(1, items.size()).stream().map(BAR::getDescription).collect(Collectors.toList()));
+        assertTrue(report.getCounters().getNrOfErrors().longValue() >= 100);
+        assertEquals(items.size() - 1, report.getCounters().getNrOfErrors().longValue() + report.getCounters().getNrOfWarnings().longValue() + report.getCounters().getNrOfAssertions().longValue());
+    }
+
+    @Test
+    void singleErrorBudgetStopsAtTheFirstRowWithErrors() throws IOException {
+        Path file = TestFiles.write(directory.resolve("content.csv"), TestFiles.generate(20000, 5L, false, false, true));
+        long firstErrorRow = getErrors(validate(file)).stream().mapToLong(ValidationBudgetTest::getRow).min().orElseThrow();
+        TAR report = validate(file, "maximumErrors", "1");
+        assertEquals("errors", TestFiles.getContextValue(report, "budget", "limit"));
+        assertEquals(String.valueOf(firstErrorRow), TestFiles.getContextValue(report, "budget", "lastRow"));
+        // Only the errors of that row are retained and counted.
+        List<BAR> errors = getErrors(report);
+        assertEquals(report.getCounters().getNrOfErrors().longValue(), errors.size());
+        assertTrue(errors.size() < 10, String.valueOf(errors.size()));
+        for (BAR item: getItems(report).subList(1, getItems(report).size())) {
+            assertTrue(getRow(item) <= firstErrorRow, item.getLocation());
+        }
+    }
+
+    @Test
+    void expiredTimeBudgetStopsValidation() throws IOException {
+        Path file = TestFiles.write(directory.resolve("content.csv"), TestFiles.generate(110000, 3L, false, false, true));
+        TAR report = validate(file, "maximumTime", "1");
+        List<BAR> items = getItems(report);
+        assertEquals("time", TestFiles.getContextValue(report, "budget", "limit"));
+        long lastRow = Long.parseLong(TestFiles.getContextValue(report, "budget", "lastRow"));
+        assertTrue(items.get(0).getDescription().startsWith("Validation stopped early as the maximum validation time (1 ms) was reached"), items.get(0).getDescription());
+        for (BAR item: items.subList(1, items.size())) {
+            assertTrue(Long.parseLong(item.getLocation().split(":")[1]) <= lastRow, item.getLocation());
+        }
+    }
+
+    @Test
+    void expiredBudgetIsReached() throws InterruptedException {
+        ValidationBudget budget = new ValidationBudget(1L, Long.MAX_VALUE, Long.MAX_VALUE);
+        Thread.sleep(5L);
+        assertTrue(budget.isReached(0L));
+        assertEquals(Optional.of(ValidationBudget.Limit.TIME), budget.getReachedLimit());
+        assertFalse(budget.limitsRecords());
+    }
+
+    @Test
+    void systemPropertiesCapRequestedLimits() throws IOException {
+        Path file = TestFiles.write(directory.resolve("content.csv"), TestFiles.generate(20000, 4L, false, false, true));
+        System.setProperty(ValidationBudget.PROPERTY__MAXIMUM_ROWS, "3000");
+        try {
+            // The property is lower than the request's limit.
+            assertEquals("number of rows (3000)", rowsLimit(validate(file, "maximumRows", "5000")));
+            // The request's limit is lower than the property.
+            assertEquals("number of rows (2000)", rowsLimit(validate(file, "maximumRows", "2000")));
+            // The property applies without a request limit.
+            assertEquals("number of rows (3000)", rowsLimit(validate(file)));
+        } finally {
+            System.clearProperty(ValidationBudget.PROPERTY__MAXIMUM_ROWS);
+        }
+        assertEquals(Long.MAX_VALUE, new ValidationBudget(Long.MAX_VALUE, Long.MAX_VALUE, Long.MAX_VALUE).getMaximumRows());
+        System.setProperty(ValidationBudget.PROPERTY__MAXIMUM_ERRORS, "50");
+        try {
+            assertEquals("number of errors (50)", new ValidationBudget(Long.MAX_VALUE, Long.MAX_VALUE, 80L).describe(ValidationBudget.Limit.ERRORS));
+            assertEquals("number of errors (20)", new ValidationBudget(Long.MAX_VALUE, Long.MAX_VALUE, 20L).describe(ValidationBudget.Limit.ERRORS));
+        } finally {
+            System.clearProperty(ValidationBudget.PROPERTY__MAXIMUM_ERRORS);
+        }
+    }
+
+    /**
+     * Validate a file.
+     *
+     * @param file The file.
+     * @param inputs Further inputs as name and value pairs.
+     * @return The report.
+     */
+    private static TAR validate(Path file, String... inputs) {
+        return new PluginInterface(PluginInterface.Strategy.AUTOMATIC, 0L, Optional.empty()).validate(TestFiles.request(file, inputs)).getReport();
+    }
+
+    /**
+     * @param report The report.
+     * @return The report's items.
+     */
+    private static List<BAR> getItems(TAR report) {
+        return report.getReports().getInfoOrWarningOrError().stream().map((element) -> (BAR) element.getValue()).collect(Collectors.toList());
+    }
+
+    /**
+     * @param report The report.
+     * @return The report's error items.
+     */
+    private static List<BAR> getErrors(TAR report) {
+        return report.getReports().getInfoOrWarningOrError().stream()
+                .filter((element) -> element.getName().getLocalPart().equals("error"))
+                .map((element) -> (BAR) element.getValue())
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * @param item The report item.
+     * @return The row of the item's location.
+     */
+    private static long getRow(BAR item) {
+        return Long.parseLong(item.getLocation().split(":")[1]);
+    }
+
+    /**
+     * @param report The report of a validation stopped by its rows limit.
+     * @return The limit's description in the report's warning.
+     */
+    private static String rowsLimit(TAR report) {
+        String description = getItems(report).get(0).getDescription();
+        return description.substring("Validation stopped early as the maximum ".length(), description.indexOf(" was reached"));
+    }
+
+}
@@ -0,0 +1,140 @@
+package eu.europa.ec.itb.kohesio;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests for the ValidationLimiter.
+ */
+@Timeout(30)
+class ValidationLimiterTest {
+
+    private static final long LARGE_FILE_SIZE = 1000L;
+    private static final long SMALL = 10L;
+    private static final long LARGE = LARGE_FILE_SIZE;
+
+    @Test
+    void waitingValidationsAreServedInArrivalOrder() throws InterruptedException {
+        ValidationLimiter limiter = new ValidationLimiter(1, 1, LARGE_FILE_SIZE);
+        ValidationLimiter.Slot running = limiter.acquire(SMALL);
+        List<Integer> order = Collections.synchronizedList(new ArrayList<>());
+        List<Thread> waiting = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            int index = i;
+            waiting.add(start(() -> {
+                ValidationLimiter.Slot slot = limiter.acquire(SMALL);
+                order.add(index);
+                slot.close();
+            }));
+            awaitQueueLength(limiter, i + 1);
+        }
+        running.close();
+        for (Thread thread: waiting) {
+            thread.join();
+        }
+        assertEquals(List.of(0, 1, 2, 3, 4), order);
+    }
+
+    @Test
+    void largeFilesBeyondTheirShareWaitWhileSmallFilesRun() throws InterruptedException {
+        ValidationLimiter limiter = new ValidationLimiter(3, 1, LARGE_FILE_SIZE);
+        ValidationLimiter.Slot large = limiter.acquire(LARGE);
+        AtomicReference<ValidationLimiter.Slot> waitingLarge = new AtomicReference<>();
+        Thread thread = start(() -> waitingLarge.set(limiter.acquire(LARGE)));
+        awaitQueueLength(limiter, 1);
+        // A small file still gets one of the free slots.
+        ValidationLimiter.Slot small = limiter.acquire(SMALL);
+        assertTrue(thread.isAlive());
+        assertEquals(1, limiter.getQueueLength());
+        // The waiting large file gets the large slot once released.
+        large.close();
+        thread.join();
+        assertEquals(0, limiter.getQueueLength());
+        waitingLarge.get().close();
+        small.close();
+    }
+
+    @Test
+    void interruptedValidationReleasesItsLargeSlot() throws InterruptedException {
+        ValidationLimiter limiter = new ValidationLimiter(1, 1, LARGE_FILE_SIZE);
+        ValidationLimiter.Slot running = limiter.acquire(SMALL);
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        AtomicReference<Boolean> interrupted = new AtomicReference<>();
+        Thread thread = start(() -> {
+            try {
+                limiter.acquire(LARGE);
+            } catch (IllegalStateException e) {
+                failure.set(e);
+                interrupted.set(Thread.currentThread().isInterrupted());
+            }
+        });
+        // The large file holds the large slot while waiting for a slot.
+        awaitQueueLength(limiter, 1);
+        thread.interrupt();
+        thread.join();
+        assertInstanceOf(IllegalStateException.class, failure.get());
+        assertTrue(interrupted.get());
+        running.close();
+        // The large slot is available again.
+        limiter.acquire(LARGE).close();
+        assertEquals(0, limiter.getQueueLength());
+    }
+
+    @Test
+    void slotIsReleasedOnce() throws InterruptedException {
+        ValidationLimiter limiter = new ValidationLimiter(2, 1, LARGE_FILE_SIZE);
+        ValidationLimiter.Slot large = limiter.acquire(LARGE);
+        large.close();
+        large.close();
+        // Closing twice did not add slots: a second large file and a third file must wait.
+        ValidationLimiter.Slot first = limiter.acquire(LARGE);
+        Thread secondLarge = start(() -> limiter.acquire(LARGE).close());
+        awaitQueueLength(limiter, 1);
+        ValidationLimiter.Slot small = limiter.acquire(SMALL);
+        Thread thirdSmall = start(() -> limiter.acquire(SMALL).close());
+        awaitQueueLength(limiter, 2);
+        assertTrue(secondLarge.isAlive());
+        assertTrue(thirdSmall.isAlive());
+        small.close();
+        thirdSmall.join();
+        first.close();
+        secondLarge.join();
+        assertEquals(0, limiter.getQueueLength());
+    }
+
+    /**
+     * Start a daemon thread.
+     *
+     * @param task The thread's task.
+     * @return The started thread.
+     */
+    private static Thread start(Runnable task) {
+        Thread thread = new Thread(task);
+        thread.setDaemon(true);
+        thread.start();
+        return thread;
+    }
+
+    /**
+     * Wait until the given number of validations are waiting for a slot.
+     *
+     * @param limiter The limiter.
+     * @param length The expected queue length.
+     * @throws InterruptedException If interrupted while waiting.
+     */
+    private static void awaitQueueLength(ValidationLimiter limiter, int length) throws InterruptedException {
+        while (limiter.getQueueLength() != length) {
+            Thread.sleep(1L);
+        }
+    }
+
+}
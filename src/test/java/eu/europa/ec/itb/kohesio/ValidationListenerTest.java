@@ -0,0 +1,184 @@
+package eu.europa.ec.itb.kohesio;
+
+import com.gitb.tr.BAR;
+import com.gitb.tr.TAR;
+import eu.europa.ec.itb.kohesio.model.MessageTemplate;
+import eu.europa.ec.itb.kohesio.model.ReportItem;
+import eu.europa.ec.itb.kohesio.model.ViolationLevel;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests for the findings and progress passed to a ValidationListener.
+ */
+class ValidationListenerTest {
+
+    private static final int ROWS = 20000;
+    // Small chunks so that parallel validation passes findings per chunk.
+    private static final long CHUNK_SIZE = 64L * 1024;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void listenerReceivesTheReportItemsInOrder() throws IOException {
+        Path file = TestFiles.write(directory.resolve("content.csv"), TestFiles.generate(ROWS, 1L, false, false, true));
+        for (PluginInterface.Strategy strategy: PluginInterface.Strategy.values()) {
+            RecordingListener listener = new RecordingListener();
+            TAR report = validate(strategy, file, listener);
+            assertEquals(TestFiles.summarise(report), listener.summarise(report), () -> String.format("Findings of strategy %s differ", strategy));
+            assertTrue(listener.findingCalls > 1, () -> String.format("Findings of strategy %s were not streamed", strategy));
+            assertEquals(ROWS, listener.rows);
+        }
+    }
+
+    @Test
+    void listenerReceivesTheReportItemsWhenParallelValidationFallsBack() throws IOException {
+        // UTF-16 content cannot be split in chunks, so that forced parallel validation falls back to sequential validation.
+        byte[] text = new String(TestFiles.generate(ROWS, 2L, false, false, true), StandardCharsets.UTF_8).getBytes(StandardCharsets.UTF_16LE);
+        byte[] content = new byte[text.length + 2];
+        content[0] = (byte) 0xFF;
+        content[1] = (byte) 0xFE;
+        System.arraycopy(text, 0, content, 2, text.length);
+        Path file = TestFiles.write(directory.resolve("content.csv"), content);
+        RecordingListener listener = new RecordingListener();
+        TAR report = validate(PluginInterface.Strategy.PARALLEL, file, listener, "reportMetrics", "true");
+        assertEquals("sequential", TestFiles.getContextValue(report, "metrics", "strategy"));
+        assertTrue(listener.findingCalls > 1);
+        assertEquals(TestFiles.summarise(report), listener.summarise(report));
+        assertEquals(ROWS, listener.rows);
+    }
+
+    @Test
+    void findingsAlreadyPassedAreSkippedWhenValidationRestarts() {
+        RecordingListener listener = new RecordingListener();
+        ValidationProgress progress = new ValidationProgress(listener, false);
+        ReportCollector first = new ReportCollector(100L);
+        record(first, 2, 3);
+        progress.update(first, 3L, 300L);
+        // Validation restarts with another approach, which finds the same findings and more.
+        ReportCollector second = new ReportCollector(100L);
+        record(second, 2, 3);
+        progress.update(second, 1L, 100L);
+        record(second, 5);
+        progress.update(second, 5L, 500L);
+        record(second, 6);
+        progress.complete(second, 6L);
+        assertEquals(List.of(2L, 3L, 5L, 6L), listener.items.stream().map(ReportItem::getLineNumber).collect(Collectors.toList()));
+        assertEquals(3, listener.findingCalls);
+        assertEquals(6L, listener.rows);
+        assertEquals(500L, listener.bytesRead);
+    }
+
+    @Test
+    void aggregatedFindingsAreOnlyReceivedOnCompletion() throws IOException {
+        Path file = TestFiles.write(directory.resolve("content.csv"), TestFiles.generate(ROWS, 3L, false, false, true));
+        for (PluginInterface.Strategy strategy: PluginInterface.Strategy.values()) {
+            RecordingListener listener = new RecordingListener();
+            TAR report = validate(strategy, file, listener, "aggregateViolations", "true");
+            // Each received item is the first occurrence of a group of findings reported as a single item.
+            List<BAR> groups = report.getReports().getInfoOrWarningOrError().stream().map((element) -> (BAR) element.getValue()).collect(Collectors.toList());
+            assertEquals(groups.size(), listener.items.size());
+            for (int i = 0; i < groups.size(); i++) {
+                ReportItem item = listener.items.get(i);
+                assertTrue(groups.get(i).getDescription().startsWith("[Row: " + item.getLineNumber() + "]") || groups.get(i).getDescription().startsWith("[Rows: " + item.getLineNumber()), groups.get(i).getDescription());
+                assertTrue(groups.get(i).getDescription().contains(": " + item.getMessage()), groups.get(i).getDescription());
+                assertEquals(groups.get(i).getValue(), item.getValue());
+            }
+            assertEquals(1, listener.findingCalls, () -> String.format("Findings of strategy %s were passed before completion", strategy));
+            // All rows were validated when the findings were received.
+            assertEquals(ROWS, listener.rowsAtFirstFindings);
+        }
+    }
+
+    /**
+     * Record an error for each of the given lines.
+     *
+     * @param collector The collector.
+     * @param lineNumbers The line numbers.
+     */
+    private static void record(ReportCollector collector, long... lineNumbers) {
+        for (long lineNumber: lineNumbers) {
+            collector.record(MessageTemplate.RAW, "Field", lineNumber, null, ViolationLevel.ERROR, "Finding " + lineNumber);
+        }
+    }
+
+    /**
+     * Validate a file with the given strategy and listener.
+     *
+     * @param strategy The strategy.
+     * @param file The file.
+     * @param listener The listener.
+     * @param inputs Further inputs as name and value pairs.
+     * @return The report.
+     */
+    private static TAR validate(PluginInterface.Strategy strategy, Path file, ValidationListener listener, String... inputs) {
+        return new PluginInterface(strategy, CHUNK_SIZE, Optional.empty()).validate(TestFiles.request(file, inputs), listener).getReport();
+    }
+
+    /**
+     * Listener recording the received findings and checking that progress never decreases.
+     */
+    private static class RecordingListener implements ValidationListener {
+
+        private final List<ReportItem> items = new ArrayList<>();
+        private int findingCalls = 0;
+        private long rows = 0L;
+        private long bytesRead = 0L;
+        private long rowsAtFirstFindings = -1L;
+
+        @Override
+        public void onFindings(List<ReportItem> items) {
+            assertFalse(items.isEmpty());
+            this.items.addAll(items);
+            if (findingCalls == 0) {
+                rowsAtFirstFindings = rows;
+            }
+            findingCalls += 1;
+        }
+
+        @Override
+        public void onProgress(long rows, long bytesRead) {
+            assertTrue(rows >= this.rows, () -> String.format("Rows decreased from %s to %s", this.rows, rows));
+            assertTrue(bytesRead >= this.bytesRead, () -> String.format("Bytes read decreased from %s to %s", this.bytesRead, bytesRead));
+            this.rows = rows;
+            this.bytesRead = bytesRead;
+        }
+
+        /**
+         * Summarise the received findings as TestFiles#summarise does for a report.
+         *
+         * @param report The report (for its result and counters, which are not passed to the listener).
+         * @return The summary.
+         */
+        String summarise(TAR report) {
+            StringBuilder summary = new StringBuilder();
+            summary.append(report.getResult()).append('|')
+                    .append(report.getCounters().getNrOfErrors()).append('|')
+                    .append(report.getCounters().getNrOfWarnings()).append('|')
+                    .append(report.getCounters().getNrOfAssertions()).append('\n');
+            for (ReportItem item: items) {
+                summary.append(item.getViolationLevel().name().toLowerCase(Locale.ROOT)).append('|')
+                        .append(item.getReportMessage()).append('|')
+                        .append("contentToValidate:").append(item.getLineNumber()).append(":0|")
+                        .append(item.getValue()).append('\n');
+            }
+            return summary.toString();
+        }
+
+    }
+
+}
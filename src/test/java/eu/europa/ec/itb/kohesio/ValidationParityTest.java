@@ -0,0 +1,151 @@
+package eu.europa.ec.itb.kohesio;
+
+import com.gitb.tr.TAR;
+import eu.europa.ec.itb.kohesio.model.MessageTemplate;
+import eu.europa.ec.itb.kohesio.model.ViolationLevel;
+import eu.europa.ec.itb.kohesio.rules.NameBasedRule;
+import eu.europa.ec.itb.kohesio.rules.NameBasedRuleAdapter;
+import eu.europa.ec.itb.kohesio.rules.Rule;
+import org.apache.commons.csv.CSVParser;
+import org.apache.commons.csv.CSVRecord;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Checks that all validation approaches produce the same report as sequential validation with the CSV parser.
+ */
+class ValidationParityTest {
+
+    // Small chunks so that generated files are split in many chunks when validated in parallel.
+    private static final long CHUNK_SIZE = 64L * 1024;
+
+    @TempDir
+    Path directory;
+
+    /**
+     * @return The files to validate (as name, content, compression and further inputs).
+     */
+    static Stream<Arguments> files() {
+        byte[] plain = TestFiles.generate(20000, 1L, false, false, true);
+        return Stream.of(
+                Arguments.of("plain", plain, "none", new String[0]),
+                Arguments.of("aggregated", plain, "none", new String[] {"aggregateViolations", "true"}),
+                Arguments.of("bom", TestFiles.generate(20000, 2L, true, false, true), "none", new String[0]),
+                Arguments.of("no final line break", TestFiles.generate(20000, 3L, false, false, false), "none", new String[0]),
+                Arguments.of("multi-line header", TestFiles.generate(20000, 4L, false, true, true), "none", new String[0]),
+                Arguments.of("bom and multi-line header", TestFiles.generate(20000, 8L, true, true, true), "none", new String[0]),
+                Arguments.of("full report", TestFiles.generate(110000, 5L, false, false, true), "none", new String[0]),
+                Arguments.of("gzip", TestFiles.generate(20000, 6L, true, false, true), "gzip", new String[0]),
+                Arguments.of("zip", TestFiles.generate(20000, 7L, false, false, true), "zip", new String[0])
+        );
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("files")
+    void allStrategiesProduceTheSequentialReport(String name, byte[] content, String compression, String[] inputs) throws IOException {
+        Path file = directory.resolve("content");
+        if ("gzip".equals(compression)) {
+            TestFiles.writeGzip(file, content);
+        } else if ("zip".equals(compression)) {
+            TestFiles.writeZip(file, content);
+        } else {
+            TestFiles.write(file, content);
+        }
+        String expected = TestFiles.summarise(validate(PluginInterface.Strategy.SEQUENTIAL, file, inputs));
+        for (PluginInterface.Strategy strategy: PluginInterface.Strategy.values()) {
+            String[] inputsWithMetrics = Stream.concat(Stream.of(inputs), Stream.of("reportMetrics", "true")).toArray(String[]::new);
+            TAR report = validate(strategy, file, inputsWithMetrics);
+            assertEquals(expected, TestFiles.summarise(report), () -> String.format("Report of strategy %s differs", strategy));
+            if ("none".equals(compression)) {
+                assertEquals(expectedStrategyName(strategy), TestFiles.getContextValue(report, "metrics", "strategy"), () -> String.format("Strategy %s validated with another approach", strategy));
+            }
+        }
+    }
+
+    /**
+     * @return The files to validate with a name-based rule (as name and content).
+     */
+    static Stream<Arguments> filesForNameBasedRules() {
+        return Stream.of(
+                Arguments.of("plain", TestFiles.generate(20000, 11L, false, false, true)),
+                Arguments.of("bom", TestFiles.generate(20000, 12L, true, false, true)),
+                Arguments.of("no final line break", TestFiles.generate(20000, 13L, false, false, false)),
+                Arguments.of("multi-line header", TestFiles.generate(20000, 14L, false, true, true))
+        );
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("filesForNameBasedRules")
+    void chunksParsedWithTheirOwnParserProduceTheSequentialReport(String name, byte[] content) throws IOException {
+        Path file = TestFiles.write(directory.resolve("content"), content);
+        Rule rule = new NameBasedRuleAdapter(new OperationNameRule());
+        String expected = TestFiles.summarise(validate(PluginInterface.Strategy.SEQUENTIAL, file, new String[0], rule));
+        for (PluginInterface.Strategy strategy: PluginInterface.Strategy.values()) {
+            TAR report = validate(strategy, file, new String[] {"reportMetrics", "true"}, rule);
+            assertEquals(expected, TestFiles.summarise(report), () -> String.format("Report of strategy %s differs", strategy));
+            // The records of the CSV parser are needed, so chunks are parsed by their own parser and other approaches fall back to it.
+            String expectedStrategy = (strategy == PluginInterface.Strategy.PARALLEL)?"parallel":((strategy == PluginInterface.Strategy.PIPELINED)?"sequential-pipelined":"sequential");
+            assertEquals(expectedStrategy, TestFiles.getContextValue(report, "metrics", "strategy"), () -> String.format("Strategy %s validated with another approach", strategy));
+        }
+    }
+
+    /**
+     * Validate a file with the given strategy.
+     *
+     * @param strategy The strategy.
+     * @param file The file.
+     * @param inputs Further inputs as name and value pairs.
+     * @param additionalRules The rules to apply after the plugin's rules.
+     * @return The report.
+     */
+    private static TAR validate(PluginInterface.Strategy strategy, Path file, String[] inputs, Rule... additionalRules) {
+        return new PluginInterface(strategy, CHUNK_SIZE, Optional.empty(), additionalRules).validate(TestFiles.request(file, inputs)).getReport();
+    }
+
+    /**
+     * @param strategy The forced strategy.
+     * @return The strategy name reported in the metrics (for uncompressed content).
+     */
+    private static String expectedStrategyName(PluginInterface.Strategy strategy) {
+        switch (strategy) {
+            case PARALLEL: return "parallel-mapped";
+            case MAPPED: return "mapped";
+            case PIPELINED: return "sequential-pipelined";
+            case SEQUENTIAL: return "sequential";
+            // Small files are validated on a single thread.
+            default: return "mapped";
+        }
+    }
+
+    /**
+     * Name-based rule warning about operation names including "SMEs".
+     */
+    private static class OperationNameRule implements NameBasedRule {
+
+        private static final MessageTemplate MESSAGE = new MessageTemplate("The operation name '%s' should not use abbreviations.");
+
+        @Override
+        public boolean isApplicable(CSVParser parser) {
+            return parser.getHeaderMap().containsKey("Operation_Name");
+        }
+
+        @Override
+        public void validate(CSVRecord record, long lineNumber, ViolationReporter reporter) {
+            String value = record.get("Operation_Name");
+            if (value.contains("SMEs")) {
+                reporter.record(MESSAGE, "Operation_Name", lineNumber, value, ViolationLevel.WARNING, value);
+            }
+        }
+
+    }
+
+}
@@ -0,0 +1,116 @@
+package eu.europa.ec.itb.kohesio;
+
+import eu.europa.ec.itb.kohesio.model.MessageTemplate;
+import eu.europa.ec.itb.kohesio.model.ViolationLevel;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Instant;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests for the ViolationSpill.
+ */
+class ViolationSpillTest {
+
+    @TempDir
+    Path directory;
+
+    @BeforeEach
+    void setDirectory() {
+        System.setProperty(ViolationSpill.PROPERTY__DIRECTORY, directory.toString());
+    }
+
+    @AfterEach
+    void clearProperties() {
+        System.clearProperty(ViolationSpill.PROPERTY__DIRECTORY);
+        System.clearProperty(ViolationSpill.PROPERTY__MAXIMUM_AGE);
+    }
+
+    @Test
+    void partsIgnoreFindingsOnceDeleted() throws IOException {
+        ViolationSpill spill = ViolationSpill.create();
+        ViolationSpill part = spill.createPart();
+        part.record(MessageTemplate.RAW, "Field", 2L, "value", ViolationLevel.ERROR, "Before");
+        // As when a validation fails while a part's task is still running.
+        spill.delete();
+        part.record(MessageTemplate.RAW, "Field", 3L, "value", ViolationLevel.ERROR, "After");
+        assertEquals(1L, part.getCount());
+        assertTrue(listFiles().isEmpty());
+    }
+
+    @Test
+    void findingsAreIgnoredOnceClosed() throws IOException {
+        ViolationSpill spill = ViolationSpill.create();
+        spill.record(MessageTemplate.RAW, "Field", 2L, "value", ViolationLevel.ERROR, "Before");
+        spill.close();
+        spill.record(MessageTemplate.RAW, "Field", 3L, "value", ViolationLevel.ERROR, "After");
+        assertEquals(1L, spill.getCount());
+        assertEquals(List.of("Line,Level,Field,Value,Message", "2,ERROR,Field,value,Before"), Files.readAllLines(spill.getFile(), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void expiredFilesAreDeletedOnCreation() throws IOException {
+        ViolationSpill expired = ViolationSpill.create();
+        expired.close();
+        ViolationSpill recent = ViolationSpill.create();
+        recent.close();
+        Files.setLastModifiedTime(expired.getFile(), FileTime.from(Instant.now().minusSeconds(3600)));
+        Path otherFile = Files.writeString(directory.resolve("other.csv"), "");
+        Files.setLastModifiedTime(otherFile, FileTime.from(Instant.now().minusSeconds(3600)));
+        System.setProperty(ViolationSpill.PROPERTY__MAXIMUM_AGE, String.valueOf(60L * 1000));
+        ViolationSpill created = ViolationSpill.create();
+        created.close();
+        assertFalse(Files.exists(expired.getFile()));
+        assertTrue(Files.exists(recent.getFile()));
+        assertTrue(Files.exists(created.getFile()));
+        assertTrue(Files.exists(otherFile));
+    }
+
+    @Test
+    void filesOlderThanADayAreDeletedByDefault() throws IOException {
+        ViolationSpill expired = ViolationSpill.create();
+        expired.close();
+        ViolationSpill recent = ViolationSpill.create();
+        recent.close();
+        Files.setLastModifiedTime(expired.getFile(), FileTime.from(Instant.now().minusSeconds(25 * 3600)));
+        Files.setLastModifiedTime(recent.getFile(), FileTime.from(Instant.now().minusSeconds(23 * 3600)));
+        ViolationSpill.create().close();
+        assertFalse(Files.exists(expired.getFile()));
+        assertTrue(Files.exists(recent.getFile()));
+    }
+
+    @Test
+    void negativeMaximumAgeKeepsFiles() throws IOException {
+        ViolationSpill expired = ViolationSpill.create();
+        expired.close();
+        Files.setLastModifiedTime(expired.getFile(), FileTime.from(Instant.now().minusSeconds(30L * 24 * 3600)));
+        System.setProperty(ViolationSpill.PROPERTY__MAXIMUM_AGE, "-1");
+        ViolationSpill.create().close();
+        assertTrue(Files.exists(expired.getFile()));
+    }
+
+    /**
+     * @return The files of the spill directory.
+     * @throws IOException If the directory cannot be listed.
+     */
+    private List<Path> listFiles() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.collect(Collectors.toList());
+        }
+    }
+
+}
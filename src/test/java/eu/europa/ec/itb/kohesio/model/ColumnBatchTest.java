@@ -0,0 +1,123 @@
+package eu.europa.ec.itb.kohesio.model;
+
+import eu.europa.ec.itb.kohesio.util.CodeDictionary;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * Tests for the ColumnBatch.
+ */
+class ColumnBatchTest {
+
+    private static final ColumnSpec CODE_COLUMN = new ColumnSpec(0, ColumnType.CODE);
+    private static final Set<String> EURO = Set.of("EUR");
+    private static final Set<String> NON_EURO = Set.of("PLN", "RON", "HUF");
+
+    @Test
+    void codeColumnsMatchValuesPerSet() {
+        ColumnBatch batch = new ColumnBatch(List.of(CODE_COLUMN), 8);
+        add(batch, "EUR", "PLN", " ", null, "EUR", "HUF", "eur");
+        ColumnBatch.Column column = batch.getColumn(CODE_COLUMN);
+        assertArrayEquals(new int[] {0, 1, CodeDictionary.NO_CODE, CodeDictionary.NO_CODE, 0, 2, 3}, prefix(column.getCodes(), batch.size()));
+        assertArrayEquals(new boolean[] {true, false, false, false, true, false, false}, prefix(column.getMatches(EURO), batch.size()));
+        assertArrayEquals(new boolean[] {false, true, false, false, false, true, false}, prefix(column.getMatches(NON_EURO), batch.size()));
+        assertArrayEquals(new boolean[] {false, false, true, true, false, false, false}, prefix(column.getBlanks(), batch.size()));
+        assertEquals("HUF", column.getValue(5));
+        assertNull(column.getValue(2));
+        // Codes remain stable across batches, with new values matched as well.
+        batch.clear();
+        add(batch, "RON", "EUR", "PLN");
+        assertArrayEquals(new int[] {4, 0, 1}, prefix(column.getCodes(), batch.size()));
+        assertArrayEquals(new boolean[] {false, true, false}, prefix(column.getMatches(EURO), batch.size()));
+        assertArrayEquals(new boolean[] {true, false, true}, prefix(column.getMatches(NON_EURO), batch.size()));
+    }
+
+    @Test
+    void valuesBeyondTheDictionarySizeAreMatchedByValue() {
+        ColumnBatch batch = new ColumnBatch(List.of(CODE_COLUMN), 16);
+        ColumnBatch.Column column = batch.getColumn(CODE_COLUMN);
+        // Fill the dictionary with distinct values (including PLN, but not EUR or RON).
+        add(batch, "PLN");
+        for (int i = 1; i < CodeDictionary.DEFAULT_MAXIMUM_SIZE; i++) {
+            if (batch.isFull()) {
+                column.getMatches(EURO);
+                batch.clear();
+            }
+            add(batch, "X" + i);
+        }
+        batch.clear();
+        add(batch, "EUR", "RON", "PLN", "", "X1", "HUF");
+        assertArrayEquals(new int[] {CodeDictionary.NOT_ENCODED, CodeDictionary.NOT_ENCODED, 0, CodeDictionary.NO_CODE, 1, CodeDictionary.NOT_ENCODED}, prefix(column.getCodes(), batch.size()));
+        assertArrayEquals(new boolean[] {true, false, false, false, false, false}, prefix(column.getMatches(EURO), batch.size()));
+        assertArrayEquals(new boolean[] {false, true, true, false, false, true}, prefix(column.getMatches(NON_EURO), batch.size()));
+        assertEquals("EUR", column.getValue(0));
+        assertEquals("RON", column.getValue(1));
+        assertEquals("X1", column.getValue(4));
+    }
+
+    /**
+     * Add single-field records to a batch.
+     *
+     * @param batch The batch.
+     * @param values The records' values (null for a record without the field).
+     */
+    private static void add(ColumnBatch batch, String... values) {
+        for (String value: values) {
+            batch.add(new SingleFieldRecord(value), batch.size() + 2);
+        }
+    }
+
+    /**
+     * @param values A column's values.
+     * @param size The batch's size.
+     * @return The values of the batch's rows.
+     */
+    private static int[] prefix(int[] values, int size) {
+        return Arrays.copyOf(values, size);
+    }
+
+    /**
+     * @param values A column's values.
+     * @param size The batch's size.
+     * @return The values of the batch's rows.
+     */
+    private static boolean[] prefix(boolean[] values, int size) {
+        return Arrays.copyOf(values, size);
+    }
+
+    /**
+     * Record with at most one field.
+     */
+    private static class SingleFieldRecord implements RecordView {
+
+        private final String value;
+
+        /**
+         * Constructor.
+         *
+         * @param value The field's value (null for no field).
+         */
+        SingleFieldRecord(String value) {
+            this.value = value;
+        }
+
+        @Override
+        public int size() {
+            return (value == null)?0:1;
+        }
+
+        @Override
+        public String get(int index) {
+            return (index < size())?value:null;
+        }
+
+    }
+
+}
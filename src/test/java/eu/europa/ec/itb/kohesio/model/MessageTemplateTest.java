@@ -0,0 +1,51 @@
+package eu.europa.ec.itb.kohesio.model;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Tests for the MessageTemplate.
+ */
+class MessageTemplateTest {
+
+    @Test
+    void placeholdersAreReplacedByArguments() {
+        MessageTemplate template = new MessageTemplate("The %s '%s' must not be after the %s.");
+        assertEquals(3, template.getArgumentCount());
+        assertEquals("The start date '01/02/2020' must not be after the end date.", template.render("start date", "01/02/2020", "end date"));
+        assertEquals(String.format("%s and %s%s", "a", "b", "c"), new MessageTemplate("%s and %s%s").render("a", "b", "c"));
+        assertEquals(0, new MessageTemplate("").getArgumentCount());
+        assertEquals("x", MessageTemplate.RAW.render("x"));
+    }
+
+    @Test
+    void percentSignsAreRenderedAsWithStringFormat() {
+        MessageTemplate template = new MessageTemplate("The rate '%s' must be between 0%% and 100%%, not %%s.");
+        assertEquals(1, template.getArgumentCount());
+        assertEquals(String.format("The rate '%s' must be between 0%% and 100%%, not %%s.", "120"), template.render("120"));
+        assertEquals("%%s", new MessageTemplate("%%%%s").render());
+        assertEquals("%x", new MessageTemplate("%%%s").render("x"));
+        // Other '%' characters are literal text.
+        assertEquals("50% of 5%d %", new MessageTemplate("50% of %s%d %").render("5"));
+    }
+
+    @Test
+    void argumentsAreTakenFromTheOffset() {
+        StringBuilder builder = new StringBuilder("> ");
+        new MessageTemplate("%s-%s").appendTo(builder, new String[] {"a", "b", "c", "d"}, 1);
+        assertEquals("> b-c", builder.toString());
+    }
+
+    @Test
+    void argumentCountsMustMatch() {
+        MessageTemplate template = new MessageTemplate("%s and %s");
+        assertThrows(IllegalArgumentException.class, () -> template.render("a"));
+        assertThrows(IllegalArgumentException.class, () -> template.render("a", "b", "c"));
+        assertThrows(IllegalArgumentException.class, () -> new MessageTemplate(null));
+        assertThrows(IllegalArgumentException.class, () -> new ReportBuffer(10L).add(template, "Field", 2L, null, ViolationLevel.ERROR, "a"));
+        assertThrows(IllegalArgumentException.class, () -> new ViolationAggregator(10L).add(template, "Field", 2L, null, ViolationLevel.ERROR, "a", "b", "c"));
+    }
+
+}
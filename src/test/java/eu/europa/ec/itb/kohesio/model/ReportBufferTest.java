@@ -0,0 +1,139 @@
+package eu.europa.ec.itb.kohesio.model;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests for the ReportBuffer.
+ */
+class ReportBufferTest {
+
+    private static final MessageTemplate NO_ARGUMENTS = new MessageTemplate("The value is invalid.");
+    private static final MessageTemplate ONE_ARGUMENT = new MessageTemplate("The value '%s' is invalid.");
+    private static final MessageTemplate TWO_ARGUMENTS = new MessageTemplate("The value '%s' is already used in row %s.");
+
+    @Test
+    void itemsAreKeptAsTheBufferGrows() {
+        ReportBuffer buffer = new ReportBuffer(Long.MAX_VALUE);
+        for (int i = 0; i < 3000; i++) {
+            assertTrue(add(buffer, i));
+        }
+        assertEquals(3000, buffer.size());
+        assertFalse(buffer.isFull());
+        for (int i = 0; i < 3000; i++) {
+            assertEquals(expectedReportMessage(i), reportMessage(buffer, i));
+            assertEquals(i + 2L, buffer.getLineNumber(i));
+            assertEquals((i % 3 == 1)?null:("v" + i), buffer.getValue(i));
+            assertEquals((i % 2 == 0)?ViolationLevel.ERROR:ViolationLevel.WARNING, buffer.getViolationLevel(i));
+        }
+        ReportItem item = buffer.toReportItem(5);
+        assertEquals(expectedReportMessage(5), item.getReportMessage());
+        assertEquals("v5", item.getValue());
+    }
+
+    @Test
+    void itemsBeyondTheMaximumAreRejected() {
+        ReportBuffer buffer = new ReportBuffer(300L);
+        for (int i = 0; i < 300; i++) {
+            assertTrue(add(buffer, i));
+        }
+        assertTrue(buffer.isFull());
+        assertFalse(add(buffer, 300));
+        assertEquals(300, buffer.size());
+        // Appending stops once full, in the other buffer's order.
+        ReportBuffer other = new ReportBuffer(100L);
+        ReportBuffer partial = new ReportBuffer(150L);
+        for (int i = 0; i < 100; i++) {
+            add(partial, i);
+            add(other, 100 + i);
+        }
+        partial.addAll(other);
+        assertEquals(150, partial.size());
+        for (int i = 0; i < 150; i++) {
+            assertEquals(expectedReportMessage(i), reportMessage(partial, i));
+        }
+        assertTrue(partial.isFull());
+    }
+
+    @Test
+    void repeatedValuesAreInternedUpToTheLimit() {
+        ReportBuffer buffer = new ReportBuffer(Long.MAX_VALUE);
+        for (int i = 0; i < 4096; i++) {
+            buffer.add(ONE_ARGUMENT, "Field", i + 2L, new String("v" + i), ViolationLevel.ERROR, new String("v" + i));
+        }
+        // Values already interned are shared (for both values and arguments).
+        buffer.add(ONE_ARGUMENT, "Field", 5000L, new String("v0"), ViolationLevel.ERROR, new String("v4095"));
+        assertSame(buffer.getValue(0), buffer.getValue(4096));
+        // Further values are stored as provided, without being interned.
+        String newValue = new String("w");
+        buffer.add(ONE_ARGUMENT, "Field", 5001L, newValue, ViolationLevel.ERROR, "x");
+        String repeatedValue = new String("w");
+        buffer.add(ONE_ARGUMENT, "Field", 5002L, repeatedValue, ViolationLevel.ERROR, "x");
+        assertSame(newValue, buffer.getValue(4097));
+        assertSame(repeatedValue, buffer.getValue(4098));
+        assertNotSame(buffer.getValue(4097), buffer.getValue(4098));
+        assertEquals("[Row: 5000][Field: Field]: The value 'v4095' is invalid.", reportMessage(buffer, 4096));
+    }
+
+    @Test
+    void templatesAreIdentifiedByShortIdentifiers() {
+        ReportBuffer buffer = new ReportBuffer(Long.MAX_VALUE);
+        buffer.add(NO_ARGUMENTS, null, 2L, null, ViolationLevel.INFO);
+        for (int i = 1; i < Short.MAX_VALUE; i++) {
+            buffer.add(new MessageTemplate("Message " + i + "."), null, i + 2L, null, ViolationLevel.INFO);
+        }
+        // Known templates are reused.
+        buffer.add(NO_ARGUMENTS, null, 1L, null, ViolationLevel.INFO);
+        assertEquals("[Row: 1]: The value is invalid.", reportMessage(buffer, Short.MAX_VALUE));
+        assertThrows(IllegalStateException.class, () -> buffer.add(new MessageTemplate("One too many."), null, 1L, null, ViolationLevel.INFO));
+        assertEquals("[Row: 3]: Message 1.", reportMessage(buffer, 1));
+        assertEquals("[Row: " + (Short.MAX_VALUE + 1) + "]: Message " + (Short.MAX_VALUE - 1) + ".", reportMessage(buffer, Short.MAX_VALUE - 1));
+    }
+
+    /**
+     * Add an item whose template (and so number of arguments) depends on its index.
+     *
+     * @param buffer The buffer.
+     * @param index The item's index.
+     * @return Whether the item was added.
+     */
+    private static boolean add(ReportBuffer buffer, int index) {
+        String value = (index % 3 == 1)?null:("v" + index);
+        ViolationLevel level = (index % 2 == 0)?ViolationLevel.ERROR:ViolationLevel.WARNING;
+        switch (index % 3) {
+            case 0: return buffer.add(ONE_ARGUMENT, "Field", index + 2L, value, level, value);
+            case 1: return buffer.add(NO_ARGUMENTS, null, index + 2L, value, level);
+            default: return buffer.add(TWO_ARGUMENTS, "Other", index + 2L, value, level, value, String.valueOf(index));
+        }
+    }
+
+    /**
+     * @param index The item's index (as added by add).
+     * @return The item's expected report message.
+     */
+    private static String expectedReportMessage(int index) {
+        switch (index % 3) {
+            case 0: return "[Row: " + (index + 2) + "][Field: Field]: The value 'v" + index + "' is invalid.";
+            case 1: return "[Row: " + (index + 2) + "]: The value is invalid.";
+            default: return "[Row: " + (index + 2) + "][Field: Other]: The value 'v" + index + "' is already used in row " + index + ".";
+        }
+    }
+
+    /**
+     * @param buffer The buffer.
+     * @param index The item's index.
+     * @return The item's report message.
+     */
+    private static String reportMessage(ReportBuffer buffer, int index) {
+        StringBuilder builder = new StringBuilder();
+        buffer.appendReportMessage(index, builder);
+        return builder.toString();
+    }
+
+}
@@ -0,0 +1,186 @@
+package eu.europa.ec.itb.kohesio.model;
+
+import eu.europa.ec.itb.kohesio.ReportCollector;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests for the ViolationAggregator.
+ */
+class ViolationAggregatorTest {
+
+    private static final MessageTemplate MESSAGE = new MessageTemplate("The value '%s' is invalid.");
+    private static final MessageTemplate OTHER_MESSAGE = new MessageTemplate("The value '%s' is invalid.");
+
+    @Test
+    void consecutiveRowsAreRenderedAsRanges() {
+        ViolationAggregator aggregator = new ViolationAggregator(10L);
+        for (long lineNumber: new long[] {2L, 3L, 4L, 7L, 9L, 10L}) {
+            aggregator.add(MESSAGE, "Field", lineNumber, "x", ViolationLevel.ERROR, "x");
+        }
+        aggregator.add(MESSAGE, "Field", 5L, "y", ViolationLevel.ERROR, "y");
+        aggregator.add(MESSAGE, null, 6L, "x", ViolationLevel.ERROR, "x");
+        aggregator.add(MESSAGE, null, 8L, "x", ViolationLevel.ERROR, "x");
+        assertEquals(List.of(
+                "[Rows: 2-4, 7, 9-10][Field: Field]: The value 'x' is invalid. (occurrences: 6)",
+                "[Row: 5][Field: Field]: The value 'y' is invalid.",
+                "[Rows: 6, 8]: The value 'x' is invalid. (occurrences: 2)"
+        ), render(aggregator));
+        // Groups with a single occurrence are rendered as plain report items.
+        assertEquals(new ReportItem("The value 'y' is invalid.", "Field", 5L, "y", ViolationLevel.ERROR).getReportMessage(), render(aggregator).get(1));
+        assertEquals(2L, aggregator.getLineNumber(0));
+        assertEquals(6L, aggregator.getOccurrences(0));
+    }
+
+    @Test
+    void findingsAreGroupedByTemplateArgumentsFieldAndLevel() {
+        ViolationAggregator aggregator = new ViolationAggregator(10L);
+        aggregator.add(MESSAGE, "Field", 2L, "a", ViolationLevel.ERROR, "x");
+        aggregator.add(MESSAGE, "Field", 3L, "b", ViolationLevel.ERROR, "x");
+        aggregator.add(MESSAGE, "Field", 4L, "x", ViolationLevel.WARNING, "x");
+        aggregator.add(MESSAGE, "Other", 5L, "x", ViolationLevel.ERROR, "x");
+        aggregator.add(MESSAGE, "Field", 6L, "x", ViolationLevel.ERROR, "z");
+        // Templates are compared by identity.
+        aggregator.add(OTHER_MESSAGE, "Field", 7L, "x", ViolationLevel.ERROR, "x");
+        aggregator.add(MESSAGE, "Field", 8L, "x", ViolationLevel.WARNING, "x");
+        assertEquals(5, aggregator.size());
+        assertEquals(List.of(2L, 4L, 5L, 6L, 7L), lineNumbers(aggregator));
+        assertEquals(ViolationLevel.WARNING, aggregator.getViolationLevel(1));
+        assertEquals("Other", aggregator.getFieldName(2));
+        // The value is only reported if shared by all occurrences.
+        assertNull(aggregator.getValue(0));
+        assertEquals("x", aggregator.getValue(1));
+    }
+
+    @Test
+    void repeatedAndOverlappingRowsExtendTheLastRange() {
+        ViolationAggregator aggregator = new ViolationAggregator(10L);
+        for (long lineNumber: new long[] {3L, 3L, 4L, 4L, 5L, 7L, 7L}) {
+            aggregator.add(MESSAGE, "Field", lineNumber, "x", ViolationLevel.ERROR, "x");
+        }
+        assertEquals(List.of("[Rows: 3-5, 7][Field: Field]: The value 'x' is invalid. (occurrences: 7)"), render(aggregator));
+    }
+
+    @Test
+    void rangesAreTruncatedWhileOccurrencesAreCounted() {
+        ViolationAggregator aggregator = new ViolationAggregator(10L);
+        for (long lineNumber = 2L; lineNumber < 302L; lineNumber += 2) {
+            aggregator.add(MESSAGE, "Field", lineNumber, "x", ViolationLevel.ERROR, "x");
+        }
+        String message = render(aggregator).get(0);
+        assertTrue(message.startsWith("[Rows: 2, 4, 6, "), message);
+        // The first 100 ranges are kept (up to row 200).
+        assertTrue(message.contains(", 198, 200, ...][Field: Field]"), message);
+        assertFalse(message.contains("202"), message);
+        assertTrue(message.endsWith(" (occurrences: 150)"), message);
+        // Rows extending the last stored range are still recorded.
+        ViolationAggregator extended = new ViolationAggregator(10L);
+        for (long lineNumber = 2L; lineNumber < 202L; lineNumber += 2) {
+            extended.add(MESSAGE, "Field", lineNumber, "x", ViolationLevel.ERROR, "x");
+        }
+        extended.add(MESSAGE, "Field", 201L, "x", ViolationLevel.ERROR, "x");
+        assertTrue(render(extended).get(0).contains(", 198, 200-201][Field: Field]"), render(extended).get(0));
+    }
+
+    @Test
+    void groupsAreCappedWhileCountersStayExact() {
+        ViolationAggregator aggregator = new ViolationAggregator(2L);
+        aggregator.add(MESSAGE, "Field", 2L, "a", ViolationLevel.ERROR, "a");
+        aggregator.add(MESSAGE, "Field", 3L, "b", ViolationLevel.ERROR, "b");
+        assertTrue(aggregator.isFull());
+        aggregator.add(MESSAGE, "Field", 4L, "c", ViolationLevel.ERROR, "c");
+        // Existing groups still record their occurrences.
+        aggregator.add(MESSAGE, "Field", 5L, "a", ViolationLevel.ERROR, "a");
+        assertEquals(List.of(
+                "[Rows: 2, 5][Field: Field]: The value 'a' is invalid. (occurrences: 2)",
+                "[Row: 3][Field: Field]: The value 'b' is invalid."
+        ), render(aggregator));
+        ReportCollector collector = new ReportCollector(2L, true);
+        for (int i = 0; i < 10; i++) {
+            collector.record(MESSAGE, "Field", 2L + i, "v" + i, (i % 2 == 0)?ViolationLevel.ERROR:ViolationLevel.WARNING, "v" + i);
+        }
+        assertEquals(2, collector.getItems().size());
+        assertEquals(5L, collector.getCounterErrors());
+        assertEquals(5L, collector.getCounterWarnings());
+    }
+
+    @Test
+    void appendedPartsContinueTheirGroups() {
+        ViolationAggregator whole = new ViolationAggregator(3L);
+        ViolationAggregator first = new ViolationAggregator(3L);
+        // As created by ReportCollector.createPartCollector().
+        ViolationAggregator second = new ViolationAggregator(Long.MAX_VALUE);
+        ReportCollector collector = new ReportCollector(3L, true);
+        ReportCollector partCollector = collector.createPartCollector();
+        Object[][] findings = {
+                {2L, "a"}, {3L, "a"}, {4L, "b"}, {5L, "a"},
+                {6L, "a"}, {7L, "a"}, {8L, "c"}, {9L, "d"}, {10L, "b"}, {12L, "a"}
+        };
+        for (int i = 0; i < findings.length; i++) {
+            long lineNumber = (Long) findings[i][0];
+            String value = (String) findings[i][1];
+            whole.add(MESSAGE, "Field", lineNumber, value, ViolationLevel.ERROR, value);
+            ((i < 4)?first:second).add(MESSAGE, "Field", lineNumber, value, ViolationLevel.ERROR, value);
+            ((i < 4)?collector:partCollector).record(MESSAGE, "Field", lineNumber, value, ViolationLevel.ERROR, value);
+        }
+        first.addAll(second);
+        // Group d is dropped (once three groups are retained), while b's later occurrences are still counted.
+        assertEquals(List.of(
+                "[Rows: 2-3, 5-7, 12][Field: Field]: The value 'a' is invalid. (occurrences: 6)",
+                "[Rows: 4, 10][Field: Field]: The value 'b' is invalid. (occurrences: 2)",
+                "[Row: 8][Field: Field]: The value 'c' is invalid."
+        ), render(first));
+        assertEquals(render(whole), render(first));
+        collector.merge(partCollector);
+        assertEquals(render(whole), render((ViolationAggregator) collector.getItems()));
+        assertEquals(10L, collector.getCounterErrors());
+    }
+
+    @Test
+    void appendedPartsKeepDifferingValuesAndTruncation() {
+        ViolationAggregator first = new ViolationAggregator(10L);
+        ViolationAggregator second = new ViolationAggregator(10L);
+        first.add(MESSAGE, "Field", 2L, "a", ViolationLevel.ERROR, "x");
+        for (long lineNumber = 4L; lineNumber < 404L; lineNumber += 2) {
+            second.add(MESSAGE, "Field", lineNumber, (lineNumber == 6L)?"b":"a", ViolationLevel.ERROR, "x");
+        }
+        first.addAll(second);
+        assertNull(first.getValue(0));
+        assertEquals(201L, first.getOccurrences(0));
+        assertTrue(render(first).get(0).contains(", ...]"), render(first).get(0));
+    }
+
+    /**
+     * @param aggregator The aggregator.
+     * @return The report messages of its groups.
+     */
+    private static List<String> render(ViolationAggregator aggregator) {
+        List<String> messages = new ArrayList<>();
+        for (int i = 0; i < aggregator.size(); i++) {
+            StringBuilder builder = new StringBuilder();
+            aggregator.appendReportMessage(i, builder);
+            messages.add(builder.toString());
+        }
+        return messages;
+    }
+
+    /**
+     * @param aggregator The aggregator.
+     * @return The line numbers of its groups' first occurrences.
+     */
+    private static List<Long> lineNumbers(ViolationAggregator aggregator) {
+        List<Long> lineNumbers = new ArrayList<>();
+        for (int i = 0; i < aggregator.size(); i++) {
+            lineNumbers.add(aggregator.getLineNumber(i));
+        }
+        return lineNumbers;
+    }
+
+}
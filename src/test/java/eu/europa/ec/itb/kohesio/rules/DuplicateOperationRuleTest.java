@@ -0,0 +1,100 @@
+package eu.europa.ec.itb.kohesio.rules;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Tests for the DuplicateOperationRule.
+ */
+class DuplicateOperationRuleTest {
+
+    @Test
+    void repeatedIdentifiersAreReportedWithTheFirstRow() {
+        String content = "Operation_Unique_Identifier,Operation_Name\r\n"
+                + "OP-1,First\r\n"
+                + "OP-2,Second\r\n"
+                + "OP-1,Third\r\n"
+                + "OP-3,Fourth\r\n"
+                + "OP-1,Fifth\r\n"
+                + "OP-2,Sixth\r\n";
+        assertEquals(List.of(
+                "ERROR|Operation_Unique_Identifier|4|OP-1|The value 'OP-1' for field Operation_Unique_Identifier is already used in row 2.",
+                "ERROR|Operation_Unique_Identifier|6|OP-1|The value 'OP-1' for field Operation_Unique_Identifier is already used in row 2.",
+                "ERROR|Operation_Unique_Identifier|7|OP-2|The value 'OP-2' for field Operation_Unique_Identifier is already used in row 3."
+        ), TestRules.validate(new DuplicateOperationRule(), content));
+    }
+
+    @Test
+    void compositeKeysAreComparedOnAllFields() {
+        String content = "Operation_Unique_Identifier,Beneficiary_Name\r\n"
+                + "OP-1,Alpha\r\n"
+                + "OP-1,Beta\r\n"
+                + "OP-1,Alpha\r\n"
+                + "OP-1A,lpha\r\n"
+                + "OP-2,Beta\r\n";
+        assertEquals(List.of(
+                "ERROR|Operation_Unique_Identifier|4|OP-1|The combination of values for fields [Operation_Unique_Identifier, Beneficiary_Name] is already used in row 2."
+        ), TestRules.validate(new DuplicateOperationRule("Operation_Unique_Identifier", "Beneficiary_Name"), content));
+    }
+
+    @Test
+    void blankKeysAreSkipped() {
+        String content = "Operation_Unique_Identifier,Beneficiary_Name\r\n"
+                + ",Alpha\r\n"
+                + ",Alpha\r\n"
+                + " ,Alpha\r\n"
+                + "OP-1, \r\n"
+                + "OP-1, \r\n"
+                + "OP-1\r\n"
+                + "OP-1\r\n";
+        assertEquals(List.of(), TestRules.validate(new DuplicateOperationRule(), "Operation_Unique_Identifier\r\n\r\n \r\n \r\n"));
+        assertEquals(List.of(), TestRules.validate(new DuplicateOperationRule("Operation_Unique_Identifier", "Beneficiary_Name"), content));
+    }
+
+    @Test
+    void missingKeyFieldsDisableTheRule() {
+        assertEquals(List.of(), TestRules.validate(new DuplicateOperationRule("Operation_Unique_Identifier", "Beneficiary_Name"), "Operation_Unique_Identifier\r\nOP-1\r\nOP-1\r\n"));
+    }
+
+    @Test
+    void fingerprintCollisionsAreNotReported() {
+        // All keys share the same fingerprint, so that only their second hash and actual values tell them apart.
+        DuplicateOperationRule rule = new DuplicateOperationRule((record, keyIndexes) -> 42L, (record, keyIndexes) -> record.get(keyIndexes[0]).hashCode(), "Operation_Unique_Identifier");
+        String content = "Operation_Unique_Identifier\r\n"
+                + "OP-1\r\n"
+                + "OP-2\r\n"
+                + "OP-3\r\n"
+                + "OP-2\r\n"
+                + "OP-1\r\n"
+                + "OP-3\r\n"
+                + "OP-4\r\n";
+        assertEquals(List.of(
+                "ERROR|Operation_Unique_Identifier|5|OP-2|The value 'OP-2' for field Operation_Unique_Identifier is already used in row 3.",
+                "ERROR|Operation_Unique_Identifier|6|OP-1|The value 'OP-1' for field Operation_Unique_Identifier is already used in row 2.",
+                "ERROR|Operation_Unique_Identifier|7|OP-3|The value 'OP-3' for field Operation_Unique_Identifier is already used in row 4."
+        ), TestRules.validate(rule, content));
+    }
+
+    @Test
+    void secondHashCollisionsAreNotReported() {
+        // All keys share both hashes, so that only their actual values tell them apart.
+        DuplicateOperationRule rule = new DuplicateOperationRule((record, keyIndexes) -> 42L, (record, keyIndexes) -> 7L, "Operation_Unique_Identifier", "Beneficiary_Name");
+        String content = "Operation_Unique_Identifier,Beneficiary_Name\r\n"
+                + "OP-1,Alpha\r\n"
+                + "OP-1,Beta\r\n"
+                + "OP-2,Alpha\r\n"
+                + "OP-1,Beta\r\n"
+                + "OP-1,Alphb\r\n"
+                + "OP-2,Alpha\r\n"
+                + "OP-1,Alpha\r\n";
+        assertEquals(List.of(
+                "ERROR|Operation_Unique_Identifier|5|OP-1|The combination of values for fields [Operation_Unique_Identifier, Beneficiary_Name] is already used in row 3.",
+                "ERROR|Operation_Unique_Identifier|7|OP-2|The combination of values for fields [Operation_Unique_Identifier, Beneficiary_Name] is already used in row 4.",
+                "ERROR|Operation_Unique_Identifier|8|OP-1|The combination of values for fields [Operation_Unique_Identifier, Beneficiary_Name] is already used in row 2."
+        ), TestRules.validate(rule, content));
+    }
+
+}
@@ -0,0 +1,151 @@
+package eu.europa.ec.itb.kohesio.rules;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests for the RuleDefinitions and the rules they compile to.
+ */
+class RuleDefinitionsTest {
+
+    private static final String DEFINITIONS = "rules = fund, contact, period\n"
+            + "fund.type = requiredUnlessIn\n"
+            + "fund.field = Fund\n"
+            + "fund.conditionField = Category\n"
+            + "fund.values = NONE, EXEMPT\n"
+            + "contact.type = atLeastOne\n"
+            + "contact.fields = Email, Phone\n"
+            + "contact.level = warning\n"
+            + "contact.message = Provide a way to contact the beneficiary.\n"
+            + "period.type = dateOrder\n"
+            + "period.startField = Start\n"
+            + "period.endField = End\n"
+            + "period.level = INFO\n";
+    private static final String CONTENT = "Category,Fund,Email,Phone,Start,End\r\n"
+            + "A,ERDF,a@example.com,,01/01/2020,31/12/2020\r\n"
+            + "A,,,,01/01/2021,31/12/2020\r\n"
+            + "NONE,,,123,1/2/2020,1/1/2020\r\n"
+            + " ,,x@example.com,,,01/01/2020\r\n"
+            + "B, ,,,31/02/2020,01/01/2020\r\n"
+            + "EXEMPT,,,,01/01/2020,01/01/2020\r\n"
+            + " NONE,,, ,2020-01-01,01/01/2019\r\n"
+            + "A\r\n"
+            + "C,,,,05/05/2025,04/05/2025\r\n"
+            + "NONE,,e@example.com,,,\r\n"
+            + "B,,,,01/01/2020,\r\n";
+
+    @Test
+    void definitionsAreCompiledInOrder() {
+        RuleDefinitions definitions = load(DEFINITIONS);
+        assertEquals(List.of("fund", "contact", "period"), definitions.getRules().stream().map(Rule::getName).collect(Collectors.toList()));
+        assertTrue(definitions.getRules().get(0) instanceof RequiredUnlessInRule);
+        assertTrue(definitions.getRules().get(1) instanceof AtLeastOneRule);
+        assertTrue(definitions.getRules().get(2) instanceof DateOrderRule);
+        assertEquals(64, definitions.getDigest().length());
+        assertEquals(definitions.getDigest(), load(DEFINITIONS).getDigest());
+        assertNotEquals(definitions.getDigest(), load(DEFINITIONS + "other = value\n").getDigest());
+    }
+
+    @Test
+    void noRulesAreDeclaredWithoutRulesProperty() {
+        assertTrue(load("fund.type = requiredUnlessIn\n").getRules().isEmpty());
+    }
+
+    @Test
+    void requiredUnlessInRuleReportsMissingFields() {
+        assertEquals(List.of(
+                "ERROR|Fund|3|null|Field Fund is required when Category is 'A'.",
+                "ERROR|Fund|6|null|Field Fund is required when Category is 'B'.",
+                "ERROR|Fund|8|null|Field Fund is required when Category is ' NONE'.",
+                "ERROR|Fund|9|null|Field Fund is required when Category is 'A'.",
+                "ERROR|Fund|10|null|Field Fund is required when Category is 'C'.",
+                "ERROR|Fund|12|null|Field Fund is required when Category is 'B'."
+        ), validateBothWays(load(DEFINITIONS).getRules().get(0)));
+    }
+
+    @Test
+    void atLeastOneRuleReportsRowsWithoutAnyField() {
+        String message = "WARNING|null|%s|null|Provide a way to contact the beneficiary.";
+        assertEquals(Stream.of(3, 6, 7, 8, 9, 10, 12).map((line) -> String.format(message, line)).collect(Collectors.toList()), validateBothWays(load(DEFINITIONS).getRules().get(1)));
+    }
+
+    @Test
+    void dateOrderRuleReportsReversedDates() {
+        assertEquals(List.of(
+                "INFO|Start|3|01/01/2021|The Start '01/01/2021' must not be after the End '31/12/2020'.",
+                // Dates are resolved to the end of the month (and must have two-digit days and months).
+                "INFO|Start|6|31/02/2020|The Start '29/02/2020' must not be after the End '01/01/2020'.",
+                "INFO|Start|10|05/05/2025|The Start '05/05/2025' must not be after the End '04/05/2025'."
+        ), validateBothWays(load(DEFINITIONS).getRules().get(2)));
+    }
+
+    @Test
+    void rulesOnlyApplyToFilesWithTheirFields() {
+        for (Rule rule: load(DEFINITIONS).getRules()) {
+            assertFalse(rule.bind(TestRules.parse("Other\r\nvalue\r\n").parser).isPresent(), rule.getName());
+        }
+    }
+
+    /**
+     * @return Invalid definitions (as description, definitions and expected start of the error message).
+     */
+    static Stream<Arguments> invalidDefinitions() {
+        return Stream.of(
+                Arguments.of("unknown type", "rules = a\na.type = unknown\n", "Rule [a] has unknown type [unknown]"),
+                Arguments.of("missing type", "rules = a\na.field = Fund\n", "Rule [a] requires property [a.type]"),
+                Arguments.of("unknown level", "rules = a\na.type = atLeastOne\na.fields = Email\na.level = fatal\n", "Rule [a] has unknown level [fatal]"),
+                Arguments.of("missing field", "rules = a\na.type = requiredUnlessIn\na.conditionField = Category\n", "Rule [a] requires property [a.field]"),
+                Arguments.of("missing condition field", "rules = a\na.type = requiredUnlessIn\na.field = Fund\n", "Rule [a] requires property [a.conditionField]"),
+                Arguments.of("missing fields", "rules = a\na.type = atLeastOne\na.fields = ,\n", "Rule [a] requires property [a.fields]"),
+                Arguments.of("missing start field", "rules = a\na.type = dateOrder\na.endField = End\n", "Rule [a] requires property [a.startField]"),
+                Arguments.of("blank end field", "rules = a\na.type = dateOrder\na.startField = Start\na.endField = \n", "Rule [a] requires property [a.endField]"),
+                Arguments.of("duplicate id", "rules = a, b, a\na.type = atLeastOne\na.fields = Email\nb.type = atLeastOne\nb.fields = Phone\n", "Rule [a] is listed more than once"),
+                Arguments.of("too many placeholders", "rules = a\na.type = atLeastOne\na.fields = Email\na.message = Missing %s\n", "Rule [a] has a message with 1 placeholders (expected 0)"),
+                Arguments.of("too few placeholders", "rules = a\na.type = dateOrder\na.startField = Start\na.endField = End\na.message = %s is late\n", "Rule [a] has a message with 1 placeholders (expected 2)")
+        );
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("invalidDefinitions")
+    void invalidDefinitionsAreRejected(String description, String definitions, String expectedMessage) {
+        IllegalArgumentException error = assertThrows(IllegalArgumentException.class, () -> load(definitions));
+        assertTrue(error.getMessage().startsWith(expectedMessage), error.getMessage());
+    }
+
+    /**
+     * @param definitions The definitions.
+     * @return The loaded definitions.
+     */
+    private static RuleDefinitions load(String definitions) {
+        return RuleDefinitions.load(definitions.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Validate the test content with a rule record by record and in batches (of various sizes, for values to be
+     * encoded across batches), checking that both report the same findings.
+     *
+     * @param rule The rule.
+     * @return The findings.
+     */
+    private static List<String> validateBothWays(Rule rule) {
+        List<String> findings = TestRules.validate(rule, CONTENT);
+        for (int capacity: new int[] {1, 3, 64}) {
+            assertEquals(findings, TestRules.validateInBatches(rule, CONTENT, capacity), () -> String.format("Batch findings of rule %s differ (batches of %s)", rule.getName(), capacity));
+        }
+        return findings;
+    }
+
+}
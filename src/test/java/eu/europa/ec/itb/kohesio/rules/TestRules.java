@@ -0,0 +1,132 @@
+package eu.europa.ec.itb.kohesio.rules;
+
+import eu.europa.ec.itb.kohesio.ViolationReporter;
+import eu.europa.ec.itb.kohesio.model.ColumnBatch;
+import eu.europa.ec.itb.kohesio.model.CsvRecordView;
+import eu.europa.ec.itb.kohesio.model.MessageTemplate;
+import eu.europa.ec.itb.kohesio.model.ViolationLevel;
+import org.apache.commons.csv.CSVFormat;
+import org.apache.commons.csv.CSVParser;
+import org.apache.commons.csv.CSVRecord;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Utility methods to apply rules to CSV content in tests.
+ */
+final class TestRules {
+
+    private static final CSVFormat FORMAT = CSVFormat.RFC4180.builder().setHeader().get();
+
+    private TestRules() {}
+
+    /**
+     * Parse CSV content (with a header).
+     *
+     * @param content The content.
+     * @return The parser (with all records read).
+     */
+    static ParsedContent parse(String content) {
+        try {
+            CSVParser parser = FORMAT.parse(new StringReader(content));
+            return new ParsedContent(parser, parser.getRecords());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Validate CSV content record by record with a rule, including any additional passes it requests.
+     *
+     * @param rule The rule.
+     * @param content The content (with a header).
+     * @return The findings (empty if the rule does not apply to the header).
+     */
+    static List<String> validate(Rule rule, String content) {
+        ParsedContent parsed = parse(content);
+        Optional<BoundRule> bound = rule.bind(parsed.parser);
+        Recorder recorder = new Recorder();
+        if (bound.isPresent()) {
+            Optional<BoundRule> pass = Optional.of(bound.get().createForFile());
+            CsvRecordView view = new CsvRecordView();
+            while (pass.isPresent()) {
+                for (CSVRecord record: parsed.records) {
+                    view.setRecord(record);
+                    pass.get().validate(view, record.getRecordNumber() + 1, recorder);
+                }
+                pass = pass.get().endFile(recorder);
+            }
+        }
+        return recorder.findings;
+    }
+
+    /**
+     * Validate CSV content in batches with a batch rule (reusing the same batch for all records).
+     *
+     * @param rule The rule (bound to a batch rule).
+     * @param content The content (with a header).
+     * @param capacity The number of records per batch.
+     * @return The findings (empty if the rule does not apply to the header).
+     */
+    static List<String> validateInBatches(Rule rule, String content, int capacity) {
+        ParsedContent parsed = parse(content);
+        Optional<BoundRule> bound = rule.bind(parsed.parser);
+        Recorder recorder = new Recorder();
+        if (bound.isPresent()) {
+            BatchRule batchRule = (BatchRule) bound.get().createForFile();
+            ColumnBatch batch = new ColumnBatch(batchRule.getColumns(), capacity);
+            CsvRecordView view = new CsvRecordView();
+            for (CSVRecord record: parsed.records) {
+                view.setRecord(record);
+                batch.add(view, record.getRecordNumber() + 1);
+                if (batch.isFull()) {
+                    batchRule.validate(batch, recorder);
+                    batch.clear();
+                }
+            }
+            batchRule.validate(batch, recorder);
+        }
+        return recorder.findings;
+    }
+
+    /**
+     * Parsed CSV content.
+     */
+    static class ParsedContent {
+
+        final CSVParser parser;
+        final List<CSVRecord> records;
+
+        /**
+         * Constructor.
+         *
+         * @param parser The parser (for its header).
+         * @param records The records.
+         */
+        ParsedContent(CSVParser parser, List<CSVRecord> records) {
+            this.parser = parser;
+            this.records = records;
+        }
+
+    }
+
+    /**
+     * Reporter recording findings as "level|field|line|value|message".
+     */
+    static class Recorder implements ViolationReporter {
+
+        final List<String> findings = new ArrayList<>();
+
+        @Override
+        public void record(MessageTemplate template, String fieldName, long lineNumber, String value, ViolationLevel violationLevel, String... arguments) {
+            findings.add(violationLevel + "|" + fieldName + "|" + lineNumber + "|" + value + "|" + template.render(arguments));
+        }
+
+    }
+
+}
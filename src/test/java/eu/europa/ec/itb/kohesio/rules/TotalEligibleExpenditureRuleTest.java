@@ -0,0 +1,51 @@
+package eu.europa.ec.itb.kohesio.rules;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Tests for the TotalEligibleExpenditureRule.
+ */
+class TotalEligibleExpenditureRuleTest {
+
+    private static final String HEADER = "Total_Eligible_Expenditure_Currency,Total_Eligible_Expenditure_Exchange_Rate\r\n";
+    private static final String ROWS = "EUR,\r\nPLN,\r\nPLN,4.3\r\n ,\r\nRON\r\nEUR,1\r\n";
+
+    @Test
+    void rateIsRequiredForOtherCurrencies() {
+        assertEquals(List.of(
+                "ERROR|Total_Eligible_Expenditure_Exchange_Rate|3|null|The total eligible expenditure exchange rate is required for the provided currency 'PLN'.",
+                "ERROR|Total_Eligible_Expenditure_Exchange_Rate|6|null|The total eligible expenditure exchange rate is required for the provided currency 'RON'."
+        ), validateBothWays(HEADER + ROWS));
+    }
+
+    @Test
+    void currenciesBeyondTheDictionarySizeAreChecked() {
+        // Fill the currency column's dictionary with distinct values before the checked rows.
+        StringBuilder content = new StringBuilder(HEADER);
+        for (int i = 0; i < 5000; i++) {
+            content.append('C').append(i).append(",1\r\n");
+        }
+        content.append(ROWS);
+        assertEquals(List.of(
+                "ERROR|Total_Eligible_Expenditure_Exchange_Rate|5003|null|The total eligible expenditure exchange rate is required for the provided currency 'PLN'.",
+                "ERROR|Total_Eligible_Expenditure_Exchange_Rate|5006|null|The total eligible expenditure exchange rate is required for the provided currency 'RON'."
+        ), validateBothWays(content.toString()));
+    }
+
+    /**
+     * Validate content record by record and in batches, checking that both report the same findings.
+     *
+     * @param content The content.
+     * @return The findings.
+     */
+    private static List<String> validateBothWays(String content) {
+        List<String> findings = TestRules.validate(new TotalEligibleExpenditureRule(), content);
+        assertEquals(findings, TestRules.validateInBatches(new TotalEligibleExpenditureRule(), content, 4096));
+        return findings;
+    }
+
+}
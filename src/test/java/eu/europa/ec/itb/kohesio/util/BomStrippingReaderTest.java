@@ -0,0 +1,185 @@
+package eu.europa.ec.itb.kohesio.util;
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.PushbackInputStream;
+import java.io.Reader;
+import java.nio.channels.Channels;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Tests for the BomStrippingReader, comparing its results to those of the InputStreamReader-based decoding it replaced.
+ */
+class BomStrippingReaderTest {
+
+    private static final String TEXT = "Id,Name\r\nOP-1,\"R\u00e9novation \u20ac \ud83d\ude00\"\r\n";
+    private static final byte[] UTF_8_BOM = {(byte) 0xEF, (byte) 0xBB, (byte) 0xBF};
+    private static final byte[] UTF_16BE_BOM = {(byte) 0xFE, (byte) 0xFF};
+    private static final byte[] UTF_16LE_BOM = {(byte) 0xFF, (byte) 0xFE};
+    private static final byte[] UTF_32BE_BOM = {0x00, 0x00, (byte) 0xFE, (byte) 0xFF};
+    private static final byte[] UTF_32LE_BOM = {(byte) 0xFF, (byte) 0xFE, 0x00, 0x00};
+
+    /**
+     * @return The contents to decode (as description and bytes).
+     */
+    static Stream<Arguments> contents() {
+        Charset utf32be = Charset.forName("UTF-32BE");
+        Charset utf32le = Charset.forName("UTF-32LE");
+        String longText = TEXT.repeat(20000);
+        return Stream.of(
+                Arguments.of("no BOM", TEXT.getBytes(StandardCharsets.UTF_8)),
+                Arguments.of("UTF-8 BOM", concat(UTF_8_BOM, TEXT.getBytes(StandardCharsets.UTF_8))),
+                Arguments.of("UTF-16BE BOM", concat(UTF_16BE_BOM, TEXT.getBytes(StandardCharsets.UTF_16BE))),
+                Arguments.of("UTF-16LE BOM", concat(UTF_16LE_BOM, TEXT.getBytes(StandardCharsets.UTF_16LE))),
+                Arguments.of("UTF-32BE BOM", concat(UTF_32BE_BOM, TEXT.getBytes(utf32be))),
+                Arguments.of("UTF-32LE BOM", concat(UTF_32LE_BOM, TEXT.getBytes(utf32le))),
+                // Content across several buffers, with sequences crossing the buffers' ends.
+                Arguments.of("long UTF-8", concat(UTF_8_BOM, longText.getBytes(StandardCharsets.UTF_8))),
+                Arguments.of("long UTF-16LE", concat(UTF_16LE_BOM, longText.getBytes(StandardCharsets.UTF_16LE))),
+                // Content shorter than 4 bytes.
+                Arguments.of("empty", new byte[0]),
+                Arguments.of("one byte", new byte[] {'a'}),
+                Arguments.of("two bytes", new byte[] {'a', 'b'}),
+                Arguments.of("three bytes", new byte[] {'a', 'b', 'c'}),
+                Arguments.of("UTF-8 BOM only", UTF_8_BOM),
+                Arguments.of("UTF-16BE BOM only", UTF_16BE_BOM),
+                Arguments.of("UTF-16LE BOM only", UTF_16LE_BOM),
+                Arguments.of("UTF-16LE BOM and one byte", new byte[] {(byte) 0xFF, (byte) 0xFE, 'a'}),
+                Arguments.of("UTF-16BE BOM and one byte", new byte[] {(byte) 0xFE, (byte) 0xFF, 0x00}),
+                Arguments.of("UTF-32BE BOM only", UTF_32BE_BOM),
+                Arguments.of("UTF-32LE BOM only", UTF_32LE_BOM),
+                Arguments.of("partial UTF-8 BOM", new byte[] {(byte) 0xEF, (byte) 0xBB}),
+                // Surrogate pairs only.
+                Arguments.of("UTF-8 surrogate pairs", "\ud83d\ude00\ud83d\ude01".getBytes(StandardCharsets.UTF_8)),
+                Arguments.of("UTF-16LE surrogate pairs", concat(UTF_16LE_BOM, "\ud83d\ude00\ud83d\ude01".getBytes(StandardCharsets.UTF_16LE))),
+                Arguments.of("UTF-32BE surrogate pairs", concat(UTF_32BE_BOM, "\ud83d\ude00\ud83d\ude01".getBytes(utf32be))),
+                // Malformed input.
+                Arguments.of("UTF-8 truncated sequence", concat(TEXT.getBytes(StandardCharsets.UTF_8), new byte[] {(byte) 0xE2, (byte) 0x82})),
+                Arguments.of("UTF-8 truncated surrogate pair", concat(UTF_8_BOM, TEXT.getBytes(StandardCharsets.UTF_8), new byte[] {(byte) 0xF0, (byte) 0x9F, (byte) 0x98})),
+                Arguments.of("UTF-8 invalid bytes", concat(TEXT.getBytes(StandardCharsets.UTF_8), new byte[] {(byte) 0xFF, 'a', (byte) 0xC0, (byte) 0x80})),
+                Arguments.of("UTF-16BE odd byte count", concat(UTF_16BE_BOM, TEXT.getBytes(StandardCharsets.UTF_16BE), new byte[] {0x00})),
+                Arguments.of("UTF-16LE unpaired surrogate", concat(UTF_16LE_BOM, TEXT.getBytes(StandardCharsets.UTF_16LE), new byte[] {0x3D, (byte) 0xD8})),
+                Arguments.of("UTF-32LE truncated", concat(UTF_32LE_BOM, TEXT.getBytes(utf32le), new byte[] {'a', 0x00})),
+                Arguments.of("UTF-32BE invalid code point", concat(UTF_32BE_BOM, new byte[] {0x00, 0x11, 0x00, 0x00}, TEXT.getBytes(utf32be)))
+        );
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("contents")
+    void decodingMatchesInputStreamReader(String description, byte[] content) throws IOException {
+        for (int bufferSize: new int[] {1, 2, 3, 8192}) {
+            String expected = readAll(legacyReader(new ByteArrayInputStream(content)), bufferSize);
+            assertEquals(expected, readAll(new BomStrippingReader(new ByteArrayInputStream(content)), bufferSize), () -> String.format("Stream decoding differs (buffer of %s)", bufferSize));
+            assertEquals(expected, readAll(new BomStrippingReader(Channels.newChannel(new ByteArrayInputStream(content))), bufferSize), () -> String.format("Channel decoding differs (buffer of %s)", bufferSize));
+            // The BOM is also detected if the stream returns fewer bytes than requested.
+            assertEquals(expected, readAll(new BomStrippingReader(new OneByteInputStream(content)), bufferSize), () -> String.format("Decoding byte by byte differs (buffer of %s)", bufferSize));
+        }
+    }
+
+    /**
+     * Read all chars of a reader.
+     *
+     * @param reader The reader (closed once read).
+     * @param bufferSize The size of the buffer to read with.
+     * @return The chars.
+     * @throws IOException If the reader fails.
+     */
+    private static String readAll(Reader reader, int bufferSize) throws IOException {
+        StringBuilder result = new StringBuilder();
+        char[] buffer = new char[bufferSize];
+        try (reader) {
+            int read;
+            while ((read = reader.read(buffer, 0, bufferSize)) >= 0) {
+                result.append(buffer, 0, read);
+            }
+        }
+        return result.toString();
+    }
+
+    /**
+     * Create a reader as the BomStrippingReader did before decoding from its own buffer (with an InputStreamReader
+     * over the stream from which the BOM was read and unread).
+     *
+     * @param in The stream to read.
+     * @return The reader.
+     * @throws IOException If the stream cannot be read.
+     */
+    private static Reader legacyReader(InputStream in) throws IOException {
+        String charsetName = "UTF-8";
+        PushbackInputStream pushbackStream = new PushbackInputStream(in, 4);
+        byte[] buffer = new byte[4];
+        int bytesRead = pushbackStream.read(buffer, 0, buffer.length);
+        int unread;
+        if (bytesRead >= 4 && buffer[0] == (byte) 0x00 && buffer[1] == (byte) 0x00 && buffer[2] == (byte) 0xFE && buffer[3] == (byte) 0xFF) {
+            charsetName = "UTF-32BE";
+            unread = bytesRead - 4;
+        } else if (bytesRead >= 4 && buffer[0] == (byte) 0xFF && buffer[1] == (byte) 0xFE && buffer[2] == (byte) 0x00 && buffer[3] == (byte) 0x00) {
+            charsetName = "UTF-32LE";
+            unread = bytesRead - 4;
+        } else if (bytesRead >= 3 && buffer[0] == (byte) 0xEF && buffer[1] == (byte) 0xBB && buffer[2] == (byte) 0xBF) {
+            unread = bytesRead - 3;
+        } else if (bytesRead >= 2 && buffer[0] == (byte) 0xFE && buffer[1] == (byte) 0xFF) {
+            charsetName = "UTF-16BE";
+            unread = bytesRead - 2;
+        } else if (bytesRead >= 2 && buffer[0] == (byte) 0xFF && buffer[1] == (byte) 0xFE) {
+            charsetName = "UTF-16LE";
+            unread = bytesRead - 2;
+        } else {
+            unread = bytesRead;
+        }
+        if (unread > 0) {
+            pushbackStream.unread(buffer, bytesRead - unread, unread);
+        }
+        return new InputStreamReader(pushbackStream, charsetName);
+    }
+
+    /**
+     * @param parts Byte arrays.
+     * @return The arrays' bytes one after the other.
+     */
+    private static byte[] concat(byte[]... parts) {
+        int length = 0;
+        for (byte[] part: parts) {
+            length += part.length;
+        }
+        byte[] result = new byte[length];
+        int offset = 0;
+        for (byte[] part: parts) {
+            System.arraycopy(part, 0, result, offset, part.length);
+            offset += part.length;
+        }
+        return result;
+    }
+
+    /**
+     * Stream returning at most one byte per read.
+     */
+    private static class OneByteInputStream extends ByteArrayInputStream {
+
+        /**
+         * Constructor.
+         *
+         * @param content The stream's bytes.
+         */
+        OneByteInputStream(byte[] content) {
+            super(content);
+        }
+
+        @Override
+        public synchronized int read(byte[] buffer, int offset, int length) {
+            return super.read(buffer, offset, Math.min(length, 1));
+        }
+
+    }
+
+}
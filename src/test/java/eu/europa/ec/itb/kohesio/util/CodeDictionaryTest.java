@@ -0,0 +1,72 @@
+package eu.europa.ec.itb.kohesio.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.BitSet;
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+/**
+ * Tests for the CodeDictionary.
+ */
+class CodeDictionaryTest {
+
+    @Test
+    void valuesAreEncodedByCharacters() {
+        CodeDictionary dictionary = new CodeDictionary();
+        assertEquals(0, dictionary.encode("EUR"));
+        assertEquals(1, dictionary.encode(new StringBuilder("PLN")));
+        assertEquals(0, dictionary.encode(new StringBuilder("EUR")));
+        assertEquals(2, dictionary.encode(" EUR"));
+        assertEquals(1, dictionary.find("PLN"));
+        assertEquals(CodeDictionary.NO_CODE, dictionary.find("RON"));
+        assertEquals("PLN", dictionary.decode(1));
+        assertEquals(3, dictionary.size());
+    }
+
+    @Test
+    void valuesBeyondTheMaximumSizeAreNotEncoded() {
+        CodeDictionary dictionary = new CodeDictionary();
+        for (int i = 0; i < CodeDictionary.DEFAULT_MAXIMUM_SIZE; i++) {
+            assertEquals(i, dictionary.encode("V" + i));
+        }
+        assertEquals(CodeDictionary.NOT_ENCODED, dictionary.encode("EUR"));
+        assertEquals(CodeDictionary.NO_CODE, dictionary.find("EUR"));
+        // Values already in the dictionary keep their code.
+        assertEquals(17, dictionary.encode("V17"));
+        assertEquals(CodeDictionary.DEFAULT_MAXIMUM_SIZE - 1, dictionary.encode("V" + (CodeDictionary.DEFAULT_MAXIMUM_SIZE - 1)));
+        assertEquals(CodeDictionary.DEFAULT_MAXIMUM_SIZE, dictionary.size());
+    }
+
+    @Test
+    void membersAreKeptPerSetIdentity() {
+        CodeDictionary dictionary = new CodeDictionary(4);
+        dictionary.encode("EUR");
+        dictionary.encode("PLN");
+        Set<String> euro = Set.of("EUR");
+        Set<String> euroCopy = new HashSet<>(euro);
+        Set<String> nonEuro = Set.of("PLN", "RON", "HUF");
+        BitSet euroMembers = dictionary.getMembers(euro);
+        BitSet nonEuroMembers = dictionary.getMembers(nonEuro);
+        assertSame(euroMembers, dictionary.getMembers(euro));
+        assertNotSame(euroMembers, dictionary.getMembers(euroCopy));
+        assertEquals(BitSet.valueOf(new long[] {0b01}), euroMembers);
+        assertEquals(BitSet.valueOf(new long[] {0b10}), nonEuroMembers);
+        // Values added later are added to the members of all sets.
+        assertEquals(2, dictionary.encode("RON"));
+        assertEquals(3, dictionary.encode("EUR "));
+        assertEquals(BitSet.valueOf(new long[] {0b0001}), euroMembers);
+        assertEquals(BitSet.valueOf(new long[] {0b0001}), dictionary.getMembers(euroCopy));
+        assertEquals(BitSet.valueOf(new long[] {0b0110}), nonEuroMembers);
+        // Values not encoded are not members.
+        assertEquals(CodeDictionary.NOT_ENCODED, dictionary.encode("HUF"));
+        assertEquals(BitSet.valueOf(new long[] {0b0110}), nonEuroMembers);
+        // Members of a set first requested once values were added cover them all.
+        assertEquals(BitSet.valueOf(new long[] {0b1100}), dictionary.getMembers(Set.of("RON", "EUR ", "HUF")));
+    }
+
+}
@@ -0,0 +1,207 @@
+package eu.europa.ec.itb.kohesio.util;
+
+import com.gitb.core.AnyContent;
+import com.gitb.tr.TAR;
+import com.gitb.tr.TestResultType;
+import com.gitb.vs.ValidateRequest;
+import eu.europa.ec.itb.kohesio.PluginInterface;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.zip.GZIPOutputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipException;
+import java.util.zip.ZipOutputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Tests for the Compression.
+ */
+class CompressionTest {
+
+    private static final byte[] CONTENT = "Operation_Unique_Identifier,Operation_Name\r\nOP-1,First\r\nOP-1,Second\r\n".getBytes(StandardCharsets.UTF_8);
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void singleFileArchivesAreDecompressed() throws IOException {
+        Path gzip = write("content.gz", gzip(CONTENT));
+        Path zip = write("content.zip", zip(new String[] {"folder/", "folder/content.csv"}, new byte[][] {null, CONTENT}));
+        assertEquals(Compression.GZIP, Compression.detect(gzip));
+        assertEquals(Compression.ZIP, Compression.detect(zip));
+        assertEquals(new String(CONTENT, StandardCharsets.UTF_8), read(Compression.GZIP, gzip));
+        assertEquals(new String(CONTENT, StandardCharsets.UTF_8), read(Compression.ZIP, zip));
+        assertEquals(1, validate(zip).getCounters().getNrOfErrors().intValue());
+    }
+
+    @Test
+    void archivesWithSeveralFilesAreRejected() throws IOException {
+        Path zip = write("content.zip", zip(new String[] {"first.csv", "second.csv"}, new byte[][] {CONTENT, CONTENT}));
+        assertEquals(Compression.ZIP, Compression.detect(zip));
+        assertThrows(ZipException.class, () -> Compression.ZIP.open(zip));
+        assertValidationFails(zip, ZipException.class);
+    }
+
+    @Test
+    void archivesWithoutFilesAreRejected() throws IOException {
+        Path empty = write("empty.zip", zip(new String[0], new byte[0][]));
+        Path directoryOnly = write("directory.zip", zip(new String[] {"folder/"}, new byte[][] {null}));
+        // An empty archive only consists of its end record.
+        assertEquals(Compression.ZIP, Compression.detect(empty));
+        assertEquals(Compression.ZIP, Compression.detect(directoryOnly));
+        assertThrows(ZipException.class, () -> Compression.ZIP.open(empty));
+        assertThrows(ZipException.class, () -> Compression.ZIP.open(directoryOnly));
+        assertValidationFails(empty, ZipException.class);
+        assertValidationFails(directoryOnly, ZipException.class);
+    }
+
+    @Test
+    void truncatedGzipContentFails() throws IOException {
+        byte[] compressed = gzip(manyRecords());
+        Path truncated = write("truncated.gz", Arrays.copyOf(compressed, compressed.length / 2));
+        assertEquals(Compression.GZIP, Compression.detect(truncated));
+        assertThrows(EOFException.class, () -> read(Compression.GZIP, truncated));
+        assertValidationFails(truncated, EOFException.class);
+    }
+
+    @Test
+    void corruptGzipContentFails() throws IOException {
+        byte[] compressed = gzip(manyRecords());
+        // Corrupt the deflated data (following the 10-byte header).
+        for (int i = 10; i < 60; i++) {
+            compressed[i] ^= 0x55;
+        }
+        Path corrupt = write("corrupt.gz", compressed);
+        assertEquals(Compression.GZIP, Compression.detect(corrupt));
+        assertThrows(ZipException.class, () -> read(Compression.GZIP, corrupt));
+        assertValidationFails(corrupt, ZipException.class);
+    }
+
+    @Test
+    void filesShorterThanMagicNumbersAreUncompressed() throws IOException {
+        assertEquals(Compression.NONE, Compression.detect(write("empty", new byte[0])));
+        assertEquals(Compression.NONE, Compression.detect(write("gzip", new byte[] {0x1F})));
+        Path zipStart = write("zip", new byte[] {0x50, 0x4B, 0x03});
+        assertEquals(Compression.NONE, Compression.detect(zipStart));
+        assertEquals("PK\u0003", read(Compression.NONE, zipStart));
+        assertEquals(TestResultType.SUCCESS, validate(zipStart).getResult());
+    }
+
+    /**
+     * Assert that validating a file fails with an IllegalStateException caused by the given exception.
+     *
+     * @param file The file.
+     * @param causeType The type of the exception's cause.
+     */
+    private static void assertValidationFails(Path file, Class<? extends Exception> causeType) {
+        IllegalStateException error = assertThrows(IllegalStateException.class, () -> validate(file));
+        assertInstanceOf(causeType, error.getCause());
+    }
+
+    /**
+     * Validate a file (using a comma delimiter and double quotes).
+     *
+     * @param file The file.
+     * @return The report.
+     */
+    private static TAR validate(Path file) {
+        ValidateRequest request = new ValidateRequest();
+        request.getInput().add(input("contentToValidate", file.toString()));
+        request.getInput().add(input("delimiter", ","));
+        request.getInput().add(input("quote", "\""));
+        return new PluginInterface().validate(request).getReport();
+    }
+
+    /**
+     * @param name The input's name.
+     * @param value The input's value.
+     * @return The input.
+     */
+    private static AnyContent input(String name, String value) {
+        AnyContent input = new AnyContent();
+        input.setName(name);
+        input.setValue(value);
+        return input;
+    }
+
+    /**
+     * Read a file's decompressed content.
+     *
+     * @param compression The compression.
+     * @param file The file.
+     * @return The content (as UTF-8).
+     * @throws IOException If the file cannot be read.
+     */
+    private static String read(Compression compression, Path file) throws IOException {
+        try (InputStream in = compression.open(file)) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+
+    /**
+     * @param name The file's name.
+     * @param content The file's content.
+     * @return The file (in the test directory).
+     * @throws IOException If the file cannot be written.
+     */
+    private Path write(String name, byte[] content) throws IOException {
+        return Files.write(directory.resolve(name), content);
+    }
+
+    /**
+     * @return Content large enough for its compressed form to span several blocks.
+     */
+    private static byte[] manyRecords() {
+        StringBuilder content = new StringBuilder("Operation_Unique_Identifier,Operation_Name\r\n");
+        for (int i = 0; i < 20000; i++) {
+            content.append("OP-").append(i).append(",Name ").append(i * 31 % 997).append("\r\n");
+        }
+        return content.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * @param content The content.
+     * @return The gzip-compressed content.
+     * @throws IOException If the content cannot be compressed.
+     */
+    private static byte[] gzip(byte[] content) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (GZIPOutputStream out = new GZIPOutputStream(bytes)) {
+            out.write(content);
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * @param names The entries' names (directories ending with a slash).
+     * @param contents The entries' contents (null for directories).
+     * @return The ZIP archive.
+     * @throws IOException If the archive cannot be written.
+     */
+    private static byte[] zip(String[] names, byte[][] contents) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ZipOutputStream out = new ZipOutputStream(bytes)) {
+            for (int i = 0; i < names.length; i++) {
+                out.putNextEntry(new ZipEntry(names[i]));
+                if (contents[i] != null) {
+                    out.write(contents[i]);
+                }
+                out.closeEntry();
+            }
+        }
+        return bytes.toByteArray();
+    }
+
+}
@@ -0,0 +1,119 @@
+package eu.europa.ec.itb.kohesio.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Differential tests of the DateParser against DateTimeFormatter.ofPattern("dd/MM/yyyy").
+ */
+class DateParserTest {
+
+    private static final DateTimeFormatter FORMATTER = DateTimeFormatter.ofPattern("dd/MM/yyyy");
+    private static final long SEED = 20240501L;
+    private static final String MUTATION_CHARACTERS = "0123456789/+- .a\u0660\uff10";
+
+    @Test
+    void parsesValidDatesAsFormatter() {
+        for (String value: validDates(new Random(SEED))) {
+            assertParsedAsFormatter(value);
+        }
+    }
+
+    @Test
+    void parsesDaysBeyondMonthEndAsFormatter() {
+        for (int year: new int[] {1, 4, 100, 1900, 2000, 2023, 2024, 2100, 9999}) {
+            for (int month = 1; month <= 12; month++) {
+                for (int day = 28; day <= 32; day++) {
+                    assertParsedAsFormatter(String.format("%02d/%02d/%04d", day, month, year));
+                }
+            }
+        }
+    }
+
+    @Test
+    void parsesSignedAndLongYearsAsFormatter() {
+        for (String year: new String[] {"+2024", "+02024", "+12024", "+999999999", "+1000000000", "+9999999999999999999", "+99999999999999999999",
+                "-2024", "-02024", "12024", "0000", "+0000", "+00000", "024", "+024", "+"}) {
+            assertParsedAsFormatter("15/06/" + year);
+            assertParsedAsFormatter("29/02/" + year);
+        }
+    }
+
+    @Test
+    void parsesInvalidInputAsFormatter() {
+        Random random = new Random(SEED);
+        for (String value: validDates(random)) {
+            // Replace, insert or remove a character.
+            StringBuilder mutated = new StringBuilder(value);
+            int position = random.nextInt(value.length());
+            char character = MUTATION_CHARACTERS.charAt(random.nextInt(MUTATION_CHARACTERS.length()));
+            switch (random.nextInt(3)) {
+                case 0: mutated.setCharAt(position, character); break;
+                case 1: mutated.insert(position, character); break;
+                default: mutated.deleteCharAt(position);
+            }
+            assertParsedAsFormatter(mutated.toString());
+        }
+        for (String value: new String[] {"", " ", "1/1/2024", "01/01/24", "01-01-2024", " 01/01/2024", "01/01/2024 ", "00/01/2024", "01/00/2024", "01/13/2024", "99/99/9999"}) {
+            assertParsedAsFormatter(value);
+        }
+    }
+
+    @Test
+    void formatsAsFormatter() {
+        Random random = new Random(SEED);
+        for (int i = 0; i < 10000; i++) {
+            long epochDay = LocalDate.of(1, 1, 1).toEpochDay() + (long) (random.nextDouble() * (LocalDate.of(99999, 12, 31).toEpochDay() - LocalDate.of(1, 1, 1).toEpochDay()));
+            assertEquals(FORMATTER.format(LocalDate.ofEpochDay(epochDay)), DateParser.format(epochDay));
+        }
+    }
+
+    @Test
+    void detectsFormattedValuesAsFormatter() {
+        for (String value: validDates(new Random(SEED))) {
+            long epochDay = DateParser.parseEpochDay(value);
+            if (epochDay != DateParser.INVALID_DATE) {
+                assertEquals(FORMATTER.format(LocalDate.ofEpochDay(epochDay)).equals(value), DateParser.isFormatted(value), value);
+            }
+        }
+    }
+
+    /**
+     * Generate valid dates (as formatted by the pattern) with days up to 31 in all months.
+     *
+     * @param random The random values.
+     * @return The dates.
+     */
+    private static List<String> validDates(Random random) {
+        List<String> values = new ArrayList<>();
+        for (int i = 0; i < 20000; i++) {
+            int year = (random.nextInt(4) == 0)?(1 + random.nextInt(9999)):(1900 + random.nextInt(200));
+            values.add(String.format("%02d/%02d/%04d", 1 + random.nextInt(31), 1 + random.nextInt(12), year));
+        }
+        return values;
+    }
+
+    /**
+     * Check that a value is parsed to the same epoch day as by the formatter.
+     *
+     * @param value The value.
+     */
+    private static void assertParsedAsFormatter(String value) {
+        long expected;
+        try {
+            expected = LocalDate.parse(value, FORMATTER).toEpochDay();
+        } catch (DateTimeParseException e) {
+            expected = DateParser.INVALID_DATE;
+        }
+        assertEquals(expected, DateParser.parseEpochDay(value), value);
+    }
+
+}
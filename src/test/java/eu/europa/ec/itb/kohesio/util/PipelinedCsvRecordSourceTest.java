@@ -0,0 +1,88 @@
+package eu.europa.ec.itb.kohesio.util;
+
+import org.apache.commons.csv.CSVFormat;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests for the PipelinedCsvRecordSource.
+ */
+class PipelinedCsvRecordSourceTest {
+
+    private static final CSVFormat FORMAT = CSVFormat.RFC4180.builder().setHeader().get();
+    private static final int ROWS = 50000;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    @Timeout(60)
+    void allOpenSourcesRunTheirStages() throws IOException {
+        Path file = writeFile();
+        List<PipelinedCsvRecordSource> sources = new ArrayList<>();
+        try {
+            // Open sources up to the limit, none being read yet so that all their stages wait for the next one.
+            Optional<PipelinedCsvRecordSource> source;
+            while ((source = PipelinedCsvRecordSource.tryOpen(file, Compression.NONE, FORMAT)).isPresent()) {
+                sources.add(source.get());
+            }
+            assertEquals(Runtime.getRuntime().availableProcessors(), sources.size());
+            sources.forEach(PipelinedCsvRecordSource::start);
+            // Read the sources in turn (each one's stages only progress while it is read).
+            for (PipelinedCsvRecordSource openSource: sources) {
+                int rows = 0;
+                while (openSource.next()) {
+                    assertEquals("OP-" + rows, openSource.current().get(0));
+                    rows += 1;
+                }
+                assertEquals(ROWS, rows);
+            }
+            // A closed source's permit is available to a new source.
+            sources.remove(0).close();
+            source = PipelinedCsvRecordSource.tryOpen(file, Compression.NONE, FORMAT);
+            assertTrue(source.isPresent());
+            sources.add(source.get());
+            assertFalse(PipelinedCsvRecordSource.tryOpen(file, Compression.NONE, FORMAT).isPresent());
+        } finally {
+            sources.forEach(PipelinedCsvRecordSource::close);
+        }
+        // Closing a source more than once releases its permit once.
+        PipelinedCsvRecordSource source = PipelinedCsvRecordSource.tryOpen(file, Compression.NONE, FORMAT).orElseThrow();
+        source.close();
+        source.close();
+        for (int i = 0; i < Runtime.getRuntime().availableProcessors(); i++) {
+            sources.add(PipelinedCsvRecordSource.tryOpen(file, Compression.NONE, FORMAT).orElseThrow());
+        }
+        try {
+            assertFalse(PipelinedCsvRecordSource.tryOpen(file, Compression.NONE, FORMAT).isPresent());
+        } finally {
+            sources.forEach(PipelinedCsvRecordSource::close);
+        }
+    }
+
+    /**
+     * @return A CSV file with an identifier and a value column.
+     * @throws IOException If the file cannot be written.
+     */
+    private Path writeFile() throws IOException {
+        StringBuilder content = new StringBuilder("Id,Value\r\n");
+        for (int i = 0; i < ROWS; i++) {
+            content.append("OP-").append(i).append(",\"value ").append(i).append("\"\r\n");
+        }
+        return Files.write(directory.resolve("content.csv"), content.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+}
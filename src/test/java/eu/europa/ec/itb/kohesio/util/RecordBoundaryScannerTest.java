@@ -0,0 +1,78 @@
+package eu.europa.ec.itb.kohesio.util;
+
+import eu.europa.ec.itb.kohesio.model.FileChunk;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests for the RecordBoundaryScanner.
+ */
+class RecordBoundaryScannerTest {
+
+    private static final String HEADER = "\"Notes\r\n(free text)\",Operation_Unique_Identifier\r\n";
+    private static final String RECORDS = "a,OP-1\r\n\"b\nc\",OP-2\r\nd,OP-3\r\n";
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void headerChunkCoversQuotedMultiLineField() throws IOException {
+        assertChunks(scan(HEADER + RECORDS, false), 0);
+    }
+
+    @Test
+    void headerChunkCoversQuotedMultiLineFieldAfterBom() throws IOException {
+        assertChunks(scan(HEADER + RECORDS, true), 3);
+    }
+
+    /**
+     * Check the chunks of the test content (split after each record).
+     *
+     * @param chunks The scanned chunks.
+     * @param bomLength The length of the content's BOM.
+     */
+    private static void assertChunks(Optional<List<FileChunk>> chunks, int bomLength) {
+        assertTrue(chunks.isPresent());
+        List<FileChunk> result = chunks.get();
+        assertEquals(4, result.size());
+        // The header chunk includes the BOM and the header record's two lines.
+        FileChunk header = result.get(0);
+        assertEquals(0L, header.getStartOffset());
+        assertEquals(bomLength + HEADER.length(), header.getEndOffset());
+        assertEquals(0L, header.getPrecedingLines());
+        assertEquals(2L, result.get(1).getPrecedingLines());
+        // The second record spans two lines.
+        assertEquals(3L, result.get(2).getPrecedingLines());
+        assertEquals(5L, result.get(3).getPrecedingLines());
+        assertEquals(bomLength + HEADER.length() + RECORDS.length(), result.get(3).getEndOffset());
+    }
+
+    /**
+     * Scan content with a chunk size that closes a chunk after each record.
+     *
+     * @param content The content.
+     * @param bom Whether to start the content with a UTF-8 BOM.
+     * @return The chunks.
+     * @throws IOException If the content cannot be written or read.
+     */
+    private Optional<List<FileChunk>> scan(String content, boolean bom) throws IOException {
+        Path file = directory.resolve("content.csv");
+        Files.write(file, ((bom?"\uFEFF":"") + content).getBytes(StandardCharsets.UTF_8));
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            return new RecordBoundaryScanner(',', '"', 1L).scan(channel);
+        }
+    }
+
+}